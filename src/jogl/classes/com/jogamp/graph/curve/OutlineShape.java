@@ -33,6 +33,7 @@ import java.util.Collections;
 import com.jogamp.graph.curve.tess.Triangulation;
 import com.jogamp.graph.curve.tess.Triangulator;
 import com.jogamp.graph.geom.Outline;
+import com.jogamp.graph.geom.PackedOutline;
 import com.jogamp.graph.geom.Triangle;
 import com.jogamp.graph.geom.Vertex;
 import com.jogamp.opengl.math.VectorUtil;
@@ -209,6 +210,18 @@ public class OutlineShape implements Comparable<OutlineShape> {
         }
     }
 
+    /** Appends a copy of the given {@link PackedOutline} via {@link #addOutline(Outline)},
+     * creating its vertices w/ this shape's {@link #vertexFactory()}.
+     * @param outline PackedOutline object to be added
+     * @throws NullPointerException if the  {@link PackedOutline} element is null
+     */
+    public void addOutline(PackedOutline outline) throws NullPointerException {
+        if (null == outline) {
+            throw new NullPointerException("outline is null");
+        }
+        addOutline(outline.toOutline(vertexFactory));
+    }
+
     /** Insert the {@link OutlineShape} elements of type {@link Outline}, .. at the end of this shape,
      * using {@link #addOutline(Outline)} for each element.
      * <p>Closes the current last outline via {@link #closeLastOutline()} before adding the new ones.</p>
@@ -365,10 +378,13 @@ public class OutlineShape implements Comparable<OutlineShape> {
         }
     }
 
-    private void subdivideTriangle(final Outline outline, Vertex a, Vertex b, Vertex c, int index){
-        float[] v1 = VectorUtil.mid(a.getCoord(), b.getCoord());
-        float[] v3 = VectorUtil.mid(b.getCoord(), c.getCoord());
-        float[] v2 = VectorUtil.mid(v1, v3);
+    /**
+     * @param tmp 3 temporary vectors, reused by the caller's loop
+     */
+    private void subdivideTriangle(final Outline outline, Vertex a, Vertex b, Vertex c, int index, final float[][] tmp){
+        float[] v1 = VectorUtil.mid(tmp[0], a.getCoord(), b.getCoord());
+        float[] v3 = VectorUtil.mid(tmp[1], b.getCoord(), c.getCoord());
+        float[] v2 = VectorUtil.mid(tmp[2], v1, v3);
 
         //drop off-curve vertex to image on the curve
         b.setCoord(v2, 0, 3); 
@@ -388,6 +404,7 @@ public class OutlineShape implements Comparable<OutlineShape> {
      */
     private void checkOverlaps() { 
         ArrayList<Vertex> overlaps = new ArrayList<Vertex>(3);
+        final float[][] tmp = new float[3][3];
         int count = getOutlineNumber();
         boolean firstpass = true;
         do {
@@ -411,7 +428,7 @@ public class OutlineShape implements Comparable<OutlineShape> {
                         if(overlaps.contains(currentVertex) || overlap != null) {
                             overlaps.remove(currentVertex);
 
-                            subdivideTriangle(outline, prevV, currentVertex, nextV, i);
+                            subdivideTriangle(outline, prevV, currentVertex, nextV, i, tmp);
                             i+=3;
                             vertexCount+=2;
 
@@ -462,6 +479,7 @@ public class OutlineShape implements Comparable<OutlineShape> {
     }
 
     private void transformOutlines2Quadratic() {
+        final float[] newCoords = new float[3];
         int count = getOutlineNumber();
         for (int cc = 0; cc < count; cc++) {            
             final Outline outline = getOutline(cc);
@@ -471,8 +489,7 @@ public class OutlineShape implements Comparable<OutlineShape> {
                 final Vertex currentVertex = outline.getVertex(i);
                 final Vertex nextVertex = outline.getVertex((i+1)%vertexCount);
                 if ( !currentVertex.isOnCurve() && !nextVertex.isOnCurve() ) {
-                    final float[] newCoords = VectorUtil.mid(currentVertex.getCoord(), 
-                            nextVertex.getCoord());
+                    VectorUtil.mid(newCoords, currentVertex.getCoord(), nextVertex.getCoord());
                     final Vertex v = vertexFactory.create(newCoords, 0, 3, true);
                     i++;
                     vertexCount++;
@@ -519,19 +536,46 @@ public class OutlineShape implements Comparable<OutlineShape> {
         return vertices;
     }
 
+    /** @return packed copies of all {@code Outline}s of this object in their current order and {@link #getOutlineState() state},
+     * e.g. to be triangulated via {@link Triangulation#triangulate(PackedOutline[], PackedOutline)}
+     * after {@link #transformOutlines(VerticesState)}.
+     */
+    public PackedOutline[] getPackedOutlines() {
+        final PackedOutline[] packed = new PackedOutline[outlines.size()];
+        for(int i=0; i<outlines.size(); i++) {
+            packed[i] = new PackedOutline(outlines.get(i));
+        }
+        return packed;
+    }
+
     /**
      * Triangulate the {@link OutlineShape} generating a list of triangles
      * @return an arraylist of triangles representing the filled region
      * which is produced by the combination of the outlines
      */
     public ArrayList<Triangle> triangulate() {
+        return triangulate(Triangulation.create());
+    }
+
+    /**
+     * Triangulate the {@link OutlineShape} generating a list of triangles
+     * using the given triangulator, e.g. created via {@link Triangulation#create(int)}.
+     * The triangulator is reset afterwards and may be reused.
+     * <p>
+     * Sorts the outlines and assigns vertex ids local to this shape, hence distinct shapes
+     * not sharing outlines may be triangulated concurrently w/ distinct triangulators,
+     * see {@link ParallelTriangulator}.
+     * </p>
+     * @return an arraylist of triangles representing the filled region
+     * which is produced by the combination of the outlines
+     */
+    public ArrayList<Triangle> triangulate(Triangulator triangulator2d) {
         if(outlines.size() == 0){
             return null;
         }
         sortOutlines();
         generateVertexIds();
 
-        Triangulator triangulator2d = Triangulation.create();
         for(int index = 0; index<outlines.size(); index++) {
             triangulator2d.addCurve(outlines.get(index));
         }
@@ -0,0 +1,165 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+
+package com.jogamp.graph.curve;
+
+import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import jogamp.opengl.util.ParallelUtil;
+
+import com.jogamp.graph.curve.tess.Triangulation;
+import com.jogamp.graph.curve.tess.Triangulator;
+import com.jogamp.graph.geom.Triangle;
+
+/**
+ * Triangulates a batch of {@link OutlineShape}s concurrently on a pool of worker threads,
+ * e.g. all shapes of a vector map, which otherwise would be triangulated one by one on the GL thread.
+ * <p>
+ * Each shape is transformed to {@link OutlineShape.VerticesState#QUADRATIC_NURBS} and
+ * triangulated w/ its own {@link Triangulator} instance, see {@link Triangulation#create(int)}.
+ * Triangulators hold no shared state and the vertex ids assigned by {@link OutlineShape#triangulate(Triangulator)}
+ * are local to each shape, hence the result equals the serial triangulation regardless of the thread count.
+ * {@link com.jogamp.graph.curve.opengl.GLRegion#create(OutlineShape[], int, ParallelTriangulator)} merges the results in the given order,
+ * assigning the region wide vertex ids.
+ * </p>
+ * <p>
+ * The shapes of one batch must not share {@link com.jogamp.graph.geom.Outline}s or
+ * {@link com.jogamp.graph.geom.Vertex}s, e.g. via {@link OutlineShape#addOutlineShape(OutlineShape)},
+ * and must not be modified while being triangulated.
+ * </p>
+ * <pre>
+    final ParallelTriangulator triangulator = new ParallelTriangulator(0);
+    final GLRegion region = GLRegion.create(shapes, renderModes, triangulator);
+    ..
+    triangulator.shutdown();
+ * </pre>
+ */
+public class ParallelTriangulator {
+    private final ExecutorService executor;
+    private final boolean ownExecutor;
+    private final int parallelism;
+    private volatile int algorithm = Triangulation.CONSTRAINED_DELAUNAY;
+
+    /**
+     * Creates a triangulator w/ its own pool of daemon worker threads.
+     * @param threadCount number of threads triangulating a batch including the calling thread,
+     *                    or 0 for one thread per available processor
+     */
+    public ParallelTriangulator(int threadCount) {
+        this.parallelism = 0 < threadCount ? threadCount : Runtime.getRuntime().availableProcessors();
+        if( 1 < parallelism ) {
+            this.executor = Executors.newFixedThreadPool(parallelism - 1,
+                    ParallelUtil.createDaemonThreadFactory("ParallelTriangulator"));
+        } else {
+            this.executor = null;
+        }
+        this.ownExecutor = true;
+    }
+
+    /**
+     * Creates a triangulator running on the given {@link ExecutorService},
+     * which is not shut down by {@link #shutdown()}.
+     * @param executor the {@link ExecutorService} to triangulate on
+     * @param parallelism number of concurrent tasks per batch including the calling thread,
+     *                    should not exceed the executor's thread count + 1
+     */
+    public ParallelTriangulator(ExecutorService executor, int parallelism) {
+        if( null == executor ) {
+            throw new IllegalArgumentException("Null ExecutorService");
+        }
+        if( 0 >= parallelism ) {
+            throw new IllegalArgumentException("Invalid parallelism "+parallelism);
+        }
+        this.executor = executor;
+        this.ownExecutor = false;
+        this.parallelism = parallelism;
+    }
+
+    /** Returns the {@link ExecutorService} of the worker threads, may be null if {@link #getParallelism()} is 1. */
+    public final ExecutorService getExecutor() { return executor; }
+
+    public final int getParallelism() { return parallelism; }
+
+    /**
+     * Sets the triangulation algorithm used for all shapes, defaults to {@link Triangulation#CONSTRAINED_DELAUNAY}.
+     * @param algorithm see {@link Triangulation#create(int)}
+     * @throws IllegalArgumentException if the algorithm is unknown
+     */
+    public final void setAlgorithm(int algorithm) throws IllegalArgumentException {
+        Triangulation.create(algorithm); // validate
+        this.algorithm = algorithm;
+    }
+
+    public final int getAlgorithm() { return algorithm; }
+
+    /**
+     * Shuts down the worker threads if owned by this triangulator, see {@link #ParallelTriangulator(int)}.
+     */
+    public void shutdown() {
+        if( ownExecutor && null != executor ) {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Triangulates all given shapes concurrently and blocks until all are done.
+     * <p>
+     * Shapes are handed out one by one to {@link #getParallelism()} tasks, one of them running on the calling thread,
+     * so shapes of very different size are balanced across the workers.
+     * </p>
+     * @param shapes the shapes to triangulate, null elements yield a null result
+     * @return the triangles of each shape in the given order, as returned by {@link OutlineShape#triangulate(Triangulator)}
+     * @throws RuntimeException if a triangulation failed or the calling thread was interrupted
+     */
+    public ArrayList<ArrayList<Triangle>> triangulate(final OutlineShape[] shapes) throws RuntimeException {
+        final int count = shapes.length;
+        final ArrayList<ArrayList<Triangle>> results = new ArrayList<ArrayList<Triangle>>(count);
+        for(int i=0; i<count; i++) {
+            results.add(null);
+        }
+        final int alg = algorithm;
+        final Object[] slots = new Object[count];
+        ParallelUtil.invokeAll(executor, parallelism, count, new ParallelUtil.RangeTask() {
+                public int run(int i) {
+                    final OutlineShape shape = shapes[i];
+                    if( null != shape ) {
+                        shape.transformOutlines(OutlineShape.VerticesState.QUADRATIC_NURBS);
+                        slots[i] = shape.triangulate(Triangulation.create(alg));
+                    }
+                    return 0;
+                } }, "triangulating");
+        for(int i=0; i<count; i++) {
+            @SuppressWarnings("unchecked")
+            final ArrayList<Triangle> triangles = (ArrayList<Triangle>) slots[i];
+            results.set(i, triangles);
+        }
+        return results;
+    }
+}
@@ -34,6 +34,7 @@ import javax.media.opengl.GL2ES2;
 import com.jogamp.opengl.util.PMVMatrix;
 
 import com.jogamp.graph.curve.OutlineShape;
+import com.jogamp.graph.curve.ParallelTriangulator;
 import com.jogamp.graph.curve.Region;
 import com.jogamp.graph.geom.Triangle;
 import com.jogamp.graph.geom.Vertex;
@@ -56,15 +57,33 @@ public abstract class GLRegion extends Region {
      * @return the resulting Region inclusive the generated region
      */
     public static GLRegion create(OutlineShape[] outlineShapes, int renderModes) {
+        return create(outlineShapes, renderModes, null);
+    }
+
+    /** Create an ogl {@link GLRegion} defining the list of {@link OutlineShape}.
+     * Combining the Shapes into single buffers.
+     * <p>
+     * The shapes are triangulated concurrently by the given {@link ParallelTriangulator}, if not null,
+     * and merged in the given order, i.e. the region equals the one triangulated serially.
+     * </p>
+     * @param triangulator the {@link ParallelTriangulator} to use, or null to triangulate on the current thread
+     * @return the resulting Region inclusive the generated region
+     */
+    public static GLRegion create(OutlineShape[] outlineShapes, int renderModes, ParallelTriangulator triangulator) {
         final GLRegion region = RegionFactory.create(renderModes);
+        final ArrayList<ArrayList<Triangle>> shapeTriangles = null != triangulator ? triangulator.triangulate(outlineShapes) : null;
         
         int numVertices = region.getNumVertices();
         
         for(int index=0; index<outlineShapes.length; index++) {
             OutlineShape outlineShape = outlineShapes[index];
-            outlineShape.transformOutlines(OutlineShape.VerticesState.QUADRATIC_NURBS);
-    
-            ArrayList<Triangle> triangles = outlineShape.triangulate();
+            final ArrayList<Triangle> triangles;
+            if( null != shapeTriangles ) {
+                triangles = shapeTriangles.get(index);
+            } else {
+                outlineShape.transformOutlines(OutlineShape.VerticesState.QUADRATIC_NURBS);
+                triangles = outlineShape.triangulate();
+            }
             region.addTriangles(triangles);
             
             ArrayList<Vertex> vertices = outlineShape.getVertices();
@@ -27,12 +27,10 @@
  */
 package com.jogamp.graph.curve.opengl;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Iterator;
-
 import javax.media.opengl.GL2ES2;
 
+import jogamp.graph.curve.text.FontStringCache;
+import jogamp.graph.curve.text.GlyphShapeCache;
 import jogamp.graph.curve.text.GlyphString;
 
 import com.jogamp.graph.font.Font;
@@ -49,6 +47,7 @@ public abstract class TextRenderer extends Renderer {
     
     protected TextRenderer(RenderState rs, int type) {
         super(rs, type);
+        stringCache.setLimit(DEFAULT_CACHE_LIMIT);
     }
     
 
@@ -68,6 +67,7 @@ public abstract class TextRenderer extends Renderer {
 
     /**Create the resulting {@link GlyphString} that represents
      * the String wrt to the font.
+     * <p>The string is assembled from the cached triangulated glyphs, see {@link GlyphShapeCache}.</p>
      * @param font {@link Font} to be used
      * @param size font size
      * @param str {@link String} to be created
@@ -77,32 +77,27 @@ public abstract class TextRenderer extends Renderer {
         if(DEBUG_INSTANCE) {
             System.err.println("createString: "+getCacheSize()+"/"+getCacheLimit()+" - "+Font.NAME_UNIQUNAME + " - " + str + " - " + size);
         }
-        final GlyphString glyphString = GlyphString.createString(null, rs.getVertexFactory(), font, size, str);        
+        final GlyphString glyphString = GlyphString.createString(rs.getVertexFactory(), font, size, str, glyphShapeCache);
         glyphString.createRegion(gl, renderModes);        
         return glyphString;
     }
     
     /** FIXME
    public void flushCache(GL2ES2 gl) {
-       Iterator<GlyphString> iterator = stringCacheMap.values().iterator();
-       while(iterator.hasNext()){
-           GlyphString glyphString = iterator.next();
+       GlyphString glyphString;
+       while( null != ( glyphString = stringCache.removeEldest() ) ) {
            glyphString.destroy(gl, rs);
        }
-       stringCacheMap.clear();    
-       stringCacheArray.clear();
    } */
    
    @Override
    protected void destroyImpl(GL2ES2 gl) {
        // fluchCache(gl) already called
-       Iterator<GlyphString> iterator = stringCacheMap.values().iterator();
-       while(iterator.hasNext()){
-           GlyphString glyphString = iterator.next();
+       GlyphString glyphString;
+       while( null != ( glyphString = stringCache.removeEldest() ) ) {
            glyphString.destroy(gl, rs);
        }
-       stringCacheMap.clear();    
-       stringCacheArray.clear();
+       glyphShapeCache.clear();
    }
    
    /**
@@ -115,7 +110,10 @@ public abstract class TextRenderer extends Renderer {
     * 
     * @see #DEFAULT_CACHE_LIMIT
     */
-   public final void setCacheLimit(int newLimit ) { stringCacheLimit = newLimit; }
+   public final void setCacheLimit(int newLimit ) { 
+       stringCacheLimit = newLimit; 
+       stringCache.setLimit( newLimit > 0 ? newLimit : -1 );
+   }
    
    /**
     * Sets the cache limit, see {@link #setCacheLimit(int)} and validates the cache.
@@ -125,7 +123,7 @@ public abstract class TextRenderer extends Renderer {
     * @param gl current GL used to remove cached objects if required
     * @param newLimit new cache size
     */
-   public final void setCacheLimit(GL2ES2 gl, int newLimit ) { stringCacheLimit = newLimit; validateCache(gl, 0); }
+   public final void setCacheLimit(GL2ES2 gl, int newLimit ) { setCacheLimit(newLimit); validateCache(gl, 0); }
    
    /**
     * @return the current cache limit
@@ -135,49 +133,88 @@ public abstract class TextRenderer extends Renderer {
    /** 
     * @return the current utilized cache size, <= {@link #getCacheLimit()}
     */
-   public final int getCacheSize() { return stringCacheArray.size(); }
+   public final int getCacheSize() { return stringCache.size(); }
+   
+   /** 
+    * @return the number of cache lookups which found a cached {@link GlyphString}
+    * @see #resetCacheCounter()
+    */
+   public final long getCacheHitCount() { return stringCache.getHitCount(); }
+   
+   /** 
+    * @return the number of cache lookups which required to create a {@link GlyphString}
+    * @see #resetCacheCounter()
+    */
+   public final long getCacheMissCount() { return stringCache.getMissCount(); }
+   
+   /** 
+    * @return the number of least recently used {@link GlyphString}s removed to stay within {@link #getCacheLimit()}
+    * @see #resetCacheCounter()
+    */
+   public final long getCacheEvictionCount() { return stringCache.getEvictionCount(); }
    
+   /** Resets the cache hit, miss and eviction counter. */
+   public final void resetCacheCounter() { stringCache.resetCounter(); }
+   
+   /**
+    * Evicts the least recently used {@link GlyphString}s until <code>space</code> new ones fit within the cache limit. 
+    */
    protected final void validateCache(GL2ES2 gl, int space) {
        if ( getCacheLimit() > 0 ) {
-           while ( getCacheSize() + space > getCacheLimit() ) {
-               removeCachedGlyphString(gl, 0);
+           stringCacheGL = gl;
+           try {
+               stringCache.trim(getCacheLimit() - space);
+           } finally {
+               stringCacheGL = null;
            }
        }
    }
    
+   /**
+    * @return the cached {@link GlyphString}, which becomes the most recently used one, or <code>null</code>
+    */
    protected final GlyphString getCachedGlyphString(Font font, String str, int fontSize) {
-       return stringCacheMap.get(getKey(font, str, fontSize));
+       return stringCache.get(font, str, fontSize);
    }
 
    protected final void addCachedGlyphString(GL2ES2 gl, Font font, String str, int fontSize, GlyphString glyphString) {
        if ( 0 != getCacheLimit() ) {
-           final String key = getKey(font, str, fontSize);
-           GlyphString oldGlyphString = stringCacheMap.put(key, glyphString);
-           if ( null == oldGlyphString ) {
-               // new entry ..
-               validateCache(gl, 1);
-               stringCacheArray.add(stringCacheArray.size(), key);
-           } /// else overwrite is nop ..
+           // applies a lowered limit, put evicts the eldest string if the new one exceeds the limit
+           validateCache(gl, 0);
+           stringCacheGL = gl;
+           final GlyphString oldGlyphString;
+           try {
+               oldGlyphString = stringCache.put(font, str, fontSize, glyphString);
+           } finally {
+               stringCacheGL = null;
+           }
+           if ( null != oldGlyphString && oldGlyphString != glyphString ) {
+               oldGlyphString.destroy(gl, rs);
+           }
        }
    }
    
    protected final void removeCachedGlyphString(GL2ES2 gl, Font font, String str, int fontSize) {
-       final String key = getKey(font, str, fontSize);
-       GlyphString glyphString = stringCacheMap.remove(key);
+       final GlyphString glyphString = stringCache.remove(font, str, fontSize);
        if(null != glyphString) {
            glyphString.destroy(gl, rs);
        }       
-       stringCacheArray.remove(key);
    }
 
+   /**
+    * Removes the <code>idx</code>-th least recently used {@link GlyphString}.
+    * @deprecated The cache is no longer index based, use {@link #removeCachedGlyphString(GL2ES2, Font, String, int)}
+    */
    protected final void removeCachedGlyphString(GL2ES2 gl, int idx) {
-       final String key = stringCacheArray.remove(idx);
-       final GlyphString glyphString = stringCacheMap.remove(key);
+       final GlyphString glyphString = stringCache.remove(idx);
        if(null != glyphString) {
            glyphString.destroy(gl, rs);
        }
    }
       
+   /**
+    * @deprecated No longer used, the cache is keyed by font identity, font size and string.
+    */
    protected final String getKey(Font font, String str, int fontSize) {
        final StringBuilder sb = new StringBuilder();
        return font.getName(sb, Font.NAME_UNIQUNAME)
@@ -187,7 +224,15 @@ public abstract class TextRenderer extends Renderer {
    /** Default cache limit, see {@link #setCacheLimit(int)} */
    public static final int DEFAULT_CACHE_LIMIT = 256;
    
-   private HashMap<String, GlyphString> stringCacheMap = new HashMap<String, GlyphString>(DEFAULT_CACHE_LIMIT);
-   private ArrayList<String> stringCacheArray = new ArrayList<String>(DEFAULT_CACHE_LIMIT);
+   /** Keyed by font identity, font size and string, in access order */
+   private final FontStringCache<GlyphString> stringCache = new FontStringCache<GlyphString>(DEFAULT_CACHE_LIMIT,
+           new FontStringCache.EvictionListener<GlyphString>() {
+               public void evicted(GlyphString glyphString) {
+                   glyphString.destroy(stringCacheGL, rs);
+               } } );
+   /** GL of the current cache operation, used to destroy evicted strings */
+   private GL2ES2 stringCacheGL = null;
    private int stringCacheLimit = DEFAULT_CACHE_LIMIT;      
+   /** Triangulated glyphs per font, size and symbol, shared by all strings, at most {@link GlyphShapeCache#DEFAULT_LIMIT} */
+   private final GlyphShapeCache glyphShapeCache = new GlyphShapeCache();
 }
\ No newline at end of file
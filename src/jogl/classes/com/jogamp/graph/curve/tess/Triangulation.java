@@ -29,16 +29,65 @@
 package com.jogamp.graph.curve.tess;
 
 import jogamp.graph.curve.tess.CDTriangulator2D;
+import jogamp.graph.curve.tess.EarClipTriangulator2D;
+import jogamp.graph.curve.tess.PackedEarClipTriangulator;
+
+import com.jogamp.graph.geom.PackedOutline;
 
 
 public class Triangulation {
+    /** A modified version of Constraint Delaunay, the default. */
+    public static final int CONSTRAINED_DELAUNAY = 0;
+
+    /**
+     * Ear clipping w/ a grid index of reflex vertices, close to O(n) for typical outlines,
+     * suited for outlines w/ many thousands of vertices.
+     * Produces the same off-curve boundary triangles, but no Delaunay triangulation of the inner polygons.
+     */
+    public static final int EAR_CLIPPING = 1;
+
     /** Create a new instance of a triangulation.
-     *  Currently only a modified version of Constraint Delaunay 
-     *  is implemented.
+     *  Currently a modified version of Constraint Delaunay,
+     *  see {@link #create(int)} for alternatives.
      * @return instance of a triangulator
      * @see Triangulator
      */
     public static Triangulator create() {
-        return new CDTriangulator2D();
+        return create(CONSTRAINED_DELAUNAY);
+    }
+
+    /** Create a new instance of the given triangulation algorithm.
+     * @param algorithm {@link #CONSTRAINED_DELAUNAY} or {@link #EAR_CLIPPING}
+     * @return instance of a triangulator
+     * @throws IllegalArgumentException if the algorithm is unknown
+     * @see Triangulator
+     */
+    public static Triangulator create(int algorithm) throws IllegalArgumentException {
+        switch(algorithm) {
+            case CONSTRAINED_DELAUNAY:
+                return new CDTriangulator2D();
+            case EAR_CLIPPING:
+                return new EarClipTriangulator2D();
+            default:
+                throw new IllegalArgumentException("Unknown triangulation algorithm "+algorithm);
+        }
+    }
+
+    /** Ear clipping triangulation of the given {@link PackedOutline}s, see {@link #EAR_CLIPPING},
+     *  w/o creating any {@link com.jogamp.graph.geom.Vertex} or {@link com.jogamp.graph.geom.Triangle} objects.
+     *  <p>
+     *  Produces the same triangles in the same order as {@link com.jogamp.graph.curve.OutlineShape#triangulate(Triangulator)}
+     *  w/ {@link #EAR_CLIPPING} for outlines of the same vertices,
+     *  hence the outlines shall be closed and {@link com.jogamp.graph.curve.OutlineShape.VerticesState#QUADRATIC_NURBS quadratic},
+     *  e.g. via {@link com.jogamp.graph.curve.OutlineShape#getPackedOutlines()} after
+     *  {@link com.jogamp.graph.curve.OutlineShape#transformOutlines(com.jogamp.graph.curve.OutlineShape.VerticesState) transformOutlines(..)}.
+     *  </p>
+     * @param outlines the outlines, not modified
+     * @param vertices receives all outline vertices in order, followed by the vertices of the off-curve boundary triangles
+     *        w/ their texture coordinates, must not be one of the <code>outlines</code>
+     * @return triangle indices into <code>vertices</code>, 3 per triangle, counter clockwise
+     */
+    public static int[] triangulate(PackedOutline[] outlines, PackedOutline vertices) {
+        return new PackedEarClipTriangulator().triangulate(outlines, vertices);
     }
 }
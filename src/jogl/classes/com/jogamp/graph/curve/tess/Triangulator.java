@@ -44,6 +44,9 @@ import com.jogamp.graph.geom.Triangle;
  *      generate();
  *      reset();
  *      
+ *  Instances are not thread safe, but hold no shared state,
+ *  i.e. distinct instances may triangulate concurrently.
+ *      
  * @see Outline
  * @see Triangulation
  */
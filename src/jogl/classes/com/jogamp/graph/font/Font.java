@@ -98,6 +98,26 @@ public interface Font {
     public StringBuilder getAllNames(StringBuilder string, String separator);
     
     public float getAdvanceWidth(int i, float pixelSize);
+
+    /**
+     * Returns the glyph id of the given symbol as used by {@link #getGlyph(char)},
+     * w/o creating the {@link Glyph}.
+     */
+    public int getGlyphID(char symbol);
+
+    /**
+     * Returns the advance of the glyph w/ the given id, same as {@link Glyph#getAdvance(float, boolean)},
+     * looked up in a glyph id indexed table w/o creating the {@link Glyph} or any other object.
+     * @see #getGlyphID(char)
+     */
+    public float getAdvance(int glyphID, float pixelSize, boolean useFrationalMetrics);
+
+    /**
+     * Returns the horizontal kerning adjustment of the given glyph pair,
+     * to be added to the advance of the left glyph, or 0 if the font has no such kerning pair.
+     * @see #getGlyphID(char)
+     */
+    public float getKerning(int leftGlyphID, int rightGlyphID, float pixelSize);
     public Metrics getMetrics();
     public Glyph getGlyph(char symbol);
     public int getNumGlyphs();
@@ -0,0 +1,254 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.graph.geom;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import com.jogamp.opengl.math.geom.AABBox;
+
+/**
+ * A structure of arrays {@link Outline}, storing its vertices in packed primitive arrays
+ * instead of one {@link Vertex} object per vertex:
+ * <ul>
+ *   <li>3 floats per vertex for the xyz-coordinates, see {@link #getCoords()}</li>
+ *   <li>2 floats per vertex for the texture coordinates, see {@link #getTexCoords()}</li>
+ *   <li>one bit per vertex for the on-curve flag</li>
+ * </ul>
+ * This takes about 20 bytes per vertex, several times less than an {@link Outline}
+ * of {@link Vertex} objects w/ their coordinate arrays, and the coordinates can be processed
+ * in bulk, e.g. the bounding box or the triangulation via
+ * {@link com.jogamp.graph.curve.tess.Triangulation#triangulate(PackedOutline[], PackedOutline)}.
+ * <p>
+ * Vertices are addressed by index, the closing semantics are the same as {@link Outline#setClosed(boolean)}.
+ * </p>
+ * @see Outline
+ * @see com.jogamp.graph.curve.OutlineShape#getPackedOutlines()
+ */
+public class PackedOutline implements Comparable<PackedOutline> {
+
+    private float[] coords;
+    private float[] texCoords;
+    private long[] onCurve;
+    private int count = 0;
+    private boolean closed = false;
+    private final AABBox bbox = new AABBox();
+    private boolean dirtyBBox = false;
+
+    /** Create an empty outline. */
+    public PackedOutline() {
+        this(16);
+    }
+
+    /** Create an empty outline w/ room for <code>capacity</code> vertices. */
+    public PackedOutline(int capacity) {
+        capacity = Math.max(1, capacity);
+        coords = new float[3*capacity];
+        texCoords = new float[2*capacity];
+        onCurve = new long[(capacity+63)>>>6];
+    }
+
+    /** Create a packed copy of the given outline. */
+    public PackedOutline(Outline outline) {
+        this(outline.getVertexCount());
+        final ArrayList<Vertex> vertices = outline.getVertices();
+        for(int i=0; i<vertices.size(); i++) {
+            final Vertex v = vertices.get(i);
+            final int idx = addVertex(v.getX(), v.getY(), v.getZ(), v.isOnCurve());
+            final float[] st = v.getTexCoord();
+            texCoords[2*idx] = st[0];
+            texCoords[2*idx+1] = st[1];
+        }
+        closed = outline.isClosed();
+    }
+
+    public final int getVertexCount() {
+        return count;
+    }
+
+    public final boolean isEmpty() {
+        return 0 == count;
+    }
+
+    /** Removes all vertices and opens this outline, keeping the allocated storage. */
+    public final void clear() {
+        count = 0;
+        closed = false;
+        Arrays.fill(onCurve, 0L);
+        bbox.reset();
+        dirtyBBox = false;
+    }
+
+    /** Ensures room for <code>capacity</code> vertices. */
+    public final void ensureCapacity(int capacity) {
+        if( 3*capacity > coords.length ) {
+            capacity = Math.max(capacity, 2*coords.length/3);
+            coords = Arrays.copyOf(coords, 3*capacity);
+            texCoords = Arrays.copyOf(texCoords, 2*capacity);
+            onCurve = Arrays.copyOf(onCurve, (capacity+63)>>>6);
+        }
+    }
+
+    /** Appends a vertex w/ texture coordinates 0/0 to the outline loop/strip.
+     * @return the index of the new vertex
+     */
+    public final int addVertex(float x, float y, float z, boolean onCurve) {
+        ensureCapacity(count+1);
+        final int idx = count++;
+        setVertex(idx, x, y, z, onCurve);
+        texCoords[2*idx] = 0f;
+        texCoords[2*idx+1] = 0f;
+        return idx;
+    }
+
+    /** Replaces the coordinates and the on-curve flag of the vertex at the given index.
+     * <p>Sets the bounding box dirty, hence a next call to {@link #getBounds()} will validate it.</p>
+     * @throws IndexOutOfBoundsException if index is out of range (index < 0 || index >= getVertexCount())
+     */
+    public final void setVertex(int index, float x, float y, float z, boolean onCurve) throws IndexOutOfBoundsException {
+        checkIndex(index);
+        coords[3*index] = x;
+        coords[3*index+1] = y;
+        coords[3*index+2] = z;
+        if( onCurve ) {
+            this.onCurve[index>>>6] |= 1L << index;
+        } else {
+            this.onCurve[index>>>6] &= ~( 1L << index );
+        }
+        dirtyBBox = true;
+    }
+
+    /** Sets the texture coordinates of the vertex at the given index.
+     * @throws IndexOutOfBoundsException if index is out of range (index < 0 || index >= getVertexCount())
+     */
+    public final void setTexCoord(int index, float s, float t) throws IndexOutOfBoundsException {
+        checkIndex(index);
+        texCoords[2*index] = s;
+        texCoords[2*index+1] = t;
+    }
+
+    public final float getX(int index) { return coords[3*index]; }
+
+    public final float getY(int index) { return coords[3*index+1]; }
+
+    public final float getZ(int index) { return coords[3*index+2]; }
+
+    public final float getTexCoordS(int index) { return texCoords[2*index]; }
+
+    public final float getTexCoordT(int index) { return texCoords[2*index+1]; }
+
+    public final boolean isOnCurve(int index) {
+        return 0 != ( onCurve[index>>>6] & ( 1L << index ) );
+    }
+
+    /**
+     * Returns the backing xyz-coordinate array, 3 floats per vertex,
+     * valid for <code>3*</code>{@link #getVertexCount()} elements.
+     * <p>The array may be replaced when adding vertices.</p>
+     */
+    public final float[] getCoords() {
+        return coords;
+    }
+
+    /**
+     * Returns the backing texture coordinate array, 2 floats per vertex,
+     * valid for <code>2*</code>{@link #getVertexCount()} elements.
+     * <p>The array may be replaced when adding vertices.</p>
+     */
+    public final float[] getTexCoords() {
+        return texCoords;
+    }
+
+    public final boolean isClosed() {
+        return closed;
+    }
+
+    /** define if this outline is closed or not.
+     * if set to closed, checks if the last vertex is
+     * equal to the first vertex. If not Equal adds a
+     * copy of the first vertex at the end.
+     * @param closed
+     * @see Outline#setClosed(boolean)
+     */
+    public final void setClosed(boolean closed) {
+        this.closed = closed;
+        if( closed && !isEmpty() ) {
+            final int last = count - 1;
+            if( coords[0] != coords[3*last] || coords[1] != coords[3*last+1] || coords[2] != coords[3*last+2] ) {
+                final int idx = addVertex(coords[0], coords[1], coords[2], isOnCurve(0));
+                texCoords[2*idx] = texCoords[0];
+                texCoords[2*idx+1] = texCoords[1];
+            }
+        }
+    }
+
+    public final AABBox getBounds() {
+        if (dirtyBBox) {
+            dirtyBBox = false;
+            bbox.reset();
+            bbox.resize(coords, 0, count);
+        }
+        return bbox;
+    }
+
+    /** Compare two outlines with Bounding Box area
+     * as criteria.
+     * @see java.lang.Comparable#compareTo(java.lang.Object)
+     */
+    public final int compareTo(PackedOutline outline) {
+        float size = getBounds().getSize();
+        float newSize = outline.getBounds().getSize();
+        if(size < newSize){
+            return -1;
+        }
+        else if(size > newSize){
+            return 1;
+        }
+        return 0;
+    }
+
+    /**
+     * @return a new {@link Outline} w/ all vertices of this outline created by the given factory
+     */
+    public final Outline toOutline(Vertex.Factory<? extends Vertex> factory) {
+        final Outline outline = new Outline();
+        for(int i=0; i<count; i++) {
+            final Vertex v = factory.create(coords[3*i], coords[3*i+1], coords[3*i+2], isOnCurve(i));
+            v.setTexCoord(texCoords[2*i], texCoords[2*i+1]);
+            outline.addVertex(v);
+        }
+        outline.setClosed(closed);
+        return outline;
+    }
+
+    private final void checkIndex(int index) throws IndexOutOfBoundsException {
+        if( 0 > index || index >= count ) {
+            throw new IndexOutOfBoundsException("Index "+index+", vertex count "+count);
+        }
+    }
+}
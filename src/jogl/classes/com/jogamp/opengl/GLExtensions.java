@@ -69,6 +69,7 @@ public class GLExtensions {
   public static final String NV_texture_compression_vtc      = "GL_NV_texture_compression_vtc";
   public static final String SGIS_generate_mipmap            = "GL_SGIS_generate_mipmap";
   public static final String OES_read_format                 = "GL_OES_read_format";
+  public static final String ARB_pixel_buffer_object         = "GL_ARB_pixel_buffer_object";
   
   public static final String OES_EGL_image_external          = "GL_OES_EGL_image_external";
   
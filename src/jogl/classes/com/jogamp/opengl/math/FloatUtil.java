@@ -344,6 +344,193 @@ public class FloatUtil {
     }
   }
 
+  /**
+   * Number of vectors or matrices copied in bulk per step by the batched {@link FloatBuffer} kernels,
+   * i.e. the size of their temporary array.
+   */
+  private static final int BATCH_CHUNK = 256;
+
+  /**
+   * Batched {@link #multMatrixVecf(float[], int, float[], int, float[], int)},
+   * transforming <code>count</code> packed 4-component column-vectors w/ the same matrix.
+   * <p>
+   * The matrix is loaded once and each vector is read completely before its result is written,
+   * hence <code>v_out</code> may be <code>v_in</code> at the same offset for an in-place transformation.
+   * </p>
+   * @param m_in 4x4 matrix in column-major order
+   * @param v_in <code>count</code> packed 4-component column-vectors
+   * @param v_out <code>count</code> packed results m_in * v_in
+   * @param count number of vectors
+   */
+  public static final void multMatrixVecf(final float[] m_in, int m_in_off, final float[] v_in, int v_in_off, float[] v_out, int v_out_off, int count) {
+    final float m00=m_in[m_in_off+0*4+0], m01=m_in[m_in_off+1*4+0], m02=m_in[m_in_off+2*4+0], m03=m_in[m_in_off+3*4+0];
+    final float m10=m_in[m_in_off+0*4+1], m11=m_in[m_in_off+1*4+1], m12=m_in[m_in_off+2*4+1], m13=m_in[m_in_off+3*4+1];
+    final float m20=m_in[m_in_off+0*4+2], m21=m_in[m_in_off+1*4+2], m22=m_in[m_in_off+2*4+2], m23=m_in[m_in_off+3*4+2];
+    final float m30=m_in[m_in_off+0*4+3], m31=m_in[m_in_off+1*4+3], m32=m_in[m_in_off+2*4+3], m33=m_in[m_in_off+3*4+3];
+    for (int i = 0; i < count; i++) {
+      final int s = v_in_off + 4*i, d = v_out_off + 4*i;
+      final float x=v_in[s], y=v_in[s+1], z=v_in[s+2], w=v_in[s+3];
+      v_out[d  ] = m00 * x + m01 * y + m02 * z + m03 * w;
+      v_out[d+1] = m10 * x + m11 * y + m12 * z + m13 * w;
+      v_out[d+2] = m20 * x + m21 * y + m22 * z + m23 * w;
+      v_out[d+3] = m30 * x + m31 * y + m32 * z + m33 * w;
+    }
+  }
+
+  /**
+   * Batched {@link #multMatrixVecf(FloatBuffer, FloatBuffer, FloatBuffer)},
+   * transforming <code>count</code> packed 4-component column-vectors w/ the same matrix.
+   * <p>
+   * Buffers are addressed relative to their position, which is left unchanged.
+   * Buffers w/o an accessible backing array, e.g. direct ones, are copied in bulk
+   * chunks of vectors to a temporary array, instead of reading each element.
+   * </p>
+   * @param m_in 4x4 matrix in column-major order
+   * @param v_in <code>count</code> packed 4-component column-vectors
+   * @param v_out <code>count</code> packed results m_in * v_in, may be <code>v_in</code>
+   * @param count number of vectors
+   * @see #multMatrixVecf(float[], int, float[], int, float[], int, int)
+   */
+  public static final void multMatrixVecf(FloatBuffer m_in, FloatBuffer v_in, FloatBuffer v_out, int count) {
+    multMatrixVecfBatch(getMatrix(m_in), v_in, v_out, 4, count);
+  }
+
+  /**
+   * Batched transformation of <code>count</code> packed 3-component points w/ an implicit w of 1,
+   * storing the xyz-components of m_in * (x, y, z, 1) w/o a perspective division,
+   * e.g. to transform {@link com.jogamp.opengl.math.geom.AABBox} or outline coordinates.
+   * <p>
+   * The matrix is loaded once and each point is read completely before its result is written,
+   * hence <code>v_out</code> may be <code>v_in</code> at the same offset for an in-place transformation.
+   * </p>
+   * @param m_in 4x4 matrix in column-major order
+   * @param v_in <code>count</code> packed 3-component points
+   * @param v_out <code>count</code> packed 3-component results
+   * @param count number of points
+   */
+  public static final void multMatrixVec3f(final float[] m_in, int m_in_off, final float[] v_in, int v_in_off, float[] v_out, int v_out_off, int count) {
+    final float m00=m_in[m_in_off+0*4+0], m01=m_in[m_in_off+1*4+0], m02=m_in[m_in_off+2*4+0], m03=m_in[m_in_off+3*4+0];
+    final float m10=m_in[m_in_off+0*4+1], m11=m_in[m_in_off+1*4+1], m12=m_in[m_in_off+2*4+1], m13=m_in[m_in_off+3*4+1];
+    final float m20=m_in[m_in_off+0*4+2], m21=m_in[m_in_off+1*4+2], m22=m_in[m_in_off+2*4+2], m23=m_in[m_in_off+3*4+2];
+    for (int i = 0; i < count; i++) {
+      final int s = v_in_off + 3*i, d = v_out_off + 3*i;
+      final float x=v_in[s], y=v_in[s+1], z=v_in[s+2];
+      v_out[d  ] = m00 * x + m01 * y + m02 * z + m03;
+      v_out[d+1] = m10 * x + m11 * y + m12 * z + m13;
+      v_out[d+2] = m20 * x + m21 * y + m22 * z + m23;
+    }
+  }
+
+  /**
+   * Batched transformation of <code>count</code> packed 3-component points w/ an implicit w of 1,
+   * see {@link #multMatrixVec3f(float[], int, float[], int, float[], int, int)}.
+   * <p>
+   * Buffers are addressed relative to their position, which is left unchanged.
+   * Buffers w/o an accessible backing array, e.g. direct ones, are copied in bulk
+   * chunks of points to a temporary array, instead of reading each element.
+   * </p>
+   * @param m_in 4x4 matrix in column-major order
+   * @param v_in <code>count</code> packed 3-component points
+   * @param v_out <code>count</code> packed 3-component results, may be <code>v_in</code>
+   * @param count number of points
+   */
+  public static final void multMatrixVec3f(FloatBuffer m_in, FloatBuffer v_in, FloatBuffer v_out, int count) {
+    multMatrixVecfBatch(getMatrix(m_in), v_in, v_out, 3, count);
+  }
+
+  /**
+   * Batched {@link #multMatrixf(float[], int, float[], int, float[], int)},
+   * multiplying one matrix w/ <code>count</code> packed matrices, e.g. a view matrix w/ the model matrices
+   * of many objects or a parent transform w/ a bone palette.
+   * <p>
+   * <code>a</code> is loaded once and each matrix of <code>b</code> is read completely before its result is written,
+   * hence <code>d</code> may be <code>b</code> at the same offset for an in-place multiplication.
+   * </p>
+   * @param a 4x4 matrix in column-major order
+   * @param b <code>count</code> packed 4x4 matrices in column-major order
+   * @param d <code>count</code> packed results a*b[i] in column-major order
+   * @param count number of matrices
+   */
+  public static final void multMatrixf(final float[] a, int a_off, final float[] b, int b_off, float[] d, int d_off, int count) {
+    final float a00=a[a_off+0*4+0], a01=a[a_off+1*4+0], a02=a[a_off+2*4+0], a03=a[a_off+3*4+0];
+    final float a10=a[a_off+0*4+1], a11=a[a_off+1*4+1], a12=a[a_off+2*4+1], a13=a[a_off+3*4+1];
+    final float a20=a[a_off+0*4+2], a21=a[a_off+1*4+2], a22=a[a_off+2*4+2], a23=a[a_off+3*4+2];
+    final float a30=a[a_off+0*4+3], a31=a[a_off+1*4+3], a32=a[a_off+2*4+3], a33=a[a_off+3*4+3];
+    final int end = 4*count;
+    // each column of b[i] is a column-vector transformed by a
+    for (int c = 0; c < end; c++) {
+      final int s = b_off + 4*c, t = d_off + 4*c;
+      final float x=b[s], y=b[s+1], z=b[s+2], w=b[s+3];
+      d[t  ] = a00 * x + a01 * y + a02 * z + a03 * w;
+      d[t+1] = a10 * x + a11 * y + a12 * z + a13 * w;
+      d[t+2] = a20 * x + a21 * y + a22 * z + a23 * w;
+      d[t+3] = a30 * x + a31 * y + a32 * z + a33 * w;
+    }
+  }
+
+  /**
+   * Batched {@link #multMatrixf(FloatBuffer, FloatBuffer, FloatBuffer)},
+   * multiplying one matrix w/ <code>count</code> packed matrices,
+   * see {@link #multMatrixf(float[], int, float[], int, float[], int, int)}.
+   * <p>
+   * Buffers are addressed relative to their position, which is left unchanged.
+   * Buffers w/o an accessible backing array, e.g. direct ones, are copied in bulk
+   * chunks of matrices to a temporary array, instead of reading each element.
+   * </p>
+   * @param a 4x4 matrix in column-major order
+   * @param b <code>count</code> packed 4x4 matrices in column-major order
+   * @param d <code>count</code> packed results a*b[i] in column-major order, may be <code>b</code>
+   * @param count number of matrices
+   */
+  public static final void multMatrixf(FloatBuffer a, FloatBuffer b, FloatBuffer d, int count) {
+    // a*b[i] equals a times the 4 columns of b[i]
+    multMatrixVecfBatch(getMatrix(a), b, d, 4, 4*count);
+  }
+
+  private static final float[] getMatrix(FloatBuffer m) {
+    final int mP = m.position();
+    final float[] r = new float[16];
+    for (int i = 0; i < 16; i++) {
+      r[i] = m.get(mP+i);
+    }
+    return r;
+  }
+
+  /** Transforms <code>count</code> 4- or 3-component vectors of the buffers by <code>m</code>. */
+  private static final void multMatrixVecfBatch(final float[] m, FloatBuffer v_in, FloatBuffer v_out, int comps, int count) {
+    if( v_in.hasArray() && v_out.hasArray() ) {
+      final int inOff = v_in.arrayOffset() + v_in.position();
+      final int outOff = v_out.arrayOffset() + v_out.position();
+      if( 4 == comps ) {
+        multMatrixVecf(m, 0, v_in.array(), inOff, v_out.array(), outOff, count);
+      } else {
+        multMatrixVec3f(m, 0, v_in.array(), inOff, v_out.array(), outOff, count);
+      }
+      return;
+    }
+    final int inPos = v_in.position();
+    final int outPos = v_out.position();
+    final float[] tmp = new float[comps * Math.min(count, BATCH_CHUNK)];
+    try {
+      for (int done = 0; done < count; ) {
+        final int n = Math.min(count - done, BATCH_CHUNK);
+        v_in.position(inPos + comps*done);
+        v_in.get(tmp, 0, comps*n);
+        if( 4 == comps ) {
+          multMatrixVecf(m, 0, tmp, 0, tmp, 0, n);
+        } else {
+          multMatrixVec3f(m, 0, tmp, 0, tmp, 0, n);
+        }
+        v_out.position(outPos + comps*done);
+        v_out.put(tmp, 0, comps*n);
+        done += n;
+      }
+    } finally {
+      v_in.position(inPos);
+      v_out.position(outPos);
+    }
+  }
+
   /** 
    * @param sb optional passed StringBuilder instance to be used
    * @param f the format string of one floating point, i.e. "%10.5f", see {@link java.util.Formatter}
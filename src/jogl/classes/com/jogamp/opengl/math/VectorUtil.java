@@ -29,6 +29,15 @@ package com.jogamp.opengl.math;
 
 import java.util.ArrayList;
 
+/**
+ * Basic 3-component vector utility functions on <code>float[]</code>.
+ * <p>
+ * Methods returning a vector come in two flavors: one allocating and returning a new <code>float[3]</code>,
+ * and one writing into a caller provided <code>result</code> array, which is also returned.
+ * The latter allow allocation free hot loops, where <code>result</code> may be reused.
+ * Unless noted otherwise, <code>result</code> may be one of the input vectors.
+ * </p>
+ */
 public class VectorUtil {
 
     public enum Winding {
@@ -58,16 +67,30 @@ public class VectorUtil {
      */
     public static float[] normalize(float[] vector)
     {
-        final float[] newVector = new float[3];
+        return normalize(new float[3], vector);
+    }
 
+    /** Normalize a vector
+     * @param result the normalized vector, or the zero vector if the length of <code>vector</code> is zero
+     * @param vector input vector
+     * @return result
+     */
+    public static float[] normalize(float[] result, float[] vector)
+    {
         final float d = FloatUtil.sqrt(vector[0]*vector[0] + vector[1]*vector[1] + vector[2]*vector[2]);
         if(d> 0.0f)
         {
-            newVector[0] = vector[0]/d;
-            newVector[1] = vector[1]/d;
-            newVector[2] = vector[2]/d;
+            result[0] = vector[0]/d;
+            result[1] = vector[1]/d;
+            result[2] = vector[2]/d;
+        }
+        else
+        {
+            result[0] = 0f;
+            result[1] = 0f;
+            result[2] = 0f;
         }
-        return newVector;
+        return result;
     }
 
     /** Scales a vector by param
@@ -77,12 +100,21 @@ public class VectorUtil {
      */
     public static float[] scale(float[] vector, float scale)
     {
-        final float[] newVector = new float[3];
+        return scale(new float[3], vector, scale);
+    }
 
-        newVector[0] = vector[0]*scale;
-        newVector[1] = vector[1]*scale;
-        newVector[2] = vector[2]*scale;
-        return newVector;
+    /** Scales a vector by param
+     * @param result the scaled vector
+     * @param vector input vector
+     * @param scale constant to scale by
+     * @return result
+     */
+    public static float[] scale(float[] result, float[] vector, float scale)
+    {
+        result[0] = vector[0]*scale;
+        result[1] = vector[1]*scale;
+        result[2] = vector[2]*scale;
+        return result;
     }
 
     /** Adds to vectors
@@ -92,12 +124,21 @@ public class VectorUtil {
      */
     public static float[] vectorAdd(float[] v1, float[] v2)
     {
-        final float[] newVector = new float[3];
+        return vectorAdd(new float[3], v1, v2);
+    }
 
-        newVector[0] = v1[0] + v2[0];
-        newVector[1] = v1[1] + v2[1];
-        newVector[2] = v1[2] + v2[2];
-        return newVector;
+    /** Adds to vectors
+     * @param result v1 + v2
+     * @param v1 vector 1
+     * @param v2 vector 2
+     * @return result
+     */
+    public static float[] vectorAdd(float[] result, float[] v1, float[] v2)
+    {
+        result[0] = v1[0] + v2[0];
+        result[1] = v1[1] + v2[1];
+        result[2] = v1[2] + v2[2];
+        return result;
     }
 
     /** cross product vec1 x vec2
@@ -107,13 +148,24 @@ public class VectorUtil {
      */
     public static float[] cross(float[] vec1, float[] vec2)
     {
-        final float[] out = new float[3];
-
-        out[0] = vec2[2]*vec1[1] - vec2[1]*vec1[2];
-        out[1] = vec2[0]*vec1[2] - vec2[2]*vec1[0];
-        out[2] = vec2[1]*vec1[0] - vec2[0]*vec1[1];
+        return cross(new float[3], vec1, vec2);
+    }
 
-        return out;
+    /** cross product vec1 x vec2
+     * @param result the resulting vector
+     * @param vec1 vector 1
+     * @param vec2 vecttor 2
+     * @return result
+     */
+    public static float[] cross(float[] result, float[] vec1, float[] vec2)
+    {
+        final float x = vec2[2]*vec1[1] - vec2[1]*vec1[2];
+        final float y = vec2[0]*vec1[2] - vec2[2]*vec1[0];
+        final float z = vec2[1]*vec1[0] - vec2[0]*vec1[1];
+        result[0] = x;
+        result[1] = y;
+        result[2] = z;
+        return result;
     }
 
     /** Column Matrix Vector multiplication
@@ -123,13 +175,25 @@ public class VectorUtil {
      */
     public static float[] colMatrixVectorMult(float[] colMatrix, float[] vec)
     {
-        final float[] out = new float[3];
-
-        out[0] = vec[0]*colMatrix[0] + vec[1]*colMatrix[4] + vec[2]*colMatrix[8] + colMatrix[12]; 
-        out[1] = vec[0]*colMatrix[1] + vec[1]*colMatrix[5] + vec[2]*colMatrix[9] + colMatrix[13]; 
-        out[2] = vec[0]*colMatrix[2] + vec[1]*colMatrix[6] + vec[2]*colMatrix[10] + colMatrix[14]; 
+        return colMatrixVectorMult(new float[3], colMatrix, vec);
+    }
 
-        return out;
+    /** Column Matrix Vector multiplication
+     * @param result the resulting vector(x,y,z)
+     * @param colMatrix column matrix (4x4)
+     * @param vec vector(x,y,z)
+     * @return result
+     * @see FloatUtil#multMatrixVec3f(float[], int, float[], int, float[], int, int)
+     */
+    public static float[] colMatrixVectorMult(float[] result, float[] colMatrix, float[] vec)
+    {
+        final float x = vec[0]*colMatrix[0] + vec[1]*colMatrix[4] + vec[2]*colMatrix[8] + colMatrix[12];
+        final float y = vec[0]*colMatrix[1] + vec[1]*colMatrix[5] + vec[2]*colMatrix[9] + colMatrix[13];
+        final float z = vec[0]*colMatrix[2] + vec[1]*colMatrix[6] + vec[2]*colMatrix[10] + colMatrix[14];
+        result[0] = x;
+        result[1] = y;
+        result[2] = z;
+        return result;
     }
 
     /** Matrix Vector multiplication
@@ -139,13 +203,24 @@ public class VectorUtil {
      */
     public static float[] rowMatrixVectorMult(float[] rawMatrix, float[] vec)
     {
-        final float[] out = new float[3];
-
-        out[0] = vec[0]*rawMatrix[0] + vec[1]*rawMatrix[1] + vec[2]*rawMatrix[2] + rawMatrix[3]; 
-        out[1] = vec[0]*rawMatrix[4] + vec[1]*rawMatrix[5] + vec[2]*rawMatrix[6] + rawMatrix[7]; 
-        out[2] = vec[0]*rawMatrix[8] + vec[1]*rawMatrix[9] + vec[2]*rawMatrix[10] + rawMatrix[11]; 
+        return rowMatrixVectorMult(new float[3], rawMatrix, vec);
+    }
 
-        return out;
+    /** Matrix Vector multiplication
+     * @param result the resulting vector(x,y,z)
+     * @param rawMatrix column matrix (4x4)
+     * @param vec vector(x,y,z)
+     * @return result
+     */
+    public static float[] rowMatrixVectorMult(float[] result, float[] rawMatrix, float[] vec)
+    {
+        final float x = vec[0]*rawMatrix[0] + vec[1]*rawMatrix[1] + vec[2]*rawMatrix[2] + rawMatrix[3];
+        final float y = vec[0]*rawMatrix[4] + vec[1]*rawMatrix[5] + vec[2]*rawMatrix[6] + rawMatrix[7];
+        final float z = vec[0]*rawMatrix[8] + vec[1]*rawMatrix[9] + vec[2]*rawMatrix[10] + rawMatrix[11];
+        result[0] = x;
+        result[1] = y;
+        result[2] = z;
+        return result;
     }
 
     /** Calculate the midpoint of two values
@@ -165,12 +240,21 @@ public class VectorUtil {
      */
     public static float[] mid(float[] p1, float[] p2)
     {
-        final float[] midPoint = new float[3];
-        midPoint[0] = (p1[0] + p2[0])*0.5f;
-        midPoint[1] = (p1[1] + p2[1])*0.5f;
-        midPoint[2] = (p1[2] + p2[2])*0.5f;
+        return mid(new float[3], p1, p2);
+    }
 
-        return midPoint;
+    /** Calculate the midpoint of two points
+     * @param result the midpoint
+     * @param p1 first point
+     * @param p2 second point
+     * @return result
+     */
+    public static float[] mid(float[] result, float[] p1, float[] p2)
+    {
+        result[0] = (p1[0] + p2[0])*0.5f;
+        result[1] = (p1[1] + p2[1])*0.5f;
+        result[2] = (p1[2] + p2[2])*0.5f;
+        return result;
     }
     
     /** Compute the norm of a vector
@@ -249,11 +333,21 @@ public class VectorUtil {
      */
     public static float[] computeVector(float[] v1, float[] v2)
     {
-        final float[] vector = new float[3];
-        vector[0] = v2[0] - v1[0];
-        vector[1] = v2[1] - v1[1];
-        vector[2] = v2[2] - v1[2];
-        return vector;
+        return computeVector(new float[3], v1, v2);
+    }
+
+    /** Compute Vector
+     * @param result Vector V1V2
+     * @param v1 vertex 1
+     * @param v2 vertex2 2
+     * @return result
+     */
+    public static float[] computeVector(float[] result, float[] v1, float[] v2)
+    {
+        result[0] = v2[0] - v1[0];
+        result[1] = v2[1] - v1[1];
+        result[2] = v2[2] - v1[2];
+        return result;
     }
 
     /** Check if vertices in triangle circumcircle
@@ -291,17 +385,17 @@ public class VectorUtil {
      * @return true if p is in triangle (a, b, c), false otherwise.
      */
     public static boolean vertexInTriangle(float[] a, float[]  b, float[]  c, float[]  p){
-        // Compute vectors        
-        float[] ac = computeVector(a, c); //v0
-        float[] ab = computeVector(a, b); //v1
-        float[] ap = computeVector(a, p); //v2
+        // Compute vectors
+        final float ac0 = c[0] - a[0], ac1 = c[1] - a[1], ac2 = c[2] - a[2]; //v0
+        final float ab0 = b[0] - a[0], ab1 = b[1] - a[1], ab2 = b[2] - a[2]; //v1
+        final float ap0 = p[0] - a[0], ap1 = p[1] - a[1], ap2 = p[2] - a[2]; //v2
 
         // Compute dot products
-        float dot00 = dot(ac, ac);
-        float dot01 = dot(ac, ab);
-        float dot02 = dot(ac, ap);
-        float dot11 = dot(ab, ab);
-        float dot12 = dot(ab, ap);
+        float dot00 = ac0*ac0 + ac1*ac1 + ac2*ac2;
+        float dot01 = ac0*ab0 + ac1*ab1 + ac2*ab2;
+        float dot02 = ac0*ap0 + ac1*ap1 + ac2*ap2;
+        float dot11 = ab0*ab0 + ab1*ab1 + ab2*ab2;
+        float dot12 = ab0*ap0 + ab1*ap1 + ab2*ap2;
 
         // Compute barycentric coordinates
         float invDenom = 1 / (dot00 * dot11 - dot01 * dot01);
@@ -366,22 +460,56 @@ public class VectorUtil {
      * returns null 
      */
     public static float[] seg2SegIntersection(Vert2fImmutable a, Vert2fImmutable b, Vert2fImmutable c, Vert2fImmutable d) {
+        return seg2SegIntersection(new float[3], a, b, c, d);
+    }
+
+    /** Compute intersection between two segments
+     * @param result storage for the intersection coordinates
+     * @param a vertex 1 of first segment
+     * @param b vertex 2 of first segment
+     * @param c vertex 1 of second segment
+     * @param d vertex 2 of second segment
+     * @return result holding the intersection coordinates if the segments intersect, otherwise
+     * returns null
+     */
+    public static float[] seg2SegIntersection(float[] result, Vert2fImmutable a, Vert2fImmutable b, Vert2fImmutable c, Vert2fImmutable d) {
+        return intersection(result, a, b, c, d, true) ? result : null;
+    }
+
+    /** Check if two segments intersect w/o computing the intersection coordinates,
+     * see {@link #seg2SegIntersection(Vert2fImmutable, Vert2fImmutable, Vert2fImmutable, Vert2fImmutable)}.
+     */
+    private static boolean testSeg2SegIntersection(Vert2fImmutable a, Vert2fImmutable b, Vert2fImmutable c, Vert2fImmutable d) {
+        return intersection(null, a, b, c, d, true);
+    }
+
+    /** Compute intersection between the lines or segments a-b and c-d
+     * @param result storage for the intersection coordinates, may be null
+     * @param segments if true, the intersection must lie within both segments
+     * @return true if the lines or segments intersect
+     */
+    private static boolean intersection(float[] result, Vert2fImmutable a, Vert2fImmutable b, Vert2fImmutable c, Vert2fImmutable d, boolean segments) {
         float determinant = (a.getX()-b.getX())*(c.getY()-d.getY()) - (a.getY()-b.getY())*(c.getX()-d.getX());
 
         if (determinant == 0) 
-            return null;
+            return false;
 
         float alpha = (a.getX()*b.getY()-a.getY()*b.getX());
-        float beta = (c.getX()*d.getY()-c.getY()*d.getY());
+        float beta = (c.getX()*d.getY()-c.getY()*d.getX());
         float xi = ((c.getX()-d.getX())*alpha-(a.getX()-b.getX())*beta)/determinant;
-        float yi = ((c.getY()-d.getY())*alpha-(a.getY()-b.getY())*beta)/determinant;
-
-        float gamma = (xi - a.getX())/(b.getX() - a.getX());
-        float gamma1 = (xi - c.getX())/(d.getX() - c.getX());
-        if(gamma <= 0 || gamma >= 1) return null;
-        if(gamma1 <= 0 || gamma1 >= 1) return null;
 
-        return new float[]{xi,yi,0};
+        if(segments) {
+            float gamma = (xi - a.getX())/(b.getX() - a.getX());
+            float gamma1 = (xi - c.getX())/(d.getX() - c.getX());
+            if(gamma <= 0 || gamma >= 1) return false;
+            if(gamma1 <= 0 || gamma1 >= 1) return false;
+        }
+        if(null != result) {
+            result[0] = xi;
+            result[1] = ((c.getY()-d.getY())*alpha-(a.getY()-b.getY())*beta)/determinant;
+            result[2] = 0;
+        }
+        return true;
     }
 
     /** Compute intersection between two lines
@@ -393,17 +521,20 @@ public class VectorUtil {
      * returns null 
      */
     public static float[] line2lineIntersection(Vert2fImmutable a, Vert2fImmutable b, Vert2fImmutable c, Vert2fImmutable d) {
-        float determinant = (a.getX()-b.getX())*(c.getY()-d.getY()) - (a.getY()-b.getY())*(c.getX()-d.getX());
-
-        if (determinant == 0) 
-            return null;
-
-        float alpha = (a.getX()*b.getY()-a.getY()*b.getX());
-        float beta = (c.getX()*d.getY()-c.getY()*d.getY());
-        float xi = ((c.getX()-d.getX())*alpha-(a.getX()-b.getX())*beta)/determinant;
-        float yi = ((c.getY()-d.getY())*alpha-(a.getY()-b.getY())*beta)/determinant;
+        return line2lineIntersection(new float[3], a, b, c, d);
+    }
 
-        return new float[]{xi,yi,0};
+    /** Compute intersection between two lines
+     * @param result storage for the intersection coordinates
+     * @param a vertex 1 of first line
+     * @param b vertex 2 of first line
+     * @param c vertex 1 of second line
+     * @param d vertex 2 of second line
+     * @return result holding the intersection coordinates if the lines intersect, otherwise
+     * returns null
+     */
+    public static float[] line2lineIntersection(float[] result, Vert2fImmutable a, Vert2fImmutable b, Vert2fImmutable c, Vert2fImmutable d) {
+        return intersection(result, a, b, c, d, false) ? result : null;
     }
 
     /** Check if a segment intersects with a triangle
@@ -415,11 +546,11 @@ public class VectorUtil {
      * @return true if the segment intersects at least one segment of the triangle, false otherwise
      */
     public static boolean tri2SegIntersection(Vert2fImmutable a, Vert2fImmutable b, Vert2fImmutable c, Vert2fImmutable d, Vert2fImmutable e){
-        if(seg2SegIntersection(a, b, d, e) != null)
+        if(testSeg2SegIntersection(a, b, d, e))
             return true;
-        if(seg2SegIntersection(b, c, d, e) != null)
+        if(testSeg2SegIntersection(b, c, d, e))
             return true;
-        if(seg2SegIntersection(a, c, d, e) != null)
+        if(testSeg2SegIntersection(a, c, d, e))
             return true;
 
         return false;
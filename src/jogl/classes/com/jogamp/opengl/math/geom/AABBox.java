@@ -194,6 +194,28 @@ public class AABBox implements Cloneable {
         resize(xyz[0+offset], xyz[1+offset], xyz[2+offset]);
     }
 
+    /** Resize the AABBox to encapsulate <code>count</code> packed
+     * xyz-coordinates, computing the center only once.
+     * @param xyz packed xyz-axis coordinate values, 3 per vertex
+     * @param offset of the first vertex in the array
+     * @param count number of vertices
+     */
+    public final void resize(float[] xyz, int offset, int count) {
+        float lx = low[0], ly = low[1], lz = low[2];
+        float hx = high[0], hy = high[1], hz = high[2];
+        final int end = offset + 3*count;
+        for(int i=offset; i<end; i+=3) {
+            final float x = xyz[i], y = xyz[i+1], z = xyz[i+2];
+            if (x < lx) lx = x;
+            if (x > hx) hx = x;
+            if (y < ly) ly = y;
+            if (y > hy) hy = y;
+            if (z < lz) lz = z;
+            if (z > hz) hz = z;
+        }
+        setSize(lx, ly, lz, hx, hy, hz);
+    }
+
     /** Check if the x & y coordinates are bounded/contained
      *  by this AABBox
      * @param x  x-axis coordinate value
@@ -279,22 +301,10 @@ public class AABBox implements Cloneable {
      * @param size a constant float value
      */
     public final void scale(float size) {
-        float[] diffH = new float[3];
-        diffH[0] = high[0] - center[0];
-        diffH[1] = high[1] - center[1];
-        diffH[2] = high[2] - center[2];
-        
-        diffH = VectorUtil.scale(diffH, size);
-        
-        float[] diffL = new float[3];
-        diffL[0] = low[0] - center[0];
-        diffL[1] = low[1] - center[1];
-        diffL[2] = low[2] - center[2];
-        
-        diffL = VectorUtil.scale(diffL, size);
-        
-        high = VectorUtil.vectorAdd(center, diffH);
-        low = VectorUtil.vectorAdd(center, diffL);
+        for(int i=0; i<3; i++) {
+            high[i] = center[i] + ( high[i] - center[i] ) * size;
+            low[i] = center[i] + ( low[i] - center[i] ) * size;
+        }
     }
 
     public final float getMinX() {
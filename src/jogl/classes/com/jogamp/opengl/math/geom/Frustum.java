@@ -65,6 +65,11 @@ import com.jogamp.common.os.Platform;
  * http://www.emeyex.com/site/tuts/FrustumCulling.pdf
  * </pre>
  * </p>
+ * <p>
+ * Large numbers of objects are culled in one pass over packed arrays
+ * via {@link #cullAABBoxes(float[], int, int, long[])} and {@link #cullSpheres(float[], int, int, long[])},
+ * or concurrently via {@link FrustumCuller}.
+ * </p>
  */
 public class Frustum {
     /** Normalized planes[l, r, b, t, n, f] */
@@ -300,6 +305,125 @@ public class Frustum {
     }
     
     
+    /**
+     * Batched {@link #isAABBoxOutside(AABBox)} over <code>count</code> packed axis aligned bounding boxes,
+     * writing a visibility bitset.
+     * <p>
+     * Box <code>i</code> is stored as <code>lx, ly, lz, hx, hy, hz</code> at <code>boxes[offset+6*i]</code>,
+     * w/ low &le; high on each axis.
+     * Bit <code>i</code> of <code>visible</code>, i.e. <code>visible[i&gt;&gt;&gt;6] &amp; (1L&lt;&lt;i)</code>,
+     * is set if the box is not outside of the frustum, otherwise cleared.
+     * The remaining bits of the last written long are cleared.
+     * </p>
+     * <p>
+     * The planes are loaded once and each plane is only tested against the box corner
+     * farthest along its normal, which gives the same result as testing all 8 corners.
+     * </p>
+     * @param boxes packed boxes, 6 floats each
+     * @param offset offset of the first box
+     * @param count number of boxes
+     * @param visible visibility bitset of at least <code>(count+63)/64</code> longs
+     * @return number of visible boxes
+     * @see FrustumCuller
+     */
+    public final int cullAABBoxes(float[] boxes, int offset, int count, long[] visible) {
+        return cullAABBoxes(getPlanes(new float[24]), boxes, offset, 0, count, visible);
+    }
+
+    /**
+     * Batched {@link #isSphereOutside(float[], float)} over <code>count</code> packed spheres,
+     * writing a visibility bitset.
+     * <p>
+     * Sphere <code>i</code> is stored as <code>x, y, z, radius</code> at <code>spheres[offset+4*i]</code>.
+     * Bit <code>i</code> of <code>visible</code>, i.e. <code>visible[i&gt;&gt;&gt;6] &amp; (1L&lt;&lt;i)</code>,
+     * is set if the sphere is not outside of the frustum, otherwise cleared.
+     * The remaining bits of the last written long are cleared.
+     * </p>
+     * @param spheres packed spheres, 4 floats each
+     * @param offset offset of the first sphere
+     * @param count number of spheres
+     * @param visible visibility bitset of at least <code>(count+63)/64</code> longs
+     * @return number of visible spheres
+     * @see FrustumCuller
+     */
+    public final int cullSpheres(float[] spheres, int offset, int count, long[] visible) {
+        return cullSpheres(getPlanes(new float[24]), spheres, offset, 0, count, visible);
+    }
+
+    /** Stores the planes as packed <code>nx, ny, nz, d</code> in <code>pl</code>, returns <code>pl</code>. */
+    final float[] getPlanes(float[] pl) {
+        for (int i = 0; i < 6; ++i) {
+            final Plane p = planes[i];
+            pl[4*i+0] = p.n[0];
+            pl[4*i+1] = p.n[1];
+            pl[4*i+2] = p.n[2];
+            pl[4*i+3] = p.d;
+        }
+        return pl;
+    }
+
+    /**
+     * Culls the boxes [first, end) against the packed planes, writing the longs
+     * <code>first/64</code> .. <code>(end-1)/64</code> of <code>visible</code>.
+     * <code>first</code> must be a multiple of 64, so concurrent ranges never share a long.
+     */
+    static int cullAABBoxes(final float[] pl, final float[] boxes, final int offset, final int first, final int end, final long[] visible) {
+        int visibleCount = 0;
+        for (int w = first; w < end; w += 64) {
+            final int wEnd = Math.min(w + 64, end);
+            long bits = 0;
+            for (int i = w; i < wEnd; ++i) {
+                final int b = offset + 6 * i;
+                final float lx = boxes[b],   ly = boxes[b+1], lz = boxes[b+2];
+                final float hx = boxes[b+3], hy = boxes[b+4], hz = boxes[b+5];
+                boolean outside = false;
+                for (int p = 0; p < 24; p += 4) {
+                    final float nx = pl[p], ny = pl[p+1], nz = pl[p+2];
+                    // corner farthest along the normal has the largest distance
+                    final float dist = nx * ( nx > 0f ? hx : lx ) +
+                                       ny * ( ny > 0f ? hy : ly ) +
+                                       nz * ( nz > 0f ? hz : lz ) + pl[p+3];
+                    if ( !( dist > 0f ) ) {
+                        outside = true;
+                        break;
+                    }
+                }
+                if ( !outside ) {
+                    bits |= 1L << i;
+                }
+            }
+            visible[w >>> 6] = bits;
+            visibleCount += Long.bitCount(bits);
+        }
+        return visibleCount;
+    }
+
+    /** Culls the spheres [first, end) against the packed planes, see {@link #cullAABBoxes(float[], float[], int, int, int, long[])}. */
+    static int cullSpheres(final float[] pl, final float[] spheres, final int offset, final int first, final int end, final long[] visible) {
+        int visibleCount = 0;
+        for (int w = first; w < end; w += 64) {
+            final int wEnd = Math.min(w + 64, end);
+            long bits = 0;
+            for (int i = w; i < wEnd; ++i) {
+                final int s = offset + 4 * i;
+                final float x = spheres[s], y = spheres[s+1], z = spheres[s+2], r = spheres[s+3];
+                boolean outside = false;
+                for (int p = 0; p < 24; p += 4) {
+                    if ( pl[p] * x + pl[p+1] * y + pl[p+2] * z + pl[p+3] < -r ) {
+                        outside = true;
+                        break;
+                    }
+                }
+                if ( !outside ) {
+                    bits |= 1L << i;
+                }
+            }
+            visible[w >>> 6] = bits;
+            visibleCount += Long.bitCount(bits);
+        }
+        return visibleCount;
+    }
+
     public static enum Location { OUTSIDE, INSIDE, INTERSECT };
     
     /**
@@ -0,0 +1,168 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+
+package com.jogamp.opengl.math.geom;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import jogamp.opengl.util.ParallelUtil;
+
+/**
+ * Culls large batches of packed bounding boxes or spheres against a {@link Frustum},
+ * e.g. the one of {@link com.jogamp.opengl.util.PMVMatrix#glGetFrustum()},
+ * splitting batches of at least {@link #getMinParallelCount()} objects across a pool of worker threads.
+ * <p>
+ * The batch is split into ranges of a multiple of 64 objects, so each range writes its own longs of the visibility bitset.
+ * Ranges are handed out one by one to {@link #getParallelism()} tasks, one of them running on the calling thread.
+ * The result equals {@link Frustum#cullAABBoxes(float[], int, int, long[])}
+ * and {@link Frustum#cullSpheres(float[], int, int, long[])} regardless of the thread count.
+ * </p>
+ * <p>
+ * The frustum and the arrays must not be modified while being culled.
+ * </p>
+ * <pre>
+    final FrustumCuller culler = new FrustumCuller(0);
+    final int visibleCount = culler.cullAABBoxes(pmvMatrix.glGetFrustum(), boxes, 0, boxCount, visible);
+    ..
+    culler.shutdown();
+ * </pre>
+ */
+public class FrustumCuller {
+    /** Default minimum batch size culled concurrently: {@value} */
+    public static final int DEFAULT_MIN_PARALLEL_COUNT = 16384;
+
+    /** Objects per range handed out to a task, a multiple of 64 */
+    private static final int RANGE_SIZE = 4096;
+
+    private final ExecutorService executor;
+    private final boolean ownExecutor;
+    private final int parallelism;
+    private volatile int minParallelCount = DEFAULT_MIN_PARALLEL_COUNT;
+
+    /**
+     * Creates a culler w/ its own pool of daemon worker threads.
+     * @param threadCount number of threads culling a batch including the calling thread,
+     *                    or 0 for one thread per available processor
+     */
+    public FrustumCuller(int threadCount) {
+        this.parallelism = 0 < threadCount ? threadCount : Runtime.getRuntime().availableProcessors();
+        if( 1 < parallelism ) {
+            this.executor = Executors.newFixedThreadPool(parallelism - 1,
+                    ParallelUtil.createDaemonThreadFactory("FrustumCuller"));
+        } else {
+            this.executor = null;
+        }
+        this.ownExecutor = true;
+    }
+
+    /**
+     * Creates a culler running on the given {@link ExecutorService},
+     * which is not shut down by {@link #shutdown()}.
+     * @param executor the {@link ExecutorService} to cull on
+     * @param parallelism number of concurrent tasks per batch including the calling thread,
+     *                    should not exceed the executor's thread count + 1
+     */
+    public FrustumCuller(ExecutorService executor, int parallelism) {
+        if( null == executor ) {
+            throw new IllegalArgumentException("Null ExecutorService");
+        }
+        if( 0 >= parallelism ) {
+            throw new IllegalArgumentException("Invalid parallelism "+parallelism);
+        }
+        this.executor = executor;
+        this.ownExecutor = false;
+        this.parallelism = parallelism;
+    }
+
+    /** Returns the {@link ExecutorService} of the worker threads, may be null if {@link #getParallelism()} is 1. */
+    public final ExecutorService getExecutor() { return executor; }
+
+    public final int getParallelism() { return parallelism; }
+
+    /**
+     * Sets the minimum batch size culled concurrently, smaller batches are culled on the calling thread only.
+     * Defaults to {@link #DEFAULT_MIN_PARALLEL_COUNT}.
+     */
+    public final void setMinParallelCount(int count) {
+        minParallelCount = Math.max(0, count);
+    }
+
+    public final int getMinParallelCount() { return minParallelCount; }
+
+    /**
+     * Shuts down the worker threads if owned by this culler, see {@link #FrustumCuller(int)}.
+     */
+    public void shutdown() {
+        if( ownExecutor && null != executor ) {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Culls <code>count</code> packed axis aligned bounding boxes, see {@link Frustum#cullAABBoxes(float[], int, int, long[])},
+     * and blocks until all are done.
+     * @return number of visible boxes
+     * @throws RuntimeException if culling failed, e.g. due to an array index out of bounds, or the calling thread was interrupted
+     */
+    public int cullAABBoxes(Frustum frustum, float[] boxes, int offset, int count, long[] visible) throws RuntimeException {
+        return cull(frustum, true, boxes, offset, count, visible);
+    }
+
+    /**
+     * Culls <code>count</code> packed spheres, see {@link Frustum#cullSpheres(float[], int, int, long[])},
+     * and blocks until all are done.
+     * @return number of visible spheres
+     * @throws RuntimeException if culling failed, e.g. due to an array index out of bounds, or the calling thread was interrupted
+     */
+    public int cullSpheres(Frustum frustum, float[] spheres, int offset, int count, long[] visible) throws RuntimeException {
+        return cull(frustum, false, spheres, offset, count, visible);
+    }
+
+    private int cull(Frustum frustum, final boolean boxes, final float[] data, final int offset, final int count, final long[] visible) throws RuntimeException {
+        final float[] pl = frustum.getPlanes(new float[24]);
+        final int rangeCount = ( count + RANGE_SIZE - 1 ) / RANGE_SIZE;
+        final int taskCount = Math.min(parallelism, rangeCount);
+        if( 1 >= taskCount || null == executor || count < minParallelCount ) {
+            return cullRange(pl, boxes, data, offset, 0, count, visible);
+        }
+        return ParallelUtil.invokeAll(executor, taskCount, rangeCount, new ParallelUtil.RangeTask() {
+                public int run(int r) {
+                    final int first = r * RANGE_SIZE;
+                    return cullRange(pl, boxes, data, offset, first, Math.min(first + RANGE_SIZE, count), visible);
+                } }, "culling");
+    }
+
+    private static int cullRange(float[] pl, boolean boxes, float[] data, int offset, int first, int end, long[] visible) {
+        if( boxes ) {
+            return Frustum.cullAABBoxes(pl, data, offset, first, end, visible);
+        } else {
+            return Frustum.cullSpheres(pl, data, offset, first, end, visible);
+        }
+    }
+}
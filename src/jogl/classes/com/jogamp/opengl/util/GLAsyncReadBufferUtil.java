@@ -0,0 +1,436 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+
+package com.jogamp.opengl.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.media.opengl.GL;
+import javax.media.opengl.GL2GL3;
+import javax.media.opengl.GLDrawable;
+import javax.media.opengl.GLException;
+
+import jogamp.opengl.util.ParallelUtil;
+
+import com.jogamp.common.nio.Buffers;
+import com.jogamp.opengl.GLExtensions;
+import com.jogamp.opengl.util.texture.TextureData;
+import com.jogamp.opengl.util.texture.TextureIO;
+
+/**
+ * Utility to continuously read out the current FB, e.g. for video capture,
+ * handing each frame to a {@link FrameWriter} on a background encoder thread.
+ * <p>
+ * Unlike {@link GLReadBufferUtil}, which blocks on <code>glReadPixels</code> and encodes on the calling thread,
+ * frames are read into a ring of pixel buffers:
+ * <ul>
+ *   <li>If pixel pack buffer objects are available (GL 3 or {@link GLExtensions#ARB_pixel_buffer_object}),
+ *       <code>glReadPixels</code> of frame N only starts the transfer into the frame's buffer object.
+ *       It is mapped and copied out with the next call, i.e. while frame N+1 is being transferred,
+ *       or with {@link #flush(GL)}.</li>
+ *   <li>Otherwise the pixels are read synchronously.</li>
+ * </ul>
+ * The encoding of frame N-1 overlaps the rendering and readback of the following frames.
+ * A slot's buffer is only reused after its frame has been written, i.e. the GL thread
+ * only stalls if the encoder falls behind by more than the ring size.
+ * </p>
+ * <p>
+ * Buffers are kept across frames and only reallocated if the frame size grows.
+ * </p>
+ * <p>
+ * Usage, within {@link javax.media.opengl.GLEventListener#display(javax.media.opengl.GLAutoDrawable) display(..)}:
+ * <pre>
+ *   capture.readPixels(gl, false, new File(dir, "frame-"+(frame++)+".png"));
+ * </pre>
+ * and {@link #dispose(GL)} to write the remaining frames and release all resources.
+ * </p>
+ */
+public class GLAsyncReadBufferUtil {
+    /**
+     * Consumes the frames on the encoder thread.
+     */
+    public static interface FrameWriter {
+        /**
+         * Writes one frame, e.g. via {@link TextureIO#write(TextureData, File)}.
+         * <p>
+         * The data is only valid until this method returns, its buffer is reused for a later frame.
+         * </p>
+         */
+        void write(TextureData data) throws IOException;
+    }
+
+    /** Default number of pixel buffers: 3 */
+    public static final int DEFAULT_RING_SIZE = 3;
+
+    private static class Slot {
+        int pbo = 0;
+        int pboSize = 0;
+        int size = 0;
+        ByteBuffer buffer = null;
+        TextureData data = null;
+        FrameWriter writer = null;
+        Future<?> encoding = null;
+    }
+
+    protected final int components, alignment;
+    protected final GLPixelStorageModes psm;
+    private final Slot[] ring;
+    private final ExecutorService encoder;
+    private final boolean ownEncoder;
+    private final int[] readFormat = new int[5];
+    private final int[] tmp = new int[1];
+    private boolean allowPBO = true;
+    private int next = 0;
+    /** Slot w/ a pixel pack transfer in flight, mapped w/ the next read or flush */
+    private Slot pending = null;
+
+    private long frameCount, readTime, maxReadTime, stallTime;
+    private long encodeCount, encodeTime, maxEncodeTime;
+
+    /**
+     * Creates an instance w/ its own daemon encoder thread, writing the frames in order.
+     * @param alpha true for RGBA readPixels, otherwise RGB readPixels. Disclaimer: Alpha maybe forced on ES platforms!
+     * @param ringSize number of pixel buffers, at least 2, see {@link #DEFAULT_RING_SIZE}
+     */
+    public GLAsyncReadBufferUtil(boolean alpha, int ringSize) {
+        this(alpha, ringSize, Executors.newSingleThreadExecutor(
+                ParallelUtil.createDaemonThreadFactory("GLAsyncReadBufferUtil-Encoder")), true);
+    }
+
+    /**
+     * Creates an instance encoding on the given {@link ExecutorService},
+     * which is not shut down by {@link #dispose(GL)}.
+     * <p>
+     * The frames are written in order only if the executor is single threaded.
+     * </p>
+     * @param alpha true for RGBA readPixels, otherwise RGB readPixels. Disclaimer: Alpha maybe forced on ES platforms!
+     * @param ringSize number of pixel buffers, at least 2, see {@link #DEFAULT_RING_SIZE}
+     * @param encoder the {@link ExecutorService} to write the frames on
+     */
+    public GLAsyncReadBufferUtil(boolean alpha, int ringSize, ExecutorService encoder) {
+        this(alpha, ringSize, encoder, false);
+    }
+
+    private GLAsyncReadBufferUtil(boolean alpha, int ringSize, ExecutorService encoder, boolean ownEncoder) {
+        if( 2 > ringSize ) {
+            throw new IllegalArgumentException("ringSize "+ringSize+" < 2");
+        }
+        if( null == encoder ) {
+            throw new IllegalArgumentException("Null ExecutorService");
+        }
+        components = alpha ? 4 : 3 ;
+        alignment = alpha ? 4 : 1 ;
+        psm = new GLPixelStorageModes();
+        ring = new Slot[ringSize];
+        for(int i=0; i<ringSize; i++) {
+            ring[i] = new Slot();
+        }
+        this.encoder = encoder;
+        this.ownEncoder = ownEncoder;
+    }
+
+    public boolean hasAlpha() { return 4 == components ? true : false ; }
+
+    public int getRingSize() { return ring.length; }
+
+    /**
+     * Allows or disallows the use of pixel pack buffer objects, allowed by default.
+     * May be changed between frames.
+     */
+    public void setAllowPixelPackBuffer(boolean v) { allowPBO = v; }
+
+    /**
+     * @return true if pixel pack buffer objects are allowed and available in the given context
+     */
+    public boolean usesPixelPackBuffer(GL gl) {
+        return allowPBO && gl.isGL2GL3() &&
+               ( gl.isGL3() || gl.isExtensionAvailable(GLExtensions.ARB_pixel_buffer_object) ) &&
+               gl.isFunctionAvailable("glMapBuffer");
+    }
+
+    /**
+     * Reads the drawable's pixels into the next pixel buffer of the ring
+     * and writes them to <code>dest</code> via {@link TextureIO#write(TextureData, File)} on the encoder thread.
+     *
+     * @see #readPixels(GL, boolean, FrameWriter)
+     */
+    public boolean readPixels(GL gl, boolean flip, final File dest) {
+        return readPixels(gl, flip, new FrameWriter() {
+            public void write(TextureData data) throws IOException {
+                TextureIO.write(data, dest);
+            }
+        });
+    }
+
+    /**
+     * Reads the drawable's pixels into the next pixel buffer of the ring,
+     * which is passed to <code>writer</code> on the encoder thread once the transfer is complete.
+     * <p>
+     * Blocks only if the frame previously read into this pixel buffer has not been written yet.
+     * </p>
+     *
+     * @param gl the current GL context object. It's read drawable is being used as the pixel source.
+     * @param flip weather to flip the data vertically or not
+     * @param writer consumes the frame on the encoder thread
+     * @return false if reading failed, the frame is dropped
+     * @throws RuntimeException if writing a previous frame failed
+     */
+    public boolean readPixels(GL gl, boolean flip, FrameWriter writer) {
+        final long t0 = System.nanoTime();
+        final int glerr0 = gl.glGetError();
+        if(GL.GL_NO_ERROR != glerr0) {
+            System.err.println("Info: GLAsyncReadBufferUtil.readPixels: pre-exisiting GL error 0x"+Integer.toHexString(glerr0));
+        }
+        final GLDrawable drawable = gl.getContext().getGLReadDrawable();
+        final int width = drawable.getWidth(), height = drawable.getHeight();
+        GLReadBufferUtil.getReadPixelsFormat(gl, components, readFormat);
+        final int textureInternalFormat = readFormat[0], textureDataFormat = readFormat[1], textureDataType = readFormat[2];
+        final int readPixelSize = GLBuffers.sizeof(gl, tmp, textureDataFormat, textureDataType, width, height, 1, true);
+
+        final Slot slot = ring[next];
+        next = ( next + 1 ) % ring.length;
+        final long t1 = System.nanoTime();
+        awaitEncoding(slot);
+        final long t2 = System.nanoTime();
+
+        if( null == slot.buffer || slot.buffer.capacity() < readPixelSize ) {
+            slot.buffer = Buffers.newDirectByteBuffer(readPixelSize);
+            slot.data = new TextureData(gl.getGLProfile(), textureInternalFormat, width, height, 0,
+                                        textureDataFormat, textureDataType, false, false, flip,
+                                        slot.buffer, null /* Flusher */);
+        } else {
+            slot.data.setInternalFormat(textureInternalFormat);
+            slot.data.setWidth(width);
+            slot.data.setHeight(height);
+            slot.data.setPixelFormat(textureDataFormat);
+            slot.data.setPixelType(textureDataType);
+            slot.data.setMustFlipVertically(flip);
+        }
+        slot.size = readPixelSize;
+        slot.writer = writer;
+
+        final boolean usePBO = usesPixelPackBuffer(gl);
+        boolean res = true;
+        psm.setAlignment(gl, alignment, alignment);
+        try {
+            if( usePBO ) {
+                final GL2GL3 gl2gl3 = gl.getGL2GL3();
+                if( 0 == slot.pbo ) {
+                    gl.glGenBuffers(1, tmp, 0);
+                    slot.pbo = tmp[0];
+                }
+                gl.glBindBuffer(GL2GL3.GL_PIXEL_PACK_BUFFER, slot.pbo);
+                if( slot.pboSize < readPixelSize ) {
+                    gl.glBufferData(GL2GL3.GL_PIXEL_PACK_BUFFER, readPixelSize, null, GL2GL3.GL_STREAM_READ);
+                    slot.pboSize = readPixelSize;
+                }
+                gl2gl3.glReadPixels(0, 0, width, height, textureDataFormat, textureDataType, 0L);
+                gl.glBindBuffer(GL2GL3.GL_PIXEL_PACK_BUFFER, 0);
+            } else {
+                slot.buffer.clear();
+                gl.glReadPixels(0, 0, width, height, textureDataFormat, textureDataType, slot.buffer);
+                slot.buffer.position(readPixelSize);
+                slot.buffer.flip();
+            }
+        } catch(GLException gle) { res = false; gle.printStackTrace(); }
+        psm.restore(gl);
+        final int glerr1 = gl.glGetError();
+        if(GL.GL_NO_ERROR != glerr1) {
+            System.err.println("GLAsyncReadBufferUtil.readPixels: readPixels error 0x"+Integer.toHexString(glerr1)+
+                               " "+width+"x"+height+
+                               ", fmt 0x"+Integer.toHexString(textureDataFormat)+", type 0x"+Integer.toHexString(textureDataType)+
+                               ", pbo "+usePBO+", sz "+readPixelSize);
+            res = false;
+        }
+
+        // complete the previous transfer, while this one is in flight
+        if( null != pending ) {
+            final Slot prev = pending;
+            pending = null;
+            mapAndEncode(gl, prev);
+        }
+        if( res ) {
+            if( usePBO ) {
+                pending = slot;
+            } else {
+                encode(slot);
+            }
+        }
+        final long t3 = System.nanoTime();
+        frameCount++;
+        readTime += t3 - t0 - ( t2 - t1 );
+        maxReadTime = Math.max(maxReadTime, t3 - t0 - ( t2 - t1 ));
+        stallTime += t2 - t1;
+        return res;
+    }
+
+    private void mapAndEncode(GL gl, Slot slot) {
+        gl.glBindBuffer(GL2GL3.GL_PIXEL_PACK_BUFFER, slot.pbo);
+        try {
+            final ByteBuffer mapped = gl.glMapBuffer(GL2GL3.GL_PIXEL_PACK_BUFFER, GL2GL3.GL_READ_ONLY);
+            if( null == mapped ) {
+                System.err.println("GLAsyncReadBufferUtil: can not map pixel pack buffer "+slot.pbo+", frame dropped");
+                return;
+            }
+            mapped.clear();
+            mapped.limit(slot.size);
+            slot.buffer.clear();
+            slot.buffer.put(mapped);
+            slot.buffer.flip();
+            gl.glUnmapBuffer(GL2GL3.GL_PIXEL_PACK_BUFFER);
+        } finally {
+            gl.glBindBuffer(GL2GL3.GL_PIXEL_PACK_BUFFER, 0);
+        }
+        encode(slot);
+    }
+
+    private void encode(final Slot slot) {
+        slot.encoding = encoder.submit(new Runnable() {
+            public void run() {
+                final long t0 = System.nanoTime();
+                try {
+                    slot.writer.write(slot.data);
+                } catch (IOException ex) {
+                    throw new RuntimeException("can not write frame", ex);
+                } finally {
+                    addEncodeTime(System.nanoTime() - t0);
+                }
+            }
+        });
+    }
+
+    private synchronized void addEncodeTime(long t) {
+        encodeCount++;
+        encodeTime += t;
+        maxEncodeTime = Math.max(maxEncodeTime, t);
+    }
+
+    private static void awaitEncoding(Slot slot) {
+        final Future<?> f = slot.encoding;
+        if( null == f ) {
+            return;
+        }
+        slot.encoding = null;
+        slot.writer = null;
+        try {
+            f.get();
+        } catch (InterruptedException ie) {
+            throw new RuntimeException(ie);
+        } catch (ExecutionException ee) {
+            throw new RuntimeException("can not write frame", ee.getCause());
+        }
+    }
+
+    /**
+     * Completes a pending transfer and waits until all frames are written.
+     * @throws RuntimeException if writing a frame failed
+     */
+    public void flush(GL gl) {
+        if( null != pending ) {
+            final Slot prev = pending;
+            pending = null;
+            mapAndEncode(gl, prev);
+        }
+        RuntimeException err = null;
+        for(int i=0; i<ring.length; i++) {
+            try {
+                awaitEncoding(ring[i]);
+            } catch (RuntimeException re) {
+                if( null == err ) {
+                    err = re;
+                }
+            }
+        }
+        if( null != err ) {
+            throw err;
+        }
+    }
+
+    /**
+     * Writes the remaining frames, see {@link #flush(GL)}, and releases all buffers.
+     * The own encoder thread is shut down.
+     */
+    public void dispose(GL gl) {
+        try {
+            flush(gl);
+        } finally {
+            for(int i=0; i<ring.length; i++) {
+                final Slot slot = ring[i];
+                if( 0 != slot.pbo ) {
+                    tmp[0] = slot.pbo;
+                    gl.glDeleteBuffers(1, tmp, 0);
+                    slot.pbo = 0;
+                    slot.pboSize = 0;
+                }
+                slot.buffer = null;
+                slot.data = null;
+            }
+            if( ownEncoder ) {
+                encoder.shutdown();
+            }
+        }
+    }
+
+    /** @return the number of frames read */
+    public long getFrameCount() { return frameCount; }
+
+    /** @return the accumulated time in nanoseconds spent reading frames on the GL thread, excluding stalls */
+    public long getTotalReadTime() { return readTime; }
+
+    /** @return the maximum time in nanoseconds spent reading one frame on the GL thread, excluding stalls */
+    public long getMaxReadTime() { return maxReadTime; }
+
+    /** @return the accumulated time in nanoseconds the GL thread waited for the encoder to free a buffer */
+    public long getTotalStallTime() { return stallTime; }
+
+    /** @return the number of frames written */
+    public synchronized long getEncodeCount() { return encodeCount; }
+
+    /** @return the accumulated time in nanoseconds spent writing frames on the encoder thread */
+    public synchronized long getTotalEncodeTime() { return encodeTime; }
+
+    /** @return the maximum time in nanoseconds spent writing one frame on the encoder thread */
+    public synchronized long getMaxEncodeTime() { return maxEncodeTime; }
+
+    /** Resets all counters */
+    public synchronized void resetCounter() {
+        frameCount = 0; readTime = 0; maxReadTime = 0; stallTime = 0;
+        encodeCount = 0; encodeTime = 0; maxEncodeTime = 0;
+    }
+
+    public String toString() {
+        return "GLAsyncReadBufferUtil[ring "+ring.length+", alpha "+hasAlpha()+", pbo "+allowPBO+
+               ", frames "+frameCount+", encoded "+getEncodeCount()+"]";
+    }
+}
@@ -106,6 +106,35 @@ public class GLReadBufferUtil {
         }
     }
 
+    /**
+     * Determines the formats used to read pixels w/ the given number of components.
+     * 
+     * @param gl the current GL context object
+     * @param components 3 for RGB, 4 for RGBA
+     * @param res receives the texture internal format, the pixel data format and type,
+     *            as well as GL_IMPLEMENTATION_COLOR_READ_FORMAT and _TYPE if queried, otherwise 0.
+     */
+    static void getReadPixelsFormat(GL gl, int components, int[] res) {
+        res[3] = 0;
+        res[4] = 0;
+        if(gl.isGL2GL3() && 3 == components) {
+            res[0] = GL.GL_RGB;
+            res[1] = GL.GL_RGB;
+            res[2] = GL.GL_UNSIGNED_BYTE;
+        } else if(gl.isGLES2Compatible() || gl.isExtensionAvailable(GLExtensions.OES_read_format)) {
+            gl.glGetIntegerv(GL.GL_IMPLEMENTATION_COLOR_READ_FORMAT, res, 3);
+            gl.glGetIntegerv(GL.GL_IMPLEMENTATION_COLOR_READ_TYPE, res, 4);
+            res[0] = (4 == components) ? GL.GL_RGBA : GL.GL_RGB;
+            res[1] = res[3];
+            res[2] = res[4];
+        } else {
+            // RGBA read is safe for all GL profiles 
+            res[0] = (4 == components) ? GL.GL_RGBA : GL.GL_RGB;
+            res[1] = GL.GL_RGBA;
+            res[2] = GL.GL_UNSIGNED_BYTE;
+        }
+    }
+
     /**
      * Read the drawable's pixels to TextureData and Texture, if requested at construction
      * 
@@ -121,25 +150,10 @@ public class GLReadBufferUtil {
             System.err.println("Info: GLReadBufferUtil.readPixels: pre-exisiting GL error 0x"+Integer.toHexString(glerr0));
         }
         final GLDrawable drawable = gl.getContext().getGLReadDrawable();
-        final int textureInternalFormat, textureDataFormat, textureDataType;
-        final int[] glImplColorReadVals = new int[] { 0, 0 };
-        
-        if(gl.isGL2GL3() && 3 == components) {
-            textureInternalFormat=GL.GL_RGB;
-            textureDataFormat=GL.GL_RGB;
-            textureDataType = GL.GL_UNSIGNED_BYTE;            
-        } else if(gl.isGLES2Compatible() || gl.isExtensionAvailable(GLExtensions.OES_read_format)) {
-            gl.glGetIntegerv(GL.GL_IMPLEMENTATION_COLOR_READ_FORMAT, glImplColorReadVals, 0);
-            gl.glGetIntegerv(GL.GL_IMPLEMENTATION_COLOR_READ_TYPE, glImplColorReadVals, 1);            
-            textureInternalFormat = (4 == components) ? GL.GL_RGBA : GL.GL_RGB;
-            textureDataFormat = glImplColorReadVals[0];
-            textureDataType = glImplColorReadVals[1];
-        } else {
-            // RGBA read is safe for all GL profiles 
-            textureInternalFormat = (4 == components) ? GL.GL_RGBA : GL.GL_RGB;
-            textureDataFormat=GL.GL_RGBA;
-            textureDataType = GL.GL_UNSIGNED_BYTE;
-        }
+        final int[] readFormat = new int[5];
+        getReadPixelsFormat(gl, components, readFormat);
+        final int textureInternalFormat = readFormat[0], textureDataFormat = readFormat[1], textureDataType = readFormat[2];
+        final int[] glImplColorReadVals = new int[] { readFormat[3], readFormat[4] };
         
         final int tmp[] = new int[1];
         final int readPixelSize = GLBuffers.sizeof(gl, tmp, textureDataFormat, textureDataType, 
@@ -0,0 +1,232 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ * 
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ * 
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.util.texture;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.media.opengl.GLProfile;
+
+import jogamp.opengl.util.ParallelUtil;
+
+import com.jogamp.common.util.IOUtil;
+
+/**
+ * Asynchronous texture loading on top of {@link TextureIO}.
+ * <p>
+ * {@link TextureData} is decoded on a bounded pool of worker threads,
+ * hence the caller, usually the GL thread, never stalls on I/O or decoding.
+ * The decoded data may either be retrieved via the returned {@link Future},
+ * or be passed to a {@link TextureUploadQueue} creating the {@link Texture}
+ * on the drawable's GL thread within a time budget per frame.
+ * </p>
+ * <pre>
+    final AsyncTextureLoader loader = new AsyncTextureLoader(glp, 0);
+    final TextureUploadQueue uploads = new TextureUploadQueue(glAutoDrawable);
+    final Future&lt;Texture&gt; tex = loader.newTexture(uploads, file, true, null);
+    ..
+    if( tex.isDone() ) {
+        tex.get().bind(gl);
+    }
+ * </pre>
+ */
+public class AsyncTextureLoader {
+    private final ExecutorService executor;
+    private final boolean ownExecutor;
+    private final GLProfile glp;
+    private volatile MipmapGenerator.Filter mipmapFilter = null;
+    private volatile boolean mipmapSRGB = false;
+
+    /**
+     * Creates a loader w/ its own pool of daemon worker threads.
+     * @param glp the {@link GLProfile} decoded {@link TextureData} is created for
+     * @param threadCount number of worker threads, or 0 for one thread per available processor
+     */
+    public AsyncTextureLoader(GLProfile glp, int threadCount) {
+        this.glp = glp;
+        this.executor = Executors.newFixedThreadPool(0 < threadCount ? threadCount : Runtime.getRuntime().availableProcessors(),
+                ParallelUtil.createDaemonThreadFactory("AsyncTextureLoader"));
+        this.ownExecutor = true;
+    }
+
+    /**
+     * Creates a loader decoding on the given {@link ExecutorService},
+     * which is not shut down by {@link #shutdown()}.
+     * @param glp the {@link GLProfile} decoded {@link TextureData} is created for
+     * @param executor the {@link ExecutorService} to decode on
+     */
+    public AsyncTextureLoader(GLProfile glp, ExecutorService executor) {
+        if( null == executor ) {
+            throw new IllegalArgumentException("Null ExecutorService");
+        }
+        this.glp = glp;
+        this.executor = executor;
+        this.ownExecutor = false;
+    }
+
+    public final GLProfile getGLProfile() { return glp; }
+
+    public final ExecutorService getExecutor() { return executor; }
+
+    /**
+     * Sets the filter used to generate the mipmap levels of decoded {@link TextureData} requesting mipmaps
+     * on the worker threads via {@link MipmapGenerator#generate(TextureData, MipmapGenerator.Filter, boolean)},
+     * if {@link MipmapGenerator#isSupported(TextureData) supported}.
+     * Hence the GL thread merely uploads the levels.
+     * @param filter the downsampling filter, or null to leave mipmap generation to {@link Texture}, the default
+     * @param sRGB if true, unsigned byte color components are filtered as linear intensities
+     */
+    public final void setMipmapFilter(MipmapGenerator.Filter filter, boolean sRGB) {
+        mipmapSRGB = sRGB;
+        mipmapFilter = filter;
+    }
+
+    /** Returns the filter set via {@link #setMipmapFilter(MipmapGenerator.Filter, boolean)}, may be null. */
+    public final MipmapGenerator.Filter getMipmapFilter() { return mipmapFilter; }
+
+    /**
+     * Shuts down the worker threads if owned by this loader, see {@link #AsyncTextureLoader(GLProfile, int)}.
+     * Pending decoding tasks are still completed.
+     */
+    public void shutdown() {
+        if( ownExecutor ) {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Decodes a {@link TextureData} from the given file asynchronously,
+     * see {@link TextureIO#newTextureData(GLProfile, File, boolean, String)}.
+     * @return the future {@link TextureData}, failing w/ an {@link IOException} if no texture provider could read the file
+     */
+    public final Future<TextureData> newTextureData(final File file, final boolean mipmap, final String fileSuffix) {
+        return executor.submit(new Callable<TextureData>() {
+            public TextureData call() throws IOException {
+                return checkData(TextureIO.newTextureData(glp, file, mipmap, fileSuffix), file);
+            } } );
+    }
+
+    /**
+     * Decodes a {@link TextureData} from the given URL asynchronously,
+     * see {@link TextureIO#newTextureData(GLProfile, URL, boolean, String)}.
+     * @return the future {@link TextureData}, failing w/ an {@link IOException} if no texture provider could read the URL
+     */
+    public final Future<TextureData> newTextureData(final URL url, final boolean mipmap, final String fileSuffix) {
+        return executor.submit(new Callable<TextureData>() {
+            public TextureData call() throws IOException {
+                return checkData(TextureIO.newTextureData(glp, url, mipmap, fileSuffix), url);
+            } } );
+    }
+
+    /**
+     * Decodes a {@link TextureData} from the given stream asynchronously,
+     * see {@link TextureIO#newTextureData(GLProfile, InputStream, boolean, String)}.
+     * The stream is closed after decoding.
+     * @return the future {@link TextureData}, failing w/ an {@link IOException} if no texture provider could read the stream
+     */
+    public final Future<TextureData> newTextureData(final InputStream stream, final boolean mipmap, final String fileSuffix) {
+        return executor.submit(new Callable<TextureData>() {
+            public TextureData call() throws IOException {
+                try {
+                    return checkData(TextureIO.newTextureData(glp, stream, mipmap, fileSuffix), stream);
+                } finally {
+                    IOUtil.close(stream, false);
+                }
+            } } );
+    }
+
+    /**
+     * Decodes a {@link TextureData} from the given file asynchronously
+     * and passes it to the given {@link TextureUploadQueue}.
+     * @return the future {@link Texture}, failing w/ the decoding exception if any
+     */
+    public final Future<Texture> newTexture(TextureUploadQueue uploads, final File file, final boolean mipmap, final String fileSuffix) {
+        return newTexture(uploads, new Callable<TextureData>() {
+            public TextureData call() throws IOException {
+                return checkData(TextureIO.newTextureData(glp, file, mipmap, fileSuffix), file);
+            } } );
+    }
+
+    /**
+     * Decodes a {@link TextureData} from the given URL asynchronously
+     * and passes it to the given {@link TextureUploadQueue}.
+     * @return the future {@link Texture}, failing w/ the decoding exception if any
+     */
+    public final Future<Texture> newTexture(TextureUploadQueue uploads, final URL url, final boolean mipmap, final String fileSuffix) {
+        return newTexture(uploads, new Callable<TextureData>() {
+            public TextureData call() throws IOException {
+                return checkData(TextureIO.newTextureData(glp, url, mipmap, fileSuffix), url);
+            } } );
+    }
+
+    /**
+     * Decodes a {@link TextureData} via the given {@link Callable} asynchronously
+     * and passes it to the given {@link TextureUploadQueue}.
+     * @return the future {@link Texture}, failing w/ the decoding exception if any
+     */
+    public final Future<Texture> newTexture(final TextureUploadQueue uploads, final Callable<TextureData> decoder) {
+        final TextureUploadQueue.Upload upload = uploads.new Upload();
+        executor.execute(new Runnable() {
+            public void run() {
+                if( upload.isCancelled() ) {
+                    return;
+                }
+                final TextureData data;
+                try {
+                    data = generateMipmaps(decoder.call());
+                } catch (Throwable t) {
+                    upload.setFailed(t);
+                    return;
+                }
+                uploads.enqueue(upload, data);
+            } } );
+        return upload;
+    }
+
+    private TextureData checkData(TextureData data, Object source) throws IOException {
+        if( null == data ) {
+            throw new IOException("No suitable reader for given "+source);
+        }
+        return generateMipmaps(data);
+    }
+
+    /** Generates the mipmap levels of the given data if requested, see {@link #setMipmapFilter(MipmapGenerator.Filter, boolean)}. */
+    private TextureData generateMipmaps(TextureData data) {
+        final MipmapGenerator.Filter filter = mipmapFilter;
+        if( null != filter && null != data && data.getMipmap() && MipmapGenerator.isSupported(data) ) {
+            return MipmapGenerator.generate(data, filter, mipmapSRGB);
+        }
+        return data;
+    }
+}
@@ -0,0 +1,430 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+
+package com.jogamp.opengl.util.texture;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+import javax.media.opengl.GL;
+import javax.media.opengl.GL2GL3;
+
+/**
+ * Builds the complete mipmap chain of a {@link TextureData} on the CPU w/o a GL context,
+ * e.g. on the worker threads of an {@link AsyncTextureLoader}.
+ * <p>
+ * The returned {@link TextureData} holds all levels down to 1x1 in {@link TextureData#getMipmapData()}
+ * and has {@link TextureData#getMipmap()} set, hence {@link Texture} uploads the levels as they are
+ * and samples them w/ a mipmap minification filter.
+ * Each level is <code>max(1, floor(size/2))</code> of the previous one, as specified by GL for non power of two textures.
+ * </p>
+ * <p>
+ * Supported are uncompressed {@link GL#GL_UNSIGNED_BYTE} and {@link GL#GL_FLOAT} data w/o border
+ * of the formats {@link GL#GL_RGBA}, {@link GL#GL_BGRA}, {@link GL#GL_RGB}, {@link GL2GL3#GL_BGR},
+ * {@link GL#GL_LUMINANCE_ALPHA}, {@link GL#GL_LUMINANCE} and {@link GL#GL_ALPHA}, see {@link #isSupported(TextureData)}.
+ * </p>
+ * <p>
+ * W/ sRGB filtering, unsigned byte color components are converted to linear intensities before filtering
+ * and back afterwards, alpha is filtered as is. The internal format, e.g. <code>GL_SRGB8_ALPHA8</code>, is not changed.
+ * Float components are always filtered as is.
+ * </p>
+ * <pre>
+    final TextureData mipmapped = MipmapGenerator.generate(data, MipmapGenerator.Filter.BOX, false);
+ * </pre>
+ */
+public class MipmapGenerator {
+
+    /** Downsampling filter */
+    public static enum Filter {
+        /** Averages the covered source pixels, i.e. 2x2 pixels for even sizes. Fastest. */
+        BOX(0.5f),
+        /** Tent filter w/ a radius of one destination pixel, smoother than {@link #BOX}. */
+        TRIANGLE(1f),
+        /** Lanczos filter w/ 3 lobes, keeps the most detail but may ring at hard edges. */
+        LANCZOS3(3f);
+
+        /** Radius in destination pixels */
+        final float radius;
+
+        Filter(float radius) {
+            this.radius = radius;
+        }
+
+        /** Weight at the distance <code>x</code> in destination pixels, not used by {@link #BOX} */
+        final float weight(float x) {
+            x = Math.abs(x);
+            if( x >= radius ) {
+                return 0f;
+            }
+            switch( this ) {
+                case TRIANGLE:
+                    return 1f - x;
+                case LANCZOS3: {
+                    if( x < 1e-6f ) {
+                        return 1f;
+                    }
+                    final double px = Math.PI * x;
+                    return (float) ( 3.0 * Math.sin(px) * Math.sin(px / 3.0) / ( px * px ) );
+                }
+                default:
+                    return 1f;
+            }
+        }
+    }
+
+    /** Linear to sRGB encoding table resolution */
+    private static final int SRGB_ENCODE_SIZE = 16384;
+    /** sRGB encoded byte to linear intensity in [0..255] */
+    private static final float[] srgbToLinear = new float[256];
+    /** linear intensity in [0..1] quantized to {@link #SRGB_ENCODE_SIZE} steps to sRGB encoded byte */
+    private static final byte[] linearToSRGB = new byte[SRGB_ENCODE_SIZE+1];
+    /** identity byte to [0..255] */
+    private static final float[] byteToFloat = new float[256];
+
+    static {
+        for(int i=0; i<256; i++) {
+            final double c = i / 255.0;
+            srgbToLinear[i] = (float) ( 255.0 * ( c <= 0.04045 ? c / 12.92 : Math.pow( ( c + 0.055 ) / 1.055, 2.4 ) ) );
+            byteToFloat[i] = i;
+        }
+        for(int i=0; i<=SRGB_ENCODE_SIZE; i++) {
+            final double l = (double) i / SRGB_ENCODE_SIZE;
+            final double c = l <= 0.0031308 ? l * 12.92 : 1.055 * Math.pow(l, 1.0 / 2.4) - 0.055;
+            linearToSRGB[i] = (byte) Math.min(255, (int) ( c * 255.0 + 0.5 ) );
+        }
+    }
+
+    /**
+     * Returns the number of components per pixel of the given pixel format,
+     * or 0 if not supported.
+     */
+    private static int getComponentCount(int pixelFormat) {
+        switch( pixelFormat ) {
+            case GL.GL_RGBA:
+            case GL.GL_BGRA:
+                return 4;
+            case GL.GL_RGB:
+            case GL2GL3.GL_BGR:
+                return 3;
+            case GL.GL_LUMINANCE_ALPHA:
+                return 2;
+            case GL.GL_LUMINANCE:
+            case GL.GL_ALPHA:
+                return 1;
+            default:
+                return 0;
+        }
+    }
+
+    /** Returns the index of the alpha component of the given pixel format, or -1 if it has none. */
+    private static int getAlphaIndex(int pixelFormat) {
+        switch( pixelFormat ) {
+            case GL.GL_RGBA:
+            case GL.GL_BGRA:
+                return 3;
+            case GL.GL_LUMINANCE_ALPHA:
+                return 1;
+            case GL.GL_ALPHA:
+                return 0;
+            default:
+                return -1;
+        }
+    }
+
+    /**
+     * Returns true if a mipmap chain can be generated for the given data,
+     * i.e. it is uncompressed, has no border, a single level in {@link TextureData#getBuffer()}
+     * and a supported pixel format and type.
+     */
+    public static boolean isSupported(TextureData data) {
+        return !data.isDataCompressed() && 0 == data.getBorder() && null != data.getBuffer() && null == data.getMipmapData() &&
+               0 < data.getWidth() && 0 < data.getHeight() &&
+               0 < getComponentCount(data.getPixelFormat()) &&
+               ( ( GL.GL_UNSIGNED_BYTE == data.getPixelType() && data.getBuffer() instanceof ByteBuffer ) ||
+                 ( GL.GL_FLOAT == data.getPixelType() && ( data.getBuffer() instanceof FloatBuffer || data.getBuffer() instanceof ByteBuffer ) ) );
+    }
+
+    /** Returns the number of mipmap levels of a texture of the given size down to 1x1, including the base level. */
+    public static int getLevelCount(int width, int height) {
+        int size = Math.max(width, height);
+        int levels = 1;
+        while( size > 1 ) {
+            size /= 2;
+            levels++;
+        }
+        return levels;
+    }
+
+    /**
+     * Generates all mipmap levels of the given data.
+     * <p>
+     * The base level shares the buffer of the given data if its rows are tightly packed, otherwise it is copied.
+     * All other levels are tightly packed heap buffers.
+     * </p>
+     * <p>
+     * The returned data takes over the given data: {@link TextureData#flush() flushing} it flushes the given data,
+     * which shall neither be used nor flushed by the caller afterwards.
+     * </p>
+     * @param data the texture data, see {@link #isSupported(TextureData)}
+     * @param filter the downsampling filter
+     * @param sRGB if true, unsigned byte color components are filtered as linear intensities
+     * @return a new {@link TextureData} w/ all levels in {@link TextureData#getMipmapData()}
+     * @throws IllegalArgumentException if the data is not supported
+     */
+    public static TextureData generate(final TextureData data, Filter filter, boolean sRGB) throws IllegalArgumentException {
+        if( !isSupported(data) ) {
+            throw new IllegalArgumentException("Unsupported texture data for mipmap generation: "+data);
+        }
+        final int components = getComponentCount(data.getPixelFormat());
+        final boolean floats = GL.GL_FLOAT == data.getPixelType();
+        final int elementSize = floats ? 4 : 1;
+        final int width = data.getWidth(), height = data.getHeight();
+        int rowStride = ( 0 < data.getRowLength() ? data.getRowLength() : width ) * components * elementSize;
+        final int alignment = Math.max(1, data.getAlignment());
+        if( 0 != rowStride % alignment ) {
+            rowStride += alignment - rowStride % alignment;
+        }
+        final int rowSize = width * components;
+
+        final Buffer[] levels = new Buffer[getLevelCount(width, height)];
+        final float[][] lut = floats ? null : createLUTs(components, sRGB ? getAlphaIndex(data.getPixelFormat()) : -2);
+        Object src; // byte[] or float[] of the previous level, tightly packed
+        if( floats ) {
+            final float[] level0 = new float[rowSize * height];
+            final FloatBuffer in = asFloatBuffer(data.getBuffer());
+            final int pos = in.position();
+            final int stride = rowStride / 4;
+            for(int y=0; y<height; y++) {
+                in.position(pos + y * stride);
+                in.get(level0, y * rowSize, rowSize);
+            }
+            in.position(pos);
+            src = level0;
+            levels[0] = rowStride == rowSize * 4 ? data.getBuffer() : FloatBuffer.wrap(level0);
+        } else {
+            final byte[] level0 = new byte[rowSize * height];
+            final ByteBuffer in = (ByteBuffer) data.getBuffer();
+            final int pos = in.position();
+            for(int y=0; y<height; y++) {
+                in.position(pos + y * rowStride);
+                in.get(level0, y * rowSize, rowSize);
+            }
+            in.position(pos);
+            src = level0;
+            levels[0] = rowStride == rowSize ? data.getBuffer() : ByteBuffer.wrap(level0);
+        }
+
+        int w = width, h = height;
+        for(int l=1; l<levels.length; l++) {
+            final int dw = Math.max(1, w / 2), dh = Math.max(1, h / 2);
+            if( floats ) {
+                final float[] dst = new float[dw * dh * components];
+                downsample(filter, components, w, h, null, (float[])src, dw, dh, null, dst);
+                levels[l] = FloatBuffer.wrap(dst);
+                src = dst;
+            } else {
+                final byte[] dst = new byte[dw * dh * components];
+                if( Filter.BOX == filter && !sRGB && dw * 2 == w && dh * 2 == h ) {
+                    halve(components, w, h, (byte[])src, dst);
+                } else {
+                    downsample(filter, components, w, h, lut, src, dw, dh, sRGB ? lut : null, dst);
+                }
+                levels[l] = ByteBuffer.wrap(dst);
+                src = dst;
+            }
+            w = dw;
+            h = dh;
+        }
+
+        final TextureData res = new TextureData(data.getGLProfile(), data.getInternalFormat(), width, height, 0,
+                                                data.getPixelFormat(), data.getPixelType(), false,
+                                                data.getMustFlipVertically(), levels,
+                                                new TextureData.Flusher() {
+                                                    public void flush() {
+                                                        data.flush();
+                                                    }
+                                                });
+        res.setMipmap(true);
+        return res;
+    }
+
+    private static FloatBuffer asFloatBuffer(Buffer buffer) {
+        if( buffer instanceof FloatBuffer ) {
+            return (FloatBuffer) buffer;
+        }
+        final ByteBuffer bb = (ByteBuffer) buffer;
+        final int pos = bb.position();
+        final FloatBuffer fb = bb.duplicate().order(bb.order()).asFloatBuffer();
+        bb.position(pos);
+        return fb;
+    }
+
+    /**
+     * Creates the per component decoding tables of unsigned bytes to [0..255],
+     * the component at <code>alphaIndex</code> is not sRGB decoded, -2 disables sRGB decoding.
+     */
+    private static float[][] createLUTs(int components, int alphaIndex) {
+        final float[][] lut = new float[components][];
+        for(int k=0; k<components; k++) {
+            lut[k] = ( -2 == alphaIndex || k == alphaIndex ) ? byteToFloat : srgbToLinear;
+        }
+        return lut;
+    }
+
+    /** Averages 2x2 pixels of an unsigned byte image w/ even width and height, rounding like GLU. */
+    private static void halve(int components, int width, int height, byte[] src, byte[] dst) {
+        final int rowSize = width * components;
+        final int dstRowSize = ( width / 2 ) * components;
+        int t = 0;
+        for(int y=0; y<height; y+=2) {
+            int s = y * rowSize;
+            int s1 = s + rowSize;
+            final int end = t + dstRowSize;
+            while( t < end ) {
+                for(int k=0; k<components; k++, s++, s1++) {
+                    dst[t++] = (byte) ( ( ( 0xFF & src[s] ) + ( 0xFF & src[s+components] ) +
+                                          ( 0xFF & src[s1] ) + ( 0xFF & src[s1+components] ) + 2 ) >> 2 );
+                }
+                s += components;
+                s1 += components;
+            }
+        }
+    }
+
+    /** Per destination pixel source taps of one axis */
+    private static final class Taps {
+        final int[] first;
+        final int[] count;
+        final float[] weights;
+        final int stride;
+
+        Taps(Filter filter, int srcSize, int dstSize) {
+            final float scale = (float) srcSize / dstSize;
+            final float support = Filter.BOX == filter ? scale : filter.radius * scale;
+            stride = (int) Math.ceil(2f * support) + 2;
+            first = new int[dstSize];
+            count = new int[dstSize];
+            weights = new float[dstSize * stride];
+            for(int i=0; i<dstSize; i++) {
+                final float center = ( i + 0.5f ) * scale;
+                final int j0, j1;
+                if( Filter.BOX == filter ) {
+                    j0 = (int) Math.floor(i * scale);
+                    j1 = Math.min(srcSize, (int) Math.ceil(( i + 1 ) * scale));
+                } else {
+                    j0 = (int) Math.floor(center - support);
+                    j1 = (int) Math.ceil(center + support);
+                }
+                // taps outside of the image are clamped to the edge
+                final int f = Math.max(0, Math.min(srcSize - 1, j0));
+                final int c = Math.max(f, Math.min(srcSize - 1, j1 - 1)) - f + 1;
+                first[i] = f;
+                count[i] = c;
+                final int o = i * stride;
+                float sum = 0f;
+                for(int j=j0; j<j1; j++) {
+                    final float wj;
+                    if( Filter.BOX == filter ) {
+                        wj = Math.min(j + 1, ( i + 1 ) * scale) - Math.max(j, i * scale);
+                    } else {
+                        wj = filter.weight(( j + 0.5f - center ) / scale);
+                    }
+                    if( 0f != wj ) {
+                        weights[o + Math.max(0, Math.min(srcSize - 1, j)) - f] += wj;
+                        sum += wj;
+                    }
+                }
+                for(int k=0; k<c; k++) {
+                    weights[o + k] /= sum;
+                }
+            }
+        }
+    }
+
+    /**
+     * Resamples a tightly packed image w/ separable filter taps, vertical first into one float row,
+     * then horizontal into the destination row.
+     * @param srcLUT per component decoding of a byte[] source, null for a float[] source
+     * @param dstLUT per component sRGB decoding tables of a byte[] destination to encode w/, or null for linear bytes or a float[] destination
+     */
+    private static void downsample(Filter filter, int components, int width, int height, float[][] srcLUT, Object src,
+                                   int dstWidth, int dstHeight, float[][] dstLUT, Object dst) {
+        final Taps tx = new Taps(filter, width, dstWidth);
+        final Taps ty = new Taps(filter, height, dstHeight);
+        final int rowSize = width * components;
+        final float[] row = new float[rowSize];
+        final byte[] srcBytes = src instanceof byte[] ? (byte[]) src : null;
+        final float[] srcFloats = src instanceof float[] ? (float[]) src : null;
+        final byte[] dstBytes = dst instanceof byte[] ? (byte[]) dst : null;
+        final float[] dstFloats = dst instanceof float[] ? (float[]) dst : null;
+        int t = 0;
+        for(int y=0; y<dstHeight; y++) {
+            // vertical
+            Arrays.fill(row, 0f);
+            final int oy = y * ty.stride;
+            for(int n=0; n<ty.count[y]; n++) {
+                final float wy = ty.weights[oy + n];
+                final int s = ( ty.first[y] + n ) * rowSize;
+                if( null != srcFloats ) {
+                    for(int i=0; i<rowSize; i++) {
+                        row[i] += wy * srcFloats[s + i];
+                    }
+                } else {
+                    for(int k=0; k<components; k++) {
+                        final float[] lut = srcLUT[k];
+                        for(int i=k; i<rowSize; i+=components) {
+                            row[i] += wy * lut[ 0xFF & srcBytes[s + i] ];
+                        }
+                    }
+                }
+            }
+            // horizontal
+            for(int x=0; x<dstWidth; x++) {
+                final int ox = x * tx.stride;
+                final int c = tx.count[x];
+                final int s = tx.first[x] * components;
+                for(int k=0; k<components; k++, t++) {
+                    float v = 0f;
+                    for(int n=0, i=s+k; n<c; n++, i+=components) {
+                        v += tx.weights[ox + n] * row[i];
+                    }
+                    if( null != dstFloats ) {
+                        dstFloats[t] = v;
+                    } else if( null != dstLUT && srgbToLinear == dstLUT[k] ) {
+                        final float l = Math.max(0f, Math.min(1f, v / 255f));
+                        dstBytes[t] = linearToSRGB[ (int) ( l * SRGB_ENCODE_SIZE + 0.5f ) ];
+                    } else {
+                        dstBytes[t] = (byte) Math.max(0, Math.min(255, (int) ( v + 0.5f ) ));
+                    }
+                }
+            }
+        }
+    }
+}
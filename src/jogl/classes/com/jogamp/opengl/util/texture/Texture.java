@@ -465,9 +465,16 @@ public class Texture {
             haveAutoMipmapGeneration = false;
         }
 
+        // Supplied mipmap levels are uploaded as-is, unless the texture is expanded
+        // to power-of-two dimensions not matching their sizes; the levels are
+        // rebuilt from the base level then, as if none were supplied
+        final Buffer[] suppliedMipmapData = data.getMipmapData();
+        final boolean buildMipmaps = data.getMipmap() &&
+            (null == suppliedMipmapData || (!isPOT && !haveNPOT(gl)));
+
         boolean expandingCompressedTexture = false;
         boolean done = false;
-        if (data.getMipmap() && !haveAutoMipmapGeneration) {
+        if (buildMipmaps && !haveAutoMipmapGeneration) {
             // GLU always scales the texture's dimensions to be powers of
             // two. It also doesn't really matter exactly what the texture
             // width and height are because the texture coords are always
@@ -568,7 +575,7 @@ public class Texture {
             gl.glBindTexture(texTarget, texID);
         }
 
-        if (data.getMipmap() && !haveAutoMipmapGeneration) {
+        if (buildMipmaps && !haveAutoMipmapGeneration) {
             int[] align = new int[1];
             gl.glGetIntegerv(GL.GL_UNPACK_ALIGNMENT, align, 0); // save alignment
             gl.glPixelStorei(GL.GL_UNPACK_ALIGNMENT, data.getAlignment());
@@ -582,7 +589,8 @@ public class Texture {
                 GLU glu = GLU.createGLU(gl);
                 glu.gluBuild2DMipmaps(texTarget, data.getInternalFormat(),
                                       data.getWidth(), data.getHeight(),
-                                      data.getPixelFormat(), data.getPixelType(), data.getBuffer());
+                                      data.getPixelFormat(), data.getPixelType(),
+                                      null != suppliedMipmapData ? suppliedMipmapData[0] : data.getBuffer());
             } finally {
                 gl.glPixelStorei(GL.GL_UNPACK_ALIGNMENT, align[0]); // restore alignment
             }
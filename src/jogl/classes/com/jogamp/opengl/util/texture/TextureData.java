@@ -285,7 +285,9 @@ public class TextureData {
     public void setPixelType(int pixelType) { this.pixelType = pixelType; }
     /** Sets the intended OpenGL internal format of the texture data. */
     public void setInternalFormat(int internalFormat) { this.internalFormat = internalFormat; }
-    /** Sets whether mipmaps should be generated for the texture data. */
+    /** Sets whether mipmaps should be generated for the texture data.
+        If all levels are supplied via {@link #getMipmapData()}, e.g. by {@link MipmapGenerator},
+        none are generated but the texture is still minified w/ a mipmap filter. */
     public void setMipmap(boolean mipmap) { this.mipmap = mipmap; }
     /** Sets whether the texture data is in compressed form. */
     public void setIsDataCompressed(boolean compressed) { this.dataIsCompressed = compressed; }
@@ -45,12 +45,15 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.URISyntaxException;
 import java.net.URL;
 import java.nio.Buffer;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.media.opengl.GL;
 import javax.media.opengl.GL2;
@@ -721,6 +724,10 @@ public class TextureIO {
         // so we don't accidentally use it instead of a user's possibly
         // more optimal provider
         textureProviders.add(0, provider);
+        if (providersInitialized) {
+            // User providers take precedence over the provider index
+            userProviderCount++;
+        }
     }
 
     /** Adds a TextureWriter to support writing of a new file
@@ -768,6 +775,13 @@ public class TextureIO {
     private static List<TextureProvider> textureProviders = new ArrayList<TextureProvider>();
     private static List<TextureWriter>   textureWriters   = new ArrayList<TextureWriter>();
 
+    /** Provider per lower case file suffix, seeded w/ the built-in providers
+        and extended by the provider which read a file of a yet unknown suffix. */
+    private static final Map<String, TextureProvider> providerIndex = new ConcurrentHashMap<String, TextureProvider>();
+    private static volatile boolean providersInitialized = false;
+    /** Number of providers added by the user, i.e. at the front of textureProviders. */
+    private static volatile int userProviderCount = 0;
+
     static {
         // ImageIO provider, the fall-back, must be the first one added
         if(GLProfile.isAWTAvailable()) {
@@ -784,10 +798,20 @@ public class TextureIO {
         }
 
         // Other special-case providers
-        addTextureProvider(new DDSTextureProvider());
-        addTextureProvider(new SGITextureProvider());
-        addTextureProvider(new TGATextureProvider());
-        addTextureProvider(new PNGTextureProvider());
+        final TextureProvider ddsProvider = new DDSTextureProvider();
+        final TextureProvider sgiProvider = new SGITextureProvider();
+        final TextureProvider tgaProvider = new TGATextureProvider();
+        final TextureProvider pngProvider = new PNGTextureProvider();
+        addTextureProvider(ddsProvider);
+        addTextureProvider(sgiProvider);
+        addTextureProvider(tgaProvider);
+        addTextureProvider(pngProvider);
+        providerIndex.put(DDS, ddsProvider);
+        providerIndex.put(SGI, sgiProvider);
+        providerIndex.put(SGI_RGB, sgiProvider);
+        providerIndex.put(TGA, tgaProvider);
+        providerIndex.put(PNG, pngProvider);
+        providersInitialized = true;
 
         // ImageIO writer, the fall-back, must be the first one added
         if(GLProfile.isAWTAvailable()) {
@@ -816,10 +840,10 @@ public class TextureIO {
     }
 
     // Implementation methods
-    private static TextureData newTextureDataImpl(GLProfile glp, File file,
-                                                  int internalFormat,
-                                                  int pixelFormat,
-                                                  boolean mipmap,
+    private static TextureData newTextureDataImpl(final GLProfile glp, final File file,
+                                                  final int internalFormat,
+                                                  final int pixelFormat,
+                                                  final boolean mipmap,
                                                   String fileSuffix) throws IOException {
         if (file == null) {
             throw new IOException("File was null");
@@ -827,25 +851,34 @@ public class TextureIO {
 
         fileSuffix = toLowerCase(fileSuffix);
 
-        for (Iterator<TextureProvider> iter = textureProviders.iterator(); iter.hasNext(); ) {
-            TextureProvider provider = iter.next();
-            TextureData data = provider.newTextureData(glp, file,
-                                                       internalFormat,
-                                                       pixelFormat,
-                                                       mipmap,
-                                                       fileSuffix);
-            if (data != null) {
-                return data;
+        // Only peek at the header if the suffix is not indexed,
+        // saving one open per file
+        String formatSuffix = null;
+        if (fileSuffix == null || !providerIndex.containsKey(fileSuffix)) {
+            InputStream stream = new FileInputStream(file);
+            try {
+                formatSuffix = getFormatSuffix(stream);
+            } finally {
+                stream.close();
             }
         }
 
+        TextureData data = newTextureDataImpl(new ProviderCall() {
+                TextureData newTextureData(TextureProvider provider, String fileSuffix) throws IOException {
+                    return provider.newTextureData(glp, file, internalFormat, pixelFormat, mipmap, fileSuffix);
+                }
+            }, fileSuffix, formatSuffix);
+        if (data != null) {
+            return data;
+        }
+
         throw new IOException("No suitable reader for given file "+file.getAbsolutePath());
     }
 
-    private static TextureData newTextureDataImpl(GLProfile glp, InputStream stream,
-                                                  int internalFormat,
-                                                  int pixelFormat,
-                                                  boolean mipmap,
+    private static TextureData newTextureDataImpl(final GLProfile glp, InputStream stream,
+                                                  final int internalFormat,
+                                                  final int pixelFormat,
+                                                  final boolean mipmap,
                                                   String fileSuffix) throws IOException {
         if (stream == null) {
             throw new IOException("Stream was null");
@@ -857,26 +890,24 @@ public class TextureIO {
         if (!(stream instanceof BufferedInputStream)) {
             stream = new BufferedInputStream(stream);
         }
+        final InputStream bstream = stream;
 
-        for (Iterator<TextureProvider> iter = textureProviders.iterator(); iter.hasNext(); ) {
-            TextureProvider provider = iter.next();
-            TextureData data = provider.newTextureData(glp, stream,
-                                                       internalFormat,
-                                                       pixelFormat,
-                                                       mipmap,
-                                                       fileSuffix);
-            if (data != null) {
-                return data;
-            }
+        TextureData data = newTextureDataImpl(new ProviderCall() {
+                TextureData newTextureData(TextureProvider provider, String fileSuffix) throws IOException {
+                    return provider.newTextureData(glp, bstream, internalFormat, pixelFormat, mipmap, fileSuffix);
+                }
+            }, fileSuffix, getFormatSuffix(bstream));
+        if (data != null) {
+            return data;
         }
 
         throw new IOException("No suitable reader for given stream");
     }
 
-    private static TextureData newTextureDataImpl(GLProfile glp, URL url,
-                                                  int internalFormat,
-                                                  int pixelFormat,
-                                                  boolean mipmap,
+    private static TextureData newTextureDataImpl(final GLProfile glp, final URL url,
+                                                  final int internalFormat,
+                                                  final int pixelFormat,
+                                                  final boolean mipmap,
                                                   String fileSuffix) throws IOException {
         if (url == null) {
             throw new IOException("URL was null");
@@ -884,23 +915,155 @@ public class TextureIO {
 
         fileSuffix = toLowerCase(fileSuffix);
 
-        for (Iterator<TextureProvider> iter = textureProviders.iterator(); iter.hasNext(); ) {
-            TextureProvider provider = iter.next();
-            TextureData data = provider.newTextureData(glp, url,
-                                                       internalFormat,
-                                                       pixelFormat,
-                                                       mipmap,
-                                                       fileSuffix);
+        // No header peek, which would require to open the URL twice
+        TextureData data = newTextureDataImpl(new ProviderCall() {
+                TextureData newTextureData(TextureProvider provider, String fileSuffix) throws IOException {
+                    return provider.newTextureData(glp, url, internalFormat, pixelFormat, mipmap, fileSuffix);
+                }
+            }, fileSuffix, null);
+        if (data != null) {
+            return data;
+        }
+
+        throw new IOException("No suitable reader for given URL "+url);
+    }
+
+    /** One of the TextureProvider.newTextureData(..) methods w/ bound arguments. */
+    private static abstract class ProviderCall {
+        abstract TextureData newTextureData(TextureProvider provider, String fileSuffix) throws IOException;
+    }
+
+    /**
+     * Dispatches to the texture providers in the following order,
+     * returning the first non null result:
+     * <ol>
+     *   <li>all providers added by the user, in order,</li>
+     *   <li>the indexed provider of the format detected by the header, w/ the format's suffix,</li>
+     *   <li>the indexed provider of the given file suffix,</li>
+     *   <li>all remaining providers, in order.</li>
+     * </ol>
+     * A remaining provider reading the data is indexed for the given file suffix
+     * and the detected format, e.g. the ImageIO provider for JPEG files.
+     */
+    private static TextureData newTextureDataImpl(ProviderCall call, String fileSuffix, String formatSuffix) throws IOException {
+        final int userCount = userProviderCount;
+        for (int i = 0; i < userCount; i++) {
+            TextureData data = call.newTextureData(textureProviders.get(i), fileSuffix);
             if (data != null) {
                 return data;
             }
         }
 
-        throw new IOException("No suitable reader for given URL "+url);
+        TextureProvider formatProvider = null;
+        if (formatSuffix != null) {
+            formatProvider = providerIndex.get(formatSuffix);
+            if (formatProvider != null) {
+                TextureData data = call.newTextureData(formatProvider, formatSuffix);
+                if (data != null) {
+                    return data;
+                }
+            }
+        }
+
+        TextureProvider suffixProvider = null;
+        if (fileSuffix != null) {
+            suffixProvider = providerIndex.get(fileSuffix);
+            if (suffixProvider != null && suffixProvider != formatProvider) {
+                TextureData data = call.newTextureData(suffixProvider, fileSuffix);
+                if (data != null) {
+                    return data;
+                }
+            }
+        }
+
+        final int count = textureProviders.size();
+        for (int i = userCount; i < count; i++) {
+            TextureProvider provider = textureProviders.get(i);
+            if (provider == formatProvider || provider == suffixProvider) {
+                continue;
+            }
+            TextureData data = call.newTextureData(provider, fileSuffix);
+            if (data != null) {
+                if (fileSuffix != null && suffixProvider == null) {
+                    providerIndex.put(fileSuffix, provider);
+                }
+                if (formatSuffix != null && formatProvider == null) {
+                    providerIndex.put(formatSuffix, provider);
+                }
+                return data;
+            }
+        }
+
+        return null;
+    }
+
+    private static final int HEADER_PEEK_SIZE = 8;
+
+    /**
+     * Determines the image format from the header of the given stream.
+     * If the stream supports {@link InputStream#markSupported() mark}, it is reset,
+     * otherwise it shall be discarded.
+     * @return the suffix of the detected format, i.e. {@link #PNG}, {@link #DDS}, {@link #SGI},
+     *         {@link #JPG}, {@link #GIF} or {@link #TIFF}, or null if unknown
+     */
+    private static String getFormatSuffix(InputStream stream) throws IOException {
+        final byte[] header = new byte[HEADER_PEEK_SIZE];
+        final boolean mark = stream.markSupported();
+        if (mark) {
+            stream.mark(HEADER_PEEK_SIZE);
+        }
+        int len = 0;
+        try {
+            while (len < HEADER_PEEK_SIZE) {
+                final int n = stream.read(header, len, HEADER_PEEK_SIZE - len);
+                if (n < 0) {
+                    break;
+                }
+                len += n;
+            }
+        } finally {
+            if (mark) {
+                stream.reset();
+            }
+        }
+        return getFormatSuffix(header, len);
+    }
+
+    private static String getFormatSuffix(byte[] h, int len) {
+        if (len >= 8 &&
+            (h[0] & 0xff) == 0x89 && h[1] == 'P' && h[2] == 'N' && h[3] == 'G' &&
+            h[4] == 0x0D && h[5] == 0x0A && h[6] == 0x1A && h[7] == 0x0A) {
+            return PNG;
+        }
+        if (len >= 4) {
+            if (h[0] == 'D' && h[1] == 'D' && h[2] == 'S' && h[3] == ' ') {
+                return DDS;
+            }
+            if (h[0] == 'G' && h[1] == 'I' && h[2] == 'F' && h[3] == '8') {
+                return GIF;
+            }
+            if ((h[0] == 'I' && h[1] == 'I' && h[2] == 42 && h[3] == 0) ||
+                (h[0] == 'M' && h[1] == 'M' && h[2] == 0 && h[3] == 42)) {
+                return TIFF;
+            }
+        }
+        if (len >= 3 &&
+            (h[0] & 0xff) == 0xFF && (h[1] & 0xff) == 0xD8 && (h[2] & 0xff) == 0xFF) {
+            return JPG;
+        }
+        if (len >= 2 &&
+            h[0] == 0x01 && (h[1] & 0xff) == 0xDA) { // 474, big endian
+            return SGI;
+        }
+        return null;
     }
 
     //----------------------------------------------------------------------
     // DDS provider -- supports files only for now
+    //
+    // Files and file URLs are memory-mapped, see DDSImage.read(File),
+    // hence the TextureData's mipmap levels are slices of the mapping,
+    // which is released by the TextureData's Flusher.
     static class DDSTextureProvider implements TextureProvider {
         public TextureData newTextureData(GLProfile glp, File file,
                                           int internalFormat,
@@ -937,6 +1100,13 @@ public class TextureIO {
                                           int pixelFormat,
                                           boolean mipmap,
                                           String fileSuffix) throws IOException {
+            File file = toFile(url);
+            if (null != file) {
+                TextureData data = newTextureData(glp, file, internalFormat, pixelFormat, mipmap, fileSuffix);
+                if (null != data) {
+                    return data;
+                }
+            }
             InputStream stream = new BufferedInputStream(url.openStream());
             try {
                 return newTextureData(glp, stream, internalFormat, pixelFormat, mipmap, fileSuffix);
@@ -945,6 +1115,21 @@ public class TextureIO {
             }
         }
 
+        /** Returns the local file denoted by a <code>file:</code> URL, otherwise null. */
+        private static File toFile(URL url) {
+            if (!"file".equals(url.getProtocol())) {
+                return null;
+            }
+            try {
+                File file = new File(url.toURI());
+                return file.isFile() ? file : null;
+            } catch (URISyntaxException e) {
+                return null;
+            } catch (IllegalArgumentException e) {
+                return null; // URI w/ authority, query or fragment
+            }
+        }
+
         private TextureData newTextureData(GLProfile glp, final DDSImage image,
                                            int internalFormat,
                                            int pixelFormat,
@@ -1150,10 +1335,11 @@ public class TextureIO {
                     pixelFormat = image.getGLFormat();
                 }
                 if (internalFormat == 0) {
+                    final int bpp = image.getBytesPerPixel();
                     if(glp.isGL2GL3()) {
-                        internalFormat = (image.getBytesPerPixel()==4)?GL.GL_RGBA8:GL.GL_RGB8;
+                        internalFormat = (4 == bpp || 2 == bpp)?GL.GL_RGBA8:GL.GL_RGB8;
                     } else {
-                        internalFormat = (image.getBytesPerPixel()==4)?GL.GL_RGBA:GL.GL_RGB;
+                        internalFormat = image.getGLFormat(); // ES: internal format must match the pixel format
                     }
                 }
                 return new TextureData(glp, internalFormat,
@@ -1303,7 +1489,7 @@ public class TextureIO {
                     TGAImage image = TGAImage.createFromData(data.getWidth(),
                                                              data.getHeight(),
                                                              (pixelFormat == GL.GL_RGBA || pixelFormat == GL.GL_BGRA),
-                                                             false, buf);
+                                                             false, true /* RLE */, buf);
                     image.write(file);
                     return true;
                 }
@@ -0,0 +1,313 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ * 
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ * 
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.util.texture;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.media.opengl.GLAnimatorControl;
+import javax.media.opengl.GLAutoDrawable;
+import javax.media.opengl.GLRunnable;
+
+import jogamp.opengl.util.ParallelUtil;
+
+/**
+ * Queue of decoded {@link TextureData} to be turned into {@link Texture}s
+ * on the GL thread of one {@link GLAutoDrawable}.
+ * <p>
+ * If the drawable is animated by a running {@link GLAnimatorControl animator}, the queue is drained by itself being
+ * {@link GLAutoDrawable#invoke(boolean, GLRunnable) invoked} on the drawable,
+ * i.e. after all {@link javax.media.opengl.GLEventListener}s have been displayed.
+ * Each drain uploads textures until the given time budget per frame is exhausted,
+ * at least one texture per frame. Remaining textures are uploaded in the following frames,
+ * hence streaming in a large number of textures does not cause frame hitches.
+ * </p>
+ * <p>
+ * W/o a running animator, invoking the drain would force a {@link GLAutoDrawable#display()} per drain on the scheduler thread,
+ * hence the queue is not drained by itself. Instead the application drains it within its frames by calling
+ * {@link #drain(GLAutoDrawable)}, e.g. at the end of its {@link javax.media.opengl.GLEventListener#display(GLAutoDrawable) display} method.
+ * </p>
+ * <p>
+ * Each {@link TextureData} is {@link TextureData#flush() flushed} after upload,
+ * or if its {@link Future} has been cancelled before.
+ * </p>
+ * <p>
+ * Decoded data is usually passed by an {@link AsyncTextureLoader}, see
+ * {@link AsyncTextureLoader#newTexture(TextureUploadQueue, java.io.File, boolean, String)}.
+ * </p>
+ */
+public class TextureUploadQueue implements GLRunnable {
+    private static ExecutorService defaultScheduler;
+
+    /**
+     * Shared single daemon thread used to {@link GLAutoDrawable#invoke(boolean, GLRunnable) invoke}
+     * the drain, created lazily.
+     * <p>
+     * The drain is never invoked from the GL thread itself, since {@link GLAutoDrawable#invoke(boolean, GLRunnable)}
+     * would issue a recursive {@link GLAutoDrawable#display()} call if the animator's thread is the current one.
+     * </p>
+     */
+    private static synchronized Executor getDefaultScheduler() {
+        if( null == defaultScheduler ) {
+            defaultScheduler = Executors.newSingleThreadExecutor(ParallelUtil.createDaemonThreadFactory("TextureUploadQueue-Scheduler"));
+        }
+        return defaultScheduler;
+    }
+
+    /** Default time budget per frame in nanoseconds, 4ms. */
+    public static final long DEFAULT_BUDGET = 4000000L;
+
+    /** A pending upload, executed on the GL thread. */
+    class Upload extends FutureTask<Texture> {
+        volatile TextureData data;
+        volatile long enqueueTime;
+
+        Upload() {
+            this(new UploadCallable());
+        }
+
+        private Upload(UploadCallable callable) {
+            super(callable);
+            callable.upload = this;
+        }
+
+        void setFailed(Throwable t) {
+            setException(t);
+        }
+    }
+
+    private class UploadCallable implements Callable<Texture> {
+        Upload upload;
+
+        public Texture call() throws Exception {
+            final TextureData data = upload.data;
+            upload.data = null;
+            try {
+                return newTexture(currentDrawable, data);
+            } finally {
+                data.flush();
+            }
+        }
+    }
+
+    private final GLAutoDrawable drawable;
+    private final Executor scheduler;
+    private final ConcurrentLinkedQueue<Upload> queue = new ConcurrentLinkedQueue<Upload>();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean(false);
+    private final Runnable drainInvoker = new Runnable() {
+        public void run() {
+            requestDrain();
+        }
+    };
+    private volatile long budget;
+    private GLAutoDrawable currentDrawable; // only accessed on the GL thread
+
+    private volatile int uploadCount;
+    private volatile long totalLatency, maxLatency;
+
+    /**
+     * Creates a queue for the given drawable w/ the {@link #DEFAULT_BUDGET default} time budget per frame.
+     * @param drawable the {@link GLAutoDrawable} whose GL thread uploads the textures
+     */
+    public TextureUploadQueue(GLAutoDrawable drawable) {
+        this(drawable, DEFAULT_BUDGET, null);
+    }
+
+    /**
+     * Creates a queue for the given drawable.
+     * @param drawable the {@link GLAutoDrawable} whose GL thread uploads the textures
+     * @param budget time budget per frame in nanoseconds, at least one texture is uploaded per frame
+     * @param scheduler the {@link Executor} used to {@link GLAutoDrawable#invoke(boolean, GLRunnable) invoke}
+     *                  the drain off the GL thread, or null for a shared daemon thread
+     */
+    public TextureUploadQueue(GLAutoDrawable drawable, long budget, Executor scheduler) {
+        this.drawable = drawable;
+        this.budget = budget;
+        this.scheduler = null != scheduler ? scheduler : getDefaultScheduler();
+    }
+
+    public final GLAutoDrawable getDrawable() { return drawable; }
+
+    /** Returns the time budget per frame in nanoseconds. */
+    public final long getBudget() { return budget; }
+
+    /** Sets the time budget per frame in nanoseconds, at least one texture is uploaded per frame. */
+    public final void setBudget(long budget) { this.budget = budget; }
+
+    /** Returns the number of decoded textures waiting for upload. */
+    public final int getPendingCount() { return queue.size(); }
+
+    /** Returns the number of uploaded textures. */
+    public final int getUploadCount() { return uploadCount; }
+
+    /** Returns the total time in nanoseconds decoded textures waited for their upload. */
+    public final long getTotalLatency() { return totalLatency; }
+
+    /** Returns the maximum time in nanoseconds a decoded texture waited for its upload. */
+    public final long getMaxLatency() { return maxLatency; }
+
+    /** Resets upload count and latencies. */
+    public final void resetCounter() {
+        uploadCount = 0;
+        totalLatency = 0;
+        maxLatency = 0;
+    }
+
+    /**
+     * Enqueues the given decoded {@link TextureData} for upload.
+     * @return the future {@link Texture}
+     */
+    public final Future<Texture> upload(TextureData data) {
+        if( null == data ) {
+            throw new IllegalArgumentException("Null TextureData");
+        }
+        final Upload upload = new Upload();
+        enqueue(upload, data);
+        return upload;
+    }
+
+    /** Enqueues the given data for a previously created {@link Upload}, used by {@link AsyncTextureLoader}. */
+    final void enqueue(Upload upload, TextureData data) {
+        upload.data = data;
+        upload.enqueueTime = System.nanoTime();
+        queue.add(upload);
+        scheduleDrain();
+    }
+
+    /**
+     * Cancels all pending uploads, flushing their {@link TextureData}.
+     * @return the number of cancelled uploads
+     */
+    public final int clear() {
+        int n = 0;
+        Upload upload;
+        while( null != ( upload = queue.poll() ) ) {
+            upload.cancel(false);
+            flush(upload);
+            n++;
+        }
+        return n;
+    }
+
+    private final void scheduleDrain() {
+        if( !queue.isEmpty() && drainScheduled.compareAndSet(false, true) ) {
+            scheduler.execute(drainInvoker);
+        }
+    }
+
+    /**
+     * Requests a {@link #run(GLAutoDrawable) drain} on the GL thread,
+     * by default via {@link GLAutoDrawable#invoke(boolean, GLRunnable) invoke(false, this)}
+     * if the drawable is animated by a running animator, otherwise the drain is left to {@link #drain(GLAutoDrawable)}.
+     * <p>
+     * Called on the scheduler thread, never on the GL thread.
+     * </p>
+     */
+    protected void requestDrain() {
+        final GLAnimatorControl animator = drawable.getAnimator();
+        if( null != animator && animator.isAnimating() ) {
+            drawable.invoke(false, this);
+        } else {
+            // the next upload checks for a running animator again
+            drainScheduled.set(false);
+        }
+    }
+
+    /**
+     * Drains this queue within the time budget, at least one texture is uploaded if any is pending.
+     * <p>
+     * Shall be called on the GL thread w/ the drawable's context being current,
+     * e.g. at the end of a {@link javax.media.opengl.GLEventListener#display(GLAutoDrawable) display} method
+     * if the drawable is not animated, see {@link TextureUploadQueue}.
+     * </p>
+     */
+    public final void drain(GLAutoDrawable drawable) {
+        run(drawable);
+    }
+
+    /**
+     * Creates the {@link Texture} on the GL thread, by default via {@link TextureIO#newTexture(javax.media.opengl.GL, TextureData)}.
+     * The given {@link TextureData} is flushed afterwards.
+     */
+    protected Texture newTexture(GLAutoDrawable drawable, TextureData data) {
+        return TextureIO.newTexture(drawable.getGL(), data);
+    }
+
+    /**
+     * Drains this queue within the time budget, at least one texture is uploaded.
+     * <p>
+     * Invoked on the GL thread, see {@link #requestDrain()}.
+     * </p>
+     */
+    @Override
+    public boolean run(GLAutoDrawable drawable) {
+        // allow concurrent enqueue to schedule the next drain
+        drainScheduled.set(false);
+        currentDrawable = drawable;
+        try {
+            final long t0 = System.nanoTime();
+            long t1 = t0;
+            int n = 0;
+            Upload upload;
+            while( ( 0 == n || t1 - t0 < budget ) && null != ( upload = queue.poll() ) ) {
+                final long latency = t1 - upload.enqueueTime;
+                upload.run();
+                if( null != upload.data ) {
+                    // cancelled, hence not run
+                    flush(upload);
+                    continue;
+                }
+                n++;
+                uploadCount++;
+                totalLatency += latency;
+                if( latency > maxLatency ) {
+                    maxLatency = latency;
+                }
+                t1 = System.nanoTime();
+            }
+        } finally {
+            currentDrawable = null;
+        }
+        scheduleDrain();
+        return true;
+    }
+
+    private static void flush(Upload upload) {
+        final TextureData data = upload.data;
+        upload.data = null;
+        if( null != data ) {
+            data.flush();
+        }
+    }
+}
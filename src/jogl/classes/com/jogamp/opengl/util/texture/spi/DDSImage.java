@@ -48,6 +48,7 @@ import java.io.InputStream;
 import java.io.PrintStream;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
 
 import javax.media.opengl.GL;
@@ -88,8 +89,6 @@ public class DDSImage {
         }
     }
 
-    private FileInputStream fis;
-    private FileChannel     chan;
     private ByteBuffer buf;
     private Header header;
 
@@ -170,6 +169,12 @@ public class DDSImage {
     /** Reads a DirectDraw surface from the specified file, returning
         the resulting DDSImage.
 
+        <p>The file is memory-mapped read-only and its channel closed
+        right away; all {@link ImageInfo} data returned by {@link
+        #getMipMap(int, int)} are slices of this mapping, i.e. no pixel
+        data is copied onto the Java heap. The mapping is released
+        by {@link #close()} once all slices became unreachable.</p>
+
         @param file File object
         @return DDS image object
         @throws java.io.IOException if an I/O exception occurred
@@ -194,22 +199,18 @@ public class DDSImage {
     }
 
     /** Closes open files and resources associated with the open
-        DDSImage. No other methods may be called on this object once
-        this is called. */
+        DDSImage, i.e. drops the reference to a memory-mapped file,
+        which is unmapped after this DDSImage and all {@link ImageInfo}
+        data slices became unreachable. No other methods may be called
+        on this object once this is called. */
     public void close() {
-        try {
-            if (chan != null) {
-                chan.close();
-                chan = null;
-            }
-            if (fis != null) {
-                fis.close();
-                fis = null;
-            }
-            buf = null;
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+        buf = null;
+    }
+
+    /** Returns true if this DDSImage's data is memory-mapped from a file,
+        see {@link #read(File)}. */
+    public boolean isMapped() {
+        return buf instanceof MappedByteBuffer;
     }
 
     /** 
@@ -432,11 +433,12 @@ public class DDSImage {
         for (int i = 0; i < map; i++) {
             seek += mipMapSizeInBytes(i);
         }
-        buf.limit(seek + mipMapSizeInBytes(map));
-        buf.position(seek);
-        ByteBuffer next = buf.slice();
-        buf.position(0);
-        buf.limit(buf.capacity());
+        // Slice a duplicate, leaving the shared buffer's position and
+        // limit untouched, so ImageInfos may be fetched concurrently
+        ByteBuffer next = buf.duplicate();
+        next.limit(seek + mipMapSizeInBytes(map));
+        next.position(seek);
+        next = next.slice();
         return new ImageInfo(next, mipMapWidth(map), mipMapHeight(map), isCompressed(), getCompressionFormat());
     }
 
@@ -723,11 +725,19 @@ public class DDSImage {
     }
 
     private void readFromFile(File file) throws IOException {
-        fis = new FileInputStream(file);
-        chan = fis.getChannel();
-        ByteBuffer buf = chan.map(FileChannel.MapMode.READ_ONLY,
-                                  0, (int) file.length());
-        readFromBuffer(buf);
+        FileInputStream fis = new FileInputStream(file);
+        try {
+            FileChannel chan = fis.getChannel();
+            long size = chan.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("DDS file too large to be mapped: " + file + ", " + size + " bytes");
+            }
+            // The mapping stays valid after the channel is closed
+            ByteBuffer buf = chan.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            readFromBuffer(buf);
+        } finally {
+            fis.close();
+        }
     }
 
     private void readFromBuffer(ByteBuffer buf) throws IOException {
@@ -14,6 +14,7 @@ import jogamp.opengl.util.pngj.ImageInfo;
 import jogamp.opengl.util.pngj.ImageLine;
 import jogamp.opengl.util.pngj.PngReader;
 import jogamp.opengl.util.pngj.PngWriter;
+import jogamp.opengl.util.pngj.SpeedPreset;
 import jogamp.opengl.util.pngj.chunks.PngChunkTextVar;
 
 import com.jogamp.common.nio.Buffers;
@@ -31,19 +32,96 @@ public class PNGImage {
     
     /** Reads a PNG image from the specified InputStream. */
     public static PNGImage read(InputStream in) throws IOException {
-        return new PNGImage(in);
+        return new PNGImage(in, null);
     }
     
-    /** Reverse read and store, implicitly flip image to GL coords. */
-    private static final int getPixelRGBA8(ByteBuffer d, int dOff, ImageLine line, int lineOff, boolean hasAlpha) {
-        if(hasAlpha) {
-            d.put(dOff--, (byte)line.scanline[lineOff + 3]); // A
+    /** 
+     * Reads a PNG image from the specified InputStream into the given buffer, if it is large enough.
+     * <p>
+     * Allows the caller to recycle (pooled) direct buffers: if <code>dest</code> is not null
+     * and has at least <code>width * height * bytesPerPixel</code> bytes remaining, 
+     * the pixels are decoded into it starting at its position and {@link #getData()} returns a slice of it.
+     * Otherwise a new direct buffer is allocated.
+     * </p>
+     */
+    public static PNGImage read(InputStream in, ByteBuffer dest) throws IOException {
+        return new PNGImage(in, dest);
+    }
+    
+    /**
+     * Receives the strips of {@link PNGImage#readStrips(InputStream, int, StripListener)}.
+     */
+    public static interface StripListener {
+        /**
+         * Called once before the first strip, e.g. to allocate the texture.
+         * @param image the header only image, i.e. {@link PNGImage#getData()} returns null
+         */
+        void begin(PNGImage image);
+
+        /**
+         * Called for each strip, top of the image first.
+         * <p>
+         * The strip is only valid until this method returns, since its buffer is reused for the next strip.
+         * </p>
+         * @param image the header only image passed to {@link #begin(PNGImage)}
+         * @param strip <code>image.getWidth() * rows * image.getBytesPerPixel()</code> bytes, bottom-to-top
+         * @param y the OpenGL y offset (bottom-to-top) of the strip's first row, i.e. <code>height - top row - rows</code>
+         * @param rows the number of rows, the last strip may be lower
+         */
+        void strip(PNGImage image, ByteBuffer strip, int y, int rows);
+    }
+
+    /**
+     * Decodes a PNG image from the specified InputStream in strips of <code>stripRows</code> rows,
+     * passing each one to the listener as soon as it is decoded.
+     * <p>
+     * This allows to upload huge images in parts, keeping the peak memory at one strip
+     * instead of the whole image, e.g. w/ a texture allocated in {@link StripListener#begin(PNGImage) begin}:
+     * <pre>
+     *   public void strip(PNGImage image, ByteBuffer strip, int y, int rows) {
+     *       final TextureData data = new TextureData(glp, image.getGLFormat(), image.getWidth(), rows, 0,
+     *                                                image.getGLFormat(), image.getGLType(),
+     *                                                false, false, false, strip, null);
+     *       texture.updateSubImage(gl, data, 0, 0, y);
+     *   }
+     * </pre>
+     * Tiles can be uploaded from each strip w/ {@link com.jogamp.opengl.util.texture.Texture#updateSubImage(GL, com.jogamp.opengl.util.texture.TextureData, int, int, int, int, int, int, int)}.
+     * </p>
+     * <p>
+     * Interlaced images can only be decoded completely, their strips are slices of the whole image.
+     * </p>
+     */
+    public static void readStrips(InputStream in, int stripRows, StripListener listener) throws IOException {
+        if( 0 >= stripRows ) {
+            throw new IllegalArgumentException("stripRows "+stripRows+" <= 0");
         }
-        d.put(dOff--, (byte)line.scanline[lineOff + 2]); // B
-        d.put(dOff--, (byte)line.scanline[lineOff + 1]); // G        
-        d.put(dOff--, (byte)line.scanline[lineOff    ]); // R
-        return dOff;
-    }    
+        final PngReader pngr = new PngReader(new BufferedInputStream(in), null);
+        final PNGImage image = new PNGImage(pngr, null, false);
+        listener.begin(image);
+        final int height = image.getHeight();
+        final int stride = image.getWidth() * image.getBytesPerPixel();
+        if( pngr.isInterlaced() ) {
+            final ByteBuffer all = Buffers.newDirectByteBuffer(stride * height);
+            pngr.readRowsToBuffer(all, true /* flip to GL coords */);
+            for(int top = 0; top < height; top += stripRows) {
+                final int rows = Math.min(stripRows, height - top);
+                final int y = height - top - rows;
+                all.limit(( y + rows ) * stride);
+                all.position(y * stride);
+                listener.strip(image, all.slice(), y, rows);
+            }
+            return;
+        }
+        final ByteBuffer strip = Buffers.newDirectByteBuffer(stride * Math.min(stripRows, height));
+        int top = 0, rows;
+        while( 0 < ( rows = pngr.readRowsToBuffer(strip, stripRows, true /* flip to GL coords */) ) ) {
+            top += rows;
+            strip.limit(rows * stride);
+            listener.strip(image, strip, height - top, rows);
+            strip.clear();
+        }
+    }
+
     /** Reverse read and store, implicitly flip image from GL coords. Handle reversed channels (BGR[A])*/
     private static int setPixelRGBA8(ImageLine line, int lineOff, ByteBuffer d, int dOff, boolean hasAlpha, boolean reversedChannels) {
         if(reversedChannels) {
@@ -80,19 +158,17 @@ public class PNGImage {
         this.data = data;        
     }
     
-    private PNGImage(InputStream in) {
-        final PngReader pngr = new PngReader(new BufferedInputStream(in), null);
-        final int channels = pngr.imgInfo.channels;
-        if ( ! ( 1 == channels || 3 == channels || 4 == channels ) ) {
-            throw new RuntimeException("PNGImage can only handle Lum/RGB/RGBA [1/3/4 channels] images for now. Channels "+channels);
-        }
-        bytesPerPixel=pngr.imgInfo.bytesPixel;
-        if ( ! ( 1 == bytesPerPixel || 3 == bytesPerPixel || 4 == bytesPerPixel ) ) {
-            throw new RuntimeException("PNGImage can only handle Lum/RGB/RGBA [1/3/4 bpp] images for now. BytesPerPixel "+bytesPerPixel);
-        }
-        if(channels != bytesPerPixel) {
-            throw new RuntimeException("PNGImage currently only handles Channels [1/3/4] == BytePerPixel [1/3/4], channels: "+channels+", bytesPerPixel "+bytesPerPixel);
+    private PNGImage(InputStream in, ByteBuffer dest) {
+        this(new PngReader(new BufferedInputStream(in), null), dest, true);
+    }
+
+    /** Reads the header and, if <code>readData</code>, all pixels */
+    private PNGImage(PngReader pngr, ByteBuffer dest, boolean readData) {
+        if( pngr.imgInfo.bitDepth < 8 && pngr.imgInfo.alpha ) {
+            throw new RuntimeException("PNGImage: invalid bitDepth "+pngr.imgInfo.bitDepth+" with alpha channel");
         }
+        // Lum, LumA, RGB, RGBA, palette expanded to RGB[A]; 16 bit channels are truncated to 8 bit
+        bytesPerPixel = pngr.getBufferBytesPerPixel();
         pixelWidth=pngr.imgInfo.cols;
         pixelHeight=pngr.imgInfo.rows;
         dpi = new double[2];
@@ -101,31 +177,27 @@ public class PNGImage {
             dpi[0]=dpi2[0];
             dpi[1]=dpi2[1];
         }
-        switch(channels) {
+        switch(bytesPerPixel) {
             case 1: glFormat = GL.GL_LUMINANCE; break;
+            case 2: glFormat = GL.GL_LUMINANCE_ALPHA; break;
             case 3: glFormat = GL.GL_RGB; break;
             case 4: glFormat = GL.GL_RGBA; break;
-            default: throw new InternalError("XXX: channels: "+channels+", bytesPerPixel "+bytesPerPixel);
+            default: throw new InternalError("XXX: channels: "+pngr.imgInfo.channels+", bytesPerPixel "+bytesPerPixel);
         }
-        data = Buffers.newDirectByteBuffer(bytesPerPixel * pixelWidth * pixelHeight);
         reversedChannels = false; // RGB[A]
-        final boolean hasAlpha = 4 == channels;
-        int dataOff = bytesPerPixel * pixelWidth * pixelHeight - 1; // start at end-of-buffer, reverse store
-        for (int row = 0; row < pixelHeight; row++) {
-            final ImageLine l1 = pngr.readRow(row);
-            int lineOff = ( pixelWidth - 1 ) * bytesPerPixel ;      // start w/ last pixel in line, reverse read
-            if(1 == channels) {
-                for (int j = pixelWidth - 1; j >= 0; j--) {
-                    data.put(dataOff--, (byte)l1.scanline[lineOff--]); // Luminance, 1 bytesPerPixel
-                }
-            } else {
-                for (int j = pixelWidth - 1; j >= 0; j--) {
-                    dataOff = getPixelRGBA8(data, dataOff, l1, lineOff, hasAlpha);
-                    lineOff -= bytesPerPixel;
-                }
-            }
+        if( !readData ) {
+            data = null;
+            return;
+        }
+        final int size = bytesPerPixel * pixelWidth * pixelHeight;
+        if( null != dest && dest.remaining() >= size ) {
+            final ByteBuffer d = dest.slice();
+            d.limit(size);
+            data = d;
+        } else {
+            data = Buffers.newDirectByteBuffer(size);
         }
-        pngr.end();
+        pngr.readRowsToBuffer(data, true /* flip to GL coords */);
     }
     private final int pixelWidth, pixelHeight, glFormat, bytesPerPixel;
     private boolean reversedChannels;
@@ -144,7 +216,7 @@ public class PNGImage {
     /** Returns the dpi of the image. */
     public double[] getDpi() { return dpi; }
     
-    /** Returns the OpenGL format for this texture; e.g. GL.GL_LUMINANCE, GL.GL_RGB or GL.GL_RGBA. */
+    /** Returns the OpenGL format for this texture; e.g. GL.GL_LUMINANCE, GL.GL_LUMINANCE_ALPHA, GL.GL_RGB or GL.GL_RGBA. */
     public int getGLFormat() { return glFormat; }
     
     /** Returns the OpenGL data type: GL.GL_UNSIGNED_BYTE. */
@@ -157,12 +229,19 @@ public class PNGImage {
         (bottom-to-top) order for calls to glTexImage2D. */
     public ByteBuffer getData()  { return data; }
 
+    /**
+     * Writes this image as PNG, optimized for speed, as used for screenshots, e.g. by
+     * {@link com.jogamp.opengl.util.GLReadBufferUtil#write(File)}.
+     */
     public void write(File out, boolean allowOverwrite) throws IOException {        
-        final ImageInfo imi = new ImageInfo(pixelWidth, pixelHeight, 8, (4 == bytesPerPixel) ? true : false); // 8 bits per channel, no alpha 
+        final ImageInfo imi = new ImageInfo(pixelWidth, pixelHeight, 8, 2 == bytesPerPixel || 4 == bytesPerPixel, // 8 bits per channel
+                                            bytesPerPixel <= 2, false); // Lum[A] as grayscale
         // open image for writing to a output stream
         final OutputStream outs = new BufferedOutputStream(IOUtil.getFileOutputStream(out, allowOverwrite));
         try {
             final PngWriter png = new PngWriter(outs, imi); 
+            png.setSpeedPreset(SpeedPreset.FASTEST); // screenshots: speed over size
+            png.setParallelMode(null, 0); // big frames are encoded in bands on all cores
             // add some optional metadata (chunks)
             png.getMetadata().setDpi(dpi[0], dpi[1]);
             png.getMetadata().setTimeNow(0); // 0 seconds fron now = now
@@ -177,6 +256,12 @@ public class PNGImage {
                     for (int j = pixelWidth - 1; j >= 0; j--) {
                         l1.scanline[lineOff--] = data.get(dataOff--); // // Luminance, 1 bytesPerPixel
                     }
+                } else if(2 == bytesPerPixel) {
+                    for (int j = pixelWidth - 1; j >= 0; j--) {
+                        l1.scanline[lineOff + 1] = data.get(dataOff--); // Alpha
+                        l1.scanline[lineOff    ] = data.get(dataOff--); // Luminance
+                        lineOff -= bytesPerPixel;
+                    }
                 } else {
                     for (int j = pixelWidth - 1; j >= 0; j--) {
                         dataOff = setPixelRGBA8(l1, lineOff, data, dataOff, hasAlpha, reversedChannels);
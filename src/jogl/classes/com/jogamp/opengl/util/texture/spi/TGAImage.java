@@ -272,8 +272,17 @@ public class TGAImage {
         case Header.COLORMAPPED:
             throw new IOException("TGADecoder Compressed Colormapped images not supported");
 
-        case Header.TRUECOLOR:
-            throw new IOException("TGADecoder Compressed True Color images not supported");
+        case Header.TRUECOLOR:     // pixelDepth 15, 16, 24 and 32
+            switch (header.pixelDepth) {
+            case 16:
+                throw new IOException("TGADecoder Compressed 16-bit True Color images not supported");
+
+            case 24:
+            case 32:
+                decodeRGBImageRLE24_32(glp, dIn);
+                break;
+            }
+            break;
 
         case Header.BLACKWHITE:
             throw new IOException("TGADecoder Compressed Grayscale images not supported");
@@ -302,9 +311,136 @@ public class TGAImage {
             System.arraycopy(rawBuf, 0, tmpData, y * rawWidth, rawBuf.length);
         }
 
+        setPixelFormat(glp, tmpData, rawWidth);
+    }
+
+    /**
+     * This assumes that the body is a run-length encoded 24 bit or 32 bit
+     * RGB or ARGB image respectively.
+     * <p>
+     * The remaining stream is read in bulk and decoded packet by packet,
+     * see {@link #decodeRLE(ByteBuffer, byte[], int)}.
+     * </p>
+     */
+    private void decodeRGBImageRLE24_32(GLProfile glp, LEDataInputStream dIn) throws IOException {
+        final int pixelBytes = header.pixelDepth() / 8;
+        final int rawWidth = header.width() * pixelBytes;
+        final int height = header.height();
+        final byte[] tmpData = new byte[rawWidth * height];
+        // worst case: one packet header per pixel
+        final ByteBuffer src = readRemaining(dIn, tmpData.length / 2, tmpData.length + header.width() * height);
+        try {
+            decodeRLE(src, tmpData, pixelBytes);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("TGADecoder premature end of run-length encoded data");
+        }
+
+        if (header.topToBottom()) {
+            // same row order as decodeRGBImageU24_32
+            final byte[] rowBuf = new byte[rawWidth];
+            for (int i = 0, j = height - 1; i < j; ++i, --j) {
+                System.arraycopy(tmpData, i * rawWidth, rowBuf, 0, rawWidth);
+                System.arraycopy(tmpData, j * rawWidth, tmpData, i * rawWidth, rawWidth);
+                System.arraycopy(rowBuf, 0, tmpData, j * rawWidth, rawWidth);
+            }
+        }
+
+        setPixelFormat(glp, tmpData, rawWidth);
+    }
+
+    /** Reads up to <code>maxSize</code> bytes, i.e. until the end of the stream. */
+    private static ByteBuffer readRemaining(InputStream in, int initialSize, int maxSize) throws IOException {
+        byte[] buf = new byte[Math.max(Math.min(initialSize, maxSize), 1)];
+        int len = 0, n;
+        while (len < maxSize) {
+            if (len == buf.length) {
+                final byte[] tmp = new byte[(int) Math.min(2L * buf.length, maxSize)];
+                System.arraycopy(buf, 0, tmp, 0, len);
+                buf = tmp;
+            }
+            n = in.read(buf, len, buf.length - len);
+            if (n < 0) {
+                break;
+            }
+            len += n;
+        }
+        return ByteBuffer.wrap(buf, 0, len);
+    }
+
+    /**
+     * Decodes run-length encoded packets from <code>src</code> until <code>dst</code> is filled.
+     * Raw packets are copied in one block, runs are expanded by doubling the already copied range.
+     * Packets may cross scanlines.
+     *
+     * @throws BufferUnderflowException if <code>src</code> ends prematurely
+     */
+    private static void decodeRLE(ByteBuffer src, byte[] dst, int pixelBytes) {
+        final int end = dst.length;
+        int off = 0;
+        while (off < end) {
+            final int packet = src.get() & 0xFF;
+            final int n = Math.min(((packet & 0x7F) + 1) * pixelBytes, end - off);
+            if ((packet & 0x80) != 0) {
+                src.get(dst, off, pixelBytes);
+                for (int len = pixelBytes; len < n; len <<= 1) {
+                    System.arraycopy(dst, off, dst, off + len, Math.min(len, n - len));
+                }
+            } else {
+                src.get(dst, off, n);
+            }
+            off += n;
+        }
+    }
+
+    /**
+     * Run-length encodes one scanline w/o crossing its end, as required by the format.
+     * Runs of at least two equal pixels are emitted as run packets, everything else as raw packets.
+     *
+     * @return the new offset in <code>dst</code>, which must have room for
+     *         <code>row.length + (row.length / pixelBytes + 127) / 128</code> bytes
+     */
+    private static int encodeRLE(byte[] row, int pixelBytes, byte[] dst, int off) {
+        final int n = row.length / pixelBytes;
+        int i = 0;
+        while (i < n) {
+            int run = 1;
+            while (run < 128 && i + run < n && samePixel(row, i * pixelBytes, (i + run) * pixelBytes, pixelBytes)) {
+                run++;
+            }
+            if (run > 1) {
+                dst[off++] = (byte) (0x80 | (run - 1));
+                System.arraycopy(row, i * pixelBytes, dst, off, pixelBytes);
+                off += pixelBytes;
+                i += run;
+            } else {
+                // raw packet up to the next run
+                int raw = 1;
+                while (raw < 128 && i + raw < n &&
+                       !( i + raw + 1 < n && samePixel(row, (i + raw) * pixelBytes, (i + raw + 1) * pixelBytes, pixelBytes) ) ) {
+                    raw++;
+                }
+                dst[off++] = (byte) (raw - 1);
+                System.arraycopy(row, i * pixelBytes, dst, off, raw * pixelBytes);
+                off += raw * pixelBytes;
+                i += raw;
+            }
+        }
+        return off;
+    }
+
+    private static boolean samePixel(byte[] row, int a, int b, int pixelBytes) {
+        for (int k = 0; k < pixelBytes; k++) {
+            if (row[a + k] != row[b + k]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void setPixelFormat(GLProfile glp, byte[] tmpData, int rawWidth) {
         if (header.pixelDepth() == 24) {
             bpp=3;
-            if(glp.isGL2GL3()) {
+            if(null != glp && glp.isGL2GL3()) {
                 format = GL2GL3.GL_BGR;
             } else {
                 format = GL.GL_RGB;
@@ -313,7 +449,7 @@ public class TGAImage {
         } else {
             assert header.pixelDepth() == 32;
             bpp=4;
-            boolean useBGRA = glp.isGL2GL3();
+            boolean useBGRA = null != glp && glp.isGL2GL3();
             if(!useBGRA) {
                 final GLContext ctx = GLContext.getCurrent();
                 useBGRA = null != ctx && ctx.isTextureFormatBGRA8888Available();
@@ -364,7 +500,13 @@ public class TGAImage {
         return read(glp, new FileInputStream(filename));
     }
 
-    /** Reads a Targa image from the specified InputStream. */
+    /**
+     * Reads a Targa image from the specified InputStream,
+     * uncompressed or run-length encoded true color w/ 24 or 32 bit.
+     * <p>
+     * If <code>glp</code> is null, the data is converted to RGB[A] unless a current context supports BGRA.
+     * </p>
+     */
     public static TGAImage read(GLProfile glp, InputStream in) throws IOException {
         LEDataInputStream dIn = new LEDataInputStream(new BufferedInputStream(in));
 
@@ -379,7 +521,10 @@ public class TGAImage {
         write(new File(filename));
     }
 
-    /** Writes the image in Targa format to the specified file. */
+    /**
+     * Writes the image in Targa format to the specified file,
+     * run-length encoded if created so, see {@link #createFromData(int, int, boolean, boolean, boolean, ByteBuffer)}.
+     */
     public void write(File file) throws IOException {
         FileOutputStream stream = IOUtil.getFileOutputStream(file, true);
         FileChannel chan = stream.getChannel();
@@ -388,13 +533,42 @@ public class TGAImage {
         header.write(buf);
         buf.rewind();
         chan.write(buf);
-        chan.write(data);
+        if (header.imageType() == Header.TRUECOLOR) {
+            writeRLE(chan);
+        } else {
+            chan.write(data);
+        }
         chan.force(true);
         chan.close();
         stream.close();
         data.rewind();
     }
 
+    /** Encodes scanline by scanline into a block buffer, written whenever the next scanline might not fit. */
+    private void writeRLE(FileChannel chan) throws IOException {
+        final int pixelBytes = header.pixelDepth() / 8;
+        final byte[] row = new byte[header.width() * pixelBytes];
+        final int maxRowSize = row.length + (header.width() + 127) / 128;
+        final byte[] block = new byte[Math.max(maxRowSize, 64 * 1024)];
+        final ByteBuffer src = data.duplicate();
+        int off = 0;
+        for (int i = 0; i < header.height(); i++) {
+            if (off + maxRowSize > block.length) {
+                writeFully(chan, ByteBuffer.wrap(block, 0, off));
+                off = 0;
+            }
+            src.get(row);
+            off = encodeRLE(row, pixelBytes, block, off);
+        }
+        writeFully(chan, ByteBuffer.wrap(block, 0, off));
+    }
+
+    private static void writeFully(FileChannel chan, ByteBuffer buf) throws IOException {
+        while (buf.hasRemaining()) {
+            chan.write(buf);
+        }
+    }
+
     /** Creates a TGAImage from data supplied by the end user. Shares
         data with the passed ByteBuffer. Assumes the data is already in
         the correct byte order for writing to disk, i.e., BGR or
@@ -404,8 +578,21 @@ public class TGAImage {
                                           boolean hasAlpha,
                                           boolean topToBottom,
                                           ByteBuffer data) {
+        return createFromData(width, height, hasAlpha, topToBottom, false, data);
+    }
+
+    /** Creates a TGAImage from data supplied by the end user, like
+        {@link #createFromData(int, int, boolean, boolean, ByteBuffer)}.
+        If <code>runLengthEncoded</code> is true, it is written run-length encoded,
+        which is much smaller for images w/ uniform areas, e.g. rendered frames. */
+    public static TGAImage createFromData(int width,
+                                          int height,
+                                          boolean hasAlpha,
+                                          boolean topToBottom,
+                                          boolean runLengthEncoded,
+                                          ByteBuffer data) {
         Header header = new Header();
-        header.imageType = Header.UTRUECOLOR;
+        header.imageType = runLengthEncoded ? Header.TRUECOLOR : Header.UTRUECOLOR;
         header.width = width;
         header.height = height;
         header.pixelDepth = (byte) (hasAlpha ? 32 : 24);
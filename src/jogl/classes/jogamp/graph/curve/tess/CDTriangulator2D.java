@@ -48,7 +48,7 @@ public class CDTriangulator2D implements Triangulator{
 
     protected static final boolean DEBUG = Debug.debug("Triangulation");
     
-    private float sharpness = 0.5f;
+    private final float sharpness = 0.5f;
     private ArrayList<Loop> loops;
     private ArrayList<Vertex> vertices;
     
@@ -81,13 +81,17 @@ public class CDTriangulator2D implements Triangulator{
         
         if(loop == null) {
             GraphOutline outline = new GraphOutline(polyline);
-            GraphOutline innerPoly = extractBoundaryTriangles(outline, false);
+            final int triCount = triangles.size();
+            GraphOutline innerPoly = extractBoundaryTriangles(outline, false, sharpness, triangles, maxTriID);
+            maxTriID += triangles.size() - triCount;
             vertices.addAll(polyline.getVertices());
             loop = new Loop(innerPoly, VectorUtil.Winding.CCW);
             loops.add(loop);
         } else {
             GraphOutline outline = new GraphOutline(polyline);
-            GraphOutline innerPoly = extractBoundaryTriangles(outline, true);
+            final int triCount = triangles.size();
+            GraphOutline innerPoly = extractBoundaryTriangles(outline, true, sharpness, triangles, maxTriID);
+            maxTriID += triangles.size() - triCount;
             vertices.addAll(innerPoly.getVertices());
             loop.addConstraintCurve(innerPoly);
         }
@@ -131,7 +135,16 @@ public class CDTriangulator2D implements Triangulator{
         return triangles;
     }
 
-    private GraphOutline extractBoundaryTriangles(GraphOutline outline, boolean hole) {
+    /**
+     * Adds one boundary triangle for each off-curve vertex of the given outline to <code>triangles</code>,
+     * numbered from <code>firstTriID</code>, and returns the inner polygon left to be triangulated.
+     * <p>
+     * Shared by all triangulators, so curve rendering does not depend on the chosen algorithm.
+     * </p>
+     */
+    static GraphOutline extractBoundaryTriangles(GraphOutline outline, boolean hole, float sharpness,
+                                                 ArrayList<Triangle> triangles, int firstTriID) {
+        int triID = firstTriID;
         GraphOutline innerOutline = new GraphOutline();
         ArrayList<GraphVertex> outVertices = outline.getGraphPoint();
         int size = outVertices.size();
@@ -159,7 +172,7 @@ public class CDTriangulator2D implements Triangulator{
                     holeLike = true;
                     t = new Triangle(v2, v1, v0);
                 }
-                t.setId(maxTriID++);
+                t.setId(triID++);
                 triangles.add(t);
                 if(DEBUG){
                     System.err.println(t);
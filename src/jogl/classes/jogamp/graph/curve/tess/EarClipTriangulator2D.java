@@ -0,0 +1,130 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+
+package jogamp.graph.curve.tess;
+
+import java.util.ArrayList;
+
+import com.jogamp.graph.curve.tess.Triangulator;
+import com.jogamp.graph.geom.Outline;
+import com.jogamp.graph.geom.Triangle;
+import com.jogamp.graph.geom.Vertex;
+
+/**
+ * Ear clipping triangulation of a list of Outlines that define a set of
+ * Closed Regions with optional n holes.
+ * <p>
+ * Outlines are classified as regions and holes and the boundary triangles of
+ * off-curve vertices are extracted exactly as in {@link CDTriangulator2D}.
+ * Holes are bridged into their region, which is then clipped ear by ear, see {@link EarClipper}.
+ * The triangulation is close to O(n) for typical outlines,
+ * instead of the O(n<sup>2</sup>) ear search of {@link CDTriangulator2D}.
+ * </p>
+ * <p>
+ * Ear clipping does not produce a Delaunay triangulation, i.e. more sliver triangles may appear.
+ * </p>
+ * @see PackedEarClipTriangulator
+ */
+public class EarClipTriangulator2D extends EarClipper implements Triangulator {
+
+    private final float sharpness = 0.5f;
+
+    private ArrayList<Triangle> triangles;
+    private int maxTriID = 0;
+
+    /** inner polygon vertices of all rings, indexed by the ring nodes */
+    private final ArrayList<GraphVertex> points = new ArrayList<GraphVertex>();
+    private int[] ringVertices = new int[0];
+    private float[] ringCoords = new float[0];
+
+    /** Constructor for a new ear clipping triangulator
+     */
+    public EarClipTriangulator2D() {
+        reset();
+    }
+
+    /** Reset the triangulation to initial state
+     *  Clearing cached data
+     */
+    public void reset() {
+        maxTriID = 0;
+        triangles = new ArrayList<Triangle>(3);
+        points.clear();
+        clear();
+    }
+
+    public void addCurve(Outline polyline) {
+        final ArrayList<Vertex> vertices = polyline.getVertices();
+        final int count = vertices.size();
+        if( ringCoords.length < 2*count ) {
+            ringCoords = new float[2*count];
+            ringVertices = new int[count];
+        }
+        for(int i=0; i<count; i++) {
+            final Vertex v = vertices.get(i);
+            ringCoords[2*i] = v.getX();
+            ringCoords[2*i+1] = v.getY();
+        }
+        final Region region = getContainerRegion(ringCoords, 2, count);
+        final boolean hole = null != region;
+        final GraphOutline outline = new GraphOutline(polyline);
+        final int triCount = triangles.size();
+        final GraphOutline innerPoly = CDTriangulator2D.extractBoundaryTriangles(outline, hole, sharpness, triangles, maxTriID);
+        maxTriID += triangles.size() - triCount;
+
+        final ArrayList<GraphVertex> inner = innerPoly.getGraphPoint();
+        final int innerCount = inner.size();
+        for(int i=0; i<innerCount; i++) {
+            final GraphVertex gv = inner.get(i);
+            ringVertices[i] = points.size();
+            ringCoords[2*i] = gv.getX();
+            ringCoords[2*i+1] = gv.getY();
+            points.add(gv);
+        }
+        if( !addRing(ringVertices, ringCoords, innerCount, region) && DEBUG ) {
+            System.err.println("EarClipTriangulator2D: Skipped degenerate outline w/ "+innerCount+" vertices");
+        }
+    }
+
+    public ArrayList<Triangle> generate() {
+        clipRegions();
+        points.clear();
+        return triangles;
+    }
+
+    protected void addTriangle(int va, int vb, int vc) {
+        final GraphVertex a = points.get(va), b = points.get(vb), c = points.get(vc);
+        final Triangle t = new Triangle(a.getPoint(), b.getPoint(), c.getPoint());
+        t.setVerticesBoundary(new boolean[] { a.isBoundaryContained(), b.isBoundaryContained(), c.isBoundaryContained() });
+        t.setId(maxTriID++);
+        triangles.add(t);
+        if(DEBUG){
+            System.err.println(t);
+        }
+    }
+}
@@ -0,0 +1,747 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+
+package jogamp.graph.curve.tess;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Ear clipping core shared by {@link EarClipTriangulator2D} and {@link PackedEarClipTriangulator}.
+ * <p>
+ * Rings are stored as structure of arrays, i.e. node <code>i</code> has its coordinates in <code>nx[i]</code>, <code>ny[i]</code>,
+ * its links in <code>prev[i]</code>, <code>next[i]</code>, etc., and refers to a vertex index of the subclass,
+ * which is passed to {@link #addTriangle(int, int, int)}. Bridging holes and splitting rings adds nodes
+ * sharing the vertex index of the original node.
+ * </p>
+ * <p>
+ * Only reflex vertices can lie within an ear, hence regions with more than {@link #INDEX_THRESHOLD} vertices
+ * keep their reflex vertices in a uniform grid and the ear test only visits the grid cells covered by the candidate ear.
+ * Candidate ears are tested in rounds: a round queues the whole ring and each clipped ear queues its two neighbours again.
+ * Vertices rejected due to a reflex vertex, which turned convex later on, are only found by the next round.
+ * Each round is linear in the number of vertices and typical outlines need few rounds,
+ * while the worst case remains quadratic like walking the ring for each ear.
+ * </p>
+ */
+abstract class EarClipper {
+
+    protected static final boolean DEBUG = CDTriangulator2D.DEBUG;
+
+    /** Regions with more vertices use the grid of reflex vertices for the ear test, value {@value}. */
+    public static final int INDEX_THRESHOLD = 64;
+
+    private static final int NIL = -1;
+
+    // ring nodes
+    private int nodeCount = 0;
+    private float[] nx = new float[0], ny = new float[0];
+    private int[] vertex = new int[0], prev = new int[0], next = new int[0];
+    private int[] cell = new int[0], prevInCell = new int[0], nextInCell = new int[0];
+    private boolean[] removed = new boolean[0];
+
+    private final ArrayList<Region> regions = new ArrayList<Region>();
+
+    // grid of reflex vertices of the ring being clipped, if indexed
+    private boolean indexed;
+    private int[] cells = new int[0];
+    private int cols, rows;
+    private float minX, minY, invCellWidth, invCellHeight, cellWidth, cellHeight;
+
+    // ear candidates, capacity is a power of two
+    private int[] queue = new int[64];
+    private int queueHead, queueSize;
+
+    /** An outer ring w/ its holes. */
+    final class Region {
+        final int outer;
+        final float[] coords; // outer ring, for hole classification
+        final int coordCount;
+        final float minX, minY, maxX, maxY;
+        int[] holes = new int[0];
+        int holeCount = 0;
+        int size; // vertices incl. holes
+
+        Region(int outer, int size) {
+            this.outer = outer;
+            this.size = size;
+            coordCount = size;
+            coords = new float[2*size];
+            float x0 = Float.MAX_VALUE, y0 = Float.MAX_VALUE, x1 = -Float.MAX_VALUE, y1 = -Float.MAX_VALUE;
+            int p = outer;
+            for(int i=0; i<size; i++, p = next[p]) {
+                final float x = nx[p], y = ny[p];
+                coords[2*i] = x;
+                coords[2*i+1] = y;
+                x0 = Math.min(x0, x); y0 = Math.min(y0, y);
+                x1 = Math.max(x1, x); y1 = Math.max(y1, y);
+            }
+            minX = x0; minY = y0; maxX = x1; maxY = y1;
+        }
+
+        void addHole(int hole, int holeSize) {
+            if( holeCount == holes.length ) {
+                holes = Arrays.copyOf(holes, Math.max(4, 2*holes.length));
+            }
+            holes[holeCount++] = hole;
+            size += holeSize;
+        }
+
+        /** Same even-odd test as {@link Loop#checkInside(com.jogamp.graph.geom.Vertex)}. */
+        boolean checkInside(float x, float y) {
+            if( x < minX || x > maxX || y < minY || y > maxY ) {
+                return false;
+            }
+            boolean inside = false;
+            for(int i=0, j=coordCount-1; i<coordCount; j=i++) {
+                final float x1 = coords[2*i], y1 = coords[2*i+1];
+                final float x2 = coords[2*j], y2 = coords[2*j+1];
+                if( ( (y1 > y) != (y2 > y) ) &&
+                    ( x < (x2 - x1) * (y - y1) / (y2 - y1) + x1 ) ) {
+                    inside = !inside;
+                }
+            }
+            return inside;
+        }
+    }
+
+    /**
+     * Receives a triangle of the given vertex indices, counter clockwise.
+     */
+    protected abstract void addTriangle(int va, int vb, int vc);
+
+    /** Discards all rings and regions. */
+    protected void clear() {
+        nodeCount = 0;
+        regions.clear();
+    }
+
+    /**
+     * @param coords vertex coordinates, x and y of vertex <code>i</code> at <code>i*stride</code> and <code>i*stride+1</code>
+     * @return the first region containing any of the given vertices, or null if none, i.e. the vertices define a new region
+     */
+    final Region getContainerRegion(float[] coords, int stride, int count) {
+        for(int i=0; i < regions.size(); i++) {
+            final Region region = regions.get(i);
+            for(int j=0; j < count; j++) {
+                if( region.checkInside(coords[j*stride], coords[j*stride+1]) ) {
+                    return region;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Adds a ring of the given vertices w/ the requested winding, CCW for regions and CW for holes,
+     * dropping repeated vertices like the closing vertex of a closed outline.
+     * @param vertices vertex indices, passed to {@link #addTriangle(int, int, int)}
+     * @param xy x and y of each vertex
+     * @param count number of vertices
+     * @param container the region the ring is a hole of, or null to add a new region
+     * @return false if the ring was skipped, since less than 3 vertices remain
+     */
+    final boolean addRing(int[] vertices, float[] xy, int count, Region container) {
+        final int first = nodeCount;
+        int last = NIL;
+        for(int i=0; i<count; i++) {
+            final float x = xy[2*i], y = xy[2*i+1];
+            if( NIL == last || nx[last] != x || ny[last] != y ) {
+                last = newNode(vertices[i], x, y);
+            }
+        }
+        while( nodeCount - first > 1 && equals(first, nodeCount-1) ) {
+            nodeCount--;
+        }
+        final int n = nodeCount - first;
+        if( n < 3 ) {
+            nodeCount = first;
+            return false;
+        }
+        double area = 0;
+        for(int i=0, j=n-1; i<n; j=i++) {
+            final int a = first + j, b = first + i;
+            area += (double)nx[a] * ny[b] - (double)nx[b] * ny[a];
+        }
+        final boolean reverse = ( area > 0 ) != ( null == container );
+        for(int i=0; i<n; i++) {
+            final int a = first + i;
+            final int b = first + ( i + 1 ) % n;
+            if( !reverse ) {
+                next[a] = b;
+                prev[b] = a;
+            } else {
+                next[b] = a;
+                prev[a] = b;
+            }
+        }
+        if( null == container ) {
+            regions.add(new Region(first, n));
+        } else {
+            container.addHole(first, n);
+        }
+        return true;
+    }
+
+    /** Clips all regions and discards them afterwards. */
+    final void clipRegions() {
+        for(int i=0; i<regions.size(); i++) {
+            final Region region = regions.get(i);
+            int ring = region.outer;
+            if( 0 < region.holeCount ) {
+                ring = eliminateHoles(region, ring);
+            }
+            indexed = region.size > INDEX_THRESHOLD;
+            if( indexed ) {
+                // about two cells per vertex
+                final float width = Math.max(region.maxX - region.minX, Float.MIN_VALUE);
+                final float height = Math.max(region.maxY - region.minY, Float.MIN_VALUE);
+                final double cellSize = Math.sqrt( (double)width * height / ( 2.0 * region.size ) );
+                cols = (int) Math.max(1, Math.min(region.size, Math.ceil(width / cellSize)));
+                rows = (int) Math.max(1, Math.min(region.size, Math.ceil(height / cellSize)));
+                if( cells.length < cols * rows ) {
+                    cells = new int[cols * rows];
+                }
+                minX = region.minX;
+                minY = region.minY;
+                cellWidth = width / cols;
+                cellHeight = height / rows;
+                invCellWidth = 1f / cellWidth;
+                invCellHeight = 1f / cellHeight;
+            }
+            earClip(ring, 0);
+        }
+        clear();
+    }
+
+    private int newNode(int v, float x, float y) {
+        if( nodeCount == nx.length ) {
+            final int capacity = Math.max(64, 2 * nx.length);
+            nx = Arrays.copyOf(nx, capacity);
+            ny = Arrays.copyOf(ny, capacity);
+            vertex = Arrays.copyOf(vertex, capacity);
+            prev = Arrays.copyOf(prev, capacity);
+            next = Arrays.copyOf(next, capacity);
+            cell = Arrays.copyOf(cell, capacity);
+            prevInCell = Arrays.copyOf(prevInCell, capacity);
+            nextInCell = Arrays.copyOf(nextInCell, capacity);
+            removed = Arrays.copyOf(removed, capacity);
+        }
+        final int p = nodeCount++;
+        nx[p] = x;
+        ny[p] = y;
+        vertex[p] = v;
+        prev[p] = NIL;
+        next[p] = NIL;
+        cell[p] = NIL;
+        prevInCell[p] = NIL;
+        nextInCell[p] = NIL;
+        removed[p] = false;
+        return p;
+    }
+
+    private final Comparator<Integer> rightmostFirst = new Comparator<Integer>() {
+        public int compare(Integer a, Integer b) {
+            final float ax = nx[a.intValue()], bx = nx[b.intValue()];
+            return ax > bx ? -1 : ( ax < bx ? 1 : 0 );
+        }
+    };
+
+    /** Bridges all holes into the outer ring, rightmost hole first. */
+    private int eliminateHoles(Region region, int outer) {
+        final Integer[] rightmost = new Integer[region.holeCount];
+        for(int i=0; i<region.holeCount; i++) {
+            rightmost[i] = Integer.valueOf(getRightmost(region.holes[i]));
+        }
+        Arrays.sort(rightmost, rightmostFirst);
+        for(int i=0; i<rightmost.length; i++) {
+            final int hole = rightmost[i].intValue();
+            final int bridge = findHoleBridge(hole, outer);
+            if( NIL != bridge ) {
+                splitPolygon(bridge, hole);
+            } else if(DEBUG) {
+                System.err.println("EarClipper: No bridge for hole at "+nx[hole]+"/"+ny[hole]);
+            }
+        }
+        return outer;
+    }
+
+    private int getRightmost(int start) {
+        int p = start, rightmost = start;
+        do {
+            if( nx[p] > nx[rightmost] || ( nx[p] == nx[rightmost] && ny[p] < ny[rightmost] ) ) {
+                rightmost = p;
+            }
+            p = next[p];
+        } while( p != start );
+        return rightmost;
+    }
+
+    /**
+     * Finds a ring vertex visible from the given rightmost hole vertex (David Eberly's algorithm),
+     * casting a ray in +x direction.
+     */
+    private int findHoleBridge(int hole, int outer) {
+        final float hx = nx[hole], hy = ny[hole];
+        float qx = Float.MAX_VALUE;
+        int m = NIL;
+
+        // closest edge crossing the ray, edges leaving the interior run upwards
+        int p = outer;
+        do {
+            final int n = next[p];
+            final float px = nx[p], py = ny[p], qnx = nx[n], qny = ny[n];
+            if( hy >= py && hy <= qny && qny != py ) {
+                final float x = px + ( hy - py ) * ( qnx - px ) / ( qny - py );
+                if( x >= hx && x < qx ) {
+                    qx = x;
+                    if( x == hx ) {
+                        if( hy == py ) {
+                            return p;
+                        }
+                        if( hy == qny ) {
+                            return n;
+                        }
+                    }
+                    m = px > qnx ? p : n;
+                }
+            }
+            p = n;
+        } while( p != outer );
+
+        if( NIL == m ) {
+            return NIL;
+        }
+        if( hx == qx ) {
+            return m; // hole touches the outer edge
+        }
+
+        // vertices inside the triangle of hole, intersection and m may hide m,
+        // take the one w/ the least angle to the ray
+        final int stop = m;
+        final float mx = nx[m], my = ny[m];
+        float tanMin = Float.MAX_VALUE;
+        p = m;
+        do {
+            final float px = nx[p], py = ny[p];
+            if( hx <= px && px <= mx && hx != px &&
+                pointInTriangleAnyWinding(hx, hy, qx, hy, mx, my, px, py) ) {
+                final float tan = Math.abs(hy - py) / ( px - hx );
+                if( locallyInside(p, hole) && ( tan < tanMin || ( tan == tanMin && px < nx[m] ) ) ) {
+                    m = p;
+                    tanMin = tan;
+                }
+            }
+            p = next[p];
+        } while( p != stop );
+        return m;
+    }
+
+    private void enqueue(int p) {
+        if( queueSize == queue.length ) {
+            final int[] q = new int[2 * queue.length];
+            for(int i=0; i<queueSize; i++) {
+                q[i] = queue[( queueHead + i ) & ( queue.length - 1 )];
+            }
+            queue = q;
+            queueHead = 0;
+        }
+        queue[( queueHead + queueSize++ ) & ( queue.length - 1 )] = p;
+    }
+
+    private int dequeue() {
+        final int p = queue[queueHead];
+        queueHead = ( queueHead + 1 ) & ( queue.length - 1 );
+        queueSize--;
+        return p;
+    }
+
+    /**
+     * Clips all ears of the given ring, w/ fallbacks for self intersecting or degenerate rings.
+     * <p>
+     * Clipping an ear changes the ear status of its two neighbours, hence those are queued again.
+     * It may also turn a reflex neighbour convex, which no longer blocks other vertices from being an ear.
+     * These are not tracked, instead the remaining ring is queued again once the queue runs dry,
+     * until a whole round clips no ear.
+     * </p>
+     */
+    private void earClip(int start, int pass) {
+        if( NIL == start ) {
+            return;
+        }
+        if( indexed ) {
+            indexReflex(start);
+        }
+        queueHead = 0;
+        queueSize = 0;
+        int alive = start;
+        boolean clipped = true; // since the last round started
+        while( prev[alive] != next[alive] ) {
+            if( 0 == queueSize ) {
+                if( !clipped ) {
+                    break;
+                }
+                clipped = false;
+                int p = alive;
+                do {
+                    enqueue(p);
+                    p = next[p];
+                } while( p != alive );
+            }
+            final int ear = dequeue();
+            if( removed[ear] ) {
+                continue;
+            }
+            if( indexed ? isEarIndexed(ear) : isEar(ear) ) {
+                final int a = prev[ear];
+                final int c = next[ear];
+                addTriangle(vertex[a], vertex[ear], vertex[c]);
+                removeNode(ear);
+                // reflex neighbours may turn convex, never vice versa
+                if( NIL != cell[a] && orient(prev[a], a, next[a]) > 0 ) {
+                    cellRemove(a);
+                }
+                if( NIL != cell[c] && orient(prev[c], c, next[c]) > 0 ) {
+                    cellRemove(c);
+                }
+                enqueue(a);
+                enqueue(c);
+                alive = c;
+                clipped = true;
+            }
+        }
+        if( prev[alive] != next[alive] ) {
+            // no ear left
+            if( 0 == pass ) {
+                earClip(filterPoints(alive, NIL), 1);
+            } else if( 1 == pass ) {
+                earClip(cureLocalIntersections(filterPoints(alive, NIL)), 2);
+            } else {
+                splitEarClip(alive);
+            }
+        }
+    }
+
+    private boolean isEar(int ear) {
+        final int a = prev[ear], b = ear, c = next[ear];
+        if( orient(a, b, c) <= 0 ) {
+            return false; // reflex
+        }
+        int p = next[c];
+        while( p != a ) {
+            if( pointInTriangle(a, b, c, p) && orient(prev[p], p, next[p]) <= 0 ) {
+                return false;
+            }
+            p = next[p];
+        }
+        return true;
+    }
+
+    private boolean isEarIndexed(int ear) {
+        final int a = prev[ear], b = ear, c = next[ear];
+        if( orient(a, b, c) <= 0 ) {
+            return false; // reflex
+        }
+        final float tMinY = Math.min(ny[a], Math.min(ny[b], ny[c])), tMaxY = Math.max(ny[a], Math.max(ny[b], ny[c]));
+        final int r0 = row(tMinY), r1 = row(tMaxY);
+        for(int r=r0; r<=r1; r++) {
+            // x extent of the ear within the row, slightly widened against rounding
+            final float eps = cellHeight * 1e-3f;
+            final float y0 = Math.max(tMinY, minY + r * cellHeight - eps);
+            final float y1 = Math.min(tMaxY, minY + ( r + 1 ) * cellHeight + eps);
+            float x0 = Float.MAX_VALUE, x1 = -Float.MAX_VALUE;
+            for(int e=0; e<3; e++) {
+                final int p = 0 == e ? a : ( 1 == e ? b : c );
+                final int q = 0 == e ? b : ( 1 == e ? c : a );
+                final float px = nx[p], py = ny[p], qx = nx[q], qy = ny[q];
+                final float pqMinY = Math.min(py, qy), pqMaxY = Math.max(py, qy);
+                if( pqMaxY < y0 || pqMinY > y1 ) {
+                    continue;
+                }
+                if( py == qy ) {
+                    x0 = Math.min(x0, Math.min(px, qx));
+                    x1 = Math.max(x1, Math.max(px, qx));
+                } else {
+                    final float dxdy = ( qx - px ) / ( qy - py );
+                    final float xa = px + ( Math.max(y0, pqMinY) - py ) * dxdy;
+                    final float xb = px + ( Math.min(y1, pqMaxY) - py ) * dxdy;
+                    x0 = Math.min(x0, Math.min(xa, xb));
+                    x1 = Math.max(x1, Math.max(xa, xb));
+                }
+            }
+            if( x0 > x1 ) {
+                continue;
+            }
+            final int c1 = col(x1 + cellWidth * 1e-3f);
+            for(int col=col(x0 - cellWidth * 1e-3f); col<=c1; col++) {
+                for(int p = cells[r * cols + col]; NIL != p; p = nextInCell[p]) {
+                    if( p != a && p != c && pointInTriangle(a, b, c, p) && orient(prev[p], p, next[p]) <= 0 ) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /** Clips a pair of crossing edges a-b, c-d as triangle a-b-d. */
+    private int cureLocalIntersections(int start) {
+        if( NIL == start ) {
+            return NIL;
+        }
+        int p = start;
+        do {
+            final int a = prev[p], b = next[next[p]];
+            if( !equals(a, b) && intersects(a, p, next[p], b) && locallyInside(a, b) && locallyInside(b, a) ) {
+                addTriangle(vertex[a], vertex[p], vertex[b]);
+                removeNode(p);
+                removeNode(next[p]);
+                p = start = b;
+            }
+            p = next[p];
+        } while( p != start );
+        return filterPoints(p, NIL);
+    }
+
+    /** Splits the ring at a valid diagonal and clips both halves. */
+    private void splitEarClip(int start) {
+        int a = start;
+        do {
+            int b = next[next[a]];
+            while( b != prev[a] ) {
+                if( vertex[a] != vertex[b] && isValidDiagonal(a, b) ) {
+                    int c = splitPolygon(a, b);
+                    a = filterPoints(a, next[a]);
+                    c = filterPoints(c, next[c]);
+                    earClip(a, 0);
+                    earClip(c, 0);
+                    return;
+                }
+                b = next[b];
+            }
+            a = next[a];
+        } while( a != start );
+        if(DEBUG){
+            System.err.println("Triangulation not complete!");
+        }
+    }
+
+    /** Removes repeated and collinear vertices. */
+    private int filterPoints(int start, int end) {
+        if( NIL == start ) {
+            return NIL;
+        }
+        if( NIL == end ) {
+            end = start;
+        }
+        int p = start;
+        boolean again;
+        do {
+            again = false;
+            if( equals(p, next[p]) || 0 == orient(prev[p], p, next[p]) ) {
+                removeNode(p);
+                p = end = prev[p];
+                if( p == next[p] ) {
+                    return NIL;
+                }
+                again = true;
+            } else {
+                p = next[p];
+            }
+        } while( again || p != end );
+        return end;
+    }
+
+    /**
+     * Links a to b w/ a pair of bridge edges.
+     * Splits the ring if both belong to the same ring, otherwise merges b's ring (a hole) into a's ring.
+     * @return the copy of b, starting the second ring if split
+     */
+    private int splitPolygon(int a, int b) {
+        final int a2 = newNode(vertex[a], nx[a], ny[a]);
+        final int b2 = newNode(vertex[b], nx[b], ny[b]);
+        final int an = next[a], bp = prev[b];
+        next[a] = b;
+        prev[b] = a;
+        next[a2] = an;
+        prev[an] = a2;
+        next[b2] = a2;
+        prev[a2] = b2;
+        next[bp] = b2;
+        prev[b2] = bp;
+        return b2;
+    }
+
+    private void removeNode(int p) {
+        removed[p] = true;
+        prev[next[p]] = prev[p];
+        next[prev[p]] = next[p];
+        if( NIL != cell[p] ) {
+            cellRemove(p);
+        }
+    }
+
+    private int col(float x) {
+        return Math.max(0, Math.min(cols - 1, (int) ( ( x - minX ) * invCellWidth )));
+    }
+
+    private int row(float y) {
+        return Math.max(0, Math.min(rows - 1, (int) ( ( y - minY ) * invCellHeight )));
+    }
+
+    /** Puts all reflex vertices of the ring into the cleared grid. */
+    private void indexReflex(int start) {
+        Arrays.fill(cells, 0, cols * rows, NIL);
+        int p = start;
+        do {
+            cell[p] = NIL;
+            prevInCell[p] = NIL;
+            nextInCell[p] = NIL;
+            if( orient(prev[p], p, next[p]) <= 0 ) {
+                final int c = row(ny[p]) * cols + col(nx[p]);
+                final int head = cells[c];
+                cell[p] = c;
+                nextInCell[p] = head;
+                if( NIL != head ) {
+                    prevInCell[head] = p;
+                }
+                cells[c] = p;
+            }
+            p = next[p];
+        } while( p != start );
+    }
+
+    private void cellRemove(int p) {
+        if( NIL != prevInCell[p] ) {
+            nextInCell[prevInCell[p]] = nextInCell[p];
+        } else {
+            cells[cell[p]] = nextInCell[p];
+        }
+        if( NIL != nextInCell[p] ) {
+            prevInCell[nextInCell[p]] = prevInCell[p];
+        }
+        cell[p] = NIL;
+        prevInCell[p] = NIL;
+        nextInCell[p] = NIL;
+    }
+
+    /** @return twice the signed area of a-b-c, positive if CCW */
+    private double orient(int a, int b, int c) {
+        return orient(nx[a], ny[a], nx[b], ny[b], nx[c], ny[c]);
+    }
+
+    private static double orient(float ax, float ay, float bx, float by, float cx, float cy) {
+        return ( (double)bx - ax ) * ( (double)cy - ay ) - ( (double)by - ay ) * ( (double)cx - ax );
+    }
+
+    /** Inclusive test of p against the CCW triangle a-b-c. */
+    private boolean pointInTriangle(int a, int b, int c, int p) {
+        return orient(a, b, p) >= 0 && orient(b, c, p) >= 0 && orient(c, a, p) >= 0;
+    }
+
+    private static boolean pointInTriangleAnyWinding(float ax, float ay, float bx, float by, float cx, float cy, float px, float py) {
+        final double d1 = orient(ax, ay, bx, by, px, py);
+        final double d2 = orient(bx, by, cx, cy, px, py);
+        final double d3 = orient(cx, cy, ax, ay, px, py);
+        return ( d1 >= 0 && d2 >= 0 && d3 >= 0 ) || ( d1 <= 0 && d2 <= 0 && d3 <= 0 );
+    }
+
+    private boolean equals(int a, int b) {
+        return nx[a] == nx[b] && ny[a] == ny[b];
+    }
+
+    private static int sign(double v) {
+        return v > 0 ? 1 : ( v < 0 ? -1 : 0 );
+    }
+
+    /** @return true if q lies on the bounding box of segment p-r, assuming p, q and r are collinear */
+    private boolean onSegment(int p, int q, int r) {
+        return nx[q] <= Math.max(nx[p], nx[r]) && nx[q] >= Math.min(nx[p], nx[r]) &&
+               ny[q] <= Math.max(ny[p], ny[r]) && ny[q] >= Math.min(ny[p], ny[r]);
+    }
+
+    /** @return true if segments p1-q1 and p2-q2 intersect */
+    private boolean intersects(int p1, int q1, int p2, int q2) {
+        final int o1 = sign(orient(p1, q1, p2));
+        final int o2 = sign(orient(p1, q1, q2));
+        final int o3 = sign(orient(p2, q2, p1));
+        final int o4 = sign(orient(p2, q2, q1));
+        if( o1 != o2 && o3 != o4 ) {
+            return true;
+        }
+        return ( 0 == o1 && onSegment(p1, p2, q1) ) ||
+               ( 0 == o2 && onSegment(p1, q2, q1) ) ||
+               ( 0 == o3 && onSegment(p2, p1, q2) ) ||
+               ( 0 == o4 && onSegment(p2, q1, q2) );
+    }
+
+    /** @return true if the diagonal a-b intersects any ring edge not incident to a or b */
+    private boolean intersectsPolygon(int a, int b) {
+        final int va = vertex[a], vb = vertex[b];
+        int p = a;
+        do {
+            final int n = next[p];
+            if( vertex[p] != va && vertex[n] != va && vertex[p] != vb && vertex[n] != vb &&
+                intersects(p, n, a, b) ) {
+                return true;
+            }
+            p = n;
+        } while( p != a );
+        return false;
+    }
+
+    /** @return true if the diagonal a-b starts into the interior at a */
+    private boolean locallyInside(int a, int b) {
+        if( orient(prev[a], a, next[a]) >= 0 ) {
+            return orient(a, next[a], b) >= 0 && orient(a, b, prev[a]) >= 0;
+        } else {
+            return orient(a, prev[a], b) <= 0 || orient(a, b, next[a]) <= 0;
+        }
+    }
+
+    /** @return true if the midpoint of the diagonal a-b is inside the ring */
+    private boolean middleInside(int a, int b) {
+        final float px = ( nx[a] + nx[b] ) / 2f, py = ( ny[a] + ny[b] ) / 2f;
+        boolean inside = false;
+        int p = a;
+        do {
+            final int n = next[p];
+            if( ( ( ny[p] > py ) != ( ny[n] > py ) ) && ny[n] != ny[p] &&
+                ( px < ( nx[n] - nx[p] ) * ( py - ny[p] ) / ( ny[n] - ny[p] ) + nx[p] ) ) {
+                inside = !inside;
+            }
+            p = n;
+        } while( p != a );
+        return inside;
+    }
+
+    private boolean isValidDiagonal(int a, int b) {
+        return vertex[next[a]] != vertex[b] && vertex[prev[a]] != vertex[b] && !intersectsPolygon(a, b) &&
+               locallyInside(a, b) && locallyInside(b, a) && middleInside(a, b);
+    }
+}
@@ -202,7 +202,8 @@ public class Loop {
                 GraphVertex cand = vertices.get(pos);
                 float distance = VectorUtil.computeLength(v.getCoord(), cand.getCoord());
                 if(distance < minDistance){
-                    for (GraphVertex vert:vertices){
+                    for(int k=0; k<vertices.size(); k++) {
+                        final GraphVertex vert = vertices.get(k);
                         if(vert == v || vert == nextV || vert == cand)
                             continue;
                         inValid = VectorUtil.inCircle(v.getPoint(), nextV.getPoint(), 
@@ -0,0 +1,159 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+
+package jogamp.graph.curve.tess;
+
+import java.util.Arrays;
+
+import com.jogamp.graph.geom.PackedOutline;
+
+/**
+ * Ear clipping triangulation of {@link PackedOutline}s into an index list,
+ * producing the same triangles as {@link EarClipTriangulator2D} w/o any per vertex or per triangle objects.
+ * <p>
+ * The off-curve boundary triangles are extracted as in {@link CDTriangulator2D#extractBoundaryTriangles(GraphOutline, boolean, float, java.util.ArrayList, int)},
+ * their vertices are appended to the vertex buffer as copies w/ the curve's texture coordinates.
+ * </p>
+ * <p>
+ * Instances are not thread safe, but may be reused.
+ * </p>
+ */
+public class PackedEarClipTriangulator extends EarClipper {
+
+    private final float sharpness = 0.5f;
+
+    private PackedOutline vertices;
+    private int[] indices = new int[0];
+    private int indexCount;
+
+    private int[] ringVertices = new int[0];
+    private float[] ringCoords = new float[0];
+
+    /**
+     * Triangulates the given closed outlines, sorted from large to small bounds like {@link com.jogamp.graph.curve.OutlineShape#triangulate()}.
+     * @param outlines outlines, not modified
+     * @param vertices receives all outline vertices in order, followed by the copied vertices of the boundary triangles,
+     *        must not be one of the <code>outlines</code>
+     * @return triangle indices into <code>vertices</code>, 3 per triangle, counter clockwise
+     */
+    public int[] triangulate(PackedOutline[] outlines, PackedOutline vertices) {
+        final PackedOutline[] sorted = outlines.clone();
+        Arrays.sort(sorted);
+        for(int i=0, j=sorted.length-1; i<j; i++, j--) {
+            final PackedOutline t = sorted[i];
+            sorted[i] = sorted[j];
+            sorted[j] = t;
+        }
+        this.vertices = vertices;
+        indexCount = 0;
+        try {
+            for(int i=0; i<sorted.length; i++) {
+                addOutline(sorted[i]);
+            }
+            clipRegions();
+            return Arrays.copyOf(indices, indexCount);
+        } finally {
+            this.vertices = null;
+            clear();
+        }
+    }
+
+    private void addOutline(PackedOutline outline) {
+        final int count = outline.getVertexCount();
+        final float[] coords = outline.getCoords();
+        final float[] texCoords = outline.getTexCoords();
+        final Region region = getContainerRegion(coords, 3, count);
+        final boolean hole = null != region;
+
+        final int base = vertices.getVertexCount();
+        vertices.ensureCapacity(base + count);
+        for(int i=0; i<count; i++) {
+            final int idx = vertices.addVertex(coords[3*i], coords[3*i+1], coords[3*i+2], outline.isOnCurve(i));
+            vertices.setTexCoord(idx, texCoords[2*i], texCoords[2*i+1]);
+        }
+
+        if( ringVertices.length < count ) {
+            ringVertices = new int[count];
+            ringCoords = new float[2*count];
+        }
+        int innerCount = 0;
+        for(int i=0; i < count; i++) {
+            final int i0 = (i+count-1)%count;
+            final int i2 = (i+1)%count;
+            if( !outline.isOnCurve(i) ) {
+                final int v0 = copyVertex(base + i0);
+                final int v1 = copyVertex(base + i);
+                final int v2 = copyVertex(base + i2);
+                final boolean holeLike = !ccw(coords, i0, i, i2);
+                if( !holeLike ) {
+                    addTriangle(v0, v1, v2);
+                } else {
+                    addTriangle(v2, v1, v0);
+                }
+                if( hole || holeLike ) {
+                    vertices.setTexCoord(v0, 0, -0.1f);
+                    vertices.setTexCoord(v2, 1, -0.1f);
+                    vertices.setTexCoord(v1, 0.5f, -1*sharpness -0.1f);
+                } else {
+                    vertices.setTexCoord(v0, 0, 0.1f);
+                    vertices.setTexCoord(v2, 1, 0.1f);
+                    vertices.setTexCoord(v1, 0.5f, sharpness+0.1f);
+                    continue;
+                }
+            }
+            ringVertices[innerCount] = base + i;
+            ringCoords[2*innerCount] = coords[3*i];
+            ringCoords[2*innerCount+1] = coords[3*i+1];
+            innerCount++;
+        }
+        if( !addRing(ringVertices, ringCoords, innerCount, region) && DEBUG ) {
+            System.err.println("PackedEarClipTriangulator: Skipped degenerate outline w/ "+innerCount+" vertices");
+        }
+    }
+
+    private int copyVertex(int idx) {
+        final int copy = vertices.addVertex(vertices.getX(idx), vertices.getY(idx), vertices.getZ(idx), vertices.isOnCurve(idx));
+        vertices.setTexCoord(copy, vertices.getTexCoordS(idx), vertices.getTexCoordT(idx));
+        return copy;
+    }
+
+    /** Same as {@link com.jogamp.opengl.math.VectorUtil#ccw(com.jogamp.opengl.math.Vert2fImmutable, com.jogamp.opengl.math.Vert2fImmutable, com.jogamp.opengl.math.Vert2fImmutable)}. */
+    private static boolean ccw(float[] coords, int a, int b, int c) {
+        final float ax = coords[3*a], ay = coords[3*a+1];
+        return (coords[3*b] - ax) * (coords[3*c+1] - ay) - (coords[3*b+1] - ay) * (coords[3*c] - ax) > 0;
+    }
+
+    protected void addTriangle(int va, int vb, int vc) {
+        if( indexCount + 3 > indices.length ) {
+            indices = Arrays.copyOf(indices, Math.max(64, 2*indices.length));
+        }
+        indices[indexCount++] = va;
+        indices[indexCount++] = vb;
+        indices[indexCount++] = vc;
+    }
+}
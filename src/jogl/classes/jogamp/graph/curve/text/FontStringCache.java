@@ -0,0 +1,216 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package jogamp.graph.curve.text;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.jogamp.graph.font.Font;
+
+/**
+ * Least recently used cache of values keyed by ({@link Font} identity, font size, {@link String}),
+ * e.g. the {@link GlyphString}s of a {@link com.jogamp.graph.curve.opengl.TextRenderer},
+ * based on an access ordered {@link LinkedHashMap}.
+ * <p>
+ * If a {@link #setLimit(int) limit} is set, {@link #put(Font, String, int, Object) put}
+ * evicts the least recently used value to stay within it, see {@link #trim(int)} for a lowered limit.
+ * Evicted values are passed to the {@link EvictionListener}, e.g. to destroy them.
+ * </p>
+ * <p>
+ * Lookups reuse one key instance, hence they don't allocate.
+ * </p>
+ * <p>
+ * Not thread safe.
+ * </p>
+ */
+public class FontStringCache<V> {
+    /** Receives the values evicted to stay within the limit. */
+    public interface EvictionListener<V> {
+        void evicted(V value);
+    }
+
+    private static final class Key {
+        Font font;
+        String str;
+        int size;
+        int hash;
+
+        Key set(Font font, String str, int size) {
+            this.font = font;
+            this.str = str;
+            this.size = size;
+            hash = 31 * ( 31 * System.identityHashCode(font) + size ) + str.hashCode();
+            return this;
+        }
+
+        /** Releases the references of the reused lookup key. */
+        void release() {
+            font = null;
+            str = null;
+        }
+
+        public int hashCode() { return hash; }
+
+        public boolean equals(Object o) {
+            final Key k = (Key) o;
+            return font == k.font && size == k.size && str.equals(k.str);
+        }
+    }
+
+    private final Key probe = new Key();
+    private final LinkedHashMap<Key, V> map;
+    private final EvictionListener<V> listener;
+    private int limit = -1;
+    private long hits, misses, evictions;
+
+    /**
+     * @param initialCapacity expected number of entries
+     * @param listener receives the evicted values, may be null
+     */
+    public FontStringCache(int initialCapacity, EvictionListener<V> listener) {
+        this.listener = listener;
+        map = new LinkedHashMap<Key, V>(initialCapacity * 4 / 3 + 1, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, V> eldest) {
+                if( 0 <= limit && size() > limit ) {
+                    evicted(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    private void evicted(V value) {
+        evictions++;
+        if( null != listener ) {
+            listener.evicted(value);
+        }
+    }
+
+    /** Sets the maximum number of values kept by {@link #put(Font, String, int, Object) put}, -1 for unlimited. */
+    public final void setLimit(int limit) { this.limit = limit; }
+
+    public final int getLimit() { return limit; }
+
+    /**
+     * Returns the cached value and marks it most recently used, or <code>null</code>.
+     * Counts a {@link #getHitCount() hit} or {@link #getMissCount() miss}.
+     */
+    public final V get(Font font, String str, int size) {
+        final V value = map.get(probe.set(font, str, size));
+        probe.release();
+        if( null == value ) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return value;
+    }
+
+    /** Returns <code>true</code> if a value is cached, w/o modifying the access order or counters. */
+    public final boolean contains(Font font, String str, int size) {
+        final boolean r = map.containsKey(probe.set(font, str, size));
+        probe.release();
+        return r;
+    }
+
+    /**
+     * Caches the value as the most recently used one, evicting the least recently used one if the limit is exceeded.
+     * @return the previously cached value, or <code>null</code>
+     */
+    public final V put(Font font, String str, int size, V value) {
+        return map.put(new Key().set(font, str, size), value);
+    }
+
+    /**
+     * Removes the value.
+     * @return the removed value, or <code>null</code>
+     */
+    public final V remove(Font font, String str, int size) {
+        final V value = map.remove(probe.set(font, str, size));
+        probe.release();
+        return value;
+    }
+
+    /**
+     * Removes the <code>index</code>-th least recently used value in O(index).
+     * @return the removed value, or <code>null</code> if there are not more than <code>index</code> values
+     */
+    public final V remove(int index) {
+        final Iterator<V> it = map.values().iterator();
+        for(int i=0; i<index && it.hasNext(); i++) {
+            it.next();
+        }
+        if( !it.hasNext() ) {
+            return null;
+        }
+        final V value = it.next();
+        it.remove();
+        return value;
+    }
+
+    /**
+     * Removes the least recently used value.
+     * @return the removed value, or <code>null</code> if empty
+     */
+    public final V removeEldest() {
+        return remove(0);
+    }
+
+    /** Evicts the least recently used values until at most <code>maxSize</code> are left. */
+    public final void trim(int maxSize) {
+        while( map.size() > Math.max(0, maxSize) ) {
+            evicted(removeEldest());
+        }
+    }
+
+    /** Returns the number of cached values. */
+    public final int size() { return map.size(); }
+
+    /** Removes all values w/o passing them to the listener, use {@link #removeEldest()} if they need to be destroyed. */
+    public final void clear() { map.clear(); }
+
+    public final long getHitCount() { return hits; }
+    public final long getMissCount() { return misses; }
+    public final long getEvictionCount() { return evictions; }
+
+    /** Resets the hit, miss and eviction counter. */
+    public final void resetCounter() {
+        hits = 0;
+        misses = 0;
+        evictions = 0;
+    }
+
+    public String toString() {
+        return "FontStringCache[size "+map.size()+", limit "+limit+", hits "+hits+", misses "+misses+", evictions "+evictions+"]";
+    }
+}
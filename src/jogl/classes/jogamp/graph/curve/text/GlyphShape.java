@@ -40,11 +40,15 @@ public class GlyphShape {
     
     private Quaternion quat= null;
     private OutlineShape shape = null;
+    private Vertex.Factory<? extends Vertex> factory;
+    private ArrayList<Vertex> vertices = null;
+    private ArrayList<Triangle> triangles = null;
     
     /** Create a new Glyph shape
      * based on Parametric curve control polyline
      */
     public GlyphShape(Vertex.Factory<? extends Vertex> factory){
+        this.factory = factory;
         shape = new OutlineShape(factory);
     }
     
@@ -58,14 +62,31 @@ public class GlyphShape {
         this.shape.transformOutlines(OutlineShape.VerticesState.QUADRATIC_NURBS);
     }
     
-    public final Vertex.Factory<? extends Vertex> vertexFactory() { return shape.vertexFactory(); }
+    /** Create a new triangulated GlyphShape w/o {@link OutlineShape},
+     * e.g. from a {@link GlyphShapeCache.Template}.
+     * @param factory vertex impl factory {@link Factory}
+     * @param vertices the outline vertices
+     * @param triangles the triangles, referencing the outline vertices and the boundary triangle vertices
+     */
+    public GlyphShape(Vertex.Factory<? extends Vertex> factory, ArrayList<Vertex> vertices, ArrayList<Triangle> triangles){
+        this.factory = factory;
+        this.shape = null;
+        this.vertices = vertices;
+        this.triangles = triangles;
+    }
     
+    public final Vertex.Factory<? extends Vertex> vertexFactory() { return null != shape ? shape.vertexFactory() : factory; }
+    
+    /**
+     * @return the {@link OutlineShape} representation of the Glyph, 
+     *         or <code>null</code> if created from a {@link GlyphShapeCache.Template} 
+     */
     public OutlineShape getShape() {
         return shape;
     }
     
     public int getNumVertices() {
-        return shape.getVertices().size();
+        return getVertices().size();
     }
     
     /** Get the rotational Quaternion attached to this Shape
@@ -87,13 +108,13 @@ public class GlyphShape {
      * @return ArrayList of triangles which define this shape
      */
     public ArrayList<Triangle> triangulate(){
-        return shape.triangulate();
+        return null != shape ? shape.triangulate() : triangles;
     }
 
     /** Get the list of Vertices of this Object
      * @return arrayList of Vertices
      */
     public ArrayList<Vertex> getVertices(){
-        return shape.getVertices();
+        return null != shape ? shape.getVertices() : vertices;
     }    
 }
@@ -0,0 +1,263 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+
+package jogamp.graph.curve.text;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import jogamp.graph.font.FontInt;
+
+import com.jogamp.graph.curve.OutlineShape;
+import com.jogamp.graph.font.Font;
+import com.jogamp.graph.geom.Triangle;
+import com.jogamp.graph.geom.Vertex;
+import com.jogamp.graph.geom.Vertex.Factory;
+
+/**
+ * Cache of triangulated {@link GlyphShape}s per ({@link Font}, font size, glyph symbol).
+ * <p>
+ * A glyph is transformed and triangulated once at the origin, its vertices and
+ * triangle indices are kept in a {@link Template}. A {@link GlyphString} then only
+ * instantiates the templates of its glyphs at their layout position, i.e. it copies
+ * and translates vertices, instead of building, transforming and triangulating
+ * the {@link OutlineShape}s of the whole string.
+ * </p>
+ * <p>
+ * A glyph hence has the same triangulation wherever it is placed. Triangulating the translated
+ * outlines instead may subdivide overlapping curve triangles differently due to float rounding.
+ * </p>
+ * <p>
+ * At most {@link #getLimit()} templates are kept, default {@link #DEFAULT_LIMIT}.
+ * Beyond, the least recently used template is dropped and recreated on its next use.
+ * Since the cache references the {@link Font} of each template,
+ * a dropped font is released once its last template has been evicted or after {@link #clear()}.
+ * </p>
+ */
+public class GlyphShapeCache {
+
+    /**
+     * Triangulated glyph at the origin: vertex attributes and triangle vertex indices.
+     * <p>
+     * The first {@link #getSharedVertexCount()} vertices are the {@link GlyphShape#getVertices() outline vertices},
+     * which ids are assigned when added to a region. The remaining are the boundary triangle vertices,
+     * which keep the blank id and are added by the region itself.
+     * </p>
+     */
+    public static class Template {
+        private final float[] coords;
+        private final float[] texCoords;
+        private final boolean[] onCurve;
+        private final int sharedCount;
+        private final int[] indices;
+
+        Template(GlyphShape glyph) {
+            final ArrayList<Triangle> tris = glyph.triangulate();
+            final ArrayList<Vertex> shared = glyph.getVertices();
+            final int triCount = null != tris ? tris.size() : 0;
+            final IdentityHashMap<Vertex, Integer> index = new IdentityHashMap<Vertex, Integer>(shared.size() + triCount);
+            final ArrayList<Vertex> all = new ArrayList<Vertex>(shared.size() + triCount);
+            for(int i=0; i<shared.size(); i++) {
+                final Vertex v = shared.get(i);
+                index.put(v, Integer.valueOf(all.size()));
+                all.add(v);
+            }
+            sharedCount = all.size();
+            indices = new int[triCount*3];
+            for(int i=0; i<triCount; i++) {
+                final Vertex[] tv = tris.get(i).getVertices();
+                for(int j=0; j<3; j++) {
+                    Integer idx = index.get(tv[j]);
+                    if( null == idx ) {
+                        idx = Integer.valueOf(all.size());
+                        index.put(tv[j], idx);
+                        all.add(tv[j]);
+                    }
+                    indices[i*3+j] = idx.intValue();
+                }
+            }
+            final int n = all.size();
+            coords = new float[n*3];
+            texCoords = new float[n*2];
+            onCurve = new boolean[n];
+            for(int i=0; i<n; i++) {
+                final Vertex v = all.get(i);
+                final float[] c = v.getCoord();
+                final float[] t = v.getTexCoord();
+                coords[i*3] = c[0];
+                coords[i*3+1] = c[1];
+                coords[i*3+2] = c[2];
+                texCoords[i*2] = t[0];
+                texCoords[i*2+1] = t[1];
+                onCurve[i] = v.isOnCurve();
+            }
+        }
+
+        /** Returns the number of outline vertices. */
+        public final int getSharedVertexCount() { return sharedCount; }
+
+        /** Returns the number of all vertices, including the boundary triangle vertices. */
+        public final int getVertexCount() { return onCurve.length; }
+
+        /** Returns the number of triangles. */
+        public final int getTriangleCount() { return indices.length / 3; }
+
+        /**
+         * Creates a triangulated {@link GlyphShape} translated by (<code>dx</code>, <code>dy</code>).
+         * @param vertexFactory vertex impl factory {@link Factory}
+         */
+        public GlyphShape createShape(Factory<? extends Vertex> vertexFactory, float dx, float dy) {
+            final int n = onCurve.length;
+            final Vertex[] vertices = new Vertex[n];
+            final ArrayList<Vertex> shared = new ArrayList<Vertex>(sharedCount);
+            for(int i=0; i<n; i++) {
+                final Vertex v = vertexFactory.create(coords[i*3] + dx, coords[i*3+1] + dy, coords[i*3+2], onCurve[i]);
+                v.setTexCoord(texCoords[i*2], texCoords[i*2+1]);
+                vertices[i] = v;
+                if( i < sharedCount ) {
+                    shared.add(v);
+                }
+            }
+            final ArrayList<Triangle> tris = new ArrayList<Triangle>(indices.length / 3);
+            for(int i=0; i<indices.length; i+=3) {
+                final Triangle t = new Triangle(vertices[indices[i]], vertices[indices[i+1]], vertices[indices[i+2]]);
+                t.setId(i/3);
+                tris.add(t);
+            }
+            return new GlyphShape(vertexFactory, shared, tris);
+        }
+    }
+
+    /** Marks glyphs w/o geometry, e.g. space */
+    private static final Object EMPTY = new Object();
+
+    /** Default maximum number of cached templates: {@value}, about 8 fonts or sizes of 512 glyphs */
+    public static final int DEFAULT_LIMIT = 4096;
+
+    private static final class Key {
+        Font font;
+        int sizeAndSymbol;
+
+        Key set(Font font, int fontSize, char symbol) {
+            this.font = font;
+            this.sizeAndSymbol = ( fontSize << 16 ) | symbol;
+            return this;
+        }
+
+        public int hashCode() { return 31 * System.identityHashCode(font) + sizeAndSymbol; }
+
+        public boolean equals(Object o) {
+            final Key k = (Key) o;
+            return font == k.font && sizeAndSymbol == k.sizeAndSymbol;
+        }
+    }
+
+    private final Key probe = new Key();
+    private final LinkedHashMap<Key, Object> templates;
+    private int limit;
+
+    /** Creates a cache of at most {@link #DEFAULT_LIMIT} templates. */
+    public GlyphShapeCache() {
+        this(DEFAULT_LIMIT);
+    }
+
+    /**
+     * @param limit maximum number of cached templates, including glyphs w/o geometry
+     */
+    public GlyphShapeCache(int limit) {
+        setLimit(limit);
+        templates = new LinkedHashMap<Key, Object>(256, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Object> eldest) {
+                return size() > GlyphShapeCache.this.limit;
+            }
+        };
+    }
+
+    /**
+     * Sets the maximum number of cached templates, applied w/ the next new template.
+     * @param limit maximum number of cached templates, at least 1
+     */
+    public synchronized void setLimit(int limit) {
+        if( 0 >= limit ) {
+            throw new IllegalArgumentException("Invalid limit "+limit);
+        }
+        this.limit = limit;
+    }
+
+    public synchronized int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Returns the cached {@link Template} of the glyph, creating it if required,
+     * or <code>null</code> if the glyph has no geometry.
+     * @param vertexFactory vertex impl factory {@link Factory} used to create the glyph's {@link OutlineShape}
+     * @param font the {@link Font}, must implement {@link FontInt}
+     * @param fontSize font size, valid range is [0..0x7fff]
+     * @param symbol the glyph's character
+     */
+    public synchronized Template get(Factory<? extends Vertex> vertexFactory, Font font, int fontSize, char symbol) {
+        if( 0 > fontSize || 0x7fff < fontSize ) {
+            throw new IllegalArgumentException("Font size out of range: "+fontSize);
+        }
+        Object t = templates.get(probe.set(font, fontSize, symbol));
+        probe.font = null;
+        if( null == t ) {
+            t = createTemplate(vertexFactory, font, fontSize, symbol);
+            templates.put(new Key().set(font, fontSize, symbol), t);
+        }
+        return EMPTY != t ? (Template) t : null;
+    }
+
+    private static Object createTemplate(Factory<? extends Vertex> vertexFactory, Font font, int fontSize, char symbol) {
+        final ArrayList<OutlineShape> shapes = ((FontInt)font).getOutlineShapes(String.valueOf(symbol), fontSize, vertexFactory);
+        if( shapes.isEmpty() || null == shapes.get(0) ) {
+            return EMPTY;
+        }
+        final GlyphShape glyph = new GlyphShape(vertexFactory, shapes.get(0));
+        if( glyph.getNumVertices() < 3 ) {
+            return EMPTY;
+        }
+        return new Template(glyph);
+    }
+
+    /** Returns the number of cached glyphs, including those w/o geometry. */
+    public synchronized int size() {
+        return templates.size();
+    }
+
+    /** Removes all templates. */
+    public synchronized void clear() {
+        templates.clear();
+    }
+}
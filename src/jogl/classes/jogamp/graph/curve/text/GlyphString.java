@@ -97,6 +97,43 @@ public class GlyphString {
         return glyphString;
     }
     
+    /**
+     * <p>Creates the string from the cached triangulated {@link GlyphShape}s of its glyphs,
+     * see {@link GlyphShapeCache}. The glyphs are laid out as by {@link FontInt#getOutlineShapes(CharSequence, float, Factory)}.</p>
+     * <p>The resulting {@link GlyphShape}s have no {@link GlyphShape#getShape() OutlineShape}.</p>
+     * 
+     * @param vertexFactory vertex impl factory {@link Factory}
+     * @param font the target {@link Font} 
+     * @param fontSize font size
+     * @param str string text
+     * @param cache the {@link GlyphShapeCache} to use
+     * @return the created {@link GlyphString} instance
+     */
+    public static GlyphString createString(Factory<? extends Vertex> vertexFactory, Font font, int fontSize, String str, GlyphShapeCache cache) {
+        final GlyphString glyphString = new GlyphString(font.getName(Font.NAME_UNIQUNAME), str);
+        final Font.Metrics metrics = font.getMetrics();
+        final float advanceY = metrics.getLineGap(fontSize) - metrics.getDescent(fontSize) + metrics.getAscent(fontSize);
+        float advanceTotal = 0;
+        float y = 0;
+        for(int i=0; i<str.length(); i++) {
+            final char character = str.charAt(i);
+            if (character == '\n') {
+                y += advanceY;
+                advanceTotal = 0;
+                continue;
+            } else if (character == ' ') {
+                advanceTotal += font.getAdvanceWidth(Font.Glyph.ID_SPACE, fontSize);
+                continue;
+            }
+            final GlyphShapeCache.Template template = cache.get(vertexFactory, font, fontSize, character);
+            if(null != template) {
+                glyphString.addGlyphShape(template.createShape(vertexFactory, advanceTotal, y));
+            }
+            advanceTotal += font.getAdvance(font.getGlyphID(character), fontSize, true);
+        }
+        return glyphString;
+    }
+    
     /** Create a new GlyphString object
      * @param fontname the name of the font that this String is
      * associated with
@@ -115,6 +152,16 @@ public class GlyphString {
         return str;
     }
 
+    /** @return the number of {@link GlyphShape}s, i.e. glyphs w/ geometry */
+    public int getGlyphShapeCount(){
+        return glyphs.size();
+    }
+
+    /** @return the {@link GlyphShape} at index {@code i} */
+    public GlyphShape getGlyphShape(int i){
+        return glyphs.get(i);
+    }
+
     /**Creates the Curve based Glyphs from a list of {@link OutlineShape} 
      * @param vertexFactory vertex impl factory {@link Factory}
      * @param shapes list of {@link OutlineShape} 
@@ -0,0 +1,187 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+
+package jogamp.graph.font.typecast;
+
+import java.util.Arrays;
+
+import jogamp.graph.font.typecast.ot.OTFont;
+import jogamp.graph.font.typecast.ot.table.HdmxTable;
+import jogamp.graph.font.typecast.ot.table.HmtxTable;
+import jogamp.graph.font.typecast.ot.table.KernSubtable;
+import jogamp.graph.font.typecast.ot.table.KernSubtableFormat0;
+import jogamp.graph.font.typecast.ot.table.KernTable;
+import jogamp.graph.font.typecast.ot.table.KerningPair;
+import jogamp.graph.font.typecast.ot.table.Table;
+
+import com.jogamp.graph.font.Font.Glyph;
+
+/**
+ * Glyph id indexed advance widths and kerning pairs of a {@link TypecastFont},
+ * allowing string metrics w/o glyph objects, boxing or any other allocation.
+ * <p>
+ * Advances are read from the hmtx table, device widths from the hdmx table for the pixel sizes it covers.
+ * Kerning pairs are read from the horizontal format 0 subtables of the kern table into an open addressing hash table,
+ * values of pairs within multiple subtables are added.
+ * </p>
+ */
+class TypecastAdvanceTable {
+    private static final int NO_PAIR = -1; // glyph ids 0xffff / 0xffff
+
+    /** in font units */
+    private final int[] advances;
+    /** pixel size indexed device widths, null if not covered */
+    private final short[][] deviceWidths;
+
+    private final int[] kernKeys;
+    private final int[] kernValues;
+    private final int kernShift;
+    private final int kernPairCount;
+
+    TypecastAdvanceTable(OTFont font) {
+        advances = new int[Math.max(1, font.getNumGlyphs())];
+        final HmtxTable hmtx = font.getHmtxTable();
+        if( null != hmtx ) {
+            for(int i=0; i<advances.length; i++) {
+                advances[i] = hmtx.getAdvanceWidth(i);
+            }
+        }
+
+        final HdmxTable hdmx = font.getHdmxTable();
+        int maxPixelSize = -1;
+        if( null != hdmx ) {
+            for(int i=0; i<hdmx.getNumberOfRecords(); i++) {
+                maxPixelSize = Math.max(maxPixelSize, hdmx.getRecord(i).getPixelSize());
+            }
+        }
+        deviceWidths = new short[maxPixelSize+1][];
+        for(int i=0; null != hdmx && i<hdmx.getNumberOfRecords(); i++) {
+            final HdmxTable.DeviceRecord dr = hdmx.getRecord(i);
+            if( 0 <= dr.getPixelSize() ) {
+                deviceWidths[dr.getPixelSize()] = dr.getWidths();
+            }
+        }
+
+        final KernTable kern = (KernTable) font.getTable(Table.kern);
+        int pairs = 0;
+        if( null != kern ) {
+            for(int i=0; i<kern.getSubtableCount(); i++) {
+                if( isHorizontal(kern.getSubtable(i)) ) {
+                    pairs += kern.getSubtable(i).getKerningPairCount();
+                }
+            }
+        }
+        int capacity = 1, shift = 32;
+        while( capacity < 2 * pairs ) {
+            capacity <<= 1;
+            shift--;
+        }
+        kernKeys = new int[capacity];
+        kernValues = new int[capacity];
+        kernShift = shift;
+        Arrays.fill(kernKeys, NO_PAIR);
+        int count = 0;
+        for(int i=0; 0 < pairs && i<kern.getSubtableCount(); i++) {
+            final KernSubtable st = kern.getSubtable(i);
+            if( isHorizontal(st) ) {
+                for(int j=0; j<st.getKerningPairCount(); j++) {
+                    final KerningPair p = st.getKerningPair(j);
+                    final int key = ( p.getLeft() << 16 ) | p.getRight();
+                    int slot = hash(key);
+                    while( NO_PAIR != kernKeys[slot] && key != kernKeys[slot] ) {
+                        slot = ( slot + 1 ) & ( capacity - 1 );
+                    }
+                    if( NO_PAIR == kernKeys[slot] ) {
+                        kernKeys[slot] = key;
+                        count++;
+                    }
+                    kernValues[slot] += p.getValue();
+                }
+            }
+        }
+        kernPairCount = count;
+    }
+
+    /** Format 0, horizontal, kerning values (not minimum) and not cross-stream. */
+    private static boolean isHorizontal(KernSubtable st) {
+        return st instanceof KernSubtableFormat0 && 1 == ( st.getCoverage() & 0x07 );
+    }
+
+    private int hash(int key) {
+        return 32 == kernShift ? 0 : ( key * 0x9E3779B9 ) >>> kernShift;
+    }
+
+    /** @return the number of distinct kerning pairs */
+    final int getKerningPairCount() {
+        return kernPairCount;
+    }
+
+    /** @return the given glyph id if valid, otherwise {@link Glyph#ID_UNKNOWN} */
+    final int validate(int glyphID) {
+        return 0 <= glyphID && glyphID < advances.length ? glyphID : Glyph.ID_UNKNOWN;
+    }
+
+    /**
+     * @param scale font units to pixel scale for <code>pixelSize</code>
+     * @return the hdmx device width if <code>pixelSize</code> is covered,
+     *         otherwise the scaled advance, rounded unless <code>useFrationalMetrics</code>
+     */
+    final float getAdvance(int glyphID, float pixelSize, float scale, boolean useFrationalMetrics) {
+        final int id = validate(glyphID);
+        final int ppem = (int) pixelSize;
+        if( ppem == pixelSize && 0 <= ppem && ppem < deviceWidths.length ) {
+            final short[] widths = deviceWidths[ppem];
+            if( null != widths && id < widths.length ) {
+                return widths[id];
+            }
+        }
+        float value = advances[id] * scale;
+        if (useFrationalMetrics == false) {
+            value = (int) ( value + 0.5f );
+        }
+        return value;
+    }
+
+    /** @return the kerning value of the glyph pair in font units, 0 if none */
+    final int getKerning(int leftGlyphID, int rightGlyphID) {
+        if( 0 == kernPairCount ) {
+            return 0;
+        }
+        final int key = ( ( leftGlyphID & 0xffff ) << 16 ) | ( rightGlyphID & 0xffff );
+        int slot = hash(key);
+        while( true ) {
+            final int k = kernKeys[slot];
+            if( key == k ) {
+                return kernValues[slot];
+            } else if( NO_PAIR == k ) {
+                return 0;
+            }
+            slot = ( slot + 1 ) & ( kernKeys.length - 1 );
+        }
+    }
+}
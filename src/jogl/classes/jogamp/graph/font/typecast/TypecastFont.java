@@ -28,6 +28,7 @@
 package jogamp.graph.font.typecast;
 
 import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import jogamp.graph.font.FontInt;
 import jogamp.graph.font.typecast.ot.OTFont;
@@ -35,7 +36,6 @@ import jogamp.graph.font.typecast.ot.OTFontCollection;
 import jogamp.graph.font.typecast.ot.table.CmapFormat;
 import jogamp.graph.font.typecast.ot.table.CmapIndexEntry;
 import jogamp.graph.font.typecast.ot.table.CmapTable;
-import jogamp.graph.font.typecast.ot.table.HdmxTable;
 import jogamp.graph.font.typecast.ot.table.ID;
 import jogamp.graph.geom.plane.AffineTransform;
 import jogamp.graph.geom.plane.Path2D;
@@ -60,6 +60,9 @@ class TypecastFont implements FontInt {
     
     // FIXME: Add cache size to limit memory usage ??    
     IntObjectHashMap char2Glyph; 
+    /** char to glyph id, lazily mapped pages of 256 chars, each published once completely filled */
+    final AtomicReferenceArray<short[]> char2GlyphID = new AtomicReferenceArray<short[]>(256);
+    final TypecastAdvanceTable advanceTable;
 
     public TypecastFont(OTFontCollection fontset) {
         this.fontset = fontset;
@@ -146,6 +149,10 @@ class TypecastFont implements FontInt {
             }
         }
         char2Glyph = new IntObjectHashMap(cmapentries + cmapentries/4);
+        advanceTable = new TypecastAdvanceTable(font);
+        if(DEBUG) {
+            System.err.println("num kerning pairs: "+advanceTable.getKerningPairCount());
+        }
     }
     
     public StringBuilder getName(StringBuilder sb, int nameIndex) {
@@ -164,7 +171,42 @@ class TypecastFont implements FontInt {
     }    
 
     public float getAdvanceWidth(int i, float pixelSize) {
-        return font.getHmtxTable().getAdvanceWidth(i) * metrics.getScale(pixelSize);        
+        return font.getHmtxTable().getAdvanceWidth(i) * getMetrics().getScale(pixelSize);        
+    }
+
+    public int getGlyphID(char symbol) {
+        short[] page = char2GlyphID.get(symbol >>> 8);
+        if( null == page ) {
+            // concurrent callers may map the same page, all w/ equal content
+            page = new short[256];
+            final int base = symbol & 0xff00;
+            for(int i=0; i<256; i++) {
+                page[i] = (short) advanceTable.validate(mapCharCode((char) (base + i)));
+            }
+            char2GlyphID.set(symbol >>> 8, page);
+        }
+        return page[symbol & 0xff] & 0xffff;
+    }
+
+    private int mapCharCode(char symbol) {
+        int code = cmapFormat.mapCharCode(symbol);
+        if(0 == code && 0 != symbol) {
+            // reserved special glyph IDs by convention
+            switch(symbol) {
+                case ' ':  code = Glyph.ID_SPACE; break;
+                case '\n': code = Glyph.ID_CR; break;
+                default:   code = Glyph.ID_UNKNOWN;
+            }
+        }
+        return code;
+    }
+
+    public float getAdvance(int glyphID, float pixelSize, boolean useFrationalMetrics) {
+        return advanceTable.getAdvance(glyphID, pixelSize, getMetrics().getScale(pixelSize), useFrationalMetrics);
+    }
+
+    public float getKerning(int leftGlyphID, int rightGlyphID, float pixelSize) {
+        return advanceTable.getKerning(leftGlyphID, rightGlyphID) * getMetrics().getScale(pixelSize);
     }
     
     public Metrics getMetrics() {
@@ -177,16 +219,7 @@ class TypecastFont implements FontInt {
     public Glyph getGlyph(char symbol) {
         TypecastGlyph result = (TypecastGlyph) char2Glyph.get(symbol);        
         if (null == result) {
-            // final short code = (short) char2Code.get(symbol);
-            short code = (short) cmapFormat.mapCharCode(symbol);
-            if(0 == code && 0 != symbol) {
-                // reserved special glyph IDs by convention
-                switch(symbol) {
-                    case ' ':  code = Glyph.ID_SPACE; break;
-                    case '\n': code = Glyph.ID_CR; break;
-                    default:   code = Glyph.ID_UNKNOWN;
-                }
-            }
+            final short code = (short) getGlyphID(symbol);
             
             jogamp.graph.font.typecast.ot.OTGlyph glyph = font.getGlyph(code);
             if(null == glyph) {
@@ -200,20 +233,6 @@ class TypecastFont implements FontInt {
             if(DEBUG) {
                 System.err.println("New glyph: " + (int)symbol + " ( " + (char)symbol +" ) -> " + code + ", contours " + glyph.getPointCount() + ": " + path);
             }
-            final HdmxTable hdmx = font.getHdmxTable();            
-            if (null!= result && null != hdmx) {
-                /*if(DEBUG) {
-                    System.err.println("hdmx "+hdmx);
-                }*/
-                for (int i=0; i<hdmx.getNumberOfRecords(); i++)
-                {
-                    final HdmxTable.DeviceRecord dr = hdmx.getRecord(i); 
-                    result.addAdvance(dr.getWidth(code), dr.getPixelSize());
-                    /* if(DEBUG) {
-                        System.err.println("hdmx advance : pixelsize = "+dr.getWidth(code)+" : "+ dr.getPixelSize());
-                    } */
-                }
-            }            
             char2Glyph.put(symbol, result);
         }
         return result;
@@ -233,8 +252,7 @@ class TypecastFont implements FontInt {
             if (character == '\n') {
                 width = 0;
             } else {
-                Glyph glyph = getGlyph(character);
-                width += glyph.getAdvance(pixelSize, false);
+                width += getAdvance(getGlyphID(character), pixelSize, false);
             }
         }
 
@@ -277,8 +295,7 @@ class TypecastFont implements FontInt {
                 totalHeight -= advanceY;
                 continue;
             }
-            Glyph glyph = getGlyph(character);
-            curLineWidth += glyph.getAdvance(pixelSize, true);
+            curLineWidth += getAdvance(getGlyphID(character), pixelSize, true);
         }
         if (curLineWidth > 0) {
             totalHeight -= advanceY;
@@ -44,11 +44,18 @@ import com.jogamp.graph.font.Font;
 public class TypecastFontConstructor implements FontConstructor  {
 
     public Font create(final File ffile) throws IOException {
+        return create(ffile, true);
+    }
+
+    /**
+     * @param mapped see {@link OTFontCollection#create(File, boolean)}
+     */
+    private Font create(final File ffile, final boolean mapped) throws IOException {
         Object o = AccessController.doPrivileged(new PrivilegedAction<Object>() {
             public Object run() {
                 OTFontCollection fontset;        
                 try {
-                    fontset = OTFontCollection.create(ffile);
+                    fontset = OTFontCollection.create(ffile, mapped);
                     return new TypecastFont(fontset);
                 } catch (IOException e) {
                     return e;
@@ -65,26 +72,33 @@ public class TypecastFontConstructor implements FontConstructor  {
     }
     
     public Font create(final URLConnection fconn) throws IOException {
-        return AccessController.doPrivileged(new PrivilegedAction<Font>() {
-            public Font run() {
+        Object o = AccessController.doPrivileged(new PrivilegedAction<Object>() {
+            public Object run() {
                 File tf = null;
-                int len=0;
-                Font f = null;
-                try {         
+                try {
                     tf = IOUtil.createTempFile( "jogl.font", ".ttf", false, null);
-                    len = IOUtil.copyURLConn2File(fconn, tf);
+                    final int len = IOUtil.copyURLConn2File(fconn, tf);
                     if(len==0) {
-                        tf.delete();
                         throw new GLException("Font of stream "+fconn.getURL()+" was zero bytes");
                     }
-                    f = create(tf);
-                    tf.delete();
+                    // read into memory, not mapped, since the temp file is deleted right away
+                    return create(tf, false);
                 } catch (IOException e) {
-                    e.printStackTrace();
+                    return e;
+                } finally {
+                    if(null != tf) {
+                        tf.delete();
+                    }
                 }
-                return f;
             }
-        });        
+        });
+        if(o instanceof Font) {
+            return (Font)o;
+        }
+        if(o instanceof IOException) {
+            throw (IOException)o;
+        }
+        throw new InternalError("Unexpected Object: "+o);
     }
     
 }
@@ -27,8 +27,6 @@
  */
 package jogamp.graph.font.typecast;
 
-import java.util.HashMap;
-
 import jogamp.graph.font.FontInt;
 import jogamp.graph.geom.plane.AffineTransform;
 import jogamp.graph.geom.plane.Path2D;
@@ -37,11 +35,14 @@ import com.jogamp.graph.font.Font;
 import com.jogamp.opengl.math.geom.AABBox;
 
 public class TypecastGlyph implements FontInt.GlyphInt {
+    /** 
+     * Advance of this glyph, looked up in the glyph id indexed advance table of the font,
+     * see {@link Font#getAdvance(int, float, boolean)}. 
+     */
     public class Advance
     {
         final Font      font;
         final float     advance; 
-        HashMap<Float, Float> size2advance = new HashMap<Float, Float>(); 
         
         public Advance(Font font, float advance)
         {
@@ -49,41 +50,20 @@ public class TypecastGlyph implements FontInt.GlyphInt {
             this.advance = advance;
         }
         
-        public void reset() {
-            size2advance.clear();
-        }
-        
         public float getScale(float pixelSize)
         {
             return this.font.getMetrics().getScale(pixelSize);
         }
         
-        public void add(float advance, float size)
-        {
-            size2advance.put(size, advance);
-        }
-        
         public float get(float size, boolean useFrationalMetrics)
         {
-            Float fo = size2advance.get(size);
-            if(null == fo) {            
-                float value = (this.advance * getScale(size));
-                if (useFrationalMetrics == false) {
-                    //value = (float)Math.ceil(value);
-                    // value = (int)value;
-                    value = (int) ( value + 0.5f ) ; // TODO: check 
-                }
-                size2advance.put(size, value);
-                return value;
-            }
-            return fo.floatValue();
+            return this.font.getAdvance(id & 0xffff, size, useFrationalMetrics);
         }
         
         public String toString()
         {
             return "\nAdvance:"+
-                "\n  advance: "+this.advance+
-                "\n advances: \n"+size2advance;
+                "\n  advance: "+this.advance;
         }
     }
     
@@ -98,10 +78,6 @@ public class TypecastGlyph implements FontInt.GlyphInt {
             this.advance = new Advance(font, advance);
         }
         
-        public void reset() {
-            advance.reset();
-        }
-        
         public float getScale(float pixelSize)
         {
             return this.advance.getScale(pixelSize);
@@ -112,11 +88,6 @@ public class TypecastGlyph implements FontInt.GlyphInt {
             return this.bbox;
         }
         
-        public void addAdvance(float advance, float size)
-        {
-            this.advance.add(advance, size);
-        }
-        
         public float getAdvance(float size, boolean useFrationalMetrics)
         {
             return this.advance.get(size, useFrationalMetrics);
@@ -170,7 +141,6 @@ public class TypecastGlyph implements FontInt.GlyphInt {
     
     public void reset(Path2D path) {
         this.path = path;
-        this.metrics.reset();
     }
     
     public Font getFont() {
@@ -208,10 +178,6 @@ public class TypecastGlyph implements FontInt.GlyphInt {
         return newBox;        
     }
     
-    protected void addAdvance(float advance, float size) {
-        this.metrics.addAdvance(advance, size);
-    }
-    
     public float getAdvance(float pixelSize, boolean useFrationalMetrics) {
         return this.metrics.getAdvance(pixelSize, useFrationalMetrics);
     }
@@ -0,0 +1,117 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+
+package jogamp.graph.font.typecast.ot;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * An {@link InputStream} reading from a {@link ByteBuffer}, e.g. a memory mapped font file.
+ * <p>
+ * {@link #mark(int)}, {@link #reset()} and {@link #skip(long)} only move the buffer position,
+ * so seeking to a table is O(1) and no table data is copied unless a table reads it.
+ * </p>
+ * <p>
+ * The given buffer is used as is, i.e. its position is modified.
+ * </p>
+ */
+public class ByteBufferInputStream extends InputStream {
+
+    private final ByteBuffer _buf;
+    private int _mark;
+
+    public ByteBufferInputStream(ByteBuffer buf) {
+        _buf = buf;
+        _mark = buf.position();
+    }
+
+    /** Returns the underlying buffer. */
+    public ByteBuffer getBuffer() {
+        return _buf;
+    }
+
+    /**
+     * Returns a big endian slice of <code>length</code> bytes starting at the current position,
+     * sharing the underlying data. The position of this stream advances by <code>length</code>.
+     * @throws IndexOutOfBoundsException if less than <code>length</code> bytes remain
+     */
+    public ByteBuffer slice(int length) {
+        if (length < 0 || length > _buf.remaining()) {
+            throw new IndexOutOfBoundsException("Slice of "+length+" bytes exceeds remaining "+_buf.remaining());
+        }
+        final int limit = _buf.limit();
+        _buf.limit(_buf.position() + length);
+        final ByteBuffer s = _buf.slice().order(ByteOrder.BIG_ENDIAN);
+        _buf.position(_buf.limit());
+        _buf.limit(limit);
+        return s;
+    }
+
+    public int read() {
+        return _buf.hasRemaining() ? _buf.get() & 0xff : -1;
+    }
+
+    public int read(byte[] b, int off, int len) {
+        if (len == 0) {
+            return 0;
+        }
+        final int n = Math.min(len, _buf.remaining());
+        if (n == 0) {
+            return -1;
+        }
+        _buf.get(b, off, n);
+        return n;
+    }
+
+    public long skip(long n) {
+        if (n <= 0) {
+            return 0;
+        }
+        final int k = (int) Math.min(n, _buf.remaining());
+        _buf.position(_buf.position() + k);
+        return k;
+    }
+
+    public int available() {
+        return _buf.remaining();
+    }
+
+    public boolean markSupported() {
+        return true;
+    }
+
+    public void mark(int readlimit) {
+        _mark = _buf.position();
+    }
+
+    public void reset() {
+        _buf.position(_mark);
+    }
+}
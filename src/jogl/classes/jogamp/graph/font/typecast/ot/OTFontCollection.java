@@ -25,6 +25,10 @@ import java.io.BufferedInputStream;
 import java.io.DataInputStream;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
 
 import java.util.ArrayList;
 
@@ -50,17 +54,30 @@ public class OTFontCollection {
     private OTFont[] _fonts;
     private ArrayList<Table> _tables = new ArrayList<Table>();
     private boolean _resourceFork = false;
+    private ByteBufferInputStream _mapped = null;
 
     /** Creates new FontCollection */
     protected OTFontCollection() {
     }
 
     /**
+     * Reads the font file in mapped mode, see {@link #create(File, boolean)}.
      * @param file The OpenType font file
      */
     public static OTFontCollection create(File file) throws IOException {
+        return create(file, true);
+    }
+
+    /**
+     * @param file The OpenType font file
+     * @param mapped If <code>true</code>, the file is memory mapped and tables are read from
+     *               slices of the mapping, the <code>glyf</code> table keeps its slice and decodes
+     *               glyph descriptions on first access.
+     *               Otherwise the whole file is buffered in heap memory while the tables are read.
+     */
+    public static OTFontCollection create(File file, boolean mapped) throws IOException {
         OTFontCollection fc = new OTFontCollection();
-        fc.read(file);
+        fc.read(file, mapped);
         return fc;
     }
 
@@ -99,10 +116,39 @@ public class OTFontCollection {
         _tables.add(table);
     }
 
+    /**
+     * Returns a slice of <code>length</code> bytes of the mapped font file at the current
+     * read position, or <code>null</code> if the file is not being read in mapped mode.
+     * <p>
+     * Only valid while the tables are read, i.e. within <code>TableFactory.create(..)</code>.
+     * </p>
+     */
+    public ByteBuffer sliceMapped(int length) {
+        return null != _mapped ? _mapped.slice(length) : null;
+    }
+
+    private static ByteBuffer map(File file) throws IOException {
+        final RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            // the mapping stays valid after the channel is closed
+            return raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, raf.length()).order(ByteOrder.BIG_ENDIAN);
+        } finally {
+            raf.close();
+        }
+    }
+
     /**
      * @param file The OpenType font file
      */
     protected void read(File file) throws IOException {
+        read(file, false);
+    }
+
+    /**
+     * @param file The OpenType font file
+     * @param mapped See {@link #create(File, boolean)}
+     */
+    protected void read(File file, boolean mapped) throws IOException {
         _pathName = file.getPath();
         _fileName = file.getName();
 
@@ -120,51 +166,70 @@ public class OTFontCollection {
             _resourceFork = true;
         }
 
-        DataInputStream dis = new DataInputStream(
-            new BufferedInputStream(
-                new FileInputStream(file), (int) file.length()));
-        dis.mark((int) file.length());
-
-        if (_resourceFork || _pathName.endsWith(".dfont")) {
-
-            // This is a Macintosh font suitcase resource
-            ResourceHeader resourceHeader = new ResourceHeader(dis);
-
-            // Seek to the map offset and read the map
-            dis.reset();
-            dis.skip(resourceHeader.getMapOffset());
-            ResourceMap map = new ResourceMap(dis);
-
-            // Get the 'sfnt' resources
-            ResourceType resourceType = map.getResourceType("sfnt");
-
-            // Load the font data
-            _fonts = new OTFont[resourceType.getCount()];
-            for (int i = 0; i < resourceType.getCount(); i++) {
-                ResourceReference resourceReference = resourceType.getReference(i);
-                _fonts[i] = new OTFont(this);
-                int offset = resourceHeader.getDataOffset() +
-                        resourceReference.getDataOffset() + 4;
-                _fonts[i].read(dis, offset, offset);
-            }
-
-        } else if (TTCHeader.isTTC(dis)) {
-
-            // This is a TrueType font collection
-            dis.reset();
-            _ttcHeader = new TTCHeader(dis);
-            _fonts = new OTFont[_ttcHeader.getDirectoryCount()];
-            for (int i = 0; i < _ttcHeader.getDirectoryCount(); i++) {
-                _fonts[i] = new OTFont(this);
-                _fonts[i].read(dis, _ttcHeader.getTableDirectory(i), 0);
+        ByteBuffer data = null;
+        if (mapped) {
+            try {
+                data = map(file);
+            } catch (IOException e) {
+                // e.g. a resource fork which cannot be mapped, use the buffered stream
             }
+        }
+        final DataInputStream dis;
+        if (null != data) {
+            _mapped = new ByteBufferInputStream(data);
+            dis = new DataInputStream(_mapped);
         } else {
-
-            // This is a standalone font file
-            _fonts = new OTFont[1];
-            _fonts[0] = new OTFont(this);
-            _fonts[0].read(dis, 0, 0);
+            dis = new DataInputStream(
+                new BufferedInputStream(
+                    new FileInputStream(file), (int) file.length()));
+        }
+        try {
+            dis.mark((int) file.length());
+
+            if (_resourceFork || _pathName.endsWith(".dfont")) {
+
+                // This is a Macintosh font suitcase resource
+                ResourceHeader resourceHeader = new ResourceHeader(dis);
+
+                // Seek to the map offset and read the map
+                dis.reset();
+                dis.skip(resourceHeader.getMapOffset());
+                ResourceMap map = new ResourceMap(dis);
+
+                // Get the 'sfnt' resources
+                ResourceType resourceType = map.getResourceType("sfnt");
+
+                // Load the font data
+                _fonts = new OTFont[resourceType.getCount()];
+                for (int i = 0; i < resourceType.getCount(); i++) {
+                    ResourceReference resourceReference = resourceType.getReference(i);
+                    _fonts[i] = new OTFont(this);
+                    int offset = resourceHeader.getDataOffset() +
+                            resourceReference.getDataOffset() + 4;
+                    _fonts[i].read(dis, offset, offset);
+                }
+
+            } else if (TTCHeader.isTTC(dis)) {
+
+                // This is a TrueType font collection
+                dis.reset();
+                _ttcHeader = new TTCHeader(dis);
+                _fonts = new OTFont[_ttcHeader.getDirectoryCount()];
+                for (int i = 0; i < _ttcHeader.getDirectoryCount(); i++) {
+                    _fonts[i] = new OTFont(this);
+                    _fonts[i].read(dis, _ttcHeader.getTableDirectory(i), 0);
+                }
+            } else {
+
+                // This is a standalone font file
+                _fonts = new OTFont[1];
+                _fonts[0] = new OTFont(this);
+                _fonts[0].read(dis, 0, 0);
+            }
+        } finally {
+            // close the stream even if the font is corrupt, e.g. to allow deleting a temp file
+            dis.close();
+            _mapped = null;
         }
-        dis.close();
     }
 }
@@ -50,70 +50,124 @@
 
 package jogamp.graph.font.typecast.ot.table;
 
-import java.io.ByteArrayInputStream;
 import java.io.DataInput;
 import java.io.DataInputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import jogamp.graph.font.typecast.ot.ByteBufferInputStream;
 
 /**
+ * The glyph data table.
+ * <p>
+ * Glyph descriptions are decoded on first access by {@link #getDescription(int)},
+ * composite glyphs decode their components on demand.
+ * The table data is either a slice of the mapped font file or a heap copy of the table.
+ * </p>
  * @version $Id: GlyfTable.java,v 1.6 2010-08-10 11:46:30 davidsch Exp $
  * @author <a href="mailto:davidsch@dev.java.net">David Schweinsberg</a>
  */
 public class GlyfTable implements Table {
 
     private DirectoryEntry _de;
-    private GlyfDescript[] _descript;
+    private final ByteBuffer _data;
+    private final LocaTable _loca;
+    private final GlyfDescript[] _descript;
+    private final boolean[] _decoded;
+    private final boolean[] _decoding;
+    private final Throwable[] _failure;
 
     protected GlyfTable(
             DirectoryEntry de,
             DataInput di,
             MaxpTable maxp,
             LocaTable loca) throws IOException {
+        this(de, readTable(de, di), maxp, loca);
+    }
+
+    /**
+     * @param data the table data, starting at position zero, which is kept and decoded lazily
+     */
+    protected GlyfTable(
+            DirectoryEntry de,
+            ByteBuffer data,
+            MaxpTable maxp,
+            LocaTable loca) {
         _de = (DirectoryEntry) de.clone();
+        _data = data;
+        _loca = loca;
         _descript = new GlyfDescript[maxp.getNumGlyphs()];
-        
+        _decoded = new boolean[maxp.getNumGlyphs()];
+        _decoding = new boolean[maxp.getNumGlyphs()];
+        _failure = new Throwable[maxp.getNumGlyphs()];
+    }
+
+    private static ByteBuffer readTable(DirectoryEntry de, DataInput di) throws IOException {
         // Buffer the whole table so we can randomly access it
         byte[] buf = new byte[de.getLength()];
         di.readFully(buf);
-        ByteArrayInputStream bais = new ByteArrayInputStream(buf);
-        
-        // Process all the simple glyphs
-        for (int i = 0; i < maxp.getNumGlyphs(); i++) {
-            int len = loca.getOffset(i + 1) - loca.getOffset(i);
-            if (len > 0) {
-                bais.reset();
-                bais.skip(loca.getOffset(i));
-                DataInputStream dis = new DataInputStream(bais);
-                short numberOfContours = dis.readShort();
-                if (numberOfContours >= 0) {
-                    _descript[i] = new GlyfSimpleDescript(this, i, numberOfContours, dis);
-                }
-            } else {
-                _descript[i] = null;
+        return ByteBuffer.wrap(buf);
+    }
+
+    /**
+     * Returns the description of glyph <code>i</code>, decoding it on first access,
+     * or <code>null</code> for an empty or unknown glyph.
+     * @throws RuntimeException if the glyph data is corrupt, on every call for this glyph
+     */
+    public synchronized GlyfDescript getDescription(int i) {
+        if (i < 0 || i >= _descript.length) {
+            return null;
+        }
+        if (null != _failure[i]) {
+            throw new RuntimeException("Could not decode glyph "+i, _failure[i]);
+        }
+        if (!_decoded[i] && !_decoding[i]) {
+            // a (corrupt) composite referring to itself will see null
+            _decoding[i] = true;
+            try {
+                _descript[i] = decode(i);
+                _decoded[i] = true;
+            } catch (IOException e) {
+                _failure[i] = e;
+            } catch (RuntimeException e) {
+                // e.g. a loca offset beyond the table
+                _failure[i] = e;
+            } finally {
+                _decoding[i] = false;
+            }
+            if (null != _failure[i]) {
+                throw new RuntimeException("Could not decode glyph "+i, _failure[i]);
             }
         }
+        return _descript[i];
+    }
 
-        // Now do all the composite glyphs
-        for (int i = 0; i < maxp.getNumGlyphs(); i++) {
-            int len = loca.getOffset(i + 1) - loca.getOffset(i);
-            if (len > 0) {
-                bais.reset();
-                bais.skip(loca.getOffset(i));
-                DataInputStream dis = new DataInputStream(bais);
-                short numberOfContours = dis.readShort();
-                if (numberOfContours < 0) {
-                    _descript[i] = new GlyfCompositeDescript(this, i, dis);
-                }
+    /** Returns the number of decoded glyph descriptions, which includes empty glyphs but not corrupt ones. */
+    public synchronized int getDecodedCount() {
+        int n = 0;
+        for (int i = 0; i < _decoded.length; i++) {
+            if (_decoded[i]) {
+                n++;
             }
         }
+        return n;
     }
 
-    public GlyfDescript getDescription(int i) {
-        if (i < _descript.length) {
-            return _descript[i];
-        } else {
+    private GlyfDescript decode(int i) throws IOException {
+        final int offset = _loca.getOffset(i);
+        final int len = _loca.getOffset(i + 1) - offset;
+        if (len <= 0) {
             return null;
         }
+        final ByteBuffer glyph = _data.duplicate();
+        glyph.position(offset);
+        final DataInputStream dis = new DataInputStream(new ByteBufferInputStream(glyph));
+        final short numberOfContours = dis.readShort();
+        if (numberOfContours >= 0) {
+            return new GlyfSimpleDescript(this, i, numberOfContours, dis);
+        } else {
+            return new GlyfCompositeDescript(this, i, dis);
+        }
     }
 
     public int getType() {
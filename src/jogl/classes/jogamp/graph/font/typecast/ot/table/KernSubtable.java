@@ -18,6 +18,8 @@ import java.io.IOException;
  */
 public abstract class KernSubtable {
 
+    private int coverage;
+
     /** Creates new KernSubtable */
     protected KernSubtable() {
     }
@@ -26,6 +28,11 @@ public abstract class KernSubtable {
 
     public abstract KerningPair getKerningPair(int i);
 
+    /** @return the coverage field, bit 0 horizontal, bit 1 minimum, bit 2 cross-stream and bit 3 override */
+    public int getCoverage() {
+        return coverage;
+    }
+
     public static KernSubtable read(DataInput di) throws IOException {
         KernSubtable table = null;
         int version = di.readUnsignedShort();
@@ -43,6 +50,9 @@ public abstract class KernSubtable {
         default:
             break;
         }
+        if (table != null) {
+            table.coverage = coverage;
+        }
         return table;
     }
 
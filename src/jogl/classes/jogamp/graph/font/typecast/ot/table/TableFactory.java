@@ -52,6 +52,7 @@ package jogamp.graph.font.typecast.ot.table;
 
 import java.io.DataInputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 import jogamp.graph.font.typecast.ot.OTFont;
 import jogamp.graph.font.typecast.ot.OTFontCollection;
@@ -135,9 +136,15 @@ public class TableFactory {
         case Table.gasp:
             t = new GaspTable(de, dis);
             break;
-        case Table.glyf:
-            t = new GlyfTable(de, dis, font.getMaxpTable(), font.getLocaTable());
+        case Table.glyf: {
+            final ByteBuffer data = null != fc ? fc.sliceMapped(de.getLength()) : null;
+            if (null != data) {
+                t = new GlyfTable(de, data, font.getMaxpTable(), font.getLocaTable());
+            } else {
+                t = new GlyfTable(de, dis, font.getMaxpTable(), font.getLocaTable());
+            }
             break;
+        }
         case Table.hdmx:
             t = new HdmxTable(de, dis, font.getMaxpTable());
             break;
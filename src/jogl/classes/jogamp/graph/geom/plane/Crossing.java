@@ -45,6 +45,28 @@ public class Crossing {
      */
     static final int UNKNOWN = 254;
 
+    private static final int BOUND_SIZE = 40;
+
+    /**
+     * Temporary root, bound and equation arrays of the current thread, fetched once per path
+     * by crossPath and intersectPath and only used within this class.
+     * The segment coordinates are not kept here, since they are handed to the caller's PathIterator.
+     */
+    private static final class Scratch {
+        final float res1[] = new float[3];
+        final float res2[] = new float[3];
+        final float bound[] = new float[BOUND_SIZE];
+        final float eqn[] = new float[4];
+        final float shapeBounds[] = new float[4];
+    }
+
+    private static final ThreadLocal<Scratch> scratch = new ThreadLocal<Scratch>() {
+        @Override
+        protected Scratch initialValue() {
+            return new Scratch();
+        }
+    };
+
     /**
      * Solves quadratic equation
      * @param eqn - the coefficients of the equation
@@ -211,8 +233,10 @@ public class Crossing {
             return cross;
         }
 
-        int solvePoint(float res[], float px) {
-            float eqn[] = {-px, Bx, Ax};
+        int solvePoint(float res[], float eqn[], float px) {
+            eqn[0] = -px;
+            eqn[1] = Bx;
+            eqn[2] = Ax;
             return solveQuad(eqn, res);
         }
 
@@ -322,18 +346,25 @@ public class Crossing {
             return cross;
         }
 
-        int solvePoint(float res[], float px) {
-            float eqn[] = {-px, Cx, Bx, Ax};
+        int solvePoint(float res[], float eqn[], float px) {
+            eqn[0] = -px;
+            eqn[1] = Cx;
+            eqn[2] = Bx;
+            eqn[3] = Ax;
             return solveCubic(eqn, res);
         }
 
-        int solveExtremX(float res[]) {
-            float eqn[] = {Cx, Bx2, Ax3};
+        int solveExtremX(float res[], float eqn[]) {
+            eqn[0] = Cx;
+            eqn[1] = Bx2;
+            eqn[2] = Ax3;
             return solveQuad(eqn, res);
         }
 
-        int solveExtremY(float res[]) {
-            float eqn[] = {Cy, By + By, Ay + Ay + Ay};
+        int solveExtremY(float res[], float eqn[]) {
+            eqn[0] = Cy;
+            eqn[1] = By + By;
+            eqn[2] = Ay + Ay + Ay;
             return solveQuad(eqn, res);
         }
 
@@ -400,6 +431,13 @@ public class Crossing {
      * Returns how many times ray from point (x,y) cross quard curve
      */
     public static int crossQuad(float x1, float y1, float cx, float cy, float x2, float y2, float x, float y) {
+        final Scratch s = scratch.get();
+        return crossQuad(x1, y1, cx, cy, x2, y2, x, y,
+                         s.res1, s.eqn);
+    }
+
+    private static int crossQuad(float x1, float y1, float cx, float cy, float x2, float y2, float x, float y,
+                                 float res[], float eqn[]) {
 
         // LEFT/RIGHT/UP/EMPTY
         if ((x < x1 && x < cx && x < x2) ||
@@ -422,8 +460,7 @@ public class Crossing {
         QuadCurve c = new QuadCurve(x1, y1, cx, cy, x2, y2);
         float px = x - x1;
         float py = y - y1;
-        float res[] = new float[3];
-        int rc = c.solvePoint(res, px);
+        int rc = c.solvePoint(res, eqn, px);
 
         return c.cross(res, rc, py, py);
     }
@@ -432,6 +469,13 @@ public class Crossing {
      * Returns how many times ray from point (x,y) cross cubic curve
      */
     public static int crossCubic(float x1, float y1, float cx1, float cy1, float cx2, float cy2, float x2, float y2, float x, float y) {
+        final Scratch s = scratch.get();
+        return crossCubic(x1, y1, cx1, cy1, cx2, cy2, x2, y2, x, y,
+                          s.res1, s.eqn);
+    }
+
+    private static int crossCubic(float x1, float y1, float cx1, float cy1, float cx2, float cy2, float x2, float y2, float x, float y,
+                                  float res[], float eqn[]) {
 
         // LEFT/RIGHT/UP/EMPTY
         if ((x < x1 && x < cx1 && x < cx2 && x < x2) ||
@@ -454,8 +498,7 @@ public class Crossing {
         CubicCurve c = new CubicCurve(x1, y1, cx1, cy1, cx2, cy2, x2, y2);
         float px = x - x1;
         float py = y - y1;
-        float res[] = new float[3];
-        int rc = c.solvePoint(res, px);
+        int rc = c.solvePoint(res, eqn, px);
         return c.cross(res, rc, py, py);
     }
 
@@ -467,6 +510,9 @@ public class Crossing {
         float mx, my, cx, cy;
         mx = my = cx = cy = 0.0f;
         final float coords[] = new float[6];
+        final Scratch s = scratch.get();
+        final float res[] = s.res1;
+        final float eqn[] = s.eqn;
 
         while (!p.isDone()) {
             final int segmentType = p.currentSegment(coords);
@@ -482,10 +528,10 @@ public class Crossing {
                     cross += crossLine(cx, cy, cx = coords[0], cy = coords[1], x, y);
                     break;
                 case PathIterator.SEG_QUADTO:
-                    cross += crossQuad(cx, cy, coords[0], coords[1], cx = coords[2], cy = coords[3], x, y);
+                    cross += crossQuad(cx, cy, coords[0], coords[1], cx = coords[2], cy = coords[3], x, y, res, eqn);
                     break;
                 case PathIterator.SEG_CUBICTO:
-                    cross += crossCubic(cx, cy, coords[0], coords[1], coords[2], coords[3], cx = coords[4], cy = coords[5], x, y);
+                    cross += crossCubic(cx, cy, coords[0], coords[1], coords[2], coords[3], cx = coords[4], cy = coords[5], x, y, res, eqn);
                     break;
                 case PathIterator.SEG_CLOSE:
                     if (cy != my || cx != mx) {
@@ -514,7 +560,10 @@ public class Crossing {
      * Returns how many times ray from point (x,y) cross shape
      */
     public static int crossShape(Path2D s, float x, float y) {
-        if (!s.getBounds2D().contains(x, y)) {
+        final float b[] = scratch.get().shapeBounds;
+        s.getBounds2D(b);
+        // same as s.getBounds2D().contains(x, y)
+        if (x < b[0] || x > b[2] || y < b[1] || y > b[3]) {
             return 0;
         }
         return crossPath(s.iterator(null), x, y);
@@ -673,6 +722,13 @@ public class Crossing {
      * Returns how many times rectangle stripe cross quad curve or the are intersect
      */
     public static int intersectQuad(float x1, float y1, float cx, float cy, float x2, float y2, float rx1, float ry1, float rx2, float ry2) {
+        final Scratch s = scratch.get();
+        return intersectQuad(x1, y1, cx, cy, x2, y2, rx1, ry1, rx2, ry2,
+                             s.res1, s.res2, s.bound, s.eqn);
+    }
+
+    private static int intersectQuad(float x1, float y1, float cx, float cy, float x2, float y2, float rx1, float ry1, float rx2, float ry2,
+                                     float res1[], float res2[], float bound[], float eqn[]) {
 
         // LEFT/RIGHT/UP ------------------------------------------------------
         if ((rx2 < x1 && rx2 < cx && rx2 < x2) ||
@@ -697,10 +753,8 @@ public class Crossing {
         float px2 = rx2 - x1;
         float py2 = ry2 - y1;
 
-        float res1[] = new float[3];
-        float res2[] = new float[3];
-        int rc1 = c.solvePoint(res1, px1);
-        int rc2 = c.solvePoint(res2, px2);
+        int rc1 = c.solvePoint(res1, eqn, px1);
+        int rc2 = c.solvePoint(res2, eqn, px2);
 
         // INSIDE-LEFT/RIGHT
         if (rc1 == 0 && rc2 == 0) {
@@ -710,7 +764,6 @@ public class Crossing {
         // Build bound --------------------------------------------------------
         float minX = px1 - DELTA;
         float maxX = px2 + DELTA;
-        float bound[] = new float[28];
         int bc = 0;
         // Add roots
         bc = c.addBound(bound, bc, res1, rc1, minX, maxX, false, 0);
@@ -744,6 +797,13 @@ public class Crossing {
      * Returns how many times rectangle stripe cross cubic curve or the are intersect
      */
     public static int intersectCubic(float x1, float y1, float cx1, float cy1, float cx2, float cy2, float x2, float y2, float rx1, float ry1, float rx2, float ry2) {
+        final Scratch s = scratch.get();
+        return intersectCubic(x1, y1, cx1, cy1, cx2, cy2, x2, y2, rx1, ry1, rx2, ry2,
+                              s.res1, s.res2, s.bound, s.eqn);
+    }
+
+    private static int intersectCubic(float x1, float y1, float cx1, float cy1, float cx2, float cy2, float x2, float y2, float rx1, float ry1, float rx2, float ry2,
+                                      float res1[], float res2[], float bound[], float eqn[]) {
 
         // LEFT/RIGHT/UP
         if ((rx2 < x1 && rx2 < cx1 && rx2 < cx2 && rx2 < x2) ||
@@ -768,10 +828,8 @@ public class Crossing {
         float px2 = rx2 - x1;
         float py2 = ry2 - y1;
 
-        float res1[] = new float[3];
-        float res2[] = new float[3];
-        int rc1 = c.solvePoint(res1, px1);
-        int rc2 = c.solvePoint(res2, px2);
+        int rc1 = c.solvePoint(res1, eqn, px1);
+        int rc2 = c.solvePoint(res2, eqn, px2);
 
         // LEFT/RIGHT
         if (rc1 == 0 && rc2 == 0) {
@@ -782,15 +840,14 @@ public class Crossing {
         float maxX = px2 + DELTA;
 
         // Build bound --------------------------------------------------------
-        float bound[] = new float[40];
         int bc = 0;
         // Add roots
         bc = c.addBound(bound, bc, res1, rc1, minX, maxX, false, 0);
         bc = c.addBound(bound, bc, res2, rc2, minX, maxX, false, 1);
         // Add extrimal points
-        rc2 = c.solveExtremX(res2);
+        rc2 = c.solveExtremX(res2, eqn);
         bc = c.addBound(bound, bc, res2, rc2, minX, maxX, true, 2);
-        rc2 = c.solveExtremY(res2);
+        rc2 = c.solveExtremY(res2, eqn);
         bc = c.addBound(bound, bc, res2, rc2, minX, maxX, true, 4);
         // Add start and end
         if (rx1 < x1 && x1 < rx2) {
@@ -824,6 +881,11 @@ public class Crossing {
         float mx, my, cx, cy;
         mx = my = cx = cy = 0.0f;
         final float coords[] = new float[6];
+        final Scratch s = scratch.get();
+        final float res1[] = s.res1;
+        final float res2[] = s.res2;
+        final float bound[] = s.bound;
+        final float eqn[] = s.eqn;
 
         float rx1 = x;
         float ry1 = y;
@@ -845,10 +907,12 @@ public class Crossing {
                     count = intersectLine(cx, cy, cx = coords[0], cy = coords[1], rx1, ry1, rx2, ry2);
                     break;
                 case PathIterator.SEG_QUADTO:
-                    count = intersectQuad(cx, cy, coords[0], coords[1], cx = coords[2], cy = coords[3], rx1, ry1, rx2, ry2);
+                    count = intersectQuad(cx, cy, coords[0], coords[1], cx = coords[2], cy = coords[3], rx1, ry1, rx2, ry2,
+                                          res1, res2, bound, eqn);
                     break;
                 case PathIterator.SEG_CUBICTO:
-                    count = intersectCubic(cx, cy, coords[0], coords[1], coords[2], coords[3], cx = coords[4], cy = coords[5], rx1, ry1, rx2, ry2);
+                    count = intersectCubic(cx, cy, coords[0], coords[1], coords[2], coords[3], cx = coords[4], cy = coords[5], rx1, ry1, rx2, ry2,
+                                           res1, res2, bound, eqn);
                     break;
                 case PathIterator.SEG_CLOSE:
                     if (cy != my || cx != mx) {
@@ -880,7 +944,13 @@ public class Crossing {
      * Returns how many times rectangle stripe cross shape or the are intersect
      */
     public static int intersectShape(Path2D s, float x, float y, float w, float h) {
-        if (!s.getBounds2D().intersects(x, y, w, h)) {
+        final float b[] = scratch.get().shapeBounds;
+        s.getBounds2D(b);
+        // same as s.getBounds2D().intersects(x, y, w, h)
+        final float bw = b[2] - b[0];
+        final float bh = b[3] - b[1];
+        if (w <= 0 || h <= 0 || bw <= 0 || bh <= 0 ||
+            !(x + w > b[0] && y + h > b[1] && x < b[0] + bw && y < b[1] + bh)) {
             return 0;
         }
         return intersectPath(s.iterator(null), x, y, w, h);
@@ -338,6 +338,16 @@ public final class Path2D implements Cloneable {
     }
 
     public final synchronized AABBox getBounds2D() {
+        final float[] b = new float[4];
+        getBounds2D(b);
+        return new AABBox(b[0], b[1], 0f, b[2], b[3], 0f);
+    }
+
+    /**
+     * Stores the 2D bounds min-x, min-y, max-x and max-y in <code>result</code>
+     * w/o creating an {@link AABBox}.
+     */
+    final synchronized void getBounds2D(float[] result) {
         float rx1, ry1, rx2, ry2;
         if (pointSize == 0) {
             rx1 = ry1 = rx2 = ry2 = 0.0f;
@@ -362,7 +372,10 @@ public final class Path2D implements Cloneable {
                     }
             }
         }
-        return new AABBox(rx1, ry1, 0f, rx2, ry2, 0f);
+        result[0] = rx1;
+        result[1] = ry1;
+        result[2] = rx2;
+        result[3] = ry2;
     }
 
     /**
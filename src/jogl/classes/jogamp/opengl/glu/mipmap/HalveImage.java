@@ -46,6 +46,9 @@ package jogamp.opengl.glu.mipmap;
 
 import javax.media.opengl.GL;
 import java.nio.*;
+import java.util.concurrent.ExecutorService;
+
+import jogamp.opengl.util.ParallelUtil;
 
 /**
  *
@@ -57,6 +60,49 @@ public class HalveImage {
   private static final int BOX4 = 4;
   private static final int BOX8 = 8;
   
+  /** Minimum number of output pixels of a tightly packed image halved concurrently, see {@link #setExecutor(ExecutorService, int)}. */
+  public static final int MIN_PARALLEL_PIXELS = 256 * 256;
+  
+  private static final class Pool {
+    final ExecutorService executor;
+    final int parallelism;
+    
+    Pool( ExecutorService executor, int parallelism ) {
+      this.executor = executor;
+      this.parallelism = parallelism;
+    }
+  }
+  
+  private static volatile Pool pool = null;
+  
+  /**
+   * Sets the {@link ExecutorService} used to halve tightly packed unsigned byte and float images
+   * of at least {@link #MIN_PARALLEL_PIXELS} output pixels in bands of rows.
+   * <p>
+   * By default, or if <code>executor</code> is null, all images are halved on the calling thread.
+   * The executor is not shut down by this class.
+   * </p>
+   * @param executor the {@link ExecutorService} to halve on, or null
+   * @param parallelism number of concurrent bands per image including the calling thread
+   * @throws IllegalArgumentException if <code>executor</code> is not null and <code>parallelism</code> &le; 0
+   */
+  public static void setExecutor( ExecutorService executor, int parallelism ) {
+    if( null == executor ) {
+      pool = null;
+    } else {
+      if( 0 >= parallelism ) {
+        throw new IllegalArgumentException( "Invalid parallelism "+parallelism );
+      }
+      pool = new Pool( executor, parallelism );
+    }
+  }
+  
+  /** Returns the {@link ExecutorService} set via {@link #setExecutor(ExecutorService, int)}, may be null. */
+  public static ExecutorService getExecutor() {
+    final Pool p = pool;
+    return null != p ? p.executor : null;
+  }
+  
   public static void halveImage( int components, int width, int height,
           ShortBuffer datain, ShortBuffer dataout ) {
     int i, j, k;
@@ -106,6 +152,10 @@ public class HalveImage {
       halve1Dimage_ubyte( components, width, height, datain, dataout, element_size, ysize, group_size );
       return;
     }
+    if( element_size == 1 && group_size == components && ysize == width * group_size && ( width & 1 ) == 0 ) {
+      halveImagePacked_ubyte( components, width, height, datain, dataout );
+      return;
+    }
     
     newwidth = width / 2;
     newheight = height / 2;
@@ -874,6 +924,11 @@ public class HalveImage {
                                               ysize, group_size, myswap_bytes );
       return;
     }
+    if( !myswap_bytes && element_size == 4 && group_size == 4 * components && 
+        ysize == width * group_size && ( width & 1 ) == 0 ) {
+      halveImagePacked_float( components, width, height, datain, dataout );
+      return;
+    }
     
     newwidth = width / 2;
     newheight = height / 2;
@@ -890,6 +945,7 @@ public class HalveImage {
             datain.position( t + ysize );
             temp += datain.getFloat();
             datain.position( t + ysize + group_size );
+            temp += datain.getFloat();
             temp /= 4.0f;
             dataout.put( temp );
             t += element_size;
@@ -1530,4 +1586,166 @@ public class HalveImage {
     assert( src == rowSizeInBytes * height * depth );
     assert( outIndex == halfWidth * halfHeight * halfDepth );
   }
+  
+  /** Halves the output rows [i0, i1) of a tightly packed image. */
+  private static abstract class RowBand {
+    abstract void halveRows( int i0, int i1 );
+  }
+  
+  /**
+   * Halves a tightly packed unsigned byte image w/ an even width, i.e. w/o padding and w/ one byte per component,
+   * reading whole rows from the backing array or via bulk gets.
+   * <p>
+   * The result equals the general path of {@link #halveImage_ubyte(int, int, int, ByteBuffer, ByteBuffer, int, int, int)}.
+   * </p>
+   */
+  private static void halveImagePacked_ubyte( final int components, final int width, int height,
+                                              final ByteBuffer datain, final ByteBuffer dataout ) {
+    final int newwidth = width / 2;
+    final int newheight = height / 2;
+    final int ysize = width * components;
+    final int outRowSize = newwidth * components;
+    final int outBase = dataout.position();
+    
+    forEachRowBand( new RowBand() {
+      void halveRows( int i0, int i1 ) {
+        final ByteBuffer src = datain.hasArray() ? null : datain.duplicate();
+        final ByteBuffer dst = dataout.hasArray() ? null : dataout.duplicate();
+        final byte[] rows = null != src ? new byte[ 2 * ysize ] : null;
+        final byte[] row = null != dst ? new byte[ outRowSize ] : null;
+        for( int i = i0; i < i1; i++ ) {
+          final byte[] in;
+          final int s;
+          if( null == src ) {
+            in = datain.array();
+            s = datain.arrayOffset() + 2 * i * ysize;
+          } else {
+            src.position( 2 * i * ysize );
+            src.get( rows, 0, 2 * ysize );
+            in = rows;
+            s = 0;
+          }
+          final byte[] out;
+          final int t;
+          if( null == dst ) {
+            out = dataout.array();
+            t = dataout.arrayOffset() + outBase + i * outRowSize;
+          } else {
+            out = row;
+            t = 0;
+          }
+          halveRow_ubyte( components, newwidth, in, s, ysize, out, t );
+          if( null != dst ) {
+            dst.position( outBase + i * outRowSize );
+            dst.put( row, 0, outRowSize );
+          }
+        }
+      } }, newheight, newwidth );
+    
+    dataout.position( outBase + newheight * outRowSize );
+  }
+  
+  private static void halveRow_ubyte( int components, int newwidth, byte[] in, int s, int ysize, byte[] out, int t ) {
+    final int end = t + newwidth * components;
+    int s1 = s + ysize;
+    if( components == 4 ) {
+      for( ; t < end; t += 4, s += 8, s1 += 8 ) {
+        out[t  ] = (byte)( ( ( 0xFF & in[s  ] ) + ( 0xFF & in[s+4] ) + ( 0xFF & in[s1  ] ) + ( 0xFF & in[s1+4] ) + 2 ) >> 2 );
+        out[t+1] = (byte)( ( ( 0xFF & in[s+1] ) + ( 0xFF & in[s+5] ) + ( 0xFF & in[s1+1] ) + ( 0xFF & in[s1+5] ) + 2 ) >> 2 );
+        out[t+2] = (byte)( ( ( 0xFF & in[s+2] ) + ( 0xFF & in[s+6] ) + ( 0xFF & in[s1+2] ) + ( 0xFF & in[s1+6] ) + 2 ) >> 2 );
+        out[t+3] = (byte)( ( ( 0xFF & in[s+3] ) + ( 0xFF & in[s+7] ) + ( 0xFF & in[s1+3] ) + ( 0xFF & in[s1+7] ) + 2 ) >> 2 );
+      }
+    } else if( components == 3 ) {
+      for( ; t < end; t += 3, s += 6, s1 += 6 ) {
+        out[t  ] = (byte)( ( ( 0xFF & in[s  ] ) + ( 0xFF & in[s+3] ) + ( 0xFF & in[s1  ] ) + ( 0xFF & in[s1+3] ) + 2 ) >> 2 );
+        out[t+1] = (byte)( ( ( 0xFF & in[s+1] ) + ( 0xFF & in[s+4] ) + ( 0xFF & in[s1+1] ) + ( 0xFF & in[s1+4] ) + 2 ) >> 2 );
+        out[t+2] = (byte)( ( ( 0xFF & in[s+2] ) + ( 0xFF & in[s+5] ) + ( 0xFF & in[s1+2] ) + ( 0xFF & in[s1+5] ) + 2 ) >> 2 );
+      }
+    } else {
+      while( t < end ) {
+        for( int k = 0; k < components; k++, s++, s1++ ) {
+          out[t++] = (byte)( ( ( 0xFF & in[s] ) + ( 0xFF & in[s+components] ) + 
+                               ( 0xFF & in[s1] ) + ( 0xFF & in[s1+components] ) + 2 ) >> 2 );
+        }
+        s += components;
+        s1 += components;
+      }
+    }
+  }
+  
+  /**
+   * Halves a tightly packed float image w/ an even width in the byte order of <code>datain</code>,
+   * reading whole rows via bulk gets.
+   * <p>
+   * The result equals the general path of {@link #halveImage_float(int, int, int, ByteBuffer, FloatBuffer, int, int, int, boolean)}.
+   * </p>
+   */
+  private static void halveImagePacked_float( final int components, final int width, int height,
+                                              ByteBuffer datain, final FloatBuffer dataout ) {
+    final int newwidth = width / 2;
+    final int newheight = height / 2;
+    final int ysize = width * components;
+    final int outRowSize = newwidth * components;
+    final int outBase = dataout.position();
+    final ByteBuffer bin = datain.duplicate().order( datain.order() );
+    bin.position( 0 );
+    final FloatBuffer fin = bin.asFloatBuffer();
+    
+    forEachRowBand( new RowBand() {
+      void halveRows( int i0, int i1 ) {
+        final FloatBuffer src = fin.duplicate();
+        final FloatBuffer dst = dataout.hasArray() ? null : dataout.duplicate();
+        final float[] rows = new float[ 2 * ysize ];
+        final float[] row = null != dst ? new float[ outRowSize ] : null;
+        for( int i = i0; i < i1; i++ ) {
+          src.position( 2 * i * ysize );
+          src.get( rows, 0, 2 * ysize );
+          final float[] out;
+          int t;
+          if( null == dst ) {
+            out = dataout.array();
+            t = dataout.arrayOffset() + outBase + i * outRowSize;
+          } else {
+            out = row;
+            t = 0;
+          }
+          final int end = t + outRowSize;
+          int s = 0;
+          int s1 = ysize;
+          while( t < end ) {
+            for( int k = 0; k < components; k++, s++, s1++ ) {
+              out[t++] = ( rows[s] + rows[s+components] + rows[s1] + rows[s1+components] ) / 4.0f;
+            }
+            s += components;
+            s1 += components;
+          }
+          if( null != dst ) {
+            dst.position( outBase + i * outRowSize );
+            dst.put( row, 0, outRowSize );
+          }
+        }
+      } }, newheight, newwidth );
+    
+    dataout.position( outBase + newheight * outRowSize );
+  }
+  
+  /**
+   * Runs <code>band</code> on all <code>rows</code> output rows, split into bands across the executor
+   * set via {@link #setExecutor(ExecutorService, int)} if the image has at least {@link #MIN_PARALLEL_PIXELS} output pixels.
+   */
+  private static void forEachRowBand( final RowBand band, final int rows, int rowPixels ) {
+    final Pool p = pool;
+    if( null == p || 1 >= p.parallelism || 2 > rows || (long) rows * rowPixels < MIN_PARALLEL_PIXELS ) {
+      band.halveRows( 0, rows );
+      return;
+    }
+    final int bandRows = Math.max( 1, rows / ( 4 * p.parallelism ) );
+    final int bandCount = ( rows + bandRows - 1 ) / bandRows;
+    ParallelUtil.invokeAll( p.executor, p.parallelism, bandCount, new ParallelUtil.RangeTask() {
+      public int run( int b ) {
+        final int i0 = b * bandRows;
+        band.halveRows( i0, Math.min( i0 + bandRows, rows ) );
+        return 0;
+      } }, "halving image" );
+  }
 }
@@ -214,23 +214,20 @@ public class ScaleInternal {
           temp = xindex + lowy_int * ysize;
           percent = y_percent * ( 1 - lowx_float );
           for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-            datain.position( temp_index );
-            totals[k] += ( 0x000000FF & datain.get() ) * percent;
+            totals[k] += ( 0x000000FF & datain.get( temp_index ) ) * percent;
           }
           left = temp;
           for( l = lowx_int + 1; l < highx_int; l++ ) {
             temp += group_size;
             for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-              datain.position( temp_index );
-              totals[k] += ( 0x000000FF & datain.get() ) * y_percent;
+              totals[k] += ( 0x000000FF & datain.get( temp_index ) ) * y_percent;
             }
           }
           temp += group_size;
           right = temp;
           percent = y_percent * highx_float;
           for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-            datain.position( temp_index );
-            totals[k] += ( 0x000000FF & datain.get() ) * percent;
+            totals[k] += ( 0x000000FF & datain.get( temp_index ) ) * percent;
           }
           
           // calculate the value for pixels in the last row
@@ -238,21 +235,18 @@ public class ScaleInternal {
           percent = y_percent * ( 1 - lowx_float );
           temp = xindex + highy_int * ysize;
           for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-            datain.position( temp_index );
-            totals[k] += ( 0x000000FF & datain.get() ) * percent;
+            totals[k] += ( 0x000000FF & datain.get( temp_index ) ) * percent;
           }
           for( l = lowx_int + 1; l < highx_int; l++ ) {
             temp += group_size;
             for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-              datain.position( temp_index );
-              totals[k] += ( 0x000000FF & datain.get() ) * y_percent;
+              totals[k] += ( 0x000000FF & datain.get( temp_index ) ) * y_percent;
             }
           }
           temp += group_size;
           percent = y_percent * highx_float;
           for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-            datain.position( temp_index );
-            totals[k] += ( 0x000000FF & datain.get() ) * percent;
+            totals[k] += ( 0x000000FF & datain.get( temp_index ) ) * percent;
           }
           
           // calculate the value for the pixels in the 1st and last column
@@ -261,10 +255,8 @@ public class ScaleInternal {
             right += ysize;
             for( k = 0; k < components; k++, left += element_size, right += element_size ) {
               float f = 0.0f;
-              datain.position( left );
-              f = ( 0x000000FF & datain.get() ) * ( 1.0f - lowx_float );
-              datain.position( right );
-              f += ( 0x000000FF & datain.get() ) * highx_float;
+              f = ( 0x000000FF & datain.get( left ) ) * ( 1.0f - lowx_float );
+              f += ( 0x000000FF & datain.get( right ) ) * highx_float;
               totals[k] += f;
             }
           }
@@ -273,49 +265,42 @@ public class ScaleInternal {
           percent = ( 1 - lowy_float) * x_percent;
           temp = xindex + (lowy_int * ysize);
           for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-            datain.position( temp_index );
-            totals[k] += ( 0x000000FF & datain.get() ) * percent;
+            totals[k] += ( 0x000000FF & datain.get( temp_index ) ) * percent;
           }
           for( m = lowy_int + 1; m < highy_int; m++ ) {
             temp += ysize;
             for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-              datain.position( temp_index );
-              totals[k] += ( 0x000000FF & datain.get() ) * x_percent;
+              totals[k] += ( 0x000000FF & datain.get( temp_index ) ) * x_percent;
             }
           }
           percent = x_percent * highy_float;
           temp += ysize;
           for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-            datain.position( temp_index );
-            totals[k] += ( 0x000000FF & datain.get() ) * percent;
+            totals[k] += ( 0x000000FF & datain.get( temp_index ) ) * percent;
           }
         } else if( highx_int > lowx_int ) {
           y_percent = highy_float - lowy_float;
           percent = ( 1 - lowx_float ) * y_percent;
           temp = xindex + (lowy_int * ysize);
           for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-            datain.position( temp_index );
-            totals[k] += ( 0x000000FF & datain.get() ) * percent;
+            totals[k] += ( 0x000000FF & datain.get( temp_index ) ) * percent;
           }
           for( l = lowx_int + 1; l < highx_int; l++ ) {
             temp += group_size;
             for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-              datain.position( temp_index );
-              totals[k] += ( 0x000000FF & datain.get() ) * y_percent;
+              totals[k] += ( 0x000000FF & datain.get( temp_index ) ) * y_percent;
             }
           }
           temp += group_size;
           percent = y_percent * highx_float;
           for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-            datain.position( temp_index );
-            totals[k] += ( 0x000000FF & datain.get() ) * percent;
+            totals[k] += ( 0x000000FF & datain.get( temp_index ) ) * percent;
           }
         } else {
           percent = ( highy_float - lowy_float ) * ( highx_float - lowx_float );
           temp = xindex + (lowy_int * ysize);
           for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-            datain.position( temp_index );
-            totals[k] += ( 0x000000FF & datain.get() ) * percent;
+            totals[k] += ( 0x000000FF & datain.get( temp_index ) ) * percent;
           }
         }
 
@@ -325,8 +310,7 @@ public class ScaleInternal {
           temp = temp0;
           for( l = lowx_int + 1; l < highx_int; l++ ) {
             for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-              datain.position( temp_index );
-              totals[k] += ( 0x000000FF & datain.get() );
+              totals[k] += ( 0x000000FF & datain.get( temp_index ) );
             }
             temp += group_size;
           }
@@ -335,8 +319,7 @@ public class ScaleInternal {
         
         outindex = ( j + ( i * widthout ) ) * components;
         for( k = 0; k < components; k++ ) {
-          dataout.position( outindex + k );
-          dataout.put( (byte)(totals[k] / area) );
+          dataout.put( outindex + k, (byte)(totals[k] / area) );
         }
         lowx_int = highx_int;
         lowx_float = highx_float;
@@ -1815,24 +1798,22 @@ public class ScaleInternal {
           temp = xindex + lowy_int * ysize;
           percent = y_percent * ( 1 - lowx_float );
           for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-            datain.position( temp_index );
             if( myswap_bytes ) {
-              swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getFloat() );
+              swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getFloat( temp_index ) );
               totals[k] += swapbuf * percent;
             } else {
-              totals[k] += datain.getFloat() * percent;
+              totals[k] += datain.getFloat( temp_index ) * percent;
             }
           }
           left = temp;
           for( l = lowx_int + 1; l < highx_int; l++ ) {
             temp += group_size;
             for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-              datain.position( temp_index );
               if( myswap_bytes ) {
-                swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getFloat() );
+                swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getFloat( temp_index ) );
                 totals[k] += swapbuf * y_percent;
               } else {
-                totals[k] += datain.getFloat() * y_percent;
+                totals[k] += datain.getFloat( temp_index ) * y_percent;
               }
             }
           }
@@ -1840,12 +1821,11 @@ public class ScaleInternal {
           right = temp;
           percent = y_percent * highx_float;
           for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-            datain.position( temp_index );
             if( myswap_bytes ) {
-              swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getFloat() );
+              swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getFloat( temp_index ) );
               totals[k] += swapbuf * percent;
             } else {
-              totals[k] += datain.getFloat() * percent;
+              totals[k] += datain.getFloat( temp_index ) * percent;
             }
           }
           
@@ -1854,35 +1834,32 @@ public class ScaleInternal {
           percent = y_percent * ( 1 - lowx_float );
           temp = xindex + highy_int * ysize;
           for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-            datain.position( temp_index );
             if( myswap_bytes ) {
-              swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getFloat() );
+              swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getFloat( temp_index ) );
               totals[k] += swapbuf * percent;
             } else {
-              totals[k] += datain.getFloat() * percent;
+              totals[k] += datain.getFloat( temp_index ) * percent;
             }
           }
           for( l = lowx_int + 1; l < highx_int; l++ ) {
             temp += group_size;
             for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-              datain.position( temp_index );
               if( myswap_bytes ) {
-                swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getFloat() );
+                swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getFloat( temp_index ) );
                 totals[k] += swapbuf * y_percent;
               } else {
-                totals[k] += datain.getFloat() * y_percent;
+                totals[k] += datain.getFloat( temp_index ) * y_percent;
               }
             }
           }
           temp += group_size;
           percent = y_percent * highx_float;
           for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-            datain.position( temp_index );
             if( myswap_bytes ) {
-              swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getFloat() );
+              swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getFloat( temp_index ) );
               totals[k] += swapbuf * percent;
             } else {
-              totals[k] += datain.getFloat() * percent;
+              totals[k] += datain.getFloat( temp_index ) * percent;
             }
           }
           
@@ -1892,17 +1869,13 @@ public class ScaleInternal {
             right += ysize;
             for( k = 0; k < components; k++, left += element_size, right += element_size ) {
               if( myswap_bytes ) {
-                datain.position( left );
-                swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getFloat() );
+                swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getFloat( left ) );
                 totals[k] += swapbuf * ( 1 - lowx_float );
-                datain.position( right );
-                swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getFloat() );
+                swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getFloat( right ) );
                 totals[k] += swapbuf * highx_float;
               } else {
-                datain.position( left );
-                totals[k] += (datain.getFloat() * ( 1 - lowx_float ));
-                datain.position( right );
-                totals[k] += (datain.getFloat() * highx_float);
+                totals[k] += (datain.getFloat( left ) * ( 1 - lowx_float ));
+                totals[k] += (datain.getFloat( right ) * highx_float);
               }
             }
           }
@@ -1911,35 +1884,32 @@ public class ScaleInternal {
           percent = ( 1 - lowy_float) * x_percent;
           temp = xindex + (lowy_int * ysize);
           for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-            datain.position( temp_index );
             if( myswap_bytes ) {
-              swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getFloat() );
+              swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getFloat( temp_index ) );
               totals[k] += swapbuf * percent;
             } else {
-              totals[k] += datain.getFloat() * percent;
+              totals[k] += datain.getFloat( temp_index ) * percent;
             }
           }
           for( m = lowy_int + 1; m < highy_int; m++ ) {
             temp += ysize;
             for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-              datain.position( temp_index );
               if( myswap_bytes ) {
-                swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getFloat() );
+                swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getFloat( temp_index ) );
                 totals[k] += swapbuf * x_percent;
               } else {
-                totals[k] += datain.getFloat() * x_percent;
+                totals[k] += datain.getFloat( temp_index ) * x_percent;
               }
             }
           }
           percent = x_percent * highy_float;
           temp += ysize;
           for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-            datain.position( temp_index );
             if( myswap_bytes ) {
-              swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getFloat() );
+              swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getFloat( temp_index ) );
               totals[k] += swapbuf * percent;
             } else {
-              totals[k] += datain.getFloat() * percent;
+              totals[k] += datain.getFloat( temp_index ) * percent;
             }
           }
         } else if( highx_int > lowx_int ) {
@@ -1947,47 +1917,43 @@ public class ScaleInternal {
           percent = ( 1 - lowx_float ) * y_percent;
           temp = xindex + (lowy_int * ysize);
           for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-            datain.position( temp_index );
             if( myswap_bytes ) {
-              swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getFloat() );
+              swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getFloat( temp_index ) );
               totals[k] += swapbuf * percent;
             } else {
-              totals[k] += datain.getFloat() * percent;
+              totals[k] += datain.getFloat( temp_index ) * percent;
             }
           }
           for( l = lowx_int + 1; l < highx_int; l++ ) {
             temp += group_size;
             for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-              datain.position( temp_index );
               if( myswap_bytes ) {
-                swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getFloat() );
+                swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getFloat( temp_index ) );
                 totals[k] += swapbuf * y_percent;
               } else {
-                totals[k] += datain.getFloat() * y_percent;
+                totals[k] += datain.getFloat( temp_index ) * y_percent;
               }
             }
           }
           temp += group_size;
           percent = y_percent * highx_float;
           for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-            datain.position( temp_index );
             if( myswap_bytes ) {
-              swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getFloat() );
+              swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getFloat( temp_index ) );
               totals[k] += swapbuf * percent;
             } else {
-              totals[k] += datain.getFloat() * percent;
+              totals[k] += datain.getFloat( temp_index ) * percent;
             }
           }
         } else {
           percent = ( highy_float - lowy_float ) * ( highx_float - lowx_float );
           temp = xindex + (lowy_int * ysize);
           for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-            datain.position( temp_index );
             if( myswap_bytes ) {
-              swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getFloat() );
+              swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getFloat( temp_index ) );
               totals[k] += swapbuf * percent;
             } else {
-              totals[k] += datain.getFloat() * percent;
+              totals[k] += datain.getFloat( temp_index ) * percent;
             }
           }
         }
@@ -1998,12 +1964,11 @@ public class ScaleInternal {
           temp = temp0;
           for( l = lowx_int + 1; l < highx_int; l++ ) {
             for( k = 0, temp_index = temp; k < components; k++, temp_index += element_size ) {
-              datain.position( temp_index );
               if( myswap_bytes ) {
-                swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getFloat() );
+                swapbuf = Mipmap.GLU_SWAP_4_BYTES( datain.getFloat( temp_index ) );
                 totals[k] += swapbuf;
               } else {
-                totals[k] += datain.getFloat();
+                totals[k] += datain.getFloat( temp_index );
               }
             }
             temp += group_size;
@@ -2013,8 +1978,7 @@ public class ScaleInternal {
         
         outindex = ( j + ( i * widthout ) ) * components;
         for( k = 0; k < components; k++ ) {
-          dataout.position( outindex + k );
-          dataout.put( (totals[k] / area) );
+          dataout.put( outindex + k, (totals[k] / area) );
         }
         lowx_int = highx_int;
         lowx_float = highx_float;
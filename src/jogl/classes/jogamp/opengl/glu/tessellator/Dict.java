@@ -52,10 +52,38 @@
 */
 package jogamp.opengl.glu.tessellator;
 
+/**
+ * Sorted dictionary of the active edge regions crossing the sweep line.
+ * <p>
+ * The original SGI implementation is a sorted doubly linked list, hence
+ * {@link #dictSearch(Dict, Object)} is linear in the number of active edges
+ * and the sweep becomes quadratic for contours w/ many edges crossing the sweep line.
+ * </p>
+ * <p>
+ * This implementation keeps the doubly linked list at level 0, i.e. the
+ * {@link DictNode#next}/{@link DictNode#prev} order and the O(1)
+ * {@link #dictSucc(DictNode)}, {@link #dictPred(DictNode)} and {@link #dictDelete(Dict, DictNode)}
+ * semantics are unchanged, and adds a skip list on top of it.
+ * Searching is therefore expected O(log n).
+ * The higher levels of a new node are linked by walking back from its level 0 predecessor,
+ * which is expected O(1) per level, so the locality of {@link #dictInsertBefore(Dict, DictNode, Object)}
+ * is preserved.
+ * </p>
+ * <p>
+ * Node levels are drawn from a fixed seed pseudo random sequence,
+ * hence the structure and the visited keys are reproducible.
+ * </p>
+ */
 class Dict {
+    /** Maximum number of levels, sufficient for 4<sup>MAX_LEVEL</sup> keys. */
+    static final int MAX_LEVEL = 16;
+
     DictNode head;
     Object frame;
     DictLeq leq;
+    /** Number of levels in use, at least 1 */
+    int level;
+    private int seed;
 
     private Dict() {
     }
@@ -67,9 +95,17 @@ class Dict {
         dict.head.key = null;
         dict.head.next = dict.head;
         dict.head.prev = dict.head;
+        dict.head.skipNext = new DictNode[MAX_LEVEL - 1];
+        dict.head.skipPrev = new DictNode[MAX_LEVEL - 1];
+        for (int l = 0; l < MAX_LEVEL - 1; l++) {
+            dict.head.skipNext[l] = dict.head;
+            dict.head.skipPrev[l] = dict.head;
+        }
 
         dict.frame = frame;
         dict.leq = leq;
+        dict.level = 1;
+        dict.seed = 0x2545F491;
 
         return dict;
     }
@@ -96,6 +132,26 @@ class Dict {
         newNode.prev = node;
         node.next = newNode;
 
+        final int height = randomLevel(dict);
+        if (height > 1) {
+            newNode.skipNext = new DictNode[height - 1];
+            newNode.skipPrev = new DictNode[height - 1];
+            for (int l = 1; l < height; l++) {
+                /* walk back to the closest node reaching level l, the head reaches all levels */
+                while (node.getLevel() <= l) {
+                    node = 1 == l ? node.prev : node.skipPrev[l - 2];
+                }
+                final DictNode succ = node.skipNext[l - 1];
+                newNode.skipNext[l - 1] = succ;
+                newNode.skipPrev[l - 1] = node;
+                succ.skipPrev[l - 1] = newNode;
+                node.skipNext[l - 1] = newNode;
+            }
+            if (height > dict.level) {
+                dict.level = height;
+            }
+        }
+
         return newNode;
     }
 
@@ -122,11 +178,28 @@ class Dict {
     static void dictDelete(Dict dict, DictNode node) {
         node.next.prev = node.prev;
         node.prev.next = node.next;
+        if (null != node.skipNext) {
+            for (int l = node.skipNext.length - 1; l >= 0; l--) {
+                node.skipNext[l].skipPrev[l] = node.skipPrev[l];
+                node.skipPrev[l].skipNext[l] = node.skipNext[l];
+            }
+        }
     }
 
+    /**
+     * Returns the first node whose key is greater or equal to the given key,
+     * i.e. the node the SGI linear search from the head stops at.
+     */
     static DictNode dictSearch(Dict dict, Object key) {
         DictNode node = dict.head;
 
+        for (int l = dict.level - 1; l >= 1; l--) {
+            for (DictNode next = node.skipNext[l - 1];
+                 next.key != null && !(dict.leq.leq(dict.frame, key, next.key));
+                 next = node.skipNext[l - 1]) {
+                node = next;
+            }
+        }
         do {
             node = node.next;
         } while (node.key != null && !(dict.leq.leq(dict.frame, key, node.key)));
@@ -134,6 +207,21 @@ class Dict {
         return node;
     }
 
+    /** Returns a level in [1..MAX_LEVEL] w/ P(level > l) = 4<sup>-l</sup>. */
+    private static int randomLevel(Dict dict) {
+        int x = dict.seed;
+        x ^= x << 13;
+        x ^= x >>> 17;
+        x ^= x << 5;
+        dict.seed = x;
+        int height = 1;
+        while (height < MAX_LEVEL && 0 == (x & 3)) {
+            height++;
+            x >>>= 2;
+        }
+        return height;
+    }
+
     public interface DictLeq {
         boolean leq(Object frame, Object key1, Object key2);
     }
@@ -56,4 +56,11 @@ class DictNode {
     Object key;
     DictNode next;
     DictNode prev;
+    /** Skip list links of levels [1..{@link #getLevel()}-1], null if this node only resides in level 0 */
+    DictNode[] skipNext;
+    DictNode[] skipPrev;
+
+    final int getLevel() {
+        return null == skipNext ? 1 : skipNext.length + 1;
+    }
 }
@@ -92,6 +92,9 @@ public class GLUtessellatorImpl implements GLUtessellator {
     GLUface lonelyTriList;
     /* list of triangles which could not be rendered as strips or fans */
 
+    TriangleBuffers triangleOutput;
+    /* JAVA: indexed triangle output instead of the rendering callbacks */
+
 
 
     /*** state needed to cache single-contour polygons for renderCache() */
@@ -340,6 +343,30 @@ public class GLUtessellatorImpl implements GLUtessellator {
         }
     }
 
+    /**
+     * JOGL specific: Writes the triangles of the following polygons into the given buffers
+     * instead of rendering them via the begin, vertex, edge flag and end callbacks.
+     * <p>
+     * Each polygon appends its vertices and CCW triangles, see {@link TriangleBuffers}.
+     * No combine callback is required for intersections, since only the coordinates
+     * are written. The combine and error callbacks are still invoked, if set.
+     * GLU_TESS_BOUNDARY_ONLY is ignored, i.e. the interior is always triangulated.
+     * </p>
+     * <p>
+     * No GL context is used, hence a tessellator may run on any thread,
+     * as long as each thread uses its own tessellator and buffers.
+     * </p>
+     * @param output the buffers to append to, or null to use the callbacks again
+     */
+    public void setTriangleOutput(TriangleBuffers output) {
+        triangleOutput = output;
+    }
+
+    /** Returns the buffers set via {@link #setTriangleOutput(TriangleBuffers)}, or null. */
+    public TriangleBuffers getTriangleOutput() {
+        return triangleOutput;
+    }
+
     private boolean addVertex(double[] coords, Object vertexData) {
         GLUhalfEdge e;
 
@@ -534,16 +561,18 @@ public class GLUtessellatorImpl implements GLUtessellator {
  * except those which separate the interior from the exterior.
  * Otherwise we tessellate all the regions marked "inside".
  */
-                if (boundaryOnly) {
+                if (boundaryOnly && triangleOutput == null) {
                     rc = TessMono.__gl_meshSetWindingNumber(mesh, 1, true);
                 } else {
                     rc = TessMono.__gl_meshTessellateInterior(mesh, avoidDegenerateTris);
                 }
                 if (!rc) throw new RuntimeException();    /* could've used a label */
 
-                Mesh.__gl_meshCheckMesh(mesh);
+                assert Mesh.__gl_meshCheckMesh(mesh);
 
-                if (callBegin != NULL_CB || callEnd != NULL_CB
+                if (triangleOutput != null) {
+                    Render.__gl_renderTriangles(this, mesh, triangleOutput);   /* output indexed triangles */
+                } else if (callBegin != NULL_CB || callEnd != NULL_CB
                         || callVertex != NULL_CB || callEdgeFlag != NULL_CB
                         || callBeginData != NULL_CB
                         || callEndData != NULL_CB
@@ -62,4 +62,5 @@ class GLUvertex {
     public double[] coords = new double[3];    /* vertex location in 3D */
     public double s, t;        /* projection onto the sweep plane */
     public int pqHandle;    /* to allow deletion from priority queue */
+    public int index = -1;    /* JAVA: index in the TriangleBuffers output, -1 if not yet written */
 }
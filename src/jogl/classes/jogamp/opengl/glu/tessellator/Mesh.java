@@ -196,6 +196,45 @@ class Mesh {
         } while (e != eOrig);
     }
 
+/* JAVA: SplitFace( newFace, eNew, fOrig ) splits fOrig, whose loop has just been
+ * divided by the new edge eNew, such that the loop of eNew becomes a new face.
+ * The result is the same as MakeFace( newFace, eNew, fOrig ) followed by
+ * fOrig.anEdge = eNew.Sym, i.e. the same face list order, fields and loops.
+ * However only the shorter of both loops is relabeled: splitting a long loop
+ * close to its end, as the sweep does for every left vertex of a contour w/ many edges
+ * crossing the sweep line, would otherwise walk the whole remaining loop each time.
+ * If the loop of eNew.Sym is shorter, fOrig keeps the loop of eNew and newFace
+ * takes the loop of eNew.Sym and the client data of fOrig.  newFace is then
+ * inserted *after* fOrig to keep the order of the loops in the face list,
+ * hence algorithms which cache the next face, like __gl_meshTessellateInterior(),
+ * still will not see it.
+ */
+    static void SplitFace(jogamp.opengl.glu.tessellator.GLUface newFace, jogamp.opengl.glu.tessellator.GLUhalfEdge eNew, jogamp.opengl.glu.tessellator.GLUface fOrig) {
+        jogamp.opengl.glu.tessellator.GLUhalfEdge eNewSym = eNew.Sym;
+        jogamp.opengl.glu.tessellator.GLUhalfEdge eA = eNew.Lnext, eB = eNewSym.Lnext;
+
+        /* walk both loops in lockstep until one of them is complete */
+        while (eA != eNew && eB != eNewSym) {
+            eA = eA.Lnext;
+            eB = eB.Lnext;
+        }
+        if (eA == eNew) {
+            /* the loop of eNew is not longer */
+            MakeFace(newFace, eNew, fOrig);
+            fOrig.anEdge = eNewSym;
+            return;
+        }
+        MakeFace(newFace, eNewSym, fOrig.next);
+        newFace.data = fOrig.data;
+        newFace.trail = fOrig.trail;
+        newFace.marked = fOrig.marked;
+        newFace.inside = fOrig.inside;
+        fOrig.anEdge = eNew;
+        fOrig.data = null;
+        fOrig.trail = null;
+        fOrig.marked = false;
+    }
+
 /* KillEdge( eDel ) destroys an edge (the half-edges eDel and eDel->Sym),
  * and removes from the global edge list.
  */
@@ -501,7 +540,7 @@ class Mesh {
             jogamp.opengl.glu.tessellator.GLUface newFace = new jogamp.opengl.glu.tessellator.GLUface();
 
             /* We split one loop into two -- the new loop is eNew.Lface */
-            MakeFace(newFace, eNew, eOrg.Lface);
+            SplitFace(newFace, eNew, eOrg.Lface);
         }
         return eNew;
     }
@@ -676,8 +715,10 @@ class Mesh {
     }
 
 /* __gl_meshCheckMesh( mesh ) checks a mesh for self-consistency.
+ * JAVA: Always returns true, call it as an assertion to skip the walk
+ * if assertions are disabled, like the NDEBUG build of the C code.
  */
-    public static void __gl_meshCheckMesh(jogamp.opengl.glu.tessellator.GLUmesh mesh) {
+    public static boolean __gl_meshCheckMesh(jogamp.opengl.glu.tessellator.GLUmesh mesh) {
         jogamp.opengl.glu.tessellator.GLUface fHead = mesh.fHead;
         jogamp.opengl.glu.tessellator.GLUvertex vHead = mesh.vHead;
         jogamp.opengl.glu.tessellator.GLUhalfEdge eHead = mesh.eHead;
@@ -730,5 +771,6 @@ class Mesh {
                 && e.Sym.Sym == e
                 && e.Org == null && e.Sym.Org == null
                 && e.Lface == null && e.Sym.Lface == null);
+        return true;
     }
 }
@@ -0,0 +1,321 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+
+package jogamp.opengl.glu.tessellator;
+
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.media.opengl.glu.GLU;
+import javax.media.opengl.glu.GLUtessellatorCallbackAdapter;
+
+import jogamp.opengl.util.ParallelUtil;
+
+/**
+ * Tessellates large batches of polygons into one {@link TriangleBuffers},
+ * splitting batches of at least {@link #getMinParallelVertices()} vertices across a pool of worker threads.
+ * <p>
+ * The batch is split into chunks of consecutive polygons w/ about {@link #CHUNK_VERTICES} vertices.
+ * Chunks are handed out one by one to {@link #getParallelism()} tasks, one of them running on the calling thread,
+ * each chunk using a {@link GLUtessellatorImpl} of a pool in its {@link GLUtessellatorImpl#setTriangleOutput(TriangleBuffers) triangle output} mode.
+ * The calling thread only waits for chunks claimed by a running task, hence it may run on a busy executor itself.
+ * The chunk results are appended in polygon order, hence the result equals the serial tessellation
+ * of all polygons regardless of the thread count.
+ * </p>
+ * <p>
+ * Each polygon is given as an array of contours, each contour as packed xyz-coordinates, 3 per vertex.
+ * The polygons must not be modified while being tessellated.
+ * </p>
+ * <pre>
+    final ParallelTessellator tessellator = new ParallelTessellator(0);
+    tessellator.setNormal(0, 0, 1);
+    final TriangleBuffers out = tessellator.tessellate(polygons, new TriangleBuffers(), null);
+    gl.glBufferData(GL.GL_ARRAY_BUFFER, 4*3*out.getVertexCount(), out.getVertexBuffer(), GL.GL_STATIC_DRAW);
+    ..
+    tessellator.shutdown();
+ * </pre>
+ */
+public class ParallelTessellator {
+    /** Default minimum number of vertices tessellated concurrently: {@value} */
+    public static final int DEFAULT_MIN_PARALLEL_VERTICES = 8192;
+
+    /** Minimum number of vertices per chunk handed out to a task: {@value} */
+    public static final int CHUNK_VERTICES = 2048;
+
+    private final ExecutorService executor;
+    private final boolean ownExecutor;
+    private final int parallelism;
+    private final ConcurrentLinkedQueue<PooledTessellator> pool = new ConcurrentLinkedQueue<PooledTessellator>();
+    private volatile int minParallelVertices = DEFAULT_MIN_PARALLEL_VERTICES;
+    private volatile int windingRule = GLU.GLU_TESS_WINDING_ODD;
+    private volatile double tolerance = 0.0;
+    private volatile double[] normal = new double[] { 0, 0, 0 };
+
+    /**
+     * Creates a tessellator w/ its own pool of daemon worker threads.
+     * @param threadCount number of threads tessellating a batch including the calling thread,
+     *                    or 0 for one thread per available processor
+     */
+    public ParallelTessellator(int threadCount) {
+        this.parallelism = 0 < threadCount ? threadCount : Runtime.getRuntime().availableProcessors();
+        if( 1 < parallelism ) {
+            this.executor = Executors.newFixedThreadPool(parallelism - 1,
+                    ParallelUtil.createDaemonThreadFactory("ParallelTessellator"));
+        } else {
+            this.executor = null;
+        }
+        this.ownExecutor = true;
+    }
+
+    /**
+     * Creates a tessellator running on the given {@link ExecutorService},
+     * which is not shut down by {@link #shutdown()}.
+     * @param executor the {@link ExecutorService} to tessellate on
+     * @param parallelism number of concurrent tasks per batch including the calling thread,
+     *                    should not exceed the executor's thread count + 1
+     */
+    public ParallelTessellator(ExecutorService executor, int parallelism) {
+        if( null == executor ) {
+            throw new IllegalArgumentException("Null ExecutorService");
+        }
+        if( 0 >= parallelism ) {
+            throw new IllegalArgumentException("Invalid parallelism "+parallelism);
+        }
+        this.executor = executor;
+        this.ownExecutor = false;
+        this.parallelism = parallelism;
+    }
+
+    /** Returns the {@link ExecutorService} of the worker threads, may be null if {@link #getParallelism()} is 1. */
+    public final ExecutorService getExecutor() { return executor; }
+
+    public final int getParallelism() { return parallelism; }
+
+    /**
+     * Sets the minimum number of vertices of a batch tessellated concurrently,
+     * smaller batches are tessellated on the calling thread only.
+     * Defaults to {@link #DEFAULT_MIN_PARALLEL_VERTICES}.
+     */
+    public final void setMinParallelVertices(int count) {
+        minParallelVertices = Math.max(0, count);
+    }
+
+    public final int getMinParallelVertices() { return minParallelVertices; }
+
+    /** Sets the GLU_TESS_WINDING_RULE of the following batches, defaults to GLU_TESS_WINDING_ODD. */
+    public final void setWindingRule(int windingRule) {
+        this.windingRule = windingRule;
+    }
+
+    public final int getWindingRule() { return windingRule; }
+
+    /** Sets the GLU_TESS_TOLERANCE of the following batches, defaults to 0. */
+    public final void setTolerance(double tolerance) {
+        this.tolerance = tolerance;
+    }
+
+    public final double getTolerance() { return tolerance; }
+
+    /** Sets the normal of the following batches, see gluTessNormal, defaults to 0/0/0, i.e. computed per polygon. */
+    public final void setNormal(double x, double y, double z) {
+        normal = new double[] { x, y, z };
+    }
+
+    /**
+     * Shuts down the worker threads if owned by this tessellator, see {@link #ParallelTessellator(int)}.
+     */
+    public void shutdown() {
+        if( ownExecutor && null != executor ) {
+            executor.shutdown();
+        }
+        pool.clear();
+    }
+
+    /**
+     * Tessellates all polygons, appends their triangles to <code>out</code> in polygon order
+     * and blocks until all are done.
+     * <p>
+     * If tessellation fails, <code>out</code> is left unchanged regardless of the thread count,
+     * while the content of <code>indexOffsets</code> is undefined.
+     * </p>
+     * @param polygons the polygons, each an array of contours of packed xyz-coordinates
+     * @param out the buffers to append to
+     * @param indexOffsets if not null, receives the index offset in <code>out</code> of the first triangle of each polygon,
+     *                     followed by the final index count, i.e. at least <code>polygons.length+1</code> elements
+     * @return <code>out</code>
+     * @throws RuntimeException if tessellation failed, e.g. a GLU tessellator error was reported, or the calling thread was interrupted
+     */
+    public TriangleBuffers tessellate(final double[][][] polygons, TriangleBuffers out, final int[] indexOffsets) throws RuntimeException {
+        final int[] chunks = split(polygons);
+        final int chunkCount = chunks.length - 1;
+        final int taskCount = Math.min(parallelism, chunkCount);
+        if( 1 >= taskCount || null == executor || vertexCount(polygons) < minParallelVertices ) {
+            final int vertexCount = out.getVertexCount(), indexCount = out.getIndexCount();
+            final PooledTessellator tess = borrow();
+            try {
+                tessellate(tess, polygons, 0, polygons.length, out, indexOffsets);
+            } catch (RuntimeException e) {
+                out.truncate(vertexCount, indexCount);
+                throw e;
+            } finally {
+                pool.offer(tess);
+            }
+            if( null != indexOffsets ) {
+                indexOffsets[polygons.length] = out.getIndexCount();
+            }
+            return out;
+        }
+        final TriangleBuffers[] results = new TriangleBuffers[chunkCount];
+        ParallelUtil.invokeAll(executor, taskCount, chunkCount, new ParallelUtil.RangeTask() {
+                public int run(int c) {
+                    results[c] = tessellateChunk(chunks[c], chunks[c+1], polygons, indexOffsets);
+                    return 0;
+                } }, "tessellating");
+        // merge in polygon order
+        for(int c=0; c<chunkCount; c++) {
+            if( null != indexOffsets ) {
+                final int base = out.getIndexCount();
+                for(int i=chunks[c]; i<chunks[c+1]; i++) {
+                    indexOffsets[i] += base;
+                }
+            }
+            out.append(results[c]);
+        }
+        if( null != indexOffsets ) {
+            indexOffsets[polygons.length] = out.getIndexCount();
+        }
+        return out;
+    }
+
+    /** Tessellates the polygons [first, end) into new buffers, w/ chunk relative index offsets. */
+    private TriangleBuffers tessellateChunk(int first, int end, double[][][] polygons, int[] indexOffsets) {
+        final TriangleBuffers out = new TriangleBuffers(end - first, 3*CHUNK_VERTICES);
+        final PooledTessellator tess = borrow();
+        try {
+            tessellate(tess, polygons, first, end, out, indexOffsets);
+        } finally {
+            pool.offer(tess);
+        }
+        return out;
+    }
+
+    private static void tessellate(PooledTessellator tess, double[][][] polygons, int first, int end, TriangleBuffers out, int[] indexOffsets) {
+        final GLUtessellatorImpl t = tess.tess;
+        t.setTriangleOutput(out);
+        try {
+            for(int i=first; i<end; i++) {
+                if( null != indexOffsets ) {
+                    indexOffsets[i] = out.getIndexCount();
+                }
+                final double[][] contours = polygons[i];
+                tess.error = 0;
+                t.gluTessBeginPolygon(null);
+                for(int k=0; k<contours.length; k++) {
+                    final double[] c = contours[k];
+                    t.gluTessBeginContour();
+                    for(int j=0; j+2<c.length; j+=3) {
+                        t.gluTessVertex(c, j, null);
+                    }
+                    t.gluTessEndContour();
+                }
+                t.gluTessEndPolygon();
+                if( 0 != tess.error ) {
+                    throw new RuntimeException("Tessellation of polygon "+i+" failed w/ GLU error "+tess.error);
+                }
+            }
+        } finally {
+            t.setTriangleOutput(null);
+        }
+    }
+
+    /** Returns the first polygon of each chunk, followed by polygons.length */
+    private static int[] split(double[][][] polygons) {
+        final ArrayList<Integer> starts = new ArrayList<Integer>();
+        int vertices = CHUNK_VERTICES;
+        for(int i=0; i<polygons.length; i++) {
+            if( CHUNK_VERTICES <= vertices ) {
+                starts.add(Integer.valueOf(i));
+                vertices = 0;
+            }
+            vertices += vertexCount(polygons[i]);
+        }
+        final int[] chunks = new int[starts.size() + 1];
+        for(int c=0; c<starts.size(); c++) {
+            chunks[c] = starts.get(c).intValue();
+        }
+        chunks[starts.size()] = polygons.length;
+        return chunks;
+    }
+
+    private static int vertexCount(double[][] contours) {
+        int count = 0;
+        for(int k=0; k<contours.length; k++) {
+            count += contours[k].length / 3;
+        }
+        return count;
+    }
+
+    private static int vertexCount(double[][][] polygons) {
+        int count = 0;
+        for(int i=0; i<polygons.length; i++) {
+            count += vertexCount(polygons[i]);
+        }
+        return count;
+    }
+
+    /** Returns a pooled tessellator w/ the current properties. */
+    private PooledTessellator borrow() {
+        PooledTessellator tess = pool.poll();
+        if( null == tess ) {
+            tess = new PooledTessellator();
+        }
+        final double[] n = normal;
+        tess.tess.gluTessProperty(GLU.GLU_TESS_WINDING_RULE, windingRule);
+        tess.tess.gluTessProperty(GLU.GLU_TESS_TOLERANCE, tolerance);
+        tess.tess.gluTessNormal(n[0], n[1], n[2]);
+        return tess;
+    }
+
+    /** A tessellator of the pool recording the first reported error of a polygon. */
+    private static class PooledTessellator extends GLUtessellatorCallbackAdapter {
+        final GLUtessellatorImpl tess = (GLUtessellatorImpl) GLUtessellatorImpl.gluNewTess();
+        int error = 0;
+
+        PooledTessellator() {
+            tess.gluTessCallback(GLU.GLU_TESS_ERROR, this);
+        }
+
+        public void error(int errnum) {
+            if( 0 == error ) {
+                error = errnum;
+            }
+        }
+    }
+}
@@ -55,15 +55,6 @@ package jogamp.opengl.glu.tessellator;
 abstract class PriorityQ {
     public static final int INIT_SIZE = 32;
 
-    public static class PQnode {
-        int handle;
-    }
-
-    public static class PQhandleElem {
-        Object key;
-        int node;
-    }
-
     public static interface Leq {
         boolean leq(Object key1, Object key2);
     }
@@ -372,6 +372,41 @@ class Render {
         }
     }
 
+    /************************ Indexed triangle output ******************/
+
+/* JAVA: __gl_renderTriangles( tess, mesh, out ) writes each face marked "inside"
+ * as CCW triangles into the given buffers, without any callback.
+ * Each mesh vertex is written once, when the first triangle refers to it.
+ * All faces are triangles after __gl_meshTessellateInterior(), other faces
+ * are written as a fan.
+ */
+    public static void __gl_renderTriangles(GLUtessellatorImpl tess, jogamp.opengl.glu.tessellator.GLUmesh mesh, TriangleBuffers out) {
+        jogamp.opengl.glu.tessellator.GLUface f;
+        jogamp.opengl.glu.tessellator.GLUhalfEdge e;
+        int first, prev, curr;
+
+        for (f = mesh.fHead.next; f != mesh.fHead; f = f.next) {
+            if (f.inside) {
+                e = f.anEdge;
+                first = VertexIndex(e.Org, out);
+                e = e.Lnext;
+                prev = VertexIndex(e.Org, out);
+                for (e = e.Lnext; e != f.anEdge; e = e.Lnext) {
+                    curr = VertexIndex(e.Org, out);
+                    out.addTriangle(first, prev, curr);
+                    prev = curr;
+                }
+            }
+        }
+    }
+
+    private static int VertexIndex(jogamp.opengl.glu.tessellator.GLUvertex v, TriangleBuffers out) {
+        if (v.index < 0) {
+            v.index = out.addVertex(v.coords);
+        }
+        return v.index;
+    }
+
     /************************ Boundary contour decomposition ******************/
 
 /* __gl_renderBoundary( tess, mesh ) takes a mesh, and outputs one
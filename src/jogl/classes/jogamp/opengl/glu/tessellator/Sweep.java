@@ -421,10 +421,11 @@ class Sweep {
         if (isect.data == null) {
             if (!needed) {
                 isect.data = data[0];
-            } else if (!tess.fatalError) {
+            } else if (!tess.fatalError && tess.triangleOutput == null) {
                 /* The only way fatal error is when two edges are found to intersect,
                  * but the user has not provided the callback necessary to handle
                  * generated intersection points.
+                 * JAVA: The triangle output only needs the coordinates.
                  */
                 tess.callErrorOrErrorData(GLU.GLU_TESS_NEED_COMBINE_CALLBACK);
                 tess.fatalError = true;
@@ -1346,7 +1347,7 @@ class Sweep {
         DonePriorityQ(tess);
 
         if (!RemoveDegenerateFaces(tess.mesh)) return false;
-        Mesh.__gl_meshCheckMesh(tess.mesh);
+        assert Mesh.__gl_meshCheckMesh(tess.mesh);
 
         return true;
     }
@@ -0,0 +1,159 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+
+package jogamp.opengl.glu.tessellator;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+/**
+ * Indexed triangle output of the {@link GLUtessellatorImpl}, see {@link GLUtessellatorImpl#setTriangleOutput(TriangleBuffers)}.
+ * <p>
+ * Holds 3 floats per vertex, the xyz-coordinates, and 3 int indices per counter clockwise triangle.
+ * Each tessellated polygon appends its vertices and triangles, the indices of a polygon
+ * refer to the vertices it appended, i.e. the buffers of several polygons
+ * can be rendered w/ one draw call.
+ * Vertices shared by triangles of the same polygon are stored only once.
+ * </p>
+ * <p>
+ * No GL context is required, one instance shall only be used by one thread at a time.
+ * </p>
+ */
+public class TriangleBuffers {
+    private float[] vertices;
+    private int[] indices;
+    private int vertexCount = 0;
+    private int indexCount = 0;
+
+    /** Create empty buffers. */
+    public TriangleBuffers() {
+        this(64, 3*64);
+    }
+
+    /** Create empty buffers w/ room for the given number of vertices and indices. */
+    public TriangleBuffers(int vertexCapacity, int indexCapacity) {
+        vertices = new float[3*Math.max(1, vertexCapacity)];
+        indices = new int[Math.max(3, indexCapacity)];
+    }
+
+    /** Removes all vertices and triangles, keeping the allocated storage. */
+    public final void clear() {
+        vertexCount = 0;
+        indexCount = 0;
+    }
+
+    /** Removes the vertices and triangles appended after the given counts, e.g. of a failed tessellation. */
+    final void truncate(int vertexCount, int indexCount) {
+        this.vertexCount = vertexCount;
+        this.indexCount = indexCount;
+    }
+
+    public final int getVertexCount() {
+        return vertexCount;
+    }
+
+    public final int getIndexCount() {
+        return indexCount;
+    }
+
+    public final int getTriangleCount() {
+        return indexCount / 3;
+    }
+
+    /**
+     * Returns the backing vertex array, 3 floats per vertex,
+     * valid for <code>3*</code>{@link #getVertexCount()} elements.
+     * <p>The array may be replaced by the next tessellation.</p>
+     */
+    public final float[] getVertices() {
+        return vertices;
+    }
+
+    /**
+     * Returns the backing index array, 3 indices per triangle,
+     * valid for {@link #getIndexCount()} elements.
+     * <p>The array may be replaced by the next tessellation.</p>
+     */
+    public final int[] getIndices() {
+        return indices;
+    }
+
+    /** Returns a buffer wrapping the valid range of {@link #getVertices()}, e.g. for glBufferData. */
+    public final FloatBuffer getVertexBuffer() {
+        return FloatBuffer.wrap(vertices, 0, 3*vertexCount);
+    }
+
+    /** Returns a buffer wrapping the valid range of {@link #getIndices()}, e.g. for glBufferData. */
+    public final IntBuffer getIndexBuffer() {
+        return IntBuffer.wrap(indices, 0, indexCount);
+    }
+
+    /**
+     * Appends all vertices and triangles of <code>src</code>,
+     * offsetting its indices to refer to the appended vertices.
+     */
+    public final void append(TriangleBuffers src) {
+        final int base = vertexCount;
+        final int srcVertexCount = src.vertexCount, srcIndexCount = src.indexCount;
+        if( 3*( vertexCount + srcVertexCount ) > vertices.length ) {
+            vertices = Arrays.copyOf(vertices, Math.max(3*( vertexCount + srcVertexCount ), 2*vertices.length));
+        }
+        if( indexCount + srcIndexCount > indices.length ) {
+            indices = Arrays.copyOf(indices, Math.max(indexCount + srcIndexCount, 2*indices.length));
+        }
+        System.arraycopy(src.vertices, 0, vertices, 3*vertexCount, 3*srcVertexCount);
+        vertexCount += srcVertexCount;
+        final int[] srcIndices = src.indices;
+        for(int i=0; i<srcIndexCount; i++) {
+            indices[indexCount++] = base + srcIndices[i];
+        }
+    }
+
+    /** Appends a vertex and returns its index. */
+    final int addVertex(double[] coords) {
+        if( 3*vertexCount + 3 > vertices.length ) {
+            vertices = Arrays.copyOf(vertices, Math.max(3*vertexCount + 3, 2*vertices.length));
+        }
+        final int i = 3*vertexCount;
+        vertices[i] = (float) coords[0];
+        vertices[i+1] = (float) coords[1];
+        vertices[i+2] = (float) coords[2];
+        return vertexCount++;
+    }
+
+    /** Appends a triangle of the given vertex indices. */
+    final void addTriangle(int a, int b, int c) {
+        if( indexCount + 3 > indices.length ) {
+            indices = Arrays.copyOf(indices, Math.max(indexCount + 3, 2*indices.length));
+        }
+        indices[indexCount++] = a;
+        indices[indexCount++] = b;
+        indices[indexCount++] = c;
+    }
+}
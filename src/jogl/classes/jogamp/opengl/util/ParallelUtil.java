@@ -0,0 +1,170 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+
+package jogamp.opengl.util;
+
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Worker thread utilities shared by the batch processing classes, e.g.
+ * {@link com.jogamp.opengl.math.geom.FrustumCuller} or {@link com.jogamp.graph.curve.ParallelTriangulator}.
+ */
+public class ParallelUtil {
+
+    /** Processes one range of a batch, see {@link ParallelUtil#invokeAll(ExecutorService, int, int, RangeTask, String)}. */
+    public static interface RangeTask {
+        /**
+         * Processes range <code>r</code>, may be called concurrently for different ranges.
+         * @return a count summed up over all ranges, e.g. the number of visible objects, or 0 if unused
+         */
+        int run(int r);
+    }
+
+    /**
+     * Returns a {@link ThreadFactory} creating daemon threads named <code>name-0</code>, <code>name-1</code>, ..
+     */
+    public static ThreadFactory createDaemonThreadFactory(final String name) {
+        return new ThreadFactory() {
+            private final AtomicInteger n = new AtomicInteger(0);
+
+            public Thread newThread(Runnable r) {
+                final Thread t = new Thread(r, name+"-"+n.getAndIncrement());
+                t.setDaemon(true);
+                return t;
+            }
+        };
+    }
+
+    /**
+     * Runs <code>task</code> for all <code>rangeCount</code> ranges and blocks until all are done.
+     * <p>
+     * Ranges are handed out one by one to <code>taskCount</code> tasks, one of them running on the calling thread
+     * and the others submitted to <code>executor</code>. The calling thread only waits for ranges claimed by a running task,
+     * tasks not started by the time all ranges are claimed are cancelled.
+     * Hence a busy or saturated executor, e.g. one running the calling thread itself, degrades to serial processing
+     * instead of blocking.
+     * </p>
+     * <p>
+     * If a range fails, the remaining unclaimed ranges are skipped and the first failure is thrown
+     * after the ranges already running are done.
+     * Returning from this method guarantees visibility of the writes of all ranges.
+     * </p>
+     * @param executor the executor running the other tasks, if null all ranges are processed on the calling thread
+     * @param taskCount number of concurrent tasks including the calling thread
+     * @param rangeCount number of ranges
+     * @param task the range body
+     * @param what description of the work for error messages, e.g. <code>culling</code>
+     * @return the sum of the counts returned by all ranges
+     * @throws RuntimeException the first exception thrown by a range, or if the calling thread was interrupted
+     * @throws Error the first error thrown by a range
+     */
+    public static int invokeAll(ExecutorService executor, int taskCount, int rangeCount, RangeTask task, String what) throws RuntimeException, Error {
+        final int n = Math.min(taskCount, rangeCount) - 1;
+        if( 0 >= n || null == executor ) {
+            int sum = 0;
+            for(int r=0; r<rangeCount; r++) {
+                sum += task.run(r);
+            }
+            return sum;
+        }
+        final Batch batch = new Batch(task, rangeCount);
+        final ArrayList<Future<?>> tasks = new ArrayList<Future<?>>(n);
+        try {
+            for(int t=0; t<n; t++) {
+                tasks.add(executor.submit(batch));
+            }
+        } catch (RuntimeException e) {
+            // e.g. RejectedExecutionException, the calling thread and the tasks already submitted take over
+        }
+        batch.run();
+        try {
+            batch.pending.await();
+        } catch (InterruptedException e) {
+            batch.failure.compareAndSet(null, e);
+            cancel(tasks);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while "+what, e);
+        }
+        cancel(tasks); // left w/o a range to claim
+        final Throwable cause = batch.failure.get();
+        if( null != cause ) {
+            if( cause instanceof RuntimeException ) {
+                throw (RuntimeException) cause;
+            }
+            if( cause instanceof Error ) {
+                throw (Error) cause;
+            }
+            throw new RuntimeException("Error while "+what, cause);
+        }
+        // CountDownLatch.await() guarantees visibility of the tasks' writes
+        return batch.sum.get();
+    }
+
+    private static void cancel(ArrayList<Future<?>> tasks) {
+        for(int t=0; t<tasks.size(); t++) {
+            tasks.get(t).cancel(false);
+        }
+    }
+
+    /** Claims and processes ranges until none is left, counting each claimed range down once processed or skipped. */
+    private static class Batch implements Runnable {
+        final RangeTask task;
+        final int rangeCount;
+        final AtomicInteger next = new AtomicInteger(0);
+        final AtomicInteger sum = new AtomicInteger(0);
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        final CountDownLatch pending;
+
+        Batch(RangeTask task, int rangeCount) {
+            this.task = task;
+            this.rangeCount = rangeCount;
+            this.pending = new CountDownLatch(rangeCount);
+        }
+
+        public void run() {
+            int r;
+            while( ( r = next.getAndIncrement() ) < rangeCount ) {
+                try {
+                    if( null == failure.get() ) {
+                        sum.addAndGet(task.run(r));
+                    }
+                } catch (Throwable t) {
+                    failure.compareAndSet(null, t);
+                } finally {
+                    pending.countDown();
+                }
+            }
+        }
+    }
+}
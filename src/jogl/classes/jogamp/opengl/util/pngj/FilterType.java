@@ -37,6 +37,11 @@ public enum FilterType {
 	 * Very aggressive strategy: select one of the above filters trying each of the filters (for every row!)
 	 */
 	FILTER_VERYAGGRESSIVE(-3),
+	/**
+	 * Sampled strategy: select one of the above filters for each row, estimating all of them in one pass over a
+	 * sample of the pixels. Much cheaper than the aggressive strategies, at a slightly worse compression
+	 */
+	FILTER_SAMPLED(-4),
 	/**
 	 * Uses all fiters, one for lines, cyciclally. Only for tests.
 	 */
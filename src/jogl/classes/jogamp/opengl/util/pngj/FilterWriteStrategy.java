@@ -5,6 +5,7 @@ package jogamp.opengl.util.pngj;
  */
 class FilterWriteStrategy {
 	private static final int COMPUTE_STATS_EVERY_N_LINES = 8;
+	private static final int SAMPLE_EVERY_N_PIXELS = 4; // FILTER_SAMPLED
 
 	final ImageInfo imgInfo;
 	public final FilterType configuredType; // can be negative (fin dout)
@@ -52,6 +53,69 @@ class FilterWriteStrategy {
 		return (discoverEachLines > 0);
 	}
 
+	/**
+	 * True if the filter of each row is to be chosen by {@link #estimateFilterType(int, byte[], int, byte[], int)}
+	 */
+	boolean estimatesFilterType() {
+		return configuredType == FilterType.FILTER_SAMPLED;
+	}
+
+	/**
+	 * Chooses the filter for a row in one pass, without filtering it: sums the absolute values of the residuals of
+	 * all five filters (the heuristic of the PNG spec) over every SAMPLE_EVERY_N_PIXELS-th pixel, weighted by the
+	 * preferences. Palette and 1-2-4 bits images are not filtered at all, as recommended by the spec.
+	 * 
+	 * @param row
+	 *            current raw row, filter byte at rowOff
+	 * @param prev
+	 *            previous raw row (all zeros for the first one), filter byte at prevOff
+	 */
+	FilterType estimateFilterType(int rown, byte[] row, int rowOff, byte[] prev, int prevOff) {
+		if (imgInfo.indexed || imgInfo.bitDepth < 8)
+			return FilterType.FILTER_NONE;
+		final int bpp = imgInfo.bytesPixel;
+		final int step = bpp * SAMPLE_EVERY_N_PIXELS;
+		final int imax = imgInfo.bytesPerRow;
+		int sNone = 0, sSub = 0, sUp = 0, sAve = 0, sPaeth = 0, v;
+		for (int p = bpp + 1; p <= imax; p += step) { // from the second pixel: all neighbours exist
+			final int kmax = Math.min(p + bpp, imax + 1);
+			for (int i = p; i < kmax; i++) {
+				final int x = row[rowOff + i];
+				final int a = row[rowOff + i - bpp] & 0xFF;
+				final int b = prev[prevOff + i] & 0xFF;
+				final int c = prev[prevOff + i - bpp] & 0xFF;
+				// residuals are taken as signed bytes, as in the filtered row
+				v = (byte) x;
+				sNone += (v ^ (v >> 31)) - (v >> 31);
+				v = (byte) (x - a);
+				sSub += (v ^ (v >> 31)) - (v >> 31);
+				v = (byte) (x - b);
+				sUp += (v ^ (v >> 31)) - (v >> 31);
+				v = (byte) (x - ((a + b) >> 1));
+				sAve += (v ^ (v >> 31)) - (v >> 31);
+				v = (byte) (x - PngUnfilter.paethPredictor(a, b, c));
+				sPaeth += (v ^ (v >> 31)) - (v >> 31);
+			}
+		}
+		lastRowTested = rown;
+		lastSums[0] = sNone;
+		lastSums[1] = sSub;
+		lastSums[2] = sUp;
+		lastSums[3] = sAve;
+		lastSums[4] = sPaeth;
+		int best = 0;
+		double bestval = lastSums[0] / preference[0];
+		for (int i = 1; i < 5; i++) {
+			final double val = lastSums[i] / preference[i];
+			if (val < bestval) {
+				bestval = val;
+				best = i;
+			}
+		}
+		currentType = FilterType.getByVal(best);
+		return currentType;
+	}
+
 	void fillResultsForFilter(int rown, FilterType type, double sum, int[] histo, boolean tentative) {
 		lastRowTested = rown;
 		lastSums[type.val] = sum;
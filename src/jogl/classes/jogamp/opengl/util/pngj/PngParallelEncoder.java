@@ -0,0 +1,365 @@
+package jogamp.opengl.util.pngj;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.Adler32;
+import java.util.zip.Deflater;
+
+import jogamp.opengl.util.ParallelUtil;
+
+/**
+ * Filters and compresses the IDAT stream of a {@link PngWriter} in bands of rows, on a pool of threads.
+ * <p>
+ * Each band is filtered with its own {@link FilterWriteStrategy} and deflated with its own raw {@link Deflater}, which
+ * is sync-flushed at the end of the band (the last band is finished instead). The bands are concatenated in order,
+ * wrapped with a zlib header and the combined Adler32 checksum, so the result is a single valid zlib stream (same
+ * approach as <i>pigz</i>). The compressed bytes are sent to the IDAT chunk stream, which fragments them as usual.
+ * <p>
+ * Sync-flushing a {@link Deflater} requires Java 7 (or Android API level 19), see {@link #isAvailable()}.
+ */
+class PngParallelEncoder {
+	/** minimum raw bytes per band when the band size is computed automatically */
+	private static final int BAND_BYTES_DEFAULT = 128 * 1024;
+	/** Deflater.SYNC_FLUSH, not available in Java 6 */
+	private static final int SYNC_FLUSH = 2;
+
+	private static final boolean available;
+	private static ExecutorService defaultExecutor = null;
+
+	static {
+		boolean ok;
+		try {
+			Deflater.class.getMethod("deflate", byte[].class, int.class, int.class, int.class);
+			ok = true;
+		} catch (Throwable t) {
+			ok = false;
+		}
+		available = ok;
+	}
+
+	/**
+	 * Returns true if parallel encoding is supported by the runtime (requires a sync-flushing Deflater)
+	 */
+	static boolean isAvailable() {
+		return available;
+	}
+
+	/**
+	 * Shared pool, one daemon thread per available processor, created lazily
+	 */
+	static synchronized ExecutorService getDefaultExecutor() {
+		if (defaultExecutor == null) {
+			defaultExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+					ParallelUtil.createDaemonThreadFactory("PngParallelEncoder"));
+		}
+		return defaultExecutor;
+	}
+
+	/**
+	 * Number of rows per band used when the caller passes 0
+	 */
+	static int getDefaultBandRows(ImageInfo imgInfo) {
+		return Math.max(1, BAND_BYTES_DEFAULT / (imgInfo.bytesPerRow + 1));
+	}
+
+	private final ImageInfo imgInfo;
+	private final ExecutorService executor;
+	private final FilterType filterType;
+	private final int compLevel;
+	private final int deflaterStrategy;
+	private final int bandRows;
+	private final int maxPending;
+	private final OutputStream os;
+	private final int rowLen; // bytesPerRow + 1, raw rows include the (unused) filter byte at position 0
+
+	private final LinkedList<Future<Band>> pending = new LinkedList<Future<Band>>();
+	private byte[] bandRaw; // row 0: last raw row of previous band (or zeros), rows 1..bandRows: this band
+	private int bandFirstRow = 0;
+	private int bandCount = 0; // rows in current band
+	private long adler = 1;
+	private boolean finished = false;
+
+	/**
+	 * @param os
+	 *            destination of the zlib stream (typically the IDAT chunk stream)
+	 * @param bandRows
+	 *            rows per band, 0: automatic
+	 * @param maxPending
+	 *            maximum number of bands queued or being encoded; the caller blocks when this is exceeded
+	 */
+	PngParallelEncoder(OutputStream os, ImageInfo imgInfo, ExecutorService executor, FilterType filterType,
+			int compLevel, int deflaterStrategy, int bandRows, int maxPending) {
+		this.os = os;
+		this.imgInfo = imgInfo;
+		this.executor = executor;
+		this.filterType = filterType;
+		this.compLevel = compLevel;
+		this.deflaterStrategy = deflaterStrategy;
+		this.bandRows = bandRows > 0 ? bandRows : getDefaultBandRows(imgInfo);
+		this.maxPending = Math.max(1, maxPending);
+		this.rowLen = imgInfo.bytesPerRow + 1;
+		this.bandRaw = new byte[rowLen * (this.bandRows + 1)];
+		writeZlibHeader();
+	}
+
+	private void writeZlibHeader() {
+		final int cmf = 0x78; // deflate, 32K window
+		final int flevel;
+		if (compLevel < 2 || deflaterStrategy == Deflater.HUFFMAN_ONLY)
+			flevel = 0;
+		else if (compLevel < 6)
+			flevel = 1;
+		else if (compLevel == 6)
+			flevel = 2;
+		else
+			flevel = 3;
+		int flg = flevel << 6;
+		flg += 31 - ((cmf << 8) + flg) % 31;
+		PngHelperInternal.writeBytes(os, new byte[] { (byte) cmf, (byte) flg });
+	}
+
+	/**
+	 * Queues a raw (unfiltered) row; position 0 of <code>rowb</code> is ignored
+	 */
+	void addRow(byte[] rowb) {
+		bandCount++;
+		System.arraycopy(rowb, 1, bandRaw, bandCount * rowLen + 1, imgInfo.bytesPerRow);
+		if (bandCount == bandRows)
+			submitBand(false);
+	}
+
+	/**
+	 * Encodes the remaining rows, waits for all bands and writes the zlib trailer
+	 */
+	void finish() {
+		if (finished)
+			return;
+		submitBand(true);
+		while (!pending.isEmpty())
+			writeOldestBand();
+		PngHelperInternal.writeInt4(os, (int) adler);
+		finished = true;
+	}
+
+	/**
+	 * Cancels the bands not yet written, eg. after an error
+	 */
+	void abort() {
+		for (Future<Band> f : pending)
+			f.cancel(true);
+		pending.clear();
+		finished = true;
+	}
+
+	private void submitBand(final boolean last) {
+		final byte[] raw = bandRaw;
+		final int nrows = bandCount;
+		final int firstRow = bandFirstRow;
+		bandFirstRow += nrows;
+		bandCount = 0;
+		bandRaw = new byte[raw.length];
+		// previous row of next band is the last row of this one
+		System.arraycopy(raw, nrows * rowLen, bandRaw, 0, rowLen);
+		while (pending.size() >= maxPending)
+			writeOldestBand();
+		pending.add(executor.submit(new Callable<Band>() {
+			public Band call() {
+				return encodeBand(raw, firstRow, nrows, last);
+			}
+		}));
+	}
+
+	private void writeOldestBand() {
+		final Band band;
+		try {
+			band = pending.removeFirst().get();
+		} catch (InterruptedException e) {
+			abort();
+			throw new PngjOutputException("interrupted while encoding", e);
+		} catch (ExecutionException e) {
+			abort();
+			if (e.getCause() instanceof PngjException)
+				throw (PngjException) e.getCause();
+			throw new PngjOutputException("error encoding band", e.getCause());
+		}
+		adler = adler32Combine(adler, band.adler, band.rawLen);
+		try {
+			band.compressed.writeTo(os);
+		} catch (IOException e) {
+			abort();
+			throw new PngjOutputException(e);
+		} catch (RuntimeException e) {
+			// the IDAT chunk stream wraps the IOExceptions of the destination
+			abort();
+			throw e;
+		}
+	}
+
+	private static class Band {
+		final ByteArrayOutputStream compressed;
+		final long adler;
+		final long rawLen;
+
+		Band(ByteArrayOutputStream compressed, long adler, long rawLen) {
+			this.compressed = compressed;
+			this.adler = adler;
+			this.rawLen = rawLen;
+		}
+	}
+
+	/**
+	 * Runs in a pool thread. Filters rows 1..nrows of <code>raw</code> (row 0 is only used as previous row)
+	 * and deflates them.
+	 */
+	private Band encodeBand(byte[] raw, int firstRow, int nrows, boolean last) {
+		final FilterWriteStrategy filterStrat = new FilterWriteStrategy(imgInfo, filterType);
+		final BandFilter filter = new BandFilter(imgInfo);
+		final byte[] filtered = new byte[nrows * rowLen];
+		for (int i = 0; i < nrows; i++)
+			filter.filterRow(filterStrat, firstRow + i, raw, (i + 1) * rowLen, i * rowLen, filtered, i * rowLen);
+		final Adler32 a = new Adler32();
+		a.update(filtered, 0, filtered.length);
+
+		final ByteArrayOutputStream out = new ByteArrayOutputStream(filtered.length / 2 + 64);
+		final Deflater def = new Deflater(compLevel, true);
+		try {
+			def.setStrategy(deflaterStrategy);
+			def.setInput(filtered, 0, filtered.length);
+			final byte[] buf = new byte[Math.min(filtered.length + 64, 64 * 1024)];
+			int n;
+			if (last) {
+				def.finish();
+				while (!def.finished()) {
+					n = def.deflate(buf, 0, buf.length);
+					out.write(buf, 0, n);
+				}
+			} else {
+				// the first call may only apply the strategy (and return nothing), hence also check needsInput
+				do {
+					n = def.deflate(buf, 0, buf.length, SYNC_FLUSH);
+					out.write(buf, 0, n);
+				} while (n == buf.length || !def.needsInput());
+			}
+		} finally {
+			def.end();
+		}
+		return new Band(out, a.getValue(), filtered.length);
+	}
+
+	/**
+	 * Combines the Adler32 checksums of two consecutive sequences, as zlib's adler32_combine()
+	 */
+	static long adler32Combine(long adler1, long adler2, long len2) {
+		final long base = 65521;
+		final long rem = len2 % base;
+		long sum1 = adler1 & 0xffff;
+		long sum2 = (rem * sum1) % base;
+		sum1 += (adler2 & 0xffff) + base - 1;
+		sum2 += ((adler1 >> 16) & 0xffff) + ((adler2 >> 16) & 0xffff) + base - rem;
+		if (sum1 >= base)
+			sum1 -= base;
+		if (sum1 >= base)
+			sum1 -= base;
+		if (sum2 >= (base << 1))
+			sum2 -= (base << 1);
+		if (sum2 >= base)
+			sum2 -= base;
+		return sum1 | (sum2 << 16);
+	}
+
+	/**
+	 * Per band filter state, same filters and statistics as {@link PngWriter}, on arbitrary row offsets
+	 */
+	private static class BandFilter {
+		private final ImageInfo imgInfo;
+		private final int[] histox = new int[256];
+		private final byte[] rowbfilter;
+
+		BandFilter(ImageInfo imgInfo) {
+			this.imgInfo = imgInfo;
+			this.rowbfilter = new byte[imgInfo.bytesPerRow + 1];
+		}
+
+		void filterRow(FilterWriteStrategy filterStrat, int rown, byte[] b, int cur, int prev, byte[] dst, int dstOff) {
+			if (filterStrat.estimatesFilterType()) {
+				final FilterType filterType = filterStrat.estimateFilterType(rown, b, cur, b, prev);
+				filter(filterType, b, cur, prev);
+				rowbfilter[0] = (byte) filterType.val;
+				System.arraycopy(rowbfilter, 0, dst, dstOff, rowbfilter.length);
+				return;
+			}
+			if (filterStrat.shouldTestAll(rown)) {
+				for (int t = 0; t < 5; t++) {
+					final FilterType ft = FilterType.getByVal(t);
+					filter(ft, b, cur, prev);
+					reportResultsForFilter(filterStrat, rown, ft, true);
+				}
+			}
+			final FilterType filterType = filterStrat.gimmeFilterType(rown, true);
+			filter(filterType, b, cur, prev);
+			rowbfilter[0] = (byte) filterType.val;
+			if (filterStrat.computesStatistics())
+				reportResultsForFilter(filterStrat, rown, filterType, false);
+			System.arraycopy(rowbfilter, 0, dst, dstOff, rowbfilter.length);
+		}
+
+		private void reportResultsForFilter(FilterWriteStrategy filterStrat, int rown, FilterType type,
+				boolean tentative) {
+			Arrays.fill(histox, 0);
+			int s = 0, v;
+			for (int i = 1; i <= imgInfo.bytesPerRow; i++) {
+				v = rowbfilter[i];
+				if (v < 0)
+					s -= v;
+				else
+					s += v;
+				histox[v & 0xFF]++;
+			}
+			filterStrat.fillResultsForFilter(rown, type, s, histox, tentative);
+		}
+
+		private void filter(FilterType filterType, byte[] b, int cur, int prev) {
+			final int imax = imgInfo.bytesPerRow;
+			final int bpp = imgInfo.bytesPixel;
+			int i, j;
+			switch (filterType) {
+			case FILTER_NONE:
+				System.arraycopy(b, cur + 1, rowbfilter, 1, imax);
+				break;
+			case FILTER_SUB:
+				for (i = 1; i <= bpp; i++)
+					rowbfilter[i] = b[cur + i];
+				for (j = 1, i = bpp + 1; i <= imax; i++, j++)
+					rowbfilter[i] = (byte) (b[cur + i] - b[cur + j]);
+				break;
+			case FILTER_UP:
+				for (i = 1; i <= imax; i++)
+					rowbfilter[i] = (byte) (b[cur + i] - b[prev + i]);
+				break;
+			case FILTER_AVERAGE:
+				for (i = 1; i <= bpp; i++)
+					rowbfilter[i] = (byte) (b[cur + i] - (b[prev + i] & 0xFF) / 2);
+				for (j = 1, i = bpp + 1; i <= imax; i++, j++)
+					rowbfilter[i] = (byte) (b[cur + i] - ((b[prev + i] & 0xFF) + (b[cur + j] & 0xFF)) / 2);
+				break;
+			case FILTER_PAETH:
+				for (i = 1; i <= bpp; i++)
+					rowbfilter[i] = (byte) PngHelperInternal.filterRowPaeth(b[cur + i], 0, b[prev + i] & 0xFF, 0);
+				for (j = 1, i = bpp + 1; i <= imax; i++, j++)
+					rowbfilter[i] = (byte) PngHelperInternal.filterRowPaeth(b[cur + i], b[cur + j] & 0xFF,
+							b[prev + i] & 0xFF, b[prev + j] & 0xFF);
+				break;
+			default:
+				throw new PngjUnsupportedException("Filter type " + filterType + " not implemented");
+			}
+		}
+	}
+}
@@ -2,6 +2,7 @@ package jogamp.opengl.util.pngj;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.zip.CRC32;
@@ -16,7 +17,9 @@ import jogamp.opengl.util.pngj.chunks.ChunksList;
 import jogamp.opengl.util.pngj.chunks.PngChunk;
 import jogamp.opengl.util.pngj.chunks.PngChunkIDAT;
 import jogamp.opengl.util.pngj.chunks.PngChunkIHDR;
+import jogamp.opengl.util.pngj.chunks.PngChunkPLTE;
 import jogamp.opengl.util.pngj.chunks.PngChunkSkipped;
+import jogamp.opengl.util.pngj.chunks.PngChunkTRNS;
 import jogamp.opengl.util.pngj.chunks.PngMetadata;
 
 /**
@@ -188,72 +191,11 @@ public class PngReader {
 
 	// nbytes: NOT including the filter byte. leaves result in rowb
 	private void unfilterRow(int nbytes) {
-		int ftn = rowbfilter[0];
-		FilterType ft = FilterType.getByVal(ftn);
-		if (ft == null)
-			throw new PngjInputException("Filter type " + ftn + " invalid");
-		switch (ft) {
-		case FILTER_NONE:
-			unfilterRowNone(nbytes);
-			break;
-		case FILTER_SUB:
-			unfilterRowSub(nbytes);
-			break;
-		case FILTER_UP:
-			unfilterRowUp(nbytes);
-			break;
-		case FILTER_AVERAGE:
-			unfilterRowAverage(nbytes);
-			break;
-		case FILTER_PAETH:
-			unfilterRowPaeth(nbytes);
-			break;
-		default:
-			throw new PngjInputException("Filter type " + ftn + " not implemented");
-		}
+		PngUnfilter.unfilterRow(rowbfilter[0], rowbfilter, rowbprev, rowb, nbytes, imgInfo.bytesPixel);
 		if (crctest != null)
 			crctest.update(rowb, 1, rowb.length - 1);
 	}
 
-	private void unfilterRowAverage(final int nbytes) {
-		int i, j, x;
-		for (j = 1 - imgInfo.bytesPixel, i = 1; i <= nbytes; i++, j++) {
-			x = j > 0 ? (rowb[j] & 0xff) : 0;
-			rowb[i] = (byte) (rowbfilter[i] + (x + (rowbprev[i] & 0xFF)) / 2);
-		}
-	}
-
-	private void unfilterRowNone(final int nbytes) {
-		for (int i = 1; i <= nbytes; i++) {
-			rowb[i] = (byte) (rowbfilter[i]);
-		}
-	}
-
-	private void unfilterRowPaeth(final int nbytes) {
-		int i, j, x, y;
-		for (j = 1 - imgInfo.bytesPixel, i = 1; i <= nbytes; i++, j++) {
-			x = j > 0 ? (rowb[j] & 0xFF) : 0;
-			y = j > 0 ? (rowbprev[j] & 0xFF) : 0;
-			rowb[i] = (byte) (rowbfilter[i] + PngHelperInternal.filterPaethPredictor(x, rowbprev[i] & 0xFF, y));
-		}
-	}
-
-	private void unfilterRowSub(final int nbytes) {
-		int i, j;
-		for (i = 1; i <= imgInfo.bytesPixel; i++) {
-			rowb[i] = (byte) (rowbfilter[i]);
-		}
-		for (j = 1, i = imgInfo.bytesPixel + 1; i <= nbytes; i++, j++) {
-			rowb[i] = (byte) (rowbfilter[i] + rowb[j]);
-		}
-	}
-
-	private void unfilterRowUp(final int nbytes) {
-		for (int i = 1; i <= nbytes; i++) {
-			rowb[i] = (byte) (rowbfilter[i] + rowbprev[i]);
-		}
-	}
-
 	/**
 	 * Reads chunks before first IDAT. Normally this is called automatically
 	 * <p>
@@ -721,6 +663,187 @@ public class PngReader {
 		return readRowsByte(0, imgInfo.rows, 1);
 	}
 
+	/**
+	 * Bytes per pixel written by {@link #readRowsToBuffer(ByteBuffer, boolean)}: one byte per channel, palette images
+	 * are expanded to RGB, or to RGBA if they have a transparency (tRNS) chunk.
+	 * <p>
+	 * This loads the chunks before IDAT, if not yet done.
+	 */
+	public int getBufferBytesPerPixel() {
+		if (imgInfo.indexed)
+			return getMetadata().getTRNS() != null ? 4 : 3;
+		return imgInfo.channels;
+	}
+
+	/**
+	 * Reads all rows and stores them in a buffer, one byte per sample, tightly packed (the layout OpenGL expects for
+	 * GL_UNSIGNED_BYTE data with an unpack alignment of 1). 16 bits samples are truncated to the most significant byte,
+	 * 1-2-4 bits greyscale samples are scaled to 8 bits and palette images are expanded to RGB[A], see
+	 * {@link #getBufferBytesPerPixel()}.
+	 * <p>
+	 * Each row is unfiltered in the internal row buffer and stored with a single bulk put, converted in a reused
+	 * scratch row if needed: nothing is allocated per row (except for interlaced images, which are read with
+	 * {@link #readRowsByte()}). This starts and ends the reading, and cannot be combined with other reading methods.
+	 * 
+	 * @param dst
+	 *            Destination, typically a direct buffer. Must have at least
+	 *            <tt>cols * rows * getBufferBytesPerPixel()</tt> bytes remaining. Writing starts at its position, which
+	 *            is left unchanged.
+	 * @param flipVertically
+	 *            If true, the first (top) row is stored last, i.e. bottom-to-top as expected by glTexImage2D
+	 */
+	public void readRowsToBuffer(ByteBuffer dst, boolean flipVertically) {
+		if (rowNum >= 0)
+			throw new PngjInputException("rows already read");
+		final int bpp = getBufferBytesPerPixel();
+		final int stride = imgInfo.cols * bpp;
+		final int base = dst.position();
+		if (dst.remaining() < stride * imgInfo.rows)
+			throw new PngjInputException("buffer too small: remaining " + dst.remaining() + " < "
+					+ (stride * imgInfo.rows));
+		try {
+			if (!interlaced) {
+				readRowsToBufferImpl(dst, base, imgInfo.rows, flipVertically);
+			} else {
+				final byte[] lut = imgInfo.indexed ? createPaletteLut(bpp) : null;
+				unpackedMode = true; // one element per sample, 16 bits already truncated
+				final byte[][] scanlines = readRowsByte().scanlinesb;
+				final byte[] conv = new byte[stride];
+				for (int j = 0; j < imgInfo.rows; j++) {
+					dst.position(base + (flipVertically ? imgInfo.rows - 1 - j : j) * stride);
+					convertRowToBuffer(scanlines[j], 0, true, conv, lut, bpp);
+					dst.put(conv, 0, stride);
+				}
+			}
+		} finally {
+			dst.position(base);
+		}
+		end();
+	}
+
+	/**
+	 * Reads the next <tt>nRows</tt> rows, or the remaining ones if fewer, and stores them as
+	 * {@link #readRowsToBuffer(ByteBuffer, boolean)} does. This allows to stream huge images strip by strip, e.g. to
+	 * upload each strip as a sub-image, keeping only one strip in memory.
+	 * <p>
+	 * Interlaced images are not supported, as each row is only complete after the last pass. The reading ends after
+	 * the last row, the following calls return 0. This cannot be combined with other reading methods.
+	 * 
+	 * @param dst
+	 *            Destination, must have at least <tt>cols * nRows * getBufferBytesPerPixel()</tt> bytes remaining.
+	 *            Writing starts at its position, which is left unchanged.
+	 * @param nRows
+	 *            Maximum number of rows to read
+	 * @param flipVertically
+	 *            If true, the rows of this strip are stored bottom-to-top
+	 * @return Number of rows read, 0 if all rows have been read before
+	 */
+	public int readRowsToBuffer(ByteBuffer dst, int nRows, boolean flipVertically) {
+		if (interlaced)
+			throw new PngjInputException("interlaced images can not be read in strips");
+		final int n = Math.min(nRows, imgInfo.rows - 1 - rowNum);
+		if (n <= 0)
+			return 0;
+		final int stride = imgInfo.cols * getBufferBytesPerPixel();
+		final int base = dst.position();
+		if (dst.remaining() < stride * n)
+			throw new PngjInputException("buffer too small: remaining " + dst.remaining() + " < " + (stride * n));
+		try {
+			readRowsToBufferImpl(dst, base, n, flipVertically);
+		} finally {
+			dst.position(base);
+		}
+		if (rowNum == imgInfo.rows - 1)
+			end();
+		return n;
+	}
+
+	private byte[] bufferLut; // palette expanded to buffer format, lazily created
+	private byte[] bufferConv; // scratch row for formats needing conversion, lazily created
+
+	/** Reads the next n (non interlaced) rows into dst at base */
+	private void readRowsToBufferImpl(ByteBuffer dst, int base, int n, boolean flipVertically) {
+		final int bpp = getBufferBytesPerPixel();
+		final int stride = imgInfo.cols * bpp;
+		// 8 bits RGB[A], greyscale[alpha]: the unfiltered row is the final format
+		final boolean convert = imgInfo.bitDepth != 8 || imgInfo.indexed;
+		if (convert && bufferConv == null) {
+			bufferConv = new byte[stride];
+			if (imgInfo.indexed)
+				bufferLut = createPaletteLut(bpp);
+		}
+		final int first = rowNum + 1;
+		for (int k = 0; k < n; k++) {
+			readRowRaw(first + k);
+			dst.position(base + (flipVertically ? n - 1 - k : k) * stride);
+			if (!convert) {
+				dst.put(rowb, 1, stride);
+			} else {
+				convertRowToBuffer(rowb, 1, false, bufferConv, bufferLut, bpp);
+				dst.put(bufferConv, 0, stride);
+			}
+		}
+	}
+
+	/** 256 palette entries, each one expanded to bpp (3 or 4) bytes */
+	private byte[] createPaletteLut(int bpp) {
+		final PngChunkPLTE plte = getMetadata().getPLTE();
+		if (plte == null)
+			throw new PngjInputException("missing palette");
+		final PngChunkTRNS trns = getMetadata().getTRNS();
+		final int[] alpha = trns != null ? trns.getPalletteAlpha() : null;
+		final byte[] lut = new byte[256 * bpp];
+		for (int i = 0, k = 0; i < plte.getNentries(); i++) {
+			final int v = plte.getEntry(i);
+			lut[k++] = (byte) (v >> 16);
+			lut[k++] = (byte) (v >> 8);
+			lut[k++] = (byte) v;
+			if (bpp == 4)
+				lut[k++] = (byte) (alpha != null && i < alpha.length ? alpha[i] : 255);
+		}
+		return lut;
+	}
+
+	/**
+	 * Converts a row to the {@link #readRowsToBuffer(ByteBuffer, boolean)} format.
+	 * 
+	 * @param unpacked
+	 *            true if <tt>src</tt> has one element per sample (as given by readRowsByte in unpacked mode), false if it
+	 *            is a raw unfiltered row (packed samples, 16 bits samples as two bytes)
+	 */
+	private void convertRowToBuffer(final byte[] src, final int off, final boolean unpacked, final byte[] dst,
+			final byte[] lut, final int bpp) {
+		final int bitDepth = imgInfo.bitDepth;
+		if (!imgInfo.indexed) {
+			if (bitDepth == 16 && !unpacked) {
+				for (int i = 0, j = off; i < imgInfo.samplesPerRow; i++, j += 2)
+					dst[i] = src[j]; // MSB
+				return;
+			} else if (bitDepth >= 8) {
+				System.arraycopy(src, off, dst, 0, imgInfo.samplesPerRow);
+				return;
+			}
+		}
+		// indexed or 1-2-4 bits greyscale: one sample per pixel
+		final int mask = (1 << bitDepth) - 1;
+		final int scale = 255 / mask;
+		for (int x = 0, k = 0; x < imgInfo.cols; x++) {
+			final int v;
+			if (unpacked || bitDepth == 8) {
+				v = src[off + x] & 0xff;
+			} else {
+				final int bit = x * bitDepth;
+				v = (src[off + (bit >> 3)] >> (8 - bitDepth - (bit & 7))) & mask;
+			}
+			if (lut != null) {
+				for (int c = 0, l = v * bpp; c < bpp; c++)
+					dst[k++] = lut[l++];
+			} else {
+				dst[k++] = (byte) (v * scale);
+			}
+		}
+	}
+
 	/*
 	 * For the interlaced case, nrow indicates the subsampled image - the pass must be set already.
 	 * 
@@ -0,0 +1,220 @@
+package jogamp.opengl.util.pngj;
+
+/**
+ * Bulk row unfilter kernels, used by {@link PngReader}.
+ * <p>
+ * All rows are laid out as in the reader: byte 0 is the filter type, samples start at offset 1.
+ * The common layouts with 3 and 4 bytes per pixel (8 bits RGB/RGBA) are processed per pixel, keeping left and
+ * upper-left neighbours in locals; all other layouts (greyscale, 16 bits RGB/RGBA, ...) split off the first pixel
+ * so the main loop has no bounds checks for the left neighbour. The Paeth predictor is computed without branches.
+ * <p>
+ * This is public only for tests and benchmarks.
+ */
+public class PngUnfilter {
+
+	private PngUnfilter() {
+	}
+
+	/**
+	 * Unfilters one row
+	 *
+	 * @param ftn
+	 *            Filter type, as in the raw row (byte 0)
+	 * @param filt
+	 *            Raw (filtered) row
+	 * @param prev
+	 *            Previous unfiltered row, all zeros for the first row
+	 * @param out
+	 *            Output: unfiltered row, can not be the same as filt or prev
+	 * @param nbytes
+	 *            Bytes to unfilter, not including the filter byte
+	 * @param bpp
+	 *            Bytes per pixel, at least one
+	 */
+	public static void unfilterRow(int ftn, byte[] filt, byte[] prev, byte[] out, int nbytes, int bpp) {
+		switch (ftn) {
+		case 0:
+			unfilterNone(filt, out, nbytes);
+			break;
+		case 1:
+			unfilterSub(filt, out, nbytes, bpp);
+			break;
+		case 2:
+			unfilterUp(filt, prev, out, nbytes);
+			break;
+		case 3:
+			unfilterAverage(filt, prev, out, nbytes, bpp);
+			break;
+		case 4:
+			unfilterPaeth(filt, prev, out, nbytes, bpp);
+			break;
+		default:
+			throw new PngjInputException("Filter type " + ftn + " invalid");
+		}
+	}
+
+	public static void unfilterNone(final byte[] filt, final byte[] out, final int nbytes) {
+		System.arraycopy(filt, 1, out, 1, nbytes);
+	}
+
+	public static void unfilterUp(final byte[] filt, final byte[] prev, final byte[] out, final int nbytes) {
+		for (int i = 1; i <= nbytes; i++) {
+			out[i] = (byte) (filt[i] + prev[i]);
+		}
+	}
+
+	public static void unfilterSub(final byte[] filt, final byte[] out, final int nbytes, final int bpp) {
+		if (bpp == 4) {
+			unfilterSub4(filt, out, nbytes);
+		} else if (bpp == 3) {
+			unfilterSub3(filt, out, nbytes);
+		} else {
+			unfilterSubN(filt, out, nbytes, bpp);
+		}
+	}
+
+	private static void unfilterSub4(final byte[] filt, final byte[] out, final int nbytes) {
+		int a0 = 0, a1 = 0, a2 = 0, a3 = 0;
+		for (int i = 1; i <= nbytes; i += 4) {
+			out[i] = (byte) (a0 += filt[i]);
+			out[i + 1] = (byte) (a1 += filt[i + 1]);
+			out[i + 2] = (byte) (a2 += filt[i + 2]);
+			out[i + 3] = (byte) (a3 += filt[i + 3]);
+		}
+	}
+
+	private static void unfilterSub3(final byte[] filt, final byte[] out, final int nbytes) {
+		int a0 = 0, a1 = 0, a2 = 0;
+		for (int i = 1; i <= nbytes; i += 3) {
+			out[i] = (byte) (a0 += filt[i]);
+			out[i + 1] = (byte) (a1 += filt[i + 1]);
+			out[i + 2] = (byte) (a2 += filt[i + 2]);
+		}
+	}
+
+	private static void unfilterSubN(final byte[] filt, final byte[] out, final int nbytes, final int bpp) {
+		final int n1 = Math.min(bpp, nbytes);
+		System.arraycopy(filt, 1, out, 1, n1);
+		for (int i = n1 + 1; i <= nbytes; i++) {
+			out[i] = (byte) (filt[i] + out[i - bpp]);
+		}
+	}
+
+	public static void unfilterAverage(final byte[] filt, final byte[] prev, final byte[] out, final int nbytes,
+			final int bpp) {
+		if (bpp == 4) {
+			unfilterAverage4(filt, prev, out, nbytes);
+		} else if (bpp == 3) {
+			unfilterAverage3(filt, prev, out, nbytes);
+		} else {
+			unfilterAverageN(filt, prev, out, nbytes, bpp);
+		}
+	}
+
+	private static void unfilterAverage4(final byte[] filt, final byte[] prev, final byte[] out, final int nbytes) {
+		int a0 = 0, a1 = 0, a2 = 0, a3 = 0;
+		for (int i = 1; i <= nbytes; i += 4) {
+			out[i] = (byte) (a0 = (filt[i] + ((a0 + (prev[i] & 0xff)) >> 1)) & 0xff);
+			out[i + 1] = (byte) (a1 = (filt[i + 1] + ((a1 + (prev[i + 1] & 0xff)) >> 1)) & 0xff);
+			out[i + 2] = (byte) (a2 = (filt[i + 2] + ((a2 + (prev[i + 2] & 0xff)) >> 1)) & 0xff);
+			out[i + 3] = (byte) (a3 = (filt[i + 3] + ((a3 + (prev[i + 3] & 0xff)) >> 1)) & 0xff);
+		}
+	}
+
+	private static void unfilterAverage3(final byte[] filt, final byte[] prev, final byte[] out, final int nbytes) {
+		int a0 = 0, a1 = 0, a2 = 0;
+		for (int i = 1; i <= nbytes; i += 3) {
+			out[i] = (byte) (a0 = (filt[i] + ((a0 + (prev[i] & 0xff)) >> 1)) & 0xff);
+			out[i + 1] = (byte) (a1 = (filt[i + 1] + ((a1 + (prev[i + 1] & 0xff)) >> 1)) & 0xff);
+			out[i + 2] = (byte) (a2 = (filt[i + 2] + ((a2 + (prev[i + 2] & 0xff)) >> 1)) & 0xff);
+		}
+	}
+
+	private static void unfilterAverageN(final byte[] filt, final byte[] prev, final byte[] out, final int nbytes,
+			final int bpp) {
+		final int n1 = Math.min(bpp, nbytes);
+		for (int i = 1; i <= n1; i++) {
+			out[i] = (byte) (filt[i] + ((prev[i] & 0xff) >> 1));
+		}
+		for (int i = n1 + 1; i <= nbytes; i++) {
+			out[i] = (byte) (filt[i] + (((out[i - bpp] & 0xff) + (prev[i] & 0xff)) >> 1));
+		}
+	}
+
+	public static void unfilterPaeth(final byte[] filt, final byte[] prev, final byte[] out, final int nbytes,
+			final int bpp) {
+		if (bpp == 4) {
+			unfilterPaeth4(filt, prev, out, nbytes);
+		} else if (bpp == 3) {
+			unfilterPaeth3(filt, prev, out, nbytes);
+		} else {
+			unfilterPaethN(filt, prev, out, nbytes, bpp);
+		}
+	}
+
+	private static void unfilterPaeth4(final byte[] filt, final byte[] prev, final byte[] out, final int nbytes) {
+		int a0 = 0, a1 = 0, a2 = 0, a3 = 0; // left
+		int c0 = 0, c1 = 0, c2 = 0, c3 = 0; // upper left
+		for (int i = 1; i <= nbytes; i += 4) {
+			int b0 = prev[i] & 0xff, b1 = prev[i + 1] & 0xff, b2 = prev[i + 2] & 0xff, b3 = prev[i + 3] & 0xff;
+			out[i] = (byte) (a0 = (filt[i] + paethPredictor(a0, b0, c0)) & 0xff);
+			out[i + 1] = (byte) (a1 = (filt[i + 1] + paethPredictor(a1, b1, c1)) & 0xff);
+			out[i + 2] = (byte) (a2 = (filt[i + 2] + paethPredictor(a2, b2, c2)) & 0xff);
+			out[i + 3] = (byte) (a3 = (filt[i + 3] + paethPredictor(a3, b3, c3)) & 0xff);
+			c0 = b0;
+			c1 = b1;
+			c2 = b2;
+			c3 = b3;
+		}
+	}
+
+	private static void unfilterPaeth3(final byte[] filt, final byte[] prev, final byte[] out, final int nbytes) {
+		int a0 = 0, a1 = 0, a2 = 0; // left
+		int c0 = 0, c1 = 0, c2 = 0; // upper left
+		for (int i = 1; i <= nbytes; i += 3) {
+			int b0 = prev[i] & 0xff, b1 = prev[i + 1] & 0xff, b2 = prev[i + 2] & 0xff;
+			out[i] = (byte) (a0 = (filt[i] + paethPredictor(a0, b0, c0)) & 0xff);
+			out[i + 1] = (byte) (a1 = (filt[i + 1] + paethPredictor(a1, b1, c1)) & 0xff);
+			out[i + 2] = (byte) (a2 = (filt[i + 2] + paethPredictor(a2, b2, c2)) & 0xff);
+			c0 = b0;
+			c1 = b1;
+			c2 = b2;
+		}
+	}
+
+	private static void unfilterPaethN(final byte[] filt, final byte[] prev, final byte[] out, final int nbytes,
+			final int bpp) {
+		// first pixel: left and upper left are zero, the predictor is the upper one
+		final int n1 = Math.min(bpp, nbytes);
+		for (int i = 1; i <= n1; i++) {
+			out[i] = (byte) (filt[i] + prev[i]);
+		}
+		for (int i = n1 + 1, j = 1; i <= nbytes; i++, j++) {
+			out[i] = (byte) (filt[i] + paethPredictor(out[j] & 0xff, prev[i] & 0xff, prev[j] & 0xff));
+		}
+	}
+
+	/**
+	 * Branch free Paeth predictor, same result as {@link PngHelperInternal#filterPaethPredictor(int, int, int)}
+	 *
+	 * @param a
+	 *            left, 0-255
+	 * @param b
+	 *            above, 0-255
+	 * @param c
+	 *            upper left, 0-255
+	 */
+	static int paethPredictor(final int a, final int b, final int c) {
+		// p = a + b - c; pa = |p - a| = |b - c|, pb = |p - b| = |a - c|, pc = |p - c| = |(b - c) + (a - c)|
+		final int da = b - c;
+		final int db = a - c;
+		final int dc = da + db;
+		final int pa = (da ^ (da >> 31)) - (da >> 31);
+		final int pb = (db ^ (db >> 31)) - (db >> 31);
+		final int pc = (dc ^ (dc >> 31)) - (dc >> 31);
+		// all ones if pa <= pb && pa <= pc: pick a; else all ones if pb <= pc: pick b; else c
+		final int selA = ~(((pb - pa) | (pc - pa)) >> 31);
+		final int selB = ~((pc - pb) >> 31);
+		return (a & selA) | (~selA & ((b & selB) | (c & ~selB)));
+	}
+}
@@ -4,6 +4,7 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 import java.util.zip.Deflater;
 import java.util.zip.DeflaterOutputStream;
 
@@ -59,6 +60,15 @@ public class PngWriter {
 
 	private DeflaterOutputStream datStreamDeflated;
 
+	/**
+	 * Parallel band encoder, replaces datStreamDeflated if parallel mode was requested and is available
+	 */
+	private PngParallelEncoder parallelEncoder;
+
+	private boolean parallelMode = false;
+	private ExecutorService parallelExecutor = null; // null: PngParallelEncoder default pool
+	private int parallelBandRows = 0; // 0: automatic
+
 	/**
 	 * Deflate algortithm compression strategy
 	 */
@@ -66,6 +76,8 @@ public class PngWriter {
 
 	private int[] histox = new int[256]; // auxiliar buffer, only used by reportResultsForFilter
 
+	private long encodeNanos = 0; // time spent encoding rows, see getBytesPerSecond()
+
 	private int idatMaxSize = 0; // 0=use default (PngIDatChunkOutputStream 32768)
 
 	private final OutputStream os;
@@ -110,11 +122,32 @@ public class PngWriter {
 
 	private void init() {
 		datStream = new PngIDatChunkOutputStream(this.os, idatMaxSize);
-		Deflater def = new Deflater(compLevel);
-		def.setStrategy(deflaterStrategy);
-		datStreamDeflated = new DeflaterOutputStream(datStream, def);
 		writeSignatureAndIHDR();
 		writeFirstChunks();
+		if (useParallelEncoder()) {
+			final ExecutorService executor = parallelExecutor != null ? parallelExecutor : PngParallelEncoder
+					.getDefaultExecutor();
+			final int threads = Runtime.getRuntime().availableProcessors();
+			parallelEncoder = new PngParallelEncoder(datStream, imgInfo, executor, filterStrat.configuredType,
+					compLevel, deflaterStrategy, parallelBandRows, threads * 2);
+		} else {
+			Deflater def = new Deflater(compLevel);
+			def.setStrategy(deflaterStrategy);
+			datStreamDeflated = new DeflaterOutputStream(datStream, def);
+		}
+	}
+
+	/**
+	 * Parallel mode is only worth it if there are at least two bands and more than one processor (or a caller pool)
+	 */
+	private boolean useParallelEncoder() {
+		if (!parallelMode || !PngParallelEncoder.isAvailable())
+			return false;
+		if (parallelExecutor == null && Runtime.getRuntime().availableProcessors() < 2)
+			return false;
+		final int bandRows = parallelBandRows > 0 ? parallelBandRows : PngParallelEncoder
+				.getDefaultBandRows(imgInfo);
+		return imgInfo.rows > bandRows;
 	}
 
 	private void reportResultsForFilter(int rown, FilterType type, boolean tentative) {
@@ -255,6 +288,10 @@ public class PngWriter {
 	private void filterRow(int rown) {
 		// warning: filters operation rely on: "previos row" (rowbprev) is
 		// initialized to 0 the first time
+		if (filterStrat.estimatesFilterType()) {
+			filterRowAs(filterStrat.estimateFilterType(rown, rowb, 0, rowbprev, 0));
+			return;
+		}
 		if (filterStrat.shouldTestAll(rown)) {
 			filterRowNone();
 			reportResultsForFilter(rown, FilterType.FILTER_NONE, true);
@@ -268,6 +305,12 @@ public class PngWriter {
 			reportResultsForFilter(rown, FilterType.FILTER_PAETH, true);
 		}
 		FilterType filterType = filterStrat.gimmeFilterType(rown, true);
+		filterRowAs(filterType);
+		if (filterStrat.computesStatistics())
+			reportResultsForFilter(rown, filterType, false);
+	}
+
+	private void filterRowAs(FilterType filterType) {
 		rowbfilter[0] = (byte) filterType.val;
 		switch (filterType) {
 		case FILTER_NONE:
@@ -288,7 +331,6 @@ public class PngWriter {
 		default:
 			throw new PngjUnsupportedException("Filter type " + filterType + " not implemented");
 		}
-		reportResultsForFilter(rown, filterType, false);
 	}
 
 	private void prepareEncodeRow(int rown) {
@@ -304,6 +346,10 @@ public class PngWriter {
 	}
 
 	private void filterAndSend(int rown) {
+		if (parallelEncoder != null) {
+			parallelEncoder.addRow(rowb); // filtered in the band encoder
+			return;
+		}
 		filterRow(rown);
 		try {
 			datStreamDeflated.write(rowbfilter, 0, imgInfo.bytesPerRow + 1);
@@ -462,6 +508,19 @@ public class PngWriter {
 		return compressed / raw;
 	}
 
+	/**
+	 * Achieved encoding throughput: raw pixel bytes (<tt>rows * bytesPerRow</tt>) per second spent in the row writing
+	 * methods and {@link #end()}, i.e. filtering and compressing, excluding the time the caller needs to produce the
+	 * rows.
+	 * <p>
+	 * This must be called after pngw.end()
+	 */
+	public double getBytesPerSecond() {
+		if (currentChunkGroup < ChunksList.CHUNK_GROUP_6_END)
+			throw new PngjOutputException("must be called after end()");
+		return (double) imgInfo.bytesPerRow * imgInfo.rows / (Math.max(encodeNanos, 1) / 1e9);
+	}
+
 	/**
 	 * Finalizes the image creation and closes the stream. This MUST be called after writing the lines.
 	 */
@@ -469,7 +528,12 @@ public class PngWriter {
 		if (rowNum != imgInfo.rows - 1)
 			throw new PngjOutputException("all rows have not been written");
 		try {
-			datStreamDeflated.finish();
+			final long t0 = System.nanoTime();
+			if (parallelEncoder != null)
+				parallelEncoder.finish();
+			else
+				datStreamDeflated.finish();
+			encodeNanos += System.nanoTime() - t0;
 			datStream.flush();
 			writeLastChunks();
 			writeEndChunk();
@@ -532,6 +596,50 @@ public class PngWriter {
 		filterStrat = new FilterWriteStrategy(imgInfo, filterType);
 	}
 
+	/**
+	 * Sets filter type, compression level and deflater strategy at once, trading speed for size.
+	 * <p>
+	 * This must be called just after constructor, before starting writing.
+	 * 
+	 * @see SpeedPreset
+	 */
+	public void setSpeedPreset(SpeedPreset preset) {
+		setFilterType(preset.filterType);
+		setCompLevel(preset.compLevel);
+		setDeflaterStrategy(preset.deflaterStrategy);
+	}
+
+	/**
+	 * Enables the parallel encoder: rows are grouped in bands, which are filtered and compressed concurrently, each
+	 * with its own Deflater, and concatenated in a single valid zlib stream.
+	 * <p>
+	 * This must be called just after constructor, before starting writing. It's silently ignored (serial encoding) if
+	 * the runtime lacks a sync-flushing Deflater (Java 6), if the image fits in one band, or if only one processor is
+	 * available and no executor is given.
+	 * <p>
+	 * The output is not byte-identical to the serial encoder (slightly bigger, each band starts with an empty deflate
+	 * dictionary and fresh adaptive filter statistics), but decodes to the same pixels.
+	 * 
+	 * @param executor
+	 *            pool that runs the band encoders, null for a shared pool with one daemon thread per processor. Not
+	 *            shut down by this writer.
+	 * @param bandRows
+	 *            rows per band, 0 for automatic (about 128K of raw data per band)
+	 */
+	public void setParallelMode(ExecutorService executor, int bandRows) {
+		this.parallelMode = true;
+		this.parallelExecutor = executor;
+		this.parallelBandRows = bandRows;
+	}
+
+	/**
+	 * True if {@link #setParallelMode(ExecutorService, int)} was requested and is effectively being used. Only
+	 * meaningful after the first row was written.
+	 */
+	public boolean isParallelMode() {
+		return parallelEncoder != null;
+	}
+
 	/**
 	 * Sets maximum size of IDAT fragments. This has little effect on performance you should rarely call this
 	 * <p>
@@ -621,9 +729,11 @@ public class PngWriter {
 	 *            autocompute it
 	 */
 	public void writeRowInt(int[] newrow, int rown) {
+		final long t0 = System.nanoTime();
 		prepareEncodeRow(rown);
 		encodeRowFromInt(newrow);
 		filterAndSend(rown);
+		encodeNanos += System.nanoTime() - t0;
 	}
 
 	/**
@@ -633,9 +743,11 @@ public class PngWriter {
 	 * @see PngWriter#writeRowInt(int[], int)
 	 */
 	public void writeRowByte(byte[] newrow, int rown) {
+		final long t0 = System.nanoTime();
 		prepareEncodeRow(rown);
 		encodeRowFromByte(newrow);
 		filterAndSend(rown);
+		encodeNanos += System.nanoTime() - t0;
 	}
 
 	/**
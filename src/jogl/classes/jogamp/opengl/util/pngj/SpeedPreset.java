@@ -0,0 +1,37 @@
+package jogamp.opengl.util.pngj;
+
+import java.util.zip.Deflater;
+
+/**
+ * Encoding presets for {@link PngWriter#setSpeedPreset(SpeedPreset)}, pairing a filter strategy with a compression
+ * level and deflater strategy.
+ * <p>
+ * Use {@link PngWriter#getBytesPerSecond()} to check the achieved throughput.
+ */
+public enum SpeedPreset {
+	/**
+	 * Sampled filter estimate, fastest deflate level. For screenshots and video frames
+	 */
+	FASTEST(FilterType.FILTER_SAMPLED, 1, Deflater.FILTERED),
+	/**
+	 * Sampled filter estimate, deflate level 4: the first level w/ lazy matching (zlib's deflate_slow, levels 1-3 use
+	 * deflate_fast) but still short match chains, often close to the default level 6 in size at a fraction of the time
+	 */
+	BALANCED(FilterType.FILTER_SAMPLED, 4, Deflater.FILTERED),
+	/**
+	 * All filters tried on each row, best deflate level. Several times slower than {@link #BALANCED}
+	 */
+	SMALLEST(FilterType.FILTER_VERYAGGRESSIVE, 9, Deflater.FILTERED);
+
+	public final FilterType filterType;
+	/** zip compression level 0 - 9 */
+	public final int compLevel;
+	/** one of Deflater.FILTERED Deflater.HUFFMAN_ONLY Deflater.DEFAULT_STRATEGY */
+	public final int deflaterStrategy;
+
+	private SpeedPreset(FilterType filterType, int compLevel, int deflaterStrategy) {
+		this.filterType = filterType;
+		this.compLevel = compLevel;
+		this.deflaterStrategy = deflaterStrategy;
+	}
+}
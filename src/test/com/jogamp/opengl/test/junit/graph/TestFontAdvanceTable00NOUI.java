@@ -0,0 +1,220 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+
+package com.jogamp.opengl.test.junit.graph;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Random;
+
+import jogamp.graph.font.typecast.TypecastGlyph;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.jogamp.graph.font.Font;
+import com.jogamp.graph.font.FontFactory;
+import com.jogamp.graph.font.FontSet;
+import com.jogamp.opengl.math.geom.AABBox;
+import com.jogamp.opengl.test.junit.util.MiscUtils;
+
+/**
+ * Validates the glyph id indexed advance and kerning lookup of {@link Font#getAdvance(int, float, boolean)}
+ * and {@link Font#getKerning(int, int, float)} and compares the string layout throughput
+ * w/ the former per glyph boxed <code>HashMap&lt;Float, Float&gt;</code> advance cache.
+ */
+public class TestFontAdvanceTable00NOUI {
+    static int textLength = 100000;
+    static int loops = 10;
+
+    static Font font;
+
+    static final float[] sizes = { 10f, 12.5f, 16f, 24f, 33.3f, 72f };
+
+    @BeforeClass
+    public static void setup() throws IOException {
+        font = FontFactory.get(FontFactory.UBUNTU).get(FontSet.FAMILY_REGULAR, 0);
+    }
+
+    @Test
+    public void testGlyphID() {
+        for(char c=0x20; c<0x250; c++) {
+            final TypecastGlyph glyph = (TypecastGlyph) font.getGlyph(c);
+            Assert.assertEquals("char "+(int)c, glyph.getID() & 0xffff, font.getGlyphID(c));
+        }
+        Assert.assertEquals(font.getGlyphID('?'), font.getGlyphID('?'));
+        Assert.assertTrue(font.getGlyphID('A') != font.getGlyphID('B'));
+        Assert.assertTrue(font.getGlyphID((char)0xffff) < font.getNumGlyphs());
+    }
+
+    @Test
+    public void testAdvance() {
+        for(int s=0; s<sizes.length; s++) {
+            final float size = sizes[s];
+            for(char c=0x20; c<0x250; c++) {
+                final int id = font.getGlyphID(c);
+                final Font.Glyph glyph = font.getGlyph(c);
+                Assert.assertEquals(glyph.getAdvance(size, true), font.getAdvance(id, size, true), 0f);
+                Assert.assertEquals(glyph.getAdvance(size, false), font.getAdvance(id, size, false), 0f);
+                if( size != (int)size ) {
+                    // not covered by hdmx, scaled hmtx advance
+                    final float exp = font.getAdvanceWidth(id, size);
+                    Assert.assertEquals(exp, font.getAdvance(id, size, true), 0f);
+                    Assert.assertEquals((int) ( exp + 0.5f ), font.getAdvance(id, size, false), 0f);
+                }
+            }
+        }
+        // metrics no longer depend on the order of fractional and rounded lookups
+        final int id = font.getGlyphID('m');
+        final float frac = font.getAdvance(id, 12.5f, true);
+        Assert.assertEquals((int) ( frac + 0.5f ), font.getAdvance(id, 12.5f, false), 0f);
+        Assert.assertEquals(frac, font.getAdvance(id, 12.5f, true), 0f);
+    }
+
+    @Test
+    public void testKerning() {
+        final String upper = "ATVWYLPFKRO";
+        final String lower = "aeouvy.,";
+        int pairs = 0;
+        for(int i=0; i<upper.length(); i++) {
+            for(int j=0; j<lower.length(); j++) {
+                final int l = font.getGlyphID(upper.charAt(i)), r = font.getGlyphID(lower.charAt(j));
+                final float k = font.getKerning(l, r, 1000f);
+                Assert.assertEquals(k * 0.02f, font.getKerning(l, r, 20f), Math.abs(k) * 1e-5f);
+                if( 0 != k ) {
+                    pairs++;
+                }
+            }
+        }
+        Assert.assertEquals(0f, font.getKerning(font.getGlyphID(' '), font.getGlyphID(' '), 12f), 0f);
+        Assert.assertEquals(0f, font.getKerning(0xffff, 0xffff, 12f), 0f);
+        System.err.println(font.getFullFamilyName(null)+": "+pairs+" of "+upper.length()*lower.length()+" tested pairs kerned");
+    }
+
+    static String createText(int length, long seed) {
+        final Random rnd = new Random(seed);
+        final String chars = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789.,;:!?-";
+        final StringBuilder sb = new StringBuilder(length);
+        int col = 0;
+        while( sb.length() < length ) {
+            final int wordLength = 1 + rnd.nextInt(9);
+            for(int i=0; i<wordLength; i++) {
+                sb.append(chars.charAt(rnd.nextInt(chars.length())));
+            }
+            col += wordLength + 1;
+            if( col > 80 ) {
+                sb.append('\n');
+                col = 0;
+            } else {
+                sb.append(' ');
+            }
+        }
+        sb.setLength(length);
+        return sb.toString();
+    }
+
+    /** The former TypecastGlyph.Advance: a glyph lookup and a boxed size to advance map per character. */
+    static class LegacyAdvance {
+        final HashMap<Character, HashMap<Float, Float>> glyphs = new HashMap<Character, HashMap<Float, Float>>();
+
+        float getAdvance(char c, float size, boolean useFrationalMetrics) {
+            HashMap<Float, Float> size2advance = glyphs.get(c);
+            if( null == size2advance ) {
+                size2advance = new HashMap<Float, Float>();
+                glyphs.put(c, size2advance);
+            }
+            Float fo = size2advance.get(size);
+            if( null == fo ) {
+                fo = font.getGlyph(c).getAdvance(size, useFrationalMetrics);
+                size2advance.put(size, fo);
+            }
+            return fo.floatValue();
+        }
+
+        float getStringWidth(CharSequence string, float pixelSize) {
+            float width = 0;
+            final int len = string.length();
+            for (int i=0; i< len; i++) {
+                final char character = string.charAt(i);
+                if (character == '\n') {
+                    width = 0;
+                } else {
+                    width += getAdvance(character, pixelSize, false);
+                }
+            }
+            return (int)(width + 0.5f);
+        }
+    }
+
+    @Test
+    public void testLayout() {
+        final String text = createText(textLength, 4711);
+        final LegacyAdvance legacy = new LegacyAdvance();
+        for(int s=0; s<sizes.length; s++) {
+            final float size = sizes[s];
+            Assert.assertEquals(legacy.getStringWidth(text, size), font.getStringWidth(text, size), 0f);
+        }
+        long tLegacy = Long.MAX_VALUE, tWidth = Long.MAX_VALUE, tBounds = Long.MAX_VALUE;
+        float sink = 0;
+        for(int l=0; l<loops; l++) {
+            final long t0 = System.nanoTime();
+            for(int s=0; s<sizes.length; s++) {
+                sink += legacy.getStringWidth(text, sizes[s]);
+            }
+            final long t1 = System.nanoTime();
+            for(int s=0; s<sizes.length; s++) {
+                sink -= font.getStringWidth(text, sizes[s]);
+            }
+            final long t2 = System.nanoTime();
+            for(int s=0; s<sizes.length; s++) {
+                final AABBox box = font.getStringBounds(text, sizes[s]);
+                sink += box.getWidth() - box.getWidth();
+            }
+            final long t3 = System.nanoTime();
+            tLegacy = Math.min(tLegacy, t1 - t0);
+            tWidth = Math.min(tWidth, t2 - t1);
+            tBounds = Math.min(tBounds, t3 - t2);
+        }
+        Assert.assertEquals(0f, sink, 0f);
+        final double chars = (double) text.length() * sizes.length;
+        System.err.printf("%d chars x %d sizes: string width legacy %6.2f ns/char, table %6.2f ns/char, speedup %5.2f; string bounds %6.2f ns/char%n",
+                text.length(), sizes.length, tLegacy/chars, tWidth/chars, (double)tLegacy/tWidth, tBounds/chars);
+    }
+
+    public static void main(String args[]) {
+        for(int i=0; i<args.length; i++) {
+            if(args[i].equals("-textLength")) {
+                textLength = MiscUtils.atoi(args[++i], textLength);
+            } else if(args[i].equals("-loops")) {
+                loops = MiscUtils.atoi(args[++i], loops);
+            }
+        }
+        org.junit.runner.JUnitCore.main(TestFontAdvanceTable00NOUI.class.getName());
+    }
+}
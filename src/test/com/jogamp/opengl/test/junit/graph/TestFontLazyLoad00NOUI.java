@@ -0,0 +1,310 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+
+package com.jogamp.opengl.test.junit.graph;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+
+import jogamp.graph.font.typecast.ot.OTFont;
+import jogamp.graph.font.typecast.ot.OTFontCollection;
+import jogamp.graph.font.typecast.ot.table.GlyfTable;
+import jogamp.graph.font.typecast.ot.table.GlyphDescription;
+import jogamp.graph.font.typecast.ot.table.Table;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jogamp.graph.font.Font;
+import com.jogamp.graph.font.FontFactory;
+import com.jogamp.opengl.test.junit.util.MiscUtils;
+
+/**
+ * Validates the mapped and lazily decoding OpenType font loading against the buffered one
+ * and compares the startup time of
+ * <ul>
+ *   <li>eager: buffered file, all glyph descriptions decoded, as formerly done while loading</li>
+ *   <li>buffered: buffered file, glyph descriptions decoded on first access</li>
+ *   <li>mapped: mapped file, glyph descriptions decoded on first access</li>
+ * </ul>
+ * The Latin corpus is the bundled Ubuntu font, CJK fonts are used if one of the well known
+ * TrueType outline CJK system fonts is available, otherwise they are skipped.
+ */
+public class TestFontLazyLoad00NOUI {
+    static int loops = 10;
+    static String userFont = null;
+
+    static final String[] cjkFonts = {
+        "/usr/share/fonts/truetype/wqy/wqy-microhei.ttc",
+        "/usr/share/fonts/truetype/wqy/wqy-zenhei.ttc",
+        "/usr/share/fonts/truetype/droid/DroidSansFallbackFull.ttf",
+        "/usr/share/fonts/truetype/fonts-japanese-gothic.ttf",
+        "/usr/share/fonts/truetype/takao-gothic/TakaoPGothic.ttf",
+        "/usr/share/fonts/opentype/ipafont-gothic/ipagp.ttf",
+        "/usr/share/fonts/truetype/arphic/uming.ttc",
+        "/usr/share/fonts/truetype/unfonts-core/UnDotum.ttf",
+        "/Library/Fonts/Arial Unicode.ttf",
+        "/System/Library/Fonts/AppleGothic.ttf",
+        "C:/Windows/Fonts/msgothic.ttc",
+        "C:/Windows/Fonts/simsun.ttc",
+        "C:/Windows/Fonts/malgun.ttf",
+    };
+    static final String[] latinSystemFonts = {
+        "/usr/share/fonts/truetype/dejavu/DejaVuSans.ttf",
+        "/Library/Fonts/Arial.ttf",
+        "C:/Windows/Fonts/arial.ttf",
+    };
+
+    static File extractResource(String name) throws IOException {
+        final InputStream in = TestFontLazyLoad00NOUI.class.getClassLoader().getResourceAsStream(name);
+        Assert.assertNotNull("Resource "+name, in);
+        final File file = File.createTempFile(name.substring(name.lastIndexOf('/') + 1, name.lastIndexOf('.')) + "-", ".ttf");
+        file.deleteOnExit();
+        copy(in, file);
+        return file;
+    }
+
+    static void copy(InputStream in, File file) throws IOException {
+        final OutputStream out = new FileOutputStream(file);
+        try {
+            final byte[] buf = new byte[64 * 1024];
+            int n;
+            while( 0 < ( n = in.read(buf) ) ) {
+                out.write(buf, 0, n);
+            }
+        } finally {
+            out.close();
+            in.close();
+        }
+    }
+
+    static ArrayList<File> getCorpus() throws IOException {
+        final ArrayList<File> files = new ArrayList<File>();
+        if( null != userFont ) {
+            files.add(new File(userFont));
+        }
+        files.add(extractResource("jogamp/graph/font/fonts/ubuntu/Ubuntu-R.ttf"));
+        for(int i=0; i<latinSystemFonts.length; i++) {
+            final File f = new File(latinSystemFonts[i]);
+            if( f.canRead() ) {
+                files.add(f);
+                break;
+            }
+        }
+        boolean cjk = false;
+        for(int i=0; i<cjkFonts.length; i++) {
+            final File f = new File(cjkFonts[i]);
+            if( f.canRead() ) {
+                files.add(f);
+                cjk = true;
+            }
+        }
+        if( !cjk ) {
+            System.err.println("No CJK TrueType font available, skipping CJK startup benchmark");
+        }
+        return files;
+    }
+
+    static GlyfTable getGlyf(OTFontCollection fc) {
+        return (GlyfTable) fc.getFont(0).getTable(Table.glyf);
+    }
+
+    static void assertSameDescription(String msg, GlyphDescription exp, GlyphDescription has) {
+        if( null == exp ) {
+            Assert.assertNull(msg, has);
+            return;
+        }
+        Assert.assertNotNull(msg, has);
+        Assert.assertEquals(msg, exp.getContourCount(), has.getContourCount());
+        Assert.assertEquals(msg, exp.getPointCount(), has.getPointCount());
+        for(int i=0; i<exp.getContourCount(); i++) {
+            Assert.assertEquals(msg, exp.getEndPtOfContours(i), has.getEndPtOfContours(i));
+        }
+        for(int i=0; i<exp.getPointCount(); i++) {
+            Assert.assertEquals(msg, exp.getFlags(i), has.getFlags(i));
+            Assert.assertEquals(msg, exp.getXCoordinate(i), has.getXCoordinate(i));
+            Assert.assertEquals(msg, exp.getYCoordinate(i), has.getYCoordinate(i));
+        }
+    }
+
+    @Test
+    public void testMappedEqualsBuffered() throws IOException {
+        final ArrayList<File> files = getCorpus();
+        for(int f=0; f<files.size(); f++) {
+            final File file = files.get(f);
+            final OTFontCollection buffered = OTFontCollection.create(file, false);
+            final OTFontCollection mapped = OTFontCollection.create(file, true);
+            Assert.assertEquals(buffered.getFontCount(), mapped.getFontCount());
+            final GlyfTable bGlyf = getGlyf(buffered);
+            final GlyfTable mGlyf = getGlyf(mapped);
+            if( null == bGlyf ) {
+                System.err.println(file.getName()+": no glyf table, skipped");
+                continue;
+            }
+            // nothing decoded while loading
+            Assert.assertEquals(0, bGlyf.getDecodedCount());
+            Assert.assertEquals(0, mGlyf.getDecodedCount());
+
+            // a single glyph decodes itself and, if composite, its components only
+            final OTFont font = mapped.getFont(0);
+            Assert.assertNotNull(font.getGlyph(font.getNumGlyphs() / 2));
+            Assert.assertTrue(mGlyf.getDecodedCount() < font.getNumGlyphs() || font.getNumGlyphs() < 4);
+
+            final int step = Math.max(1, font.getNumGlyphs() / 2000);
+            for(int i=0; i<font.getNumGlyphs(); i+=step) {
+                assertSameDescription(file.getName()+" glyph "+i, bGlyf.getDescription(i), mGlyf.getDescription(i));
+            }
+            Assert.assertNull(mGlyf.getDescription(font.getNumGlyphs()));
+        }
+    }
+
+    /** Halves the length of the glyf table in the table directory, i.e. the glyphs at its end point beyond it. */
+    static File truncateGlyf(File src) throws IOException {
+        final File file = File.createTempFile("truncated-", ".ttf");
+        file.deleteOnExit();
+        copy(new FileInputStream(src), file);
+        final RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            raf.seek(4);
+            final int numTables = raf.readUnsignedShort();
+            for(int i=0; i<numTables; i++) {
+                raf.seek(12 + i * 16);
+                if( 0x676c7966 == raf.readInt() ) { // 'glyf'
+                    raf.seek(12 + i * 16 + 12);
+                    final int length = raf.readInt();
+                    raf.seek(12 + i * 16 + 12);
+                    raf.writeInt(length / 2);
+                    return file;
+                }
+            }
+        } finally {
+            raf.close();
+        }
+        Assert.fail("No glyf table in "+src);
+        return null;
+    }
+
+    @Test
+    public void testCorruptGlyph() throws IOException {
+        final File file = truncateGlyf(extractResource("jogamp/graph/font/fonts/ubuntu/Ubuntu-R.ttf"));
+        for(int m=0; m<2; m++) {
+            final OTFontCollection fc = OTFontCollection.create(file, 0 != m);
+            final GlyfTable glyf = getGlyf(fc);
+            final int numGlyphs = fc.getFont(0).getNumGlyphs();
+            int failed = 0;
+            for(int i=0; i<numGlyphs; i++) {
+                RuntimeException first = null;
+                try {
+                    glyf.getDescription(i);
+                } catch (RuntimeException e) {
+                    first = e;
+                }
+                if( null == first ) {
+                    continue;
+                }
+                failed++;
+                // an offset beyond the table is wrapped like a truncated glyph
+                Assert.assertEquals("Could not decode glyph "+i, first.getMessage());
+                // fails again w/ the same cause instead of returning null
+                try {
+                    glyf.getDescription(i);
+                    Assert.fail("glyph "+i+" failed once only");
+                } catch (RuntimeException e) {
+                    Assert.assertEquals(first.getMessage(), e.getMessage());
+                    Assert.assertSame(first.getCause(), e.getCause());
+                }
+            }
+            Assert.assertTrue("no corrupt glyph", 0 < failed);
+            Assert.assertTrue(glyf.getDecodedCount() + failed <= numGlyphs);
+        }
+    }
+
+    @Test
+    public void testFontFactory() throws IOException {
+        final File file = extractResource("jogamp/graph/font/fonts/ubuntu/Ubuntu-R.ttf");
+        final Font font = FontFactory.get(file);
+        final String text = "Hello JogAmp, \u00c4\u00d6\u00dc";
+        for(int i=0; i<text.length(); i++) {
+            Assert.assertNotNull(font.getGlyph(text.charAt(i)));
+        }
+        Assert.assertTrue(0 < font.getStringWidth(text, 24f));
+    }
+
+    @Test
+    public void testStartup() throws IOException {
+        final ArrayList<File> files = getCorpus();
+        for(int f=0; f<files.size(); f++) {
+            final File file = files.get(f);
+            if( null == getGlyf(OTFontCollection.create(file, true)) ) {
+                continue;
+            }
+            long tEager = Long.MAX_VALUE, tBuffered = Long.MAX_VALUE, tMapped = Long.MAX_VALUE, tFirst = Long.MAX_VALUE;
+            int numGlyphs = 0;
+            for(int i=0; i<loops; i++) {
+                final long t0 = System.nanoTime();
+                final OTFontCollection eager = OTFontCollection.create(file, false);
+                final GlyfTable glyf = getGlyf(eager);
+                numGlyphs = eager.getFont(0).getNumGlyphs();
+                for(int g=0; g<numGlyphs; g++) {
+                    glyf.getDescription(g);
+                }
+                final long t1 = System.nanoTime();
+                OTFontCollection.create(file, false);
+                final long t2 = System.nanoTime();
+                final OTFontCollection mapped = OTFontCollection.create(file, true);
+                final long t3 = System.nanoTime();
+                mapped.getFont(0).getGlyph(numGlyphs / 2);
+                final long t4 = System.nanoTime();
+                tEager = Math.min(tEager, t1 - t0);
+                tBuffered = Math.min(tBuffered, t2 - t1);
+                tMapped = Math.min(tMapped, t3 - t2);
+                tFirst = Math.min(tFirst, t4 - t3);
+            }
+            System.err.printf("%-24s %6d KiB, %5d glyphs: eager %8.2f ms, buffered %7.2f ms, mapped %7.2f ms (+ first glyph %5.3f ms), speedup %6.1f%n",
+                    file.getName(), file.length() / 1024, numGlyphs, tEager/1e6, tBuffered/1e6, tMapped/1e6, tFirst/1e6,
+                    (double)tEager/(double)tMapped);
+        }
+    }
+
+    public static void main(String args[]) {
+        for(int i=0; i<args.length; i++) {
+            if(args[i].equals("-loops")) {
+                loops = MiscUtils.atoi(args[++i], loops);
+            } else if(args[i].equals("-font")) {
+                userFont = args[++i];
+            }
+        }
+        org.junit.runner.JUnitCore.main(TestFontLazyLoad00NOUI.class.getName());
+    }
+}
@@ -0,0 +1,258 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+
+package com.jogamp.opengl.test.junit.graph;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Random;
+
+import jogamp.graph.curve.text.FontStringCache;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.jogamp.graph.font.Font;
+import com.jogamp.graph.font.FontFactory;
+import com.jogamp.graph.font.FontSet;
+import com.jogamp.opengl.test.junit.util.MiscUtils;
+
+/**
+ * Validates the LRU {@link FontStringCache} used by {@link com.jogamp.graph.curve.opengl.TextRenderer}
+ * and compares it with the former String keyed HashMap plus ArrayList FIFO cache
+ * under high churn text workloads, e.g. a HUD w/ static labels and per frame changing values.
+ */
+public class TestFontStringCache00NOUI {
+    static int limit = 256;
+    static int frames = 20000;
+    static int loops = 10;
+
+    static Font fontA, fontB;
+
+    @BeforeClass
+    public static void setup() throws IOException {
+        final FontSet fs = FontFactory.get(FontFactory.UBUNTU);
+        fontA = fs.get(FontSet.FAMILY_REGULAR, 0);
+        fontB = fs.get(FontSet.FAMILY_LIGHT, 0);
+        Assert.assertNotSame(fontA, fontB);
+    }
+
+    /** The former TextRenderer cache: String keys built per lookup, FIFO eviction by linear ArrayList removal. */
+    static class LegacyCache {
+        final HashMap<String, Object> map = new HashMap<String, Object>(limit);
+        final ArrayList<String> array = new ArrayList<String>(limit);
+        long hits, misses;
+
+        static String getKey(Font font, String str, int fontSize) {
+            final StringBuilder sb = new StringBuilder();
+            return font.getName(sb, Font.NAME_UNIQUNAME)
+                   .append(".").append(str.hashCode()).append(".").append(fontSize).toString();
+        }
+        Object get(Font font, String str, int size) {
+            final Object o = map.get(getKey(font, str, size));
+            if( null == o ) { misses++; } else { hits++; }
+            return o;
+        }
+        void put(Font font, String str, int size, Object value) {
+            final String key = getKey(font, str, size);
+            if( null == map.put(key, value) ) {
+                while( array.size() + 1 > limit ) {
+                    map.remove(array.remove(0));
+                }
+                array.add(array.size(), key);
+            }
+        }
+        void remove(Font font, String str, int size) {
+            final String key = getKey(font, str, size);
+            map.remove(key);
+            array.remove(key);
+        }
+    }
+
+    @Test
+    public void testLRU() {
+        final ArrayList<String> evicted = new ArrayList<String>();
+        final FontStringCache<String> cache = new FontStringCache<String>(4, new FontStringCache.EvictionListener<String>() {
+            public void evicted(String value) {
+                evicted.add(value);
+            } } );
+        Assert.assertNull(cache.removeEldest());
+        for(int i=0; i<100; i++) {
+            Assert.assertNull(cache.put(fontA, "s"+i, 10, "v"+i));
+        }
+        Assert.assertEquals(100, cache.size());
+        // touch s0, so s1 is the eldest
+        Assert.assertEquals("v0", cache.get(fontA, "s0", 10));
+        cache.trim(99);
+        Assert.assertEquals(1, evicted.size());
+        Assert.assertEquals("v1", evicted.get(0));
+        Assert.assertEquals("v2", cache.removeEldest());
+        Assert.assertEquals(1, cache.getEvictionCount());
+        Assert.assertNull(cache.get(fontA, "s1", 10));
+        // key is (font, size, string)
+        Assert.assertNull(cache.get(fontB, "s0", 10));
+        Assert.assertNull(cache.get(fontA, "s0", 12));
+        Assert.assertEquals(1, cache.getHitCount());
+        Assert.assertEquals(3, cache.getMissCount());
+        // equal hash codes, different strings: the former key collided here
+        Assert.assertEquals("Aa".hashCode(), "BB".hashCode());
+        cache.put(fontA, "Aa", 10, "Aa");
+        cache.put(fontA, "BB", 10, "BB");
+        Assert.assertEquals("Aa", cache.get(fontA, "Aa", 10));
+        Assert.assertEquals("BB", cache.get(fontA, "BB", 10));
+        // overwrite keeps one entry and makes it the youngest
+        Assert.assertEquals("v3", cache.put(fontA, "s3", 10, "w3"));
+        Assert.assertEquals(100, cache.size());
+        Assert.assertEquals("w3", cache.remove(fontA, "s3", 10));
+        Assert.assertNull(cache.remove(fontA, "s3", 10));
+        // remaining eviction order
+        final String[] order = { "v4", "v5" };
+        for(int i=0; i<order.length; i++) {
+            Assert.assertEquals(order[i], cache.removeEldest());
+        }
+        Assert.assertEquals("v7", cache.remove(1));
+        // put evicts the eldest beyond the limit
+        cache.setLimit(cache.size());
+        Assert.assertNull(cache.put(fontA, "new", 10, "new"));
+        Assert.assertEquals(2, evicted.size());
+        Assert.assertEquals("v6", evicted.get(1));
+        Assert.assertEquals(cache.getLimit(), cache.size());
+        Assert.assertEquals(2, cache.getEvictionCount());
+        cache.clear();
+        Assert.assertEquals(0, cache.size());
+        Assert.assertNull(cache.get(fontA, "s0", 10));
+        cache.resetCounter();
+        Assert.assertEquals(0, cache.getHitCount() + cache.getMissCount() + cache.getEvictionCount());
+    }
+
+    /** Per frame: a few static labels, a few values changing every frame and a value changing every 10th frame. */
+    static String[] createHUDFrame(int frame) {
+        return new String[] {
+            "Frames per second:", "Draw calls:", "Triangles:", "Position:", "Help: press F1",
+            String.valueOf(60f + ( frame % 997 ) / 100f),
+            String.valueOf(1000 + frame % 313),
+            "x " + ( frame * 0.01f ) + ", y " + ( frame * 0.02f ),
+            "Time " + ( frame / 10 ),
+        };
+    }
+
+    /** Random text from a skewed vocabulary of twice the cache size, hot strings are frequent. */
+    static String[] createSkewed(int n) {
+        final Random rnd = new Random(4711);
+        final String[] s = new String[n];
+        for(int i=0; i<n; i++) {
+            final double r = rnd.nextDouble();
+            s[i] = "Label number " + (int) ( r * r * r * limit * 2 );
+        }
+        return s;
+    }
+
+    @Test
+    public void testChurn() {
+        final String[][] hud = new String[frames][];
+        for(int i=0; i<frames; i++) {
+            hud[i] = createHUDFrame(i);
+        }
+        final String[] skewed = createSkewed(frames * 8);
+        final Object value = new Object();
+
+        for(int w=0; w<2; w++) {
+            final String name = 0 == w ? "HUD" : "skewed";
+            long tLegacy = Long.MAX_VALUE, tLRU = Long.MAX_VALUE;
+            LegacyCache legacy = null;
+            FontStringCache<Object> lru = null;
+            for(int l=0; l<loops; l++) {
+                legacy = new LegacyCache();
+                lru = new FontStringCache<Object>(limit, null);
+                lru.setLimit(limit);
+                final long t0 = System.nanoTime();
+                if( 0 == w ) {
+                    for(int f=0; f<frames; f++) {
+                        final String[] strings = hud[f];
+                        for(int i=0; i<strings.length; i++) {
+                            final Font font = 0 == ( i & 1 ) ? fontA : fontB;
+                            if( null == legacy.get(font, strings[i], 24) ) {
+                                legacy.put(font, strings[i], 24, value);
+                            }
+                        }
+                    }
+                } else {
+                    for(int i=0; i<skewed.length; i++) {
+                        if( null == legacy.get(fontA, skewed[i], 24) ) {
+                            legacy.put(fontA, skewed[i], 24, value);
+                        }
+                    }
+                }
+                final long t1 = System.nanoTime();
+                if( 0 == w ) {
+                    for(int f=0; f<frames; f++) {
+                        final String[] strings = hud[f];
+                        for(int i=0; i<strings.length; i++) {
+                            final Font font = 0 == ( i & 1 ) ? fontA : fontB;
+                            if( null == lru.get(font, strings[i], 24) ) {
+                                lru.put(font, strings[i], 24, value);
+                            }
+                        }
+                    }
+                } else {
+                    for(int i=0; i<skewed.length; i++) {
+                        if( null == lru.get(fontA, skewed[i], 24) ) {
+                            lru.put(fontA, skewed[i], 24, value);
+                        }
+                    }
+                }
+                final long t2 = System.nanoTime();
+                tLegacy = Math.min(tLegacy, t1 - t0);
+                tLRU = Math.min(tLRU, t2 - t1);
+            }
+            final long lookups = legacy.hits + legacy.misses;
+            Assert.assertEquals(lookups, lru.getHitCount() + lru.getMissCount());
+            Assert.assertTrue(lru.size() <= limit);
+            // LRU never does worse than FIFO on these workloads
+            Assert.assertTrue(name, lru.getHitCount() >= legacy.hits);
+            System.err.printf("%-6s %8d lookups, limit %d: legacy %7.1f ns/lookup (hit rate %5.1f%%), LRU %6.1f ns/lookup (hit rate %5.1f%%, %d evictions), speedup %5.2f%n",
+                    name, lookups, limit, (double)tLegacy/lookups, 100.0*legacy.hits/lookups,
+                    (double)tLRU/lookups, 100.0*lru.getHitCount()/lookups, lru.getEvictionCount(), (double)tLegacy/(double)tLRU);
+        }
+    }
+
+    public static void main(String args[]) {
+        for(int i=0; i<args.length; i++) {
+            if(args[i].equals("-limit")) {
+                limit = MiscUtils.atoi(args[++i], limit);
+            } else if(args[i].equals("-frames")) {
+                frames = MiscUtils.atoi(args[++i], frames);
+            } else if(args[i].equals("-loops")) {
+                loops = MiscUtils.atoi(args[++i], loops);
+            }
+        }
+        org.junit.runner.JUnitCore.main(TestFontStringCache00NOUI.class.getName());
+    }
+}
@@ -0,0 +1,240 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+
+package com.jogamp.opengl.test.junit.graph;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Random;
+
+import jogamp.graph.curve.text.GlyphShape;
+import jogamp.graph.curve.text.GlyphShapeCache;
+import jogamp.graph.curve.text.GlyphString;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.jogamp.graph.font.Font;
+import com.jogamp.graph.font.FontFactory;
+import com.jogamp.graph.font.FontSet;
+import com.jogamp.graph.geom.Triangle;
+import com.jogamp.graph.geom.Vertex;
+import com.jogamp.graph.geom.opengl.SVertex;
+import com.jogamp.opengl.test.junit.util.MiscUtils;
+
+/**
+ * Validates {@link GlyphString}s assembled from the {@link GlyphShapeCache}
+ * against their glyphs triangulated on their own, and compares the string build time
+ * w/ the former per string triangulation,
+ * i.e. the CPU work of {@link GlyphString#createRegion(javax.media.opengl.GL2ES2, int)} w/o GL upload,
+ * for rapidly changing labels.
+ */
+public class TestGlyphShapeCache00NOUI {
+    static int fontSize = GlyphString.STATIC_FONT_SIZE;
+    static int strings = 2000;
+    static int loops = 5;
+
+    static Font font;
+    static final Vertex.Factory<SVertex> factory = SVertex.factory();
+
+    @BeforeClass
+    public static void setup() throws IOException {
+        font = FontFactory.get(FontFactory.UBUNTU).get(FontSet.FAMILY_REGULAR, 0);
+    }
+
+    /** Triangulates all glyphs and assigns vertex ids, as {@link GlyphString#createRegion(javax.media.opengl.GL2ES2, int)}. */
+    static int assemble(GlyphString s, ArrayList<GlyphShape> glyphs, ArrayList<Triangle> tris, ArrayList<Vertex> verts) {
+        int numVertices = 0;
+        for(int i=0; i<glyphs.size(); i++) {
+            final GlyphShape glyph = glyphs.get(i);
+            tris.addAll(glyph.triangulate());
+            final ArrayList<Vertex> gVertices = glyph.getVertices();
+            for(int j=0; j<gVertices.size(); j++) {
+                final Vertex gVert = gVertices.get(j);
+                gVert.setId(numVertices++);
+                verts.add(gVert);
+            }
+        }
+        return numVertices;
+    }
+
+    static ArrayList<GlyphShape> getGlyphs(GlyphString s) {
+        final ArrayList<GlyphShape> glyphs = new ArrayList<GlyphShape>(s.getGlyphShapeCount());
+        for(int i=0; i<s.getGlyphShapeCount(); i++) {
+            glyphs.add(s.getGlyphShape(i));
+        }
+        return glyphs;
+    }
+
+    static String[] createLabels(int n) {
+        final Random rnd = new Random(4711);
+        final String[] s = new String[n];
+        final String[] words = { "Score", "Level", "Lives", "Frames", "Position", "Speed", "Altitude", "Ammo" };
+        for(int i=0; i<n; i++) {
+            s[i] = words[rnd.nextInt(words.length)] + ": " + rnd.nextInt(100000) + ( 0 == ( i % 7 ) ? "\nx " + rnd.nextFloat() : "" );
+        }
+        return s;
+    }
+
+    static void assertEquals(String msg, float[] exp, float[] has, int n, float eps) {
+        for(int i=0; i<n; i++) {
+            Assert.assertEquals(msg, exp[i], has[i], eps);
+        }
+    }
+
+    /**
+     * Each cached glyph of a string must equal the glyph triangulated on its own, translated to its layout position.
+     * Comparing w/ the whole string triangulated at once is not exact,
+     * since curve overlap subdivision of translated outlines is subject to float rounding.
+     */
+    @Test
+    public void testEqualTriangulation() {
+        final GlyphShapeCache cache = new GlyphShapeCache();
+        final String[] labels = createLabels(200);
+        labels[0] = "The quick brown fox jumps over the lazy dog 0123456789 @%&";
+        final float eps = fontSize * 1e-4f;
+        final Font.Metrics metrics = font.getMetrics();
+        final float advanceY = metrics.getLineGap(fontSize) - metrics.getDescent(fontSize) + metrics.getAscent(fontSize);
+        for(int l=0; l<labels.length; l++) {
+            final String str = labels[l];
+            final GlyphString has = GlyphString.createString(factory, font, fontSize, str, cache);
+            float x = 0, y = 0;
+            int g = 0;
+            for(int i=0; i<str.length(); i++) {
+                final char c = str.charAt(i);
+                if( '\n' == c ) {
+                    x = 0;
+                    y += advanceY;
+                    continue;
+                } else if( ' ' == c ) {
+                    x += font.getAdvanceWidth(Font.Glyph.ID_SPACE, fontSize);
+                    continue;
+                }
+                final String msg = str+" glyph "+i+" '"+c+"'";
+                final GlyphString exp = GlyphString.createString(null, factory, font, fontSize, String.valueOf(c));
+                Assert.assertEquals(msg, 1, exp.getGlyphShapeCount());
+                final ArrayList<Triangle> expTris = new ArrayList<Triangle>(), hasTris = new ArrayList<Triangle>();
+                final ArrayList<Vertex> expVerts = new ArrayList<Vertex>(), hasVerts = new ArrayList<Vertex>();
+                final ArrayList<GlyphShape> hasGlyph = new ArrayList<GlyphShape>();
+                hasGlyph.add(has.getGlyphShape(g++));
+                Assert.assertEquals(msg, assemble(exp, getGlyphs(exp), expTris, expVerts), assemble(has, hasGlyph, hasTris, hasVerts));
+                Assert.assertEquals(msg, expTris.size(), hasTris.size());
+                for(int t=0; t<expTris.size(); t++) {
+                    final Vertex[] ev = expTris.get(t).getVertices();
+                    final Vertex[] hv = hasTris.get(t).getVertices();
+                    for(int k=0; k<3; k++) {
+                        Assert.assertEquals(msg, ev[k].getX() + x, hv[k].getX(), eps);
+                        Assert.assertEquals(msg, ev[k].getY() + y, hv[k].getY(), eps);
+                        Assert.assertEquals(msg, ev[k].getZ(), hv[k].getZ(), eps);
+                        assertEquals(msg, ev[k].getTexCoord(), hv[k].getTexCoord(), 2, 1e-6f);
+                        Assert.assertEquals(msg, ev[k].isOnCurve(), hv[k].isOnCurve());
+                        // same region vertex, or a boundary triangle vertex w/ blank id added by the region
+                        Assert.assertEquals(msg, ev[k].getId(), hv[k].getId());
+                    }
+                }
+                x += font.getGlyph(c).getAdvance(fontSize, true);
+            }
+            Assert.assertEquals(str, g, has.getGlyphShapeCount());
+        }
+        Assert.assertTrue(0 < cache.size());
+    }
+
+    @Test
+    public void testLimit() {
+        final GlyphShapeCache cache = new GlyphShapeCache(8);
+        Assert.assertEquals(8, cache.getLimit());
+        final GlyphShapeCache.Template a = cache.get(factory, font, fontSize, 'a');
+        Assert.assertNotNull(a);
+        for(char c='b'; c<='z'; c++) {
+            cache.get(factory, font, fontSize, c);
+            // keeps 'a' the most recently used one
+            Assert.assertSame(a, cache.get(factory, font, fontSize, 'a'));
+            Assert.assertTrue(cache.size() <= 8);
+        }
+        // 'b' was evicted and is recreated
+        Assert.assertEquals(8, cache.size());
+        final GlyphShapeCache.Template b = cache.get(factory, font, fontSize, 'b');
+        Assert.assertEquals(b.getTriangleCount(), new GlyphShapeCache(1).get(factory, font, fontSize, 'b').getTriangleCount());
+        Assert.assertTrue(cache.size() <= 8);
+        // font sizes are cached separately
+        Assert.assertNotSame(a, cache.get(factory, font, fontSize + 1, 'a'));
+        cache.clear();
+        Assert.assertEquals(0, cache.size());
+        try {
+            cache.setLimit(0);
+            Assert.fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) { }
+    }
+
+    @Test
+    public void testBuildTime() {
+        final String[] labels = createLabels(strings);
+        final GlyphShapeCache cache = new GlyphShapeCache();
+        final ArrayList<Triangle> tris = new ArrayList<Triangle>();
+        final ArrayList<Vertex> verts = new ArrayList<Vertex>();
+        long tTriangulate = Long.MAX_VALUE, tCached = Long.MAX_VALUE;
+        int glyphs = 0, vertices = 0;
+        for(int l=0; l<loops; l++) {
+            final long t0 = System.nanoTime();
+            for(int i=0; i<labels.length; i++) {
+                final GlyphString s = GlyphString.createString(null, factory, font, fontSize, labels[i]);
+                tris.clear(); verts.clear();
+                assemble(s, getGlyphs(s), tris, verts);
+            }
+            final long t1 = System.nanoTime();
+            glyphs = 0; vertices = 0;
+            for(int i=0; i<labels.length; i++) {
+                final GlyphString s = GlyphString.createString(factory, font, fontSize, labels[i], cache);
+                tris.clear(); verts.clear();
+                final ArrayList<GlyphShape> g = getGlyphs(s);
+                vertices += assemble(s, g, tris, verts);
+                glyphs += g.size();
+            }
+            final long t2 = System.nanoTime();
+            tTriangulate = Math.min(tTriangulate, t1 - t0);
+            tCached = Math.min(tCached, t2 - t1);
+        }
+        System.err.printf("%d strings, %d glyphs, %d vertices, %d cached glyphs: triangulate %7.2f us/string, cached %6.2f us/string, speedup %6.1f%n",
+                labels.length, glyphs, vertices, cache.size(), tTriangulate/1e3/labels.length, tCached/1e3/labels.length,
+                (double)tTriangulate/(double)tCached);
+    }
+
+    public static void main(String args[]) {
+        for(int i=0; i<args.length; i++) {
+            if(args[i].equals("-fontSize")) {
+                fontSize = MiscUtils.atoi(args[++i], fontSize);
+            } else if(args[i].equals("-strings")) {
+                strings = MiscUtils.atoi(args[++i], strings);
+            } else if(args[i].equals("-loops")) {
+                loops = MiscUtils.atoi(args[++i], loops);
+            }
+        }
+        org.junit.runner.JUnitCore.main(TestGlyphShapeCache00NOUI.class.getName());
+    }
+}
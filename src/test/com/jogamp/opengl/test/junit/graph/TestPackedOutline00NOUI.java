@@ -0,0 +1,286 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+
+package com.jogamp.opengl.test.junit.graph;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Random;
+
+import jogamp.graph.curve.text.GlyphString;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.jogamp.graph.curve.OutlineShape;
+import com.jogamp.graph.curve.tess.Triangulation;
+import com.jogamp.graph.font.Font;
+import com.jogamp.graph.font.FontFactory;
+import com.jogamp.graph.font.FontSet;
+import com.jogamp.graph.geom.Outline;
+import com.jogamp.graph.geom.PackedOutline;
+import com.jogamp.graph.geom.Triangle;
+import com.jogamp.graph.geom.Vertex;
+import com.jogamp.graph.geom.opengl.SVertex;
+import com.jogamp.opengl.math.geom.AABBox;
+import com.jogamp.opengl.test.junit.util.MiscUtils;
+
+/**
+ * Validates {@link PackedOutline} and its triangulation via {@link Triangulation#triangulate(PackedOutline[], PackedOutline)}
+ * against the {@link Vertex.Factory} based {@link Outline} path,
+ * and compares their memory footprint and throughput from 1k to 100k vertices.
+ */
+public class TestPackedOutline00NOUI {
+    static int maxVertices = 100000;
+    static int loops = 3;
+
+    static Font font;
+    static final Vertex.Factory<SVertex> factory = SVertex.factory();
+
+    @BeforeClass
+    public static void setup() throws IOException {
+        font = FontFactory.get(FontFactory.UBUNTU).get(FontSet.FAMILY_REGULAR, 0);
+    }
+
+    /**
+     * Wavy closed outline like {@link TestTriangulatorScaling00NOUI#createBlob(int, int, int, long)},
+     * every <code>curveStep</code>-th vertex is off-curve, none if 0.
+     */
+    static PackedOutline createBlob(int vertices, int curveStep, long seed) {
+        final Random rnd = new Random(seed);
+        final PackedOutline outline = new PackedOutline(vertices+1);
+        final double noise = 2 * Math.PI / vertices;
+        for(int i=0; i<vertices; i++) {
+            final double a = 2 * Math.PI * i / vertices;
+            final boolean onCurve = 0 == curveStep || 0 != ( i % curveStep );
+            final double r = 0.75 + 0.15 * Math.sin(5 * a) + 0.05 * Math.sin(23 * a) +
+                             ( onCurve ? -noise * rnd.nextDouble() : noise );
+            outline.addVertex((float)(r * Math.cos(a)), (float)(r * Math.sin(a)), 0f, onCurve);
+        }
+        outline.setClosed(true);
+        return outline;
+    }
+
+    static PackedOutline createCircle(int vertices, float radius) {
+        final PackedOutline outline = new PackedOutline(vertices+1);
+        for(int i=0; i<vertices; i++) {
+            final double a = -2 * Math.PI * i / vertices;
+            outline.addVertex((float)(radius * Math.cos(a)), (float)(radius * Math.sin(a)), 0f, true);
+        }
+        outline.setClosed(true);
+        return outline;
+    }
+
+    /** The {@link Vertex.Factory} path: one vertex object per packed vertex. */
+    static OutlineShape createShape(PackedOutline[] outlines) {
+        final OutlineShape shape = new OutlineShape(factory);
+        for(int i=0; i<outlines.length; i++) {
+            final PackedOutline o = outlines[i];
+            if( 0 < i ) {
+                shape.addEmptyOutline();
+            }
+            for(int j=0; j<o.getVertexCount(); j++) {
+                shape.addVertex(o.getX(j), o.getY(j), o.getZ(j), o.isOnCurve(j));
+            }
+            shape.closeLastOutline();
+        }
+        return shape;
+    }
+
+    static void assertEqual(String msg, ArrayList<Triangle> exp, PackedOutline vertices, int[] indices) {
+        Assert.assertEquals(msg, 3*exp.size(), indices.length);
+        for(int i=0; i<exp.size(); i++) {
+            final Vertex[] ev = exp.get(i).getVertices();
+            for(int k=0; k<3; k++) {
+                final int idx = indices[3*i+k];
+                Assert.assertEquals(msg, ev[k].getX(), vertices.getX(idx), 0f);
+                Assert.assertEquals(msg, ev[k].getY(), vertices.getY(idx), 0f);
+                Assert.assertEquals(msg, ev[k].getZ(), vertices.getZ(idx), 0f);
+                Assert.assertEquals(msg, ev[k].isOnCurve(), vertices.isOnCurve(idx));
+                Assert.assertEquals(msg, ev[k].getTexCoord()[0], vertices.getTexCoordS(idx), 0f);
+                Assert.assertEquals(msg, ev[k].getTexCoord()[1], vertices.getTexCoordT(idx), 0f);
+            }
+        }
+    }
+
+    @Test
+    public void testOutline() {
+        final PackedOutline p = new PackedOutline(1);
+        for(int i=0; i<150; i++) {
+            p.addVertex(i, -i, i/2f, 0 == i % 3);
+        }
+        Assert.assertEquals(150, p.getVertexCount());
+        for(int i=0; i<150; i++) {
+            Assert.assertEquals(0 == i % 3, p.isOnCurve(i));
+        }
+        Assert.assertEquals(new AABBox(0, -149, 0, 149, 0, 74.5f), p.getBounds());
+        p.setVertex(70, 200, 1, -1, false);
+        Assert.assertEquals(new AABBox(0, -149, -1, 200, 1, 74.5f), p.getBounds());
+        p.setClosed(true);
+        Assert.assertEquals(151, p.getVertexCount());
+        Assert.assertTrue(p.isOnCurve(150));
+        p.setClosed(true);
+        Assert.assertEquals(151, p.getVertexCount());
+
+        final Outline o = p.toOutline(factory);
+        Assert.assertTrue(o.isClosed());
+        Assert.assertEquals(151, o.getVertexCount());
+        Assert.assertEquals(p.getBounds(), o.getBounds());
+        Assert.assertEquals(o, new PackedOutline(o).toOutline(factory));
+
+        p.clear();
+        Assert.assertTrue(p.isEmpty());
+        Assert.assertFalse(p.isClosed());
+        p.addVertex(1, 2, 3, false);
+        Assert.assertFalse(p.isOnCurve(0));
+        Assert.assertEquals(new AABBox(1, 2, 3, 1, 2, 3), p.getBounds());
+    }
+
+    @Test
+    public void testEqualGlyphs() {
+        final String str = "The quick brown fox jumps over the lazy dog 0123456789 @%&$#?!";
+        for(int i=0; i<str.length(); i++) {
+            final char c = str.charAt(i);
+            if( ' ' == c ) {
+                continue;
+            }
+            final OutlineShape shape = GlyphString.createString(null, factory, font, GlyphString.STATIC_FONT_SIZE, String.valueOf(c)).getGlyphShape(0).getShape();
+            shape.transformOutlines(OutlineShape.VerticesState.QUADRATIC_NURBS);
+            final PackedOutline vertices = new PackedOutline();
+            final int[] indices = Triangulation.triangulate(shape.getPackedOutlines(), vertices);
+            final ArrayList<Triangle> exp = shape.triangulate(Triangulation.create(Triangulation.EAR_CLIPPING));
+            assertEqual("glyph '"+c+"'", exp, vertices, indices);
+        }
+    }
+
+    @Test
+    public void testEqualBlobs() {
+        for(int n=10; n<=10000; n*=10) {
+            final PackedOutline[] outlines = new PackedOutline[] { createBlob(n, 3, n), createCircle(Math.max(3, n/4), 0.25f) };
+            final PackedOutline vertices = new PackedOutline();
+            final int[] indices = Triangulation.triangulate(outlines, vertices);
+            final ArrayList<Triangle> exp = createShape(outlines).triangulate(Triangulation.create(Triangulation.EAR_CLIPPING));
+            assertEqual("n "+n, exp, vertices, indices);
+        }
+    }
+
+    static long usedMemory() {
+        final Runtime rt = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        for(int i=0; i<4; i++) {
+            System.gc();
+            used = Math.min(used, rt.totalMemory() - rt.freeMemory());
+        }
+        return used;
+    }
+
+    @Test
+    public void testFootprintAndThroughput() {
+        for(int n=1000; n<=maxVertices; n*=10) {
+            final PackedOutline[] outlines = new PackedOutline[] { createBlob(n, 0, n), createCircle(n/4, 0.25f) };
+            final int vertexCount = outlines[0].getVertexCount() + outlines[1].getVertexCount();
+
+            // footprint of the retained vertex data
+            final long m0 = usedMemory();
+            OutlineShape shape = createShape(outlines);
+            final long m1 = usedMemory();
+            PackedOutline[] packed = new PackedOutline[] { copy(outlines[0]), copy(outlines[1]) };
+            final long m2 = usedMemory();
+            Assert.assertEquals(vertexCount, shape.getVertices().size());
+            Assert.assertEquals(vertexCount, packed[0].getVertexCount() + packed[1].getVertexCount());
+
+            long tBuildV = Long.MAX_VALUE, tBuildP = Long.MAX_VALUE;
+            long tBoundsV = Long.MAX_VALUE, tBoundsP = Long.MAX_VALUE;
+            long tTessV = Long.MAX_VALUE, tTessP = Long.MAX_VALUE;
+            final AABBox box = new AABBox();
+            AABBox boxV = null;
+            final int boundsLoops = Math.max(1, 1000000 / n);
+            for(int l=0; l<loops; l++) {
+                final long t0 = System.nanoTime();
+                shape = createShape(outlines);
+                final long t1 = System.nanoTime();
+                packed = new PackedOutline[] { copy(outlines[0]), copy(outlines[1]) };
+                final long t2 = System.nanoTime();
+                for(int b=0; b<boundsLoops; b++) {
+                    box.reset();
+                    for(int i=0; i<shape.getOutlineNumber(); i++) {
+                        final ArrayList<Vertex> vertices = shape.getOutline(i).getVertices();
+                        for(int j=0; j<vertices.size(); j++) {
+                            box.resize(vertices.get(j).getCoord(), 0);
+                        }
+                    }
+                }
+                boxV = box.clone();
+                final long t3 = System.nanoTime();
+                for(int b=0; b<boundsLoops; b++) {
+                    box.reset();
+                    for(int i=0; i<packed.length; i++) {
+                        box.resize(packed[i].getCoords(), 0, packed[i].getVertexCount());
+                    }
+                }
+                Assert.assertEquals(boxV, box);
+                final long t4 = System.nanoTime();
+                final ArrayList<Triangle> tris = shape.triangulate(Triangulation.create(Triangulation.EAR_CLIPPING));
+                final long t5 = System.nanoTime();
+                final int[] indices = Triangulation.triangulate(packed, new PackedOutline(vertexCount));
+                final long t6 = System.nanoTime();
+                Assert.assertEquals(3*tris.size(), indices.length);
+                tBuildV = Math.min(tBuildV, t1 - t0);
+                tBuildP = Math.min(tBuildP, t2 - t1);
+                tBoundsV = Math.min(tBoundsV, ( t3 - t2 ) / boundsLoops);
+                tBoundsP = Math.min(tBoundsP, ( t4 - t3 ) / boundsLoops);
+                tTessV = Math.min(tTessV, t5 - t4);
+                tTessP = Math.min(tTessP, t6 - t5);
+            }
+            System.err.printf("%7d vertices: footprint vertex %6.1f, packed %5.1f bytes/vertex; build %8.3f / %8.3f ms, bounds %7.3f / %7.3f ms, ear clipping %8.3f / %8.3f ms (vertex / packed)%n",
+                    vertexCount, (double)(m1 - m0)/vertexCount, (double)(m2 - m1)/vertexCount,
+                    tBuildV/1e6, tBuildP/1e6, tBoundsV/1e6, tBoundsP/1e6, tTessV/1e6, tTessP/1e6);
+        }
+    }
+
+    static PackedOutline copy(PackedOutline o) {
+        final PackedOutline c = new PackedOutline(o.getVertexCount());
+        for(int j=0; j<o.getVertexCount(); j++) {
+            c.addVertex(o.getX(j), o.getY(j), o.getZ(j), o.isOnCurve(j));
+        }
+        c.setClosed(o.isClosed());
+        return c;
+    }
+
+    public static void main(String args[]) {
+        for(int i=0; i<args.length; i++) {
+            if(args[i].equals("-maxVertices")) {
+                maxVertices = MiscUtils.atoi(args[++i], maxVertices);
+            } else if(args[i].equals("-loops")) {
+                loops = MiscUtils.atoi(args[++i], loops);
+            }
+        }
+        org.junit.runner.JUnitCore.main(TestPackedOutline00NOUI.class.getName());
+    }
+}
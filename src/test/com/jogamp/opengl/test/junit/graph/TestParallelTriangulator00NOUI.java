@@ -0,0 +1,191 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+
+package com.jogamp.opengl.test.junit.graph;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jogamp.graph.curve.OutlineShape;
+import com.jogamp.graph.curve.ParallelTriangulator;
+import com.jogamp.graph.curve.tess.Triangulation;
+import com.jogamp.graph.geom.Triangle;
+import com.jogamp.graph.geom.Vertex;
+import com.jogamp.graph.geom.opengl.SVertex;
+import com.jogamp.opengl.test.junit.util.MiscUtils;
+
+/**
+ * Validates {@link ParallelTriangulator} against the serial triangulation
+ * and measures its scaling w/ the number of threads on a synthetic vector map.
+ */
+public class TestParallelTriangulator00NOUI {
+    static int shapes = 5000;
+    static int loops = 3;
+
+    static final Vertex.Factory<SVertex> factory = SVertex.factory();
+
+    /**
+     * Map of wavy shapes w/ 8 to 128 vertices on a grid,
+     * every 4th w/ a hole and every 2nd w/ off-curve vertices.
+     */
+    static OutlineShape[] createMap(int count, long seed) {
+        final Random rnd = new Random(seed);
+        final OutlineShape[] map = new OutlineShape[count];
+        final int cols = (int) Math.ceil(Math.sqrt(count));
+        for(int s=0; s<count; s++) {
+            final float cx = 3f * ( s % cols ), cy = 3f * ( s / cols );
+            final int n = 8 + rnd.nextInt(121);
+            final int waves = 2 + rnd.nextInt(5);
+            final boolean curved = 0 == ( s % 2 );
+            final OutlineShape shape = new OutlineShape(factory);
+            for(int i=0; i<n; i++) {
+                final double a = 2 * Math.PI * i / n;
+                final boolean onCurve = !curved || 0 != ( i % 4 );
+                final double r = 1 + 0.2 * Math.sin(waves * a) + 0.05 * rnd.nextDouble();
+                shape.addVertex(cx + (float)(r * Math.cos(a)), cy + (float)(r * Math.sin(a)), onCurve);
+            }
+            shape.closeLastOutline();
+            if( 0 == ( s % 4 ) ) {
+                shape.addEmptyOutline();
+                final int h = 6 + rnd.nextInt(10);
+                for(int i=0; i<h; i++) {
+                    final double a = -2 * Math.PI * i / h;
+                    shape.addVertex(cx + (float)(0.3 * Math.cos(a)), cy + (float)(0.3 * Math.sin(a)), true);
+                }
+                shape.closeLastOutline();
+            }
+            map[s] = shape;
+        }
+        return map;
+    }
+
+    static ArrayList<ArrayList<Triangle>> triangulateSerial(OutlineShape[] map, int algorithm) {
+        final ArrayList<ArrayList<Triangle>> res = new ArrayList<ArrayList<Triangle>>(map.length);
+        for(int i=0; i<map.length; i++) {
+            map[i].transformOutlines(OutlineShape.VerticesState.QUADRATIC_NURBS);
+            res.add(map[i].triangulate(Triangulation.create(algorithm)));
+        }
+        return res;
+    }
+
+    static void assertEquals(ArrayList<ArrayList<Triangle>> exp, ArrayList<ArrayList<Triangle>> has) {
+        Assert.assertEquals(exp.size(), has.size());
+        for(int s=0; s<exp.size(); s++) {
+            final ArrayList<Triangle> e = exp.get(s), h = has.get(s);
+            Assert.assertEquals("shape "+s, e.size(), h.size());
+            for(int t=0; t<e.size(); t++) {
+                final Vertex[] ev = e.get(t).getVertices(), hv = h.get(t).getVertices();
+                Assert.assertEquals("shape "+s, e.get(t).getId(), h.get(t).getId());
+                for(int k=0; k<3; k++) {
+                    Assert.assertEquals("shape "+s, ev[k].getX(), hv[k].getX(), 0f);
+                    Assert.assertEquals("shape "+s, ev[k].getY(), hv[k].getY(), 0f);
+                    Assert.assertEquals("shape "+s, ev[k].getId(), hv[k].getId());
+                    Assert.assertEquals("shape "+s, ev[k].getTexCoord()[1], hv[k].getTexCoord()[1], 0f);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testEqualSerial() {
+        final int[] algorithms = { Triangulation.CONSTRAINED_DELAUNAY, Triangulation.EAR_CLIPPING };
+        final ParallelTriangulator pt = new ParallelTriangulator(4);
+        try {
+            for(int a=0; a<algorithms.length; a++) {
+                final ArrayList<ArrayList<Triangle>> exp = triangulateSerial(createMap(2000, 4711), algorithms[a]);
+                pt.setAlgorithm(algorithms[a]);
+                assertEquals(exp, pt.triangulate(createMap(2000, 4711)));
+            }
+        } finally {
+            pt.shutdown();
+        }
+    }
+
+    @Test
+    public void testFailure() {
+        final ParallelTriangulator pt = new ParallelTriangulator(2);
+        try {
+            final OutlineShape[] map = createMap(100, 1);
+            final OutlineShape bad = new OutlineShape(factory);
+            bad.addVertex(0, 0, true);
+            bad.addVertex(1, 0, true);
+            bad.closeLastOutline();
+            map[50] = bad; // < 3 vertices
+            try {
+                pt.triangulate(map);
+                Assert.fail("No exception");
+            } catch (IllegalArgumentException e) {
+                // expected, rethrown as is
+            }
+        } finally {
+            pt.shutdown();
+        }
+    }
+
+    @Test
+    public void testScaling() {
+        final int cpus = Runtime.getRuntime().availableProcessors();
+        final OutlineShape[] map = createMap(shapes, 4711);
+        int vertices = 0;
+        for(int i=0; i<map.length; i++) {
+            vertices += map[i].getVertices().size();
+        }
+        long tSerial = Long.MAX_VALUE;
+        for(int l=0; l<loops; l++) {
+            final long t0 = System.nanoTime();
+            triangulateSerial(map, Triangulation.CONSTRAINED_DELAUNAY);
+            tSerial = Math.min(tSerial, System.nanoTime() - t0);
+        }
+        System.err.printf("%d shapes, %d vertices, %d cpus: serial %8.2f ms%n", map.length, vertices, cpus, tSerial/1e6);
+        for(int threads=1; threads<=Math.max(2, 2*cpus); threads*=2) {
+            final ParallelTriangulator pt = new ParallelTriangulator(threads);
+            long tParallel = Long.MAX_VALUE;
+            for(int l=0; l<loops; l++) {
+                final long t0 = System.nanoTime();
+                pt.triangulate(map);
+                tParallel = Math.min(tParallel, System.nanoTime() - t0);
+            }
+            pt.shutdown();
+            System.err.printf("  %2d threads: %8.2f ms, speedup %5.2f%n", threads, tParallel/1e6, (double)tSerial/(double)tParallel);
+        }
+    }
+
+    public static void main(String args[]) {
+        for(int i=0; i<args.length; i++) {
+            if(args[i].equals("-shapes")) {
+                shapes = MiscUtils.atoi(args[++i], shapes);
+            } else if(args[i].equals("-loops")) {
+                loops = MiscUtils.atoi(args[++i], loops);
+            }
+        }
+        org.junit.runner.JUnitCore.main(TestParallelTriangulator00NOUI.class.getName());
+    }
+}
@@ -0,0 +1,239 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+
+package com.jogamp.opengl.test.junit.graph;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Random;
+
+import jogamp.graph.curve.text.GlyphString;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.jogamp.graph.curve.OutlineShape;
+import com.jogamp.graph.curve.tess.Triangulation;
+import com.jogamp.graph.curve.tess.Triangulator;
+import com.jogamp.graph.font.Font;
+import com.jogamp.graph.font.FontFactory;
+import com.jogamp.graph.font.FontSet;
+import com.jogamp.graph.geom.Outline;
+import com.jogamp.graph.geom.Triangle;
+import com.jogamp.graph.geom.Vertex;
+import com.jogamp.graph.geom.opengl.SVertex;
+import com.jogamp.opengl.test.junit.util.MiscUtils;
+
+/**
+ * Validates the {@link Triangulation#EAR_CLIPPING} triangulator against {@link Triangulation#CONSTRAINED_DELAUNAY}
+ * on glyphs and synthetic outlines, and compares their scaling from 10 to 100k vertices.
+ */
+public class TestTriangulatorScaling00NOUI {
+    static int maxVertices = 100000;
+    /** Constrained Delaunay is O(n^2), skip it above this size */
+    static int maxDelaunayVertices = 1000;
+    static int loops = 3;
+
+    static Font font;
+    static final Vertex.Factory<SVertex> factory = SVertex.factory();
+
+    @BeforeClass
+    public static void setup() throws IOException {
+        font = FontFactory.get(FontFactory.UBUNTU).get(FontSet.FAMILY_REGULAR, 0);
+    }
+
+    static float area(Triangle t) {
+        final Vertex[] v = t.getVertices();
+        return Math.abs( ( v[1].getX() - v[0].getX() ) * ( v[2].getY() - v[0].getY() ) -
+                         ( v[1].getY() - v[0].getY() ) * ( v[2].getX() - v[0].getX() ) ) / 2f;
+    }
+
+    static double area(ArrayList<Triangle> tris, int first) {
+        double a = 0;
+        for(int i=first; i<tris.size(); i++) {
+            a += area(tris.get(i));
+        }
+        return a;
+    }
+
+    static int countOffCurve(OutlineShape shape) {
+        int n = 0;
+        for(int i=0; i<shape.getOutlineNumber(); i++) {
+            final Outline o = shape.getOutline(i);
+            for(int j=0; j<o.getVertexCount(); j++) {
+                if( !o.getVertex(j).isOnCurve() ) {
+                    n++;
+                }
+            }
+        }
+        return n;
+    }
+
+    /** Off-curve boundary triangles come first and must be identical, incl. texture coordinates. */
+    static void assertEqualBoundary(String msg, ArrayList<Triangle> exp, ArrayList<Triangle> has, int count) {
+        for(int i=0; i<count; i++) {
+            final Vertex[] ev = exp.get(i).getVertices();
+            final Vertex[] hv = has.get(i).getVertices();
+            Assert.assertEquals(msg, exp.get(i).getId(), has.get(i).getId());
+            for(int k=0; k<3; k++) {
+                Assert.assertEquals(msg, ev[k].getX(), hv[k].getX(), 0f);
+                Assert.assertEquals(msg, ev[k].getY(), hv[k].getY(), 0f);
+                Assert.assertEquals(msg, ev[k].isOnCurve(), hv[k].isOnCurve());
+                Assert.assertEquals(msg, ev[k].getTexCoord()[0], hv[k].getTexCoord()[0], 0f);
+                Assert.assertEquals(msg, ev[k].getTexCoord()[1], hv[k].getTexCoord()[1], 0f);
+            }
+        }
+    }
+
+    /**
+     * Wavy closed outline around the origin, radius in [0.5, 1] w/ jagged noise of the order of the vertex spacing,
+     * i.e. a random mix of convex and reflex vertices, plus a circular hole of radius 0.25.
+     * Every <code>curveStep</code>-th vertex is off-curve, none if 0.
+     */
+    static OutlineShape createBlob(int vertices, int holeVertices, int curveStep, long seed) {
+        final Random rnd = new Random(seed);
+        final OutlineShape shape = new OutlineShape(factory);
+        final double noise = 2 * Math.PI / vertices;
+        for(int i=0; i<vertices; i++) {
+            final double a = 2 * Math.PI * i / vertices;
+            final boolean onCurve = 0 == curveStep || 0 != ( i % curveStep );
+            final double r = 0.75 + 0.15 * Math.sin(5 * a) + 0.05 * Math.sin(23 * a) +
+                             ( onCurve ? -noise * rnd.nextDouble() : noise );
+            shape.addVertex((float)(r * Math.cos(a)), (float)(r * Math.sin(a)), onCurve);
+        }
+        shape.closeLastOutline();
+        if( 0 < holeVertices ) {
+            shape.addEmptyOutline();
+            for(int i=0; i<holeVertices; i++) {
+                final double a = -2 * Math.PI * i / holeVertices;
+                shape.addVertex((float)(0.25 * Math.cos(a)), (float)(0.25 * Math.sin(a)), true);
+            }
+            shape.closeLastOutline();
+        }
+        return shape;
+    }
+
+    /** Area of the inner polygons of {@link #createBlob(int, int, int, long)} w/o curves. */
+    static double polygonArea(OutlineShape shape) {
+        double a = 0;
+        for(int i=0; i<shape.getOutlineNumber(); i++) {
+            final ArrayList<Vertex> v = shape.getOutline(i).getVertices();
+            double s = 0;
+            for(int j=0, k=v.size()-1; j<v.size(); k=j++) {
+                s += (double)v.get(k).getX() * v.get(j).getY() - (double)v.get(j).getX() * v.get(k).getY();
+            }
+            a += ( 0 == i ? 1 : -1 ) * Math.abs(s) / 2;
+        }
+        return a;
+    }
+
+    static OutlineShape createGlyph(char c) {
+        return GlyphString.createString(null, factory, font, GlyphString.STATIC_FONT_SIZE, String.valueOf(c)).getGlyphShape(0).getShape();
+    }
+
+    @Test
+    public void testGlyphs() {
+        final String str = "The quick brown fox jumps over the lazy dog 0123456789 @%&$#?!";
+        final Triangulator cdt = Triangulation.create(Triangulation.CONSTRAINED_DELAUNAY);
+        final Triangulator ec = Triangulation.create(Triangulation.EAR_CLIPPING);
+        for(int i=0; i<str.length(); i++) {
+            final char c = str.charAt(i);
+            if( ' ' == c ) {
+                continue;
+            }
+            // fresh shapes, since sorting the outlines again may swap outlines of equal size
+            final ArrayList<Triangle> exp = createGlyph(c).triangulate(cdt);
+            final OutlineShape shape = createGlyph(c);
+            final ArrayList<Triangle> has = shape.triangulate(ec);
+            final String msg = "glyph '"+c+"'";
+            final int boundary = countOffCurve(shape);
+            assertEqualBoundary(msg, exp, has, boundary);
+            Assert.assertEquals(msg, area(exp, boundary), area(has, boundary), area(exp, boundary) * 1e-4);
+        }
+    }
+
+    @Test
+    public void testCurvedBlob() {
+        for(int n=10; n<=1000; n*=10) {
+            final OutlineShape shape = createBlob(n, n/4, 3, n);
+            final ArrayList<Triangle> exp = shape.triangulate(Triangulation.create(Triangulation.CONSTRAINED_DELAUNAY));
+            final ArrayList<Triangle> has = shape.triangulate(Triangulation.create(Triangulation.EAR_CLIPPING));
+            final int boundary = countOffCurve(shape);
+            Assert.assertTrue(0 < boundary);
+            assertEqualBoundary("n "+n, exp, has, boundary);
+        }
+    }
+
+    @Test
+    public void testScaling() {
+        for(int n=10; n<=maxVertices; n*=10) {
+            final int holeVertices = n >= 100 ? n/4 : 0;
+            final OutlineShape shape = createBlob(n, holeVertices, 0, n);
+            final double expArea = polygonArea(shape);
+            final boolean cdt = n <= maxDelaunayVertices;
+            final int nLoops = n >= 10000 ? 1 : loops * 10;
+            long tCDT = Long.MAX_VALUE, tEC = Long.MAX_VALUE;
+            ArrayList<Triangle> exp = null, has = null;
+            for(int l=0; l<nLoops; l++) {
+                final long t0 = System.nanoTime();
+                if( cdt ) {
+                    exp = shape.triangulate(Triangulation.create(Triangulation.CONSTRAINED_DELAUNAY));
+                }
+                final long t1 = System.nanoTime();
+                has = shape.triangulate(Triangulation.create(Triangulation.EAR_CLIPPING));
+                final long t2 = System.nanoTime();
+                tCDT = Math.min(tCDT, t1 - t0);
+                tEC = Math.min(tEC, t2 - t1);
+            }
+            // a simple polygon w/ h holes and n vertices has n + 2h - 2 triangles
+            Assert.assertEquals("n "+n, n + holeVertices + ( 0 < holeVertices ? 0 : -2 ), has.size());
+            Assert.assertEquals("n "+n, expArea, area(has, 0), expArea * 1e-4);
+            if( cdt ) {
+                System.err.printf("%6d + %5d vertices: delaunay %9.3f ms (%6d triangles), ear clipping %8.3f ms (%6d triangles), speedup %7.1f%n",
+                        n, holeVertices, tCDT/1e6, exp.size(), tEC/1e6, has.size(), (double)tCDT/(double)tEC);
+            } else {
+                System.err.printf("%6d + %5d vertices: delaunay  skipped, ear clipping %8.3f ms (%6d triangles)%n",
+                        n, holeVertices, tEC/1e6, has.size());
+            }
+        }
+    }
+
+    public static void main(String args[]) {
+        for(int i=0; i<args.length; i++) {
+            if(args[i].equals("-maxVertices")) {
+                maxVertices = MiscUtils.atoi(args[++i], maxVertices);
+            } else if(args[i].equals("-maxDelaunayVertices")) {
+                maxDelaunayVertices = MiscUtils.atoi(args[++i], maxDelaunayVertices);
+            } else if(args[i].equals("-loops")) {
+                loops = MiscUtils.atoi(args[++i], loops);
+            }
+        }
+        org.junit.runner.JUnitCore.main(TestTriangulatorScaling00NOUI.class.getName());
+    }
+}
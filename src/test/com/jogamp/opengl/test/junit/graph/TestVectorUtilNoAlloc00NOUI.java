@@ -0,0 +1,289 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+
+package com.jogamp.opengl.test.junit.graph;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Random;
+
+import jogamp.graph.geom.plane.Path2D;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import com.jogamp.graph.geom.Vertex;
+import com.jogamp.graph.geom.opengl.SVertex;
+import com.jogamp.opengl.math.VectorUtil;
+import com.jogamp.opengl.test.junit.util.MiscUtils;
+
+/**
+ * Validates the result parameter variants of {@link VectorUtil} and its intersection tests,
+ * and compares the allocation rate and GC activity of the triangle overlap tests used by
+ * {@link com.jogamp.graph.curve.OutlineShape} w/ the former allocating implementation,
+ * as well as the allocation rate of the {@link Path2D} crossing tests.
+ */
+public class TestVectorUtilNoAlloc00NOUI {
+    static int count = 2000000;
+    static int loops = 5;
+
+    static final Vertex.Factory<SVertex> factory = SVertex.factory();
+
+    @Test
+    public void testResultVariants() {
+        final float[] a = new float[] { 1f, -2f, 3f };
+        final float[] b = new float[] { -4f, 5f, 0.5f };
+        final float[] m = new float[16];
+        for(int i=0; i<16; i++) {
+            m[i] = i - 7.5f;
+        }
+        final float[] r = new float[3];
+        Assert.assertSame(r, VectorUtil.normalize(r, a));
+        Assert.assertArrayEquals(VectorUtil.normalize(a), r, 0f);
+        Assert.assertArrayEquals(new float[3], VectorUtil.normalize(r, new float[3]), 0f);
+        Assert.assertArrayEquals(VectorUtil.scale(a, 3f), VectorUtil.scale(r, a, 3f), 0f);
+        Assert.assertArrayEquals(VectorUtil.vectorAdd(a, b), VectorUtil.vectorAdd(r, a, b), 0f);
+        Assert.assertArrayEquals(VectorUtil.cross(a, b), VectorUtil.cross(r, a, b), 0f);
+        Assert.assertArrayEquals(VectorUtil.mid(a, b), VectorUtil.mid(r, a, b), 0f);
+        Assert.assertArrayEquals(VectorUtil.computeVector(a, b), VectorUtil.computeVector(r, a, b), 0f);
+        Assert.assertArrayEquals(VectorUtil.colMatrixVectorMult(m, a), VectorUtil.colMatrixVectorMult(r, m, a), 0f);
+        Assert.assertArrayEquals(VectorUtil.rowMatrixVectorMult(m, a), VectorUtil.rowMatrixVectorMult(r, m, a), 0f);
+
+        // result aliasing an input
+        final float[] c = a.clone();
+        Assert.assertArrayEquals(VectorUtil.cross(a, b), VectorUtil.cross(c, c, b), 0f);
+        final float[] d = a.clone();
+        Assert.assertArrayEquals(VectorUtil.colMatrixVectorMult(m, a), VectorUtil.colMatrixVectorMult(d, m, d), 0f);
+
+        final Vertex s0 = factory.create(0, 0, 0, true), s1 = factory.create(4, 4, 0, true);
+        final Vertex s2 = factory.create(0, 4, 0, true), s3 = factory.create(4, 1, 0, true);
+        Assert.assertArrayEquals(VectorUtil.line2lineIntersection(s0, s1, s2, s3), VectorUtil.line2lineIntersection(r, s0, s1, s2, s3), 0f);
+        final float[] exp = VectorUtil.seg2SegIntersection(s0, s1, s2, s3);
+        if( null != exp ) {
+            Assert.assertArrayEquals(exp, VectorUtil.seg2SegIntersection(r, s0, s1, s2, s3), 0f);
+        } else {
+            Assert.assertNull(VectorUtil.seg2SegIntersection(r, s0, s1, s2, s3));
+        }
+    }
+
+    @Test
+    public void testIntersection() {
+        final float[] r = new float[3];
+        final Vertex a = factory.create(0, 0, 0, true), b = factory.create(4, 4, 0, true);
+        final Vertex c = factory.create(0, 4, 0, true), d = factory.create(4, 0, 0, true);
+        Assert.assertArrayEquals(new float[] { 2f, 2f, 0f }, VectorUtil.seg2SegIntersection(a, b, c, d), 0f);
+        Assert.assertArrayEquals(new float[] { 2f, 2f, 0f }, VectorUtil.seg2SegIntersection(r, a, b, c, d), 0f);
+        Assert.assertArrayEquals(new float[] { 2f, 2f, 0f }, VectorUtil.line2lineIntersection(r, a, b, c, d), 0f);
+
+        // lines y = x and y = 1 - 0.25*(x - 4), intersecting at 1.6/1.6 within both segments
+        final Vertex e = factory.create(0, 2, 0, true), f = factory.create(4, 1, 0, true);
+        Assert.assertArrayEquals(new float[] { 1.6f, 1.6f, 0f }, VectorUtil.seg2SegIntersection(a, b, e, f), 1e-6f);
+        Assert.assertTrue(VectorUtil.tri2SegIntersection(a, b, c, e, f));
+
+        // lines intersecting at 6/6, beyond the first segment
+        final Vertex g = factory.create(5, 7, 0, true), h = factory.create(7, 5, 0, true);
+        Assert.assertNull(VectorUtil.seg2SegIntersection(a, b, g, h));
+        Assert.assertArrayEquals(new float[] { 6f, 6f, 0f }, VectorUtil.line2lineIntersection(a, b, g, h), 1e-6f);
+        Assert.assertFalse(VectorUtil.tri2SegIntersection(a, b, d, g, h));
+
+        // parallel
+        final Vertex i = factory.create(0, 1, 0, true), j = factory.create(4, 5, 0, true);
+        Assert.assertNull(VectorUtil.line2lineIntersection(a, b, i, j));
+        Assert.assertNull(VectorUtil.seg2SegIntersection(r, a, b, i, j));
+    }
+
+    /** The former allocating triangle overlap tests */
+    static class LegacyOverlap {
+        static boolean vertexInTriangle(float[] a, float[]  b, float[]  c, float[]  p){
+            float[] ac = VectorUtil.computeVector(a, c);
+            float[] ab = VectorUtil.computeVector(a, b);
+            float[] ap = VectorUtil.computeVector(a, p);
+            float dot00 = VectorUtil.dot(ac, ac);
+            float dot01 = VectorUtil.dot(ac, ab);
+            float dot02 = VectorUtil.dot(ac, ap);
+            float dot11 = VectorUtil.dot(ab, ab);
+            float dot12 = VectorUtil.dot(ab, ap);
+            float invDenom = 1 / (dot00 * dot11 - dot01 * dot01);
+            float u = (dot11 * dot02 - dot01 * dot12) * invDenom;
+            float v = (dot00 * dot12 - dot01 * dot02) * invDenom;
+            return (u >= 0) && (v >= 0) && (u + v < 1);
+        }
+        static boolean tri2SegIntersection(Vertex a, Vertex b, Vertex c, Vertex d, Vertex e){
+            return VectorUtil.seg2SegIntersection(a, b, d, e) != null ||
+                   VectorUtil.seg2SegIntersection(b, c, d, e) != null ||
+                   VectorUtil.seg2SegIntersection(a, c, d, e) != null;
+        }
+    }
+
+    static Vertex[] createVertices(int n, long seed) {
+        final Random rnd = new Random(seed);
+        final Vertex[] v = new Vertex[n];
+        for(int i=0; i<n; i++) {
+            v[i] = factory.create(rnd.nextFloat()*100f, rnd.nextFloat()*100f, 0f, true);
+        }
+        return v;
+    }
+
+    static long getAllocatedBytes() {
+        final java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if( bean instanceof com.sun.management.ThreadMXBean ) {
+            final com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+            if( sunBean.isThreadAllocatedMemorySupported() && sunBean.isThreadAllocatedMemoryEnabled() ) {
+                return sunBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+
+    static long[] getGCStats() {
+        final long[] r = new long[2];
+        final List<GarbageCollectorMXBean> beans = ManagementFactory.getGarbageCollectorMXBeans();
+        for(int i=0; i<beans.size(); i++) {
+            r[0] += Math.max(0, beans.get(i).getCollectionCount());
+            r[1] += Math.max(0, beans.get(i).getCollectionTime());
+        }
+        return r;
+    }
+
+    static int overlaps(Vertex[] v, boolean legacy) {
+        int hits = 0;
+        final int n = v.length;
+        for(int i=0; i<count; i++) {
+            final Vertex a = v[i%n], b = v[(i+1)%n], c = v[(i+2)%n];
+            final Vertex p = v[(i*7+3)%n], q = v[(i*13+5)%n];
+            if( legacy ) {
+                if( LegacyOverlap.vertexInTriangle(a.getCoord(), b.getCoord(), c.getCoord(), p.getCoord()) ||
+                    LegacyOverlap.tri2SegIntersection(a, b, c, p, q) ) {
+                    hits++;
+                }
+            } else {
+                if( VectorUtil.vertexInTriangle(a.getCoord(), b.getCoord(), c.getCoord(), p.getCoord()) ||
+                    VectorUtil.tri2SegIntersection(a, b, c, p, q) ) {
+                    hits++;
+                }
+            }
+        }
+        return hits;
+    }
+
+    @Test
+    public void testOverlapAllocation() {
+        Assume.assumeTrue(0 <= getAllocatedBytes());
+        final Vertex[] v = createVertices(1009, 4711);
+        Assert.assertEquals(overlaps(v, true), overlaps(v, false));
+
+        long tLegacy = Long.MAX_VALUE, tNew = Long.MAX_VALUE, bLegacy = Long.MAX_VALUE, bNew = Long.MAX_VALUE;
+        final long[] gc0 = getGCStats();
+        for(int l=0; l<loops; l++) {
+            final long b0 = getAllocatedBytes();
+            final long t0 = System.nanoTime();
+            overlaps(v, true);
+            final long t1 = System.nanoTime();
+            final long b1 = getAllocatedBytes();
+            final long[] gc1 = getGCStats();
+            overlaps(v, false);
+            final long t2 = System.nanoTime();
+            final long b2 = getAllocatedBytes();
+            tLegacy = Math.min(tLegacy, t1 - t0);
+            tNew = Math.min(tNew, t2 - t1);
+            bLegacy = Math.min(bLegacy, b1 - b0);
+            bNew = Math.min(bNew, b2 - b1);
+            if( l == loops - 1 ) {
+                final long[] gc2 = getGCStats();
+                System.err.printf("overlap tests GC over %d loops: legacy+new %d collections, %d ms; last new loop %d collections%n",
+                        loops, gc2[0]-gc0[0], gc2[1]-gc0[1], gc2[0]-gc1[0]);
+            }
+        }
+        System.err.printf("%d overlap tests: legacy %6.2f ns/op %8.2f bytes/op, allocation free %6.2f ns/op %8.2f bytes/op%n",
+                count, (double)tLegacy/count, (double)bLegacy/count, (double)tNew/count, (double)bNew/count);
+        Assert.assertTrue("allocated "+bNew+" bytes", bNew < count);
+    }
+
+    static Path2D createPath(int n, long seed) {
+        final Random rnd = new Random(seed);
+        final Path2D path = new Path2D();
+        path.moveTo(50f, 0f);
+        for(int i=1; i<n; i++) {
+            final double a = 2*Math.PI*i/n;
+            final float r = 30f + rnd.nextFloat()*20f;
+            final float x = 50f + (float)(r*Math.cos(a)), y = 50f + (float)(r*Math.sin(a));
+            switch(i%3) {
+                case 0: path.lineTo(x, y); break;
+                case 1: path.quadTo(x + rnd.nextFloat()*5f, y - rnd.nextFloat()*5f, x, y); break;
+                default: path.curveTo(x - 2f, y + 2f, x + 2f, y - 2f, x, y); break;
+            }
+        }
+        path.closePath();
+        return path;
+    }
+
+    @Test
+    public void testCrossingAllocation() {
+        Assume.assumeTrue(0 <= getAllocatedBytes());
+        final Path2D path = createPath(64, 7);
+        final Random rnd = new Random(11);
+        final int n = Math.max(1, count / 100);
+        final float[] pts = new float[2*n];
+        for(int i=0; i<pts.length; i++) {
+            pts[i] = rnd.nextFloat()*100f;
+        }
+        long bytes = Long.MAX_VALUE, t = Long.MAX_VALUE;
+        int inside = 0;
+        for(int l=0; l<loops; l++) {
+            inside = 0;
+            final long b0 = getAllocatedBytes();
+            final long t0 = System.nanoTime();
+            for(int i=0; i<n; i++) {
+                if( path.contains(pts[2*i], pts[2*i+1]) ) {
+                    inside++;
+                }
+                if( path.intersects(pts[2*i], pts[2*i+1], 2f, 2f) ) {
+                    inside++;
+                }
+            }
+            t = Math.min(t, System.nanoTime() - t0);
+            bytes = Math.min(bytes, getAllocatedBytes() - b0);
+        }
+        Assert.assertTrue(inside > 0);
+        System.err.printf("%d path contains/intersects tests: %8.2f ns/op %8.2f bytes/op%n",
+                2*n, (double)t/(2*n), (double)bytes/(2*n));
+    }
+
+    public static void main(String args[]) {
+        for(int i=0; i<args.length; i++) {
+            if(args[i].equals("-count")) {
+                count = MiscUtils.atoi(args[++i], count);
+            } else if(args[i].equals("-loops")) {
+                loops = MiscUtils.atoi(args[++i], loops);
+            }
+        }
+        org.junit.runner.JUnitCore.main(TestVectorUtilNoAlloc00NOUI.class.getName());
+    }
+}
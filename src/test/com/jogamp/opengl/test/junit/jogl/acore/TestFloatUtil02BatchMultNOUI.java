@@ -0,0 +1,233 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+
+package com.jogamp.opengl.test.junit.jogl.acore;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jogamp.opengl.math.FloatUtil;
+import com.jogamp.opengl.test.junit.util.MiscUtils;
+
+/**
+ * Validates the batched matrix-vector and matrix-matrix kernels of {@link FloatUtil}
+ * against their per vector and per matrix counterparts on arrays, heap and direct buffers,
+ * and compares their throughput.
+ */
+public class TestFloatUtil02BatchMultNOUI {
+    static int count = 100000;
+    static int loops = 10;
+
+    static float[] createData(int n, long seed) {
+        final Random rnd = new Random(seed);
+        final float[] data = new float[n];
+        for(int i=0; i<n; i++) {
+            data[i] = rnd.nextFloat() * 200f - 100f;
+        }
+        return data;
+    }
+
+    static FloatBuffer createDirect(float[] data) {
+        final FloatBuffer b = ByteBuffer.allocateDirect(4*data.length).order(ByteOrder.nativeOrder()).asFloatBuffer();
+        b.put(data);
+        b.rewind();
+        return b;
+    }
+
+    static float[] toArray(FloatBuffer b, int n) {
+        final float[] r = new float[n];
+        for(int i=0; i<n; i++) {
+            r[i] = b.get(b.position()+i);
+        }
+        return r;
+    }
+
+    /** per vector reference transformation of 3-component points w/ w = 1 */
+    static void multMatrixVec3fRef(float[] m, float[] v_in, float[] v_out, int n) {
+        final float[] in = new float[] { 0, 0, 0, 1 };
+        final float[] out = new float[4];
+        for(int i=0; i<n; i++) {
+            System.arraycopy(v_in, 3*i, in, 0, 3);
+            FloatUtil.multMatrixVecf(m, in, out);
+            System.arraycopy(out, 0, v_out, 3*i, 3);
+        }
+    }
+
+    @Test
+    public void testMultMatrixVecf() {
+        final int n = 1000, off = 3;
+        final float[] m = createData(16, 1);
+        final float[] v = createData(off+4*n, 2);
+        final float[] ref = new float[4*n];
+        for(int i=0; i<n; i++) {
+            FloatUtil.multMatrixVecf(m, 0, v, off+4*i, ref, 4*i);
+        }
+        final float[] r = new float[4*n+off];
+        FloatUtil.multMatrixVecf(m, 0, v, off, r, off, n);
+        Assert.assertArrayEquals(ref, toArray(FloatBuffer.wrap(r, off, 4*n).slice(), 4*n), 0f);
+
+        // in-place
+        final float[] v2 = v.clone();
+        FloatUtil.multMatrixVecf(m, 0, v2, off, v2, off, n);
+        Assert.assertArrayEquals(ref, toArray(FloatBuffer.wrap(v2, off, 4*n).slice(), 4*n), 0f);
+
+        // heap and direct buffers w/ position, more vectors than one bulk chunk
+        final FloatBuffer mb = createDirect(m);
+        final FloatBuffer heapIn = FloatBuffer.wrap(v.clone());
+        heapIn.position(off);
+        final FloatBuffer heapOut = FloatBuffer.allocate(off+4*n);
+        heapOut.position(off);
+        FloatUtil.multMatrixVecf(mb, heapIn, heapOut, n);
+        Assert.assertEquals(off, heapIn.position());
+        Assert.assertEquals(off, heapOut.position());
+        Assert.assertArrayEquals(ref, toArray(heapOut, 4*n), 0f);
+
+        final FloatBuffer directIn = createDirect(v);
+        directIn.position(off);
+        final FloatBuffer directOut = createDirect(new float[off+4*n]);
+        directOut.position(off);
+        FloatUtil.multMatrixVecf(mb, directIn, directOut, n);
+        Assert.assertEquals(off, directIn.position());
+        Assert.assertEquals(off, directOut.position());
+        Assert.assertArrayEquals(ref, toArray(directOut, 4*n), 0f);
+
+        FloatUtil.multMatrixVecf(mb, directIn, directIn, n);
+        Assert.assertArrayEquals(ref, toArray(directIn, 4*n), 0f);
+    }
+
+    @Test
+    public void testMultMatrixVec3f() {
+        final int n = 1000;
+        final float[] m = createData(16, 3);
+        final float[] v = createData(3*n, 4);
+        final float[] ref = new float[3*n];
+        multMatrixVec3fRef(m, v, ref, n);
+
+        final float[] r = new float[3*n];
+        FloatUtil.multMatrixVec3f(m, 0, v, 0, r, 0, n);
+        Assert.assertArrayEquals(ref, r, 0f);
+
+        final FloatBuffer direct = createDirect(v);
+        FloatUtil.multMatrixVec3f(createDirect(m), direct, direct, n);
+        Assert.assertEquals(0, direct.position());
+        Assert.assertArrayEquals(ref, toArray(direct, 3*n), 0f);
+    }
+
+    @Test
+    public void testMultMatrixf() {
+        final int n = 100;
+        final float[] a = createData(16, 5);
+        final float[] b = createData(16*n, 6);
+        final float[] ref = new float[16*n];
+        for(int i=0; i<n; i++) {
+            FloatUtil.multMatrixf(a, 0, b, 16*i, ref, 16*i);
+        }
+        final float[] r = new float[16*n];
+        FloatUtil.multMatrixf(a, 0, b, 0, r, 0, n);
+        Assert.assertArrayEquals(ref, r, 0f);
+
+        final FloatBuffer db = createDirect(b);
+        final FloatBuffer dd = createDirect(new float[16*n]);
+        FloatUtil.multMatrixf(FloatBuffer.wrap(a), db, dd, n);
+        Assert.assertArrayEquals(ref, toArray(dd, 16*n), 0f);
+
+        FloatUtil.multMatrixf(createDirect(a), db, db, n);
+        Assert.assertArrayEquals(ref, toArray(db, 16*n), 0f);
+    }
+
+    @Test
+    public void testThroughput() {
+        final float[] m = createData(16, 7);
+        final float[] v = createData(4*count, 8);
+        final float[] r = new float[4*count];
+        final FloatBuffer mb = createDirect(m);
+        final FloatBuffer vb = createDirect(v);
+        final FloatBuffer rb = createDirect(r);
+        final float[] mats = createData(16*(count/16), 9);
+        final float[] matsR = new float[mats.length];
+        final int matCount = count/16;
+
+        long tVec = Long.MAX_VALUE, tVecBatch = Long.MAX_VALUE;
+        long tBuf = Long.MAX_VALUE, tBufBatch = Long.MAX_VALUE;
+        long tMat = Long.MAX_VALUE, tMatBatch = Long.MAX_VALUE;
+        for(int l=0; l<loops; l++) {
+            final long t0 = System.nanoTime();
+            for(int i=0; i<count; i++) {
+                FloatUtil.multMatrixVecf(m, 0, v, 4*i, r, 4*i);
+            }
+            final long t1 = System.nanoTime();
+            FloatUtil.multMatrixVecf(m, 0, v, 0, r, 0, count);
+            final long t2 = System.nanoTime();
+            for(int i=0; i<count; i++) {
+                vb.position(4*i);
+                rb.position(4*i);
+                FloatUtil.multMatrixVecf(mb, vb, rb);
+            }
+            vb.rewind();
+            rb.rewind();
+            final long t3 = System.nanoTime();
+            FloatUtil.multMatrixVecf(mb, vb, rb, count);
+            final long t4 = System.nanoTime();
+            for(int i=0; i<matCount; i++) {
+                FloatUtil.multMatrixf(m, 0, mats, 16*i, matsR, 16*i);
+            }
+            final long t5 = System.nanoTime();
+            FloatUtil.multMatrixf(m, 0, mats, 0, matsR, 0, matCount);
+            final long t6 = System.nanoTime();
+            tVec = Math.min(tVec, t1 - t0);
+            tVecBatch = Math.min(tVecBatch, t2 - t1);
+            tBuf = Math.min(tBuf, t3 - t2);
+            tBufBatch = Math.min(tBufBatch, t4 - t3);
+            tMat = Math.min(tMat, t5 - t4);
+            tMatBatch = Math.min(tMatBatch, t6 - t5);
+        }
+        Assert.assertArrayEquals(r, toArray(rb, 4*count), 0f);
+        System.err.printf("%d vectors: float[] per call %6.2f ns/vec, batched %6.2f ns/vec, speedup %5.2f%n",
+                count, (double)tVec/count, (double)tVecBatch/count, (double)tVec/tVecBatch);
+        System.err.printf("%d vectors: direct buffer per call %6.2f ns/vec, batched %6.2f ns/vec, speedup %5.2f%n",
+                count, (double)tBuf/count, (double)tBufBatch/count, (double)tBuf/tBufBatch);
+        System.err.printf("%d matrices: float[] per call %6.2f ns/mat, batched %6.2f ns/mat, speedup %5.2f%n",
+                matCount, (double)tMat/matCount, (double)tMatBatch/matCount, (double)tMat/tMatBatch);
+    }
+
+    public static void main(String args[]) {
+        for(int i=0; i<args.length; i++) {
+            if(args[i].equals("-count")) {
+                count = MiscUtils.atoi(args[++i], count);
+            } else if(args[i].equals("-loops")) {
+                loops = MiscUtils.atoi(args[++i], loops);
+            }
+        }
+        org.junit.runner.JUnitCore.main(TestFloatUtil02BatchMultNOUI.class.getName());
+    }
+}
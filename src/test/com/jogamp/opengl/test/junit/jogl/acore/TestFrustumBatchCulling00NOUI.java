@@ -0,0 +1,250 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+
+package com.jogamp.opengl.test.junit.jogl.acore;
+
+import java.util.Random;
+
+import javax.media.opengl.fixedfunc.GLMatrixFunc;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jogamp.opengl.math.geom.AABBox;
+import com.jogamp.opengl.math.geom.Frustum;
+import com.jogamp.opengl.math.geom.FrustumCuller;
+import com.jogamp.opengl.test.junit.util.MiscUtils;
+import com.jogamp.opengl.util.PMVMatrix;
+
+/**
+ * Validates the batch culling of packed bounding boxes and spheres of {@link Frustum} and {@link FrustumCuller}
+ * against the per object {@link Frustum#isAABBoxOutside(AABBox)} and {@link Frustum#isSphereOutside(float[], float)},
+ * and compares their throughput.
+ */
+public class TestFrustumBatchCulling00NOUI {
+    static int count = 1000000;
+    static int loops = 10;
+    static int threads = 0;
+
+    static Frustum createFrustum() {
+        final PMVMatrix pmv = new PMVMatrix();
+        pmv.glMatrixMode(GLMatrixFunc.GL_PROJECTION);
+        pmv.glLoadIdentity();
+        pmv.gluPerspective(45f, 4f/3f, 1f, 100f);
+        pmv.glMatrixMode(GLMatrixFunc.GL_MODELVIEW);
+        pmv.glLoadIdentity();
+        pmv.gluLookAt(10f, 5f, 30f, 0f, 0f, 0f, 0f, 1f, 0f);
+        return pmv.glGetFrustum();
+    }
+
+    /** packed boxes lx, ly, lz, hx, hy, hz w/ the given leading padding */
+    static float[] createBoxes(int n, int offset, long seed) {
+        final Random rnd = new Random(seed);
+        final float[] boxes = new float[offset + 6*n];
+        for(int i=0; i<n; i++) {
+            final int j = offset + 6*i;
+            final float x = rnd.nextFloat() * 200f - 100f;
+            final float y = rnd.nextFloat() * 200f - 100f;
+            final float z = rnd.nextFloat() * 200f - 100f;
+            boxes[j  ] = x;
+            boxes[j+1] = y;
+            boxes[j+2] = z;
+            boxes[j+3] = x + rnd.nextFloat() * 5f;
+            boxes[j+4] = y + rnd.nextFloat() * 5f;
+            boxes[j+5] = z + rnd.nextFloat() * 5f;
+        }
+        return boxes;
+    }
+
+    /** packed spheres x, y, z, radius w/ the given leading padding */
+    static float[] createSpheres(int n, int offset, long seed) {
+        final Random rnd = new Random(seed);
+        final float[] spheres = new float[offset + 4*n];
+        for(int i=0; i<n; i++) {
+            final int j = offset + 4*i;
+            spheres[j  ] = rnd.nextFloat() * 200f - 100f;
+            spheres[j+1] = rnd.nextFloat() * 200f - 100f;
+            spheres[j+2] = rnd.nextFloat() * 200f - 100f;
+            spheres[j+3] = rnd.nextFloat() * 5f;
+        }
+        return spheres;
+    }
+
+    static AABBox[] toAABBoxes(float[] boxes, int offset, int n) {
+        final AABBox[] res = new AABBox[n];
+        for(int i=0; i<n; i++) {
+            final int j = offset + 6*i;
+            res[i] = new AABBox(boxes[j], boxes[j+1], boxes[j+2], boxes[j+3], boxes[j+4], boxes[j+5]);
+        }
+        return res;
+    }
+
+    static boolean isVisible(long[] visible, int i) {
+        return 0 != ( visible[i>>>6] & ( 1L << i ) );
+    }
+
+    static void validate(long[] visible, int visibleCount, boolean[] expected) {
+        int expCount = 0;
+        for(int i=0; i<expected.length; i++) {
+            Assert.assertEquals("Object "+i, expected[i], isVisible(visible, i));
+            if( expected[i] ) {
+                expCount++;
+            }
+        }
+        Assert.assertEquals(expCount, visibleCount);
+        for(int i=expected.length; i < 64*visible.length; i++) {
+            Assert.assertFalse("Trailing bit "+i, isVisible(visible, i));
+        }
+    }
+
+    static long[] createBitset(int n) {
+        final long[] visible = new long[(n+63)>>>6];
+        java.util.Arrays.fill(visible, -1L); // stale bits must be cleared
+        return visible;
+    }
+
+    @Test
+    public void test01AABBoxes() {
+        final Frustum f = createFrustum();
+        final int[] counts = { 0, 1, 63, 64, 65, 1000, 40000 };
+        for(int c=0; c<counts.length; c++) {
+            final int n = counts[c];
+            final int offset = 5;
+            final float[] boxes = createBoxes(n, offset, n);
+            final AABBox[] ref = toAABBoxes(boxes, offset, n);
+            final boolean[] expected = new boolean[n];
+            for(int i=0; i<n; i++) {
+                expected[i] = !f.isAABBoxOutside(ref[i]);
+            }
+            final long[] visible = createBitset(n);
+            validate(visible, f.cullAABBoxes(boxes, offset, n, visible), expected);
+        }
+    }
+
+    @Test
+    public void test02Spheres() {
+        final Frustum f = createFrustum();
+        final int[] counts = { 0, 1, 63, 64, 65, 1000, 40000 };
+        final float[] p = new float[3];
+        for(int c=0; c<counts.length; c++) {
+            final int n = counts[c];
+            final int offset = 3;
+            final float[] spheres = createSpheres(n, offset, n);
+            final boolean[] expected = new boolean[n];
+            for(int i=0; i<n; i++) {
+                System.arraycopy(spheres, offset+4*i, p, 0, 3);
+                expected[i] = !f.isSphereOutside(p, spheres[offset+4*i+3]);
+            }
+            final long[] visible = createBitset(n);
+            validate(visible, f.cullSpheres(spheres, offset, n, visible), expected);
+        }
+    }
+
+    @Test
+    public void test03ParallelEqualsSerial() {
+        final Frustum f = createFrustum();
+        final FrustumCuller culler = new FrustumCuller(4);
+        culler.setMinParallelCount(0);
+        try {
+            final int[] counts = { 1, 4095, 4096, 4097, 50001 };
+            for(int c=0; c<counts.length; c++) {
+                final int n = counts[c];
+                final float[] boxes = createBoxes(n, 0, 100+n);
+                final long[] expBoxes = new long[(n+63)>>>6];
+                final int expBoxCount = f.cullAABBoxes(boxes, 0, n, expBoxes);
+                final long[] visBoxes = createBitset(n);
+                Assert.assertEquals(expBoxCount, culler.cullAABBoxes(f, boxes, 0, n, visBoxes));
+                Assert.assertArrayEquals(expBoxes, visBoxes);
+
+                final float[] spheres = createSpheres(n, 0, 200+n);
+                final long[] expSpheres = new long[(n+63)>>>6];
+                final int expSphereCount = f.cullSpheres(spheres, 0, n, expSpheres);
+                final long[] visSpheres = createBitset(n);
+                Assert.assertEquals(expSphereCount, culler.cullSpheres(f, spheres, 0, n, visSpheres));
+                Assert.assertArrayEquals(expSpheres, visSpheres);
+            }
+        } finally {
+            culler.shutdown();
+        }
+    }
+
+    @Test
+    public void test10Performance() {
+        final Frustum f = createFrustum();
+        final float[] boxes = createBoxes(count, 0, 1);
+        final AABBox[] ref = toAABBoxes(boxes, 0, count);
+        final long[] visible = new long[(count+63)>>>6];
+        final FrustumCuller culler = new FrustumCuller(threads);
+        culler.setMinParallelCount(0);
+        long tRef = Long.MAX_VALUE, tBatch = Long.MAX_VALUE, tPar = Long.MAX_VALUE;
+        int cRef = 0, cBatch = 0, cPar = 0;
+        try {
+            for(int l=0; l<loops; l++) {
+                long t0 = System.nanoTime();
+                cRef = 0;
+                for(int i=0; i<count; i++) {
+                    if( !f.isAABBoxOutside(ref[i]) ) {
+                        cRef++;
+                    }
+                }
+                long t1 = System.nanoTime();
+                cBatch = f.cullAABBoxes(boxes, 0, count, visible);
+                long t2 = System.nanoTime();
+                cPar = culler.cullAABBoxes(f, boxes, 0, count, visible);
+                long t3 = System.nanoTime();
+                tRef = Math.min(tRef, t1 - t0);
+                tBatch = Math.min(tBatch, t2 - t1);
+                tPar = Math.min(tPar, t3 - t2);
+            }
+        } finally {
+            culler.shutdown();
+        }
+        Assert.assertEquals(cRef, cBatch);
+        Assert.assertEquals(cRef, cPar);
+        System.err.printf("Frustum culling of %d boxes, %d visible, best of %d loops:%n", count, cRef, loops);
+        System.err.printf("  per AABBox:       %8.3f ms, %7.1f Mboxes/s%n", tRef/1e6, count*1e3/tRef);
+        System.err.printf("  batch:            %8.3f ms, %7.1f Mboxes/s, %.2fx%n", tBatch/1e6, count*1e3/tBatch, (double)tRef/tBatch);
+        System.err.printf("  batch %2d threads: %8.3f ms, %7.1f Mboxes/s, %.2fx%n", culler.getParallelism(), tPar/1e6, count*1e3/tPar, (double)tRef/tPar);
+    }
+
+    public static void main(String args[]) {
+        for(int i=0; i<args.length; i++) {
+            if(args[i].equals("-count")) {
+                i++;
+                count = MiscUtils.atoi(args[i], count);
+            } else if(args[i].equals("-loops")) {
+                i++;
+                loops = MiscUtils.atoi(args[i], loops);
+            } else if(args[i].equals("-threads")) {
+                i++;
+                threads = MiscUtils.atoi(args[i], threads);
+            }
+        }
+        org.junit.runner.JUnitCore.main(TestFrustumBatchCulling00NOUI.class.getName());
+    }
+}
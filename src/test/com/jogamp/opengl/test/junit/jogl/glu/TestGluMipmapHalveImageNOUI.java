@@ -0,0 +1,322 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+
+package com.jogamp.opengl.test.junit.jogl.glu;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import jogamp.opengl.glu.mipmap.HalveImage;
+import jogamp.opengl.glu.mipmap.ScaleInternal;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jogamp.opengl.test.junit.util.MiscUtils;
+
+/**
+ * Validates the tightly packed unsigned byte and float paths of {@link HalveImage}
+ * against the positioned per component reads they replace, serial and concurrent,
+ * and compares the CPU cost of a full mipmap chain as built by gluBuild2DMipmapLevelsCore.
+ */
+public class TestGluMipmapHalveImageNOUI {
+    static int minSize = 256;
+    static int maxSize = 4096;
+    static int loops = 5;
+    static int threads = 4;
+
+    static ByteBuffer newBuffer(int size, boolean direct) {
+        return ( direct ? ByteBuffer.allocateDirect(size) : ByteBuffer.allocate(size) ).order(ByteOrder.nativeOrder());
+    }
+
+    static ByteBuffer createUByteImage(int width, int height, int components, boolean direct, long seed) {
+        final byte[] data = new byte[width*height*components];
+        new Random(seed).nextBytes(data);
+        final ByteBuffer b = newBuffer(data.length, direct);
+        b.put(data);
+        b.rewind();
+        return b;
+    }
+
+    static ByteBuffer createFloatImage(int width, int height, int components, boolean direct, long seed) {
+        final Random rnd = new Random(seed);
+        final int n = width*height*components;
+        final ByteBuffer b = newBuffer(4*n, direct);
+        for(int i=0; i<n; i++) {
+            b.putFloat(rnd.nextFloat() * 2f - 1f);
+        }
+        b.rewind();
+        return b;
+    }
+
+    /** Positioned per component reads as used by HalveImage for all layouts */
+    static class Legacy {
+        static void halveImage_ubyte(int components, int width, int height, ByteBuffer datain, ByteBuffer dataout,
+                                     int element_size, int ysize, int group_size) {
+            final int newwidth = width / 2;
+            final int newheight = height / 2;
+            int t = 0;
+            for( int i = 0; i < newheight; i++ ) {
+                for( int j = 0; j < newwidth; j++ ) {
+                    for( int k = 0; k < components; k++ ) {
+                        datain.position( t );
+                        int temp = ( 0x000000FF & datain.get() );
+                        datain.position( t + group_size );
+                        temp += ( 0x000000FF & datain.get() );
+                        datain.position( t + ysize );
+                        temp += ( 0x000000FF & datain.get() );
+                        datain.position( t + ysize + group_size );
+                        temp += ( 0x000000FF & datain.get() ) + 2;
+                        dataout.put( (byte)(temp / 4) );
+                        t += element_size;
+                    }
+                    t += group_size;
+                }
+                t += ysize;
+            }
+        }
+
+        static void halveImage_float(int components, int width, int height, ByteBuffer datain, FloatBuffer dataout,
+                                     int element_size, int ysize, int group_size) {
+            final int newwidth = width / 2;
+            final int newheight = height / 2;
+            int t = 0;
+            for( int i = 0; i < newheight; i++ ) {
+                for( int j = 0; j < newwidth; j++ ) {
+                    for( int k = 0; k < components; k++ ) {
+                        datain.position( t );
+                        float temp = datain.getFloat();
+                        datain.position( t + group_size );
+                        temp += datain.getFloat();
+                        datain.position( t + ysize );
+                        temp += datain.getFloat();
+                        datain.position( t + ysize + group_size );
+                        temp += datain.getFloat();
+                        temp /= 4.0f;
+                        dataout.put( temp );
+                        t += element_size;
+                    }
+                    t += group_size;
+                }
+                t += ysize;
+            }
+        }
+    }
+
+    static void assertEquals(ByteBuffer expected, ByteBuffer has, int size, String msg) {
+        for(int i=0; i<size; i++) {
+            if( expected.get(i) != has.get(i) ) {
+                Assert.assertEquals(msg+", byte "+i, expected.get(i), has.get(i));
+            }
+        }
+    }
+
+    static final int[][] sizes = { { 2, 2 }, { 4, 2 }, { 2, 8 }, { 6, 5 }, { 64, 33 }, { 1024, 600 } };
+
+    void testUByte(String msg) {
+        for(int s=0; s<sizes.length; s++) {
+            final int width = sizes[s][0], height = sizes[s][1];
+            for(int components=1; components<=4; components++) {
+                for(int d=0; d<4; d++) {
+                    final boolean directIn = 0 != ( d & 1 ), directOut = 0 != ( d & 2 );
+                    final String m = msg+" "+width+"x"+height+"x"+components+", direct in "+directIn+", out "+directOut;
+                    final ByteBuffer in = createUByteImage(width, height, components, directIn, s);
+                    final int outSize = (width/2) * (height/2) * components;
+                    final ByteBuffer exp = newBuffer(outSize, directOut);
+                    final ByteBuffer has = newBuffer(1+outSize, directOut);
+                    has.position(1);
+                    Legacy.halveImage_ubyte(components, width, height, in, exp, 1, width*components, components);
+                    in.rewind();
+                    HalveImage.halveImage_ubyte(components, width, height, in, has, 1, width*components, components);
+                    Assert.assertEquals(m, 1+outSize, has.position());
+                    has.position(1);
+                    assertEquals(exp, has.slice(), outSize, m);
+                }
+            }
+        }
+    }
+
+    void testFloat(String msg) {
+        for(int s=0; s<sizes.length; s++) {
+            final int width = sizes[s][0], height = sizes[s][1];
+            for(int components=1; components<=4; components++) {
+                for(int d=0; d<2; d++) {
+                    final String m = msg+" "+width+"x"+height+"x"+components+", direct "+(1==d);
+                    final ByteBuffer in = createFloatImage(width, height, components, 1 == d, s);
+                    final int outSize = (width/2) * (height/2) * components;
+                    final FloatBuffer exp = FloatBuffer.allocate(outSize);
+                    final FloatBuffer has = newBuffer(4*outSize, true).asFloatBuffer();
+                    Legacy.halveImage_float(components, width, height, in, exp, 4, 4*width*components, 4*components);
+                    in.rewind();
+                    HalveImage.halveImage_float(components, width, height, in, has, 4, 4*width*components, 4*components, false);
+                    Assert.assertEquals(m, outSize, has.position());
+                    for(int i=0; i<outSize; i++) {
+                        Assert.assertEquals(m+", float "+i, exp.get(i), has.get(i), 0f);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void test01HalveUByte() {
+        testUByte("ubyte");
+    }
+
+    @Test
+    public void test02HalveFloat() {
+        testFloat("float");
+    }
+
+    @Test
+    public void test03HalveConcurrent() {
+        final ExecutorService executor = Executors.newFixedThreadPool(3);
+        HalveImage.setExecutor(executor, 4);
+        try {
+            testUByte("concurrent ubyte");
+            testFloat("concurrent float");
+        } finally {
+            HalveImage.setExecutor(null, 0);
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void test04ScaleUByte() {
+        // non power of two input as scaled by gluBuild2DMipmapLevelsCore, heap and direct input must match
+        final int wIn = 559, hIn = 425, wOut = 512, hOut = 256, components = 4;
+        final ByteBuffer heapIn = createUByteImage(wIn, hIn, components, false, 1);
+        final ByteBuffer directIn = newBuffer(heapIn.capacity(), true);
+        directIn.put(heapIn);
+        heapIn.rewind();
+        directIn.rewind();
+        final ByteBuffer out0 = newBuffer(wOut*hOut*components, true);
+        final ByteBuffer out1 = newBuffer(wOut*hOut*components, true);
+        ScaleInternal.scale_internal_ubyte(components, wIn, hIn, heapIn, wOut, hOut, out0, 1, wIn*components, components);
+        ScaleInternal.scale_internal_ubyte(components, wIn, hIn, directIn, wOut, hOut, out1, 1, wIn*components, components);
+        assertEquals(out0, out1, out0.capacity(), "scale");
+
+        // a constant image stays constant
+        final ByteBuffer constIn = newBuffer(wIn*hIn*components, false);
+        while( constIn.hasRemaining() ) {
+            constIn.put((byte)200);
+        }
+        ScaleInternal.scale_internal_ubyte(components, wIn, hIn, constIn, wOut, hOut, out0, 1, wIn*components, components);
+        for(int i=0; i<out0.capacity(); i++) {
+            Assert.assertEquals("const scale, byte "+i, 200, 0xFF & out0.get(i), 1);
+        }
+    }
+
+    /** Halves a power of two RGBA8 or RGBA32F image down to 1x1 like gluBuild2DMipmapLevelsCore, returns the time in ns. */
+    static long buildChain(int size, boolean floats, boolean legacy, ByteBuffer image, ByteBuffer src, ByteBuffer dst) {
+        final int components = 4;
+        final int element_size = floats ? 4 : 1;
+        final int group_size = components * element_size;
+        final long t0 = System.nanoTime();
+        int width = size, height = size;
+        ByteBuffer in = image;
+        while( width > 1 && height > 1 ) {
+            in.rewind();
+            dst.rewind();
+            final int rowsize = width * group_size;
+            if( floats ) {
+                if( legacy ) {
+                    Legacy.halveImage_float(components, width, height, in, dst.asFloatBuffer(), element_size, rowsize, group_size);
+                } else {
+                    HalveImage.halveImage_float(components, width, height, in, dst.asFloatBuffer(), element_size, rowsize, group_size, false);
+                }
+            } else {
+                if( legacy ) {
+                    Legacy.halveImage_ubyte(components, width, height, in, dst, element_size, rowsize, group_size);
+                } else {
+                    HalveImage.halveImage_ubyte(components, width, height, in, dst, element_size, rowsize, group_size);
+                }
+            }
+            width /= 2;
+            height /= 2;
+            in = dst;
+            dst = src;
+            src = in;
+        }
+        return System.nanoTime() - t0;
+    }
+
+    @Test
+    public void test10Performance() {
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, threads-1));
+        try {
+            for(int f=0; f<2; f++) {
+                final boolean floats = 1 == f;
+                System.err.printf("Mipmap chain of RGBA %s images, best of %d loops:%n", floats ? "float" : "ubyte", loops);
+                for(int size=minSize; size<=maxSize; size*=2) {
+                    final ByteBuffer image = floats ? createFloatImage(size, size, 4, true, size) : createUByteImage(size, size, 4, true, size);
+                    final int bytes = image.capacity() / 4;
+                    final ByteBuffer src = newBuffer(bytes, true), dst = newBuffer(bytes, true);
+                    long tLegacy = Long.MAX_VALUE, tFast = Long.MAX_VALUE, tPar = Long.MAX_VALUE;
+                    for(int l=0; l<loops; l++) {
+                        tLegacy = Math.min(tLegacy, buildChain(size, floats, true, image, src, dst));
+                        tFast = Math.min(tFast, buildChain(size, floats, false, image, src, dst));
+                        HalveImage.setExecutor(executor, threads);
+                        try {
+                            tPar = Math.min(tPar, buildChain(size, floats, false, image, src, dst));
+                        } finally {
+                            HalveImage.setExecutor(null, 0);
+                        }
+                    }
+                    System.err.printf("  %5d^2: positioned %9.3f ms, packed %8.3f ms %6.2fx, packed %d threads %8.3f ms %6.2fx%n",
+                            size, tLegacy/1e6, tFast/1e6, (double)tLegacy/tFast, threads, tPar/1e6, (double)tLegacy/tPar);
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    public static void main(String args[]) {
+        for(int i=0; i<args.length; i++) {
+            if(args[i].equals("-minSize")) {
+                i++;
+                minSize = MiscUtils.atoi(args[i], minSize);
+            } else if(args[i].equals("-maxSize")) {
+                i++;
+                maxSize = MiscUtils.atoi(args[i], maxSize);
+            } else if(args[i].equals("-loops")) {
+                i++;
+                loops = MiscUtils.atoi(args[i], loops);
+            } else if(args[i].equals("-threads")) {
+                i++;
+                threads = MiscUtils.atoi(args[i], threads);
+            }
+        }
+        org.junit.runner.JUnitCore.main(TestGluMipmapHalveImageNOUI.class.getName());
+    }
+}
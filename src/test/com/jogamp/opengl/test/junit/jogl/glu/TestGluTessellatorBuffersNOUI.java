@@ -0,0 +1,283 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+
+package com.jogamp.opengl.test.junit.jogl.glu;
+
+import java.util.Random;
+
+import javax.media.opengl.GL;
+import javax.media.opengl.glu.GLU;
+import javax.media.opengl.glu.GLUtessellatorCallbackAdapter;
+
+import jogamp.opengl.glu.tessellator.GLUtessellatorImpl;
+import jogamp.opengl.glu.tessellator.TriangleBuffers;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jogamp.opengl.test.junit.util.MiscUtils;
+
+/**
+ * Validates the indexed triangle output of {@link GLUtessellatorImpl#setTriangleOutput(TriangleBuffers)}
+ * against the callback output and compares their throughput.
+ */
+public class TestGluTessellatorBuffersNOUI {
+    static int polygons = 2000;
+    static int loops = 5;
+
+    /** Collects the callback triangles into a float array like a typical client, the edge flag callback enforces GL_TRIANGLES. */
+    static class CallbackSink extends GLUtessellatorCallbackAdapter {
+        float[] vertices = new float[3*1024];
+        int count = 0;
+        int errors = 0;
+
+        public void begin(int type) {
+            Assert.assertEquals(GL.GL_TRIANGLES, type);
+        }
+        public void edgeFlag(boolean boundaryEdge) { }
+        public void vertex(Object data) {
+            final double[] v = (double[]) data;
+            if( 3*count + 3 > vertices.length ) {
+                vertices = java.util.Arrays.copyOf(vertices, 2*vertices.length);
+            }
+            vertices[3*count] = (float) v[0];
+            vertices[3*count+1] = (float) v[1];
+            vertices[3*count+2] = (float) v[2];
+            count++;
+        }
+        public void combine(double[] coords, Object[] data, float[] weight, Object[] outData) {
+            outData[0] = new double[] { coords[0], coords[1], coords[2] };
+        }
+        public void error(int errnum) {
+            errors++;
+        }
+    }
+
+    /** Returns random star shaped polygons, self-intersecting if <code>intersecting</code>. */
+    static double[][] createPolygons(int count, int vertices, boolean intersecting, long seed) {
+        final Random rnd = new Random(seed);
+        final double[][] p = new double[count][];
+        for(int k=0; k<count; k++) {
+            final double[] c = new double[3*vertices];
+            final double cx = rnd.nextDouble() * 1000, cy = rnd.nextDouble() * 1000;
+            for(int i=0; i<vertices; i++) {
+                final double a = ( intersecting ? 5 : 1 ) * 2 * Math.PI * i / vertices;
+                final double r = 5 + 10 * rnd.nextDouble();
+                c[3*i] = cx + r * Math.cos(a);
+                c[3*i+1] = cy + r * Math.sin(a);
+                c[3*i+2] = 0;
+            }
+            p[k] = c;
+        }
+        return p;
+    }
+
+    static GLUtessellatorImpl createTess(int windingRule) {
+        final GLUtessellatorImpl tess = (GLUtessellatorImpl) GLUtessellatorImpl.gluNewTess();
+        tess.gluTessProperty(GLU.GLU_TESS_WINDING_RULE, windingRule);
+        tess.gluTessNormal(0, 0, 1);
+        return tess;
+    }
+
+    static void tessellate(GLUtessellatorImpl tess, double[] c, boolean vertexData) {
+        tess.gluTessBeginPolygon(null);
+        tess.gluTessBeginContour();
+        for(int i=0; i<c.length; i+=3) {
+            tess.gluTessVertex(c, i, vertexData ? new double[] { c[i], c[i+1], c[i+2] } : null);
+        }
+        tess.gluTessEndContour();
+        tess.gluTessEndPolygon();
+    }
+
+    static CallbackSink tessellateCallbacks(double[][] p, int windingRule) {
+        final CallbackSink sink = new CallbackSink();
+        final GLUtessellatorImpl tess = createTess(windingRule);
+        tess.gluTessCallback(GLU.GLU_TESS_BEGIN, sink);
+        tess.gluTessCallback(GLU.GLU_TESS_EDGE_FLAG, sink);
+        tess.gluTessCallback(GLU.GLU_TESS_VERTEX, sink);
+        tess.gluTessCallback(GLU.GLU_TESS_COMBINE, sink);
+        tess.gluTessCallback(GLU.GLU_TESS_ERROR, sink);
+        for(int k=0; k<p.length; k++) {
+            tessellate(tess, p[k], true);
+        }
+        tess.gluDeleteTess();
+        return sink;
+    }
+
+    static TriangleBuffers tessellateBuffers(double[][] p, int windingRule, TriangleBuffers out) {
+        final GLUtessellatorImpl tess = createTess(windingRule);
+        tess.setTriangleOutput(out);
+        for(int k=0; k<p.length; k++) {
+            tessellate(tess, p[k], false);
+        }
+        tess.gluDeleteTess();
+        return out;
+    }
+
+    static double area(float[] v, int i0, int i1, int i2) {
+        return 0.5 * ( ( v[3*i1] - v[3*i0] ) * ( v[3*i2+1] - v[3*i0+1] ) -
+                       ( v[3*i2] - v[3*i0] ) * ( v[3*i1+1] - v[3*i0+1] ) );
+    }
+
+    static void compare(String name, double[][] p, int windingRule) {
+        final CallbackSink sink = tessellateCallbacks(p, windingRule);
+        final TriangleBuffers out = tessellateBuffers(p, windingRule, new TriangleBuffers());
+        Assert.assertEquals(name, 0, sink.errors);
+        Assert.assertEquals(name+": triangles", sink.count / 3, out.getTriangleCount());
+
+        double expArea = 0, area = 0;
+        for(int t=0; t<sink.count; t+=3) {
+            expArea += area(sink.vertices, t, t+1, t+2);
+        }
+        final int[] idx = out.getIndices();
+        final float[] v = out.getVertices();
+        for(int i=0; i<out.getIndexCount(); i+=3) {
+            Assert.assertTrue(name, idx[i] < out.getVertexCount() && idx[i+1] < out.getVertexCount() && idx[i+2] < out.getVertexCount());
+            final double a = area(v, idx[i], idx[i+1], idx[i+2]);
+            Assert.assertTrue(name+": CCW", a >= -1e-3);
+            area += a;
+        }
+        Assert.assertEquals(name+": area", expArea, area, Math.abs(expArea) * 1e-5);
+        // each vertex is referenced
+        final boolean[] used = new boolean[out.getVertexCount()];
+        for(int i=0; i<out.getIndexCount(); i++) {
+            used[idx[i]] = true;
+        }
+        for(int i=0; i<used.length; i++) {
+            Assert.assertTrue(name+": vertex "+i+" unused", used[i]);
+        }
+    }
+
+    @Test
+    public void test01SimplePolygons() {
+        final double[][] p = createPolygons(200, 40, false, 1);
+        compare("Simple", p, GLU.GLU_TESS_WINDING_ODD);
+        // shared vertices are stored once, i.e. a simple polygon keeps its vertices
+        final TriangleBuffers out = tessellateBuffers(p, GLU.GLU_TESS_WINDING_ODD, new TriangleBuffers());
+        Assert.assertEquals(200*40, out.getVertexCount());
+        Assert.assertEquals(200*38, out.getTriangleCount());
+        Assert.assertEquals(3*out.getVertexCount(), out.getVertexBuffer().remaining());
+        Assert.assertEquals(out.getIndexCount(), out.getIndexBuffer().remaining());
+    }
+
+    @Test
+    public void test02IntersectingPolygons() {
+        // intersections need no combine callback w/ the triangle output
+        final double[][] p = createPolygons(200, 41, true, 2);
+        compare("Intersecting odd", p, GLU.GLU_TESS_WINDING_ODD);
+        compare("Intersecting nonzero", p, GLU.GLU_TESS_WINDING_NONZERO);
+        compare("Intersecting abs >= 2", p, GLU.GLU_TESS_WINDING_ABS_GEQ_TWO);
+        final TriangleBuffers out = tessellateBuffers(p, GLU.GLU_TESS_WINDING_ODD, new TriangleBuffers());
+        Assert.assertTrue(out.getVertexCount() > 200*41);
+    }
+
+    @Test
+    public void test03AppendAndClear() {
+        final double[][] p = createPolygons(2, 10, false, 3);
+        final TriangleBuffers out = new TriangleBuffers(1, 3);
+        tessellateBuffers(new double[][] { p[0] }, GLU.GLU_TESS_WINDING_ODD, out);
+        final int vertexCount = out.getVertexCount();
+        final int indexCount = out.getIndexCount();
+        tessellateBuffers(new double[][] { p[1] }, GLU.GLU_TESS_WINDING_ODD, out);
+        Assert.assertEquals(20, out.getVertexCount());
+        for(int i=indexCount; i<out.getIndexCount(); i++) {
+            Assert.assertTrue(out.getIndices()[i] >= vertexCount);
+        }
+        out.clear();
+        Assert.assertEquals(0, out.getVertexCount());
+        Assert.assertEquals(0, out.getIndexCount());
+    }
+
+    @Test
+    public void test04Concurrent() throws InterruptedException {
+        // each thread uses its own tessellator and buffers, no GL context
+        final double[][] p = createPolygons(500, 41, true, 4);
+        final TriangleBuffers expected = tessellateBuffers(p, GLU.GLU_TESS_WINDING_NONZERO, new TriangleBuffers());
+        final TriangleBuffers[] results = new TriangleBuffers[4];
+        final Thread[] threads = new Thread[results.length];
+        for(int i=0; i<threads.length; i++) {
+            final int id = i;
+            threads[i] = new Thread("TessBuffers-"+i) {
+                public void run() {
+                    results[id] = tessellateBuffers(p, GLU.GLU_TESS_WINDING_NONZERO, new TriangleBuffers());
+                }
+            };
+            threads[i].start();
+        }
+        for(int i=0; i<threads.length; i++) {
+            threads[i].join();
+            Assert.assertEquals(expected.getVertexBuffer(), results[i].getVertexBuffer());
+            Assert.assertEquals(expected.getIndexBuffer(), results[i].getIndexBuffer());
+        }
+    }
+
+    @Test
+    public void test10Performance() {
+        final int[] vertexCounts = { 8, 64, 512 };
+        System.err.printf("Tessellation of %d polygons, best of %d loops:%n", polygons, loops);
+        for(int s=0; s<vertexCounts.length; s++) {
+            for(int m=0; m<2; m++) {
+                final boolean intersecting = 1 == m;
+                final int count = Math.max(1, polygons * 8 / vertexCounts[s]);
+                final double[][] p = createPolygons(count, vertexCounts[s] + m, intersecting, s);
+                final int n = count * ( vertexCounts[s] + m );
+                final TriangleBuffers out = new TriangleBuffers();
+                long tCallbacks = Long.MAX_VALUE, tBuffers = Long.MAX_VALUE;
+                for(int l=-1; l<loops; l++) { // first loop warms up
+                    long t0 = System.nanoTime();
+                    tessellateCallbacks(p, GLU.GLU_TESS_WINDING_ODD);
+                    if( 0 <= l ) {
+                        tCallbacks = Math.min(tCallbacks, System.nanoTime() - t0);
+                    }
+                    out.clear();
+                    t0 = System.nanoTime();
+                    tessellateBuffers(p, GLU.GLU_TESS_WINDING_ODD, out);
+                    if( 0 <= l ) {
+                        tBuffers = Math.min(tBuffers, System.nanoTime() - t0);
+                    }
+                }
+                System.err.printf("  %6d x %4d vertices%s: callbacks %8.3f ms, buffers %8.3f ms, %5.2f Mvertices/s, speedup %.2fx%n",
+                                  count, vertexCounts[s] + m, intersecting ? ", intersecting" : "              ",
+                                  tCallbacks/1e6, tBuffers/1e6, n*1e3/tBuffers, (double)tCallbacks/tBuffers);
+            }
+        }
+    }
+
+    public static void main(String args[]) {
+        for(int i=0; i<args.length; i++) {
+            if(args[i].equals("-polygons")) {
+                i++;
+                polygons = MiscUtils.atoi(args[i], polygons);
+            } else if(args[i].equals("-loops")) {
+                i++;
+                loops = MiscUtils.atoi(args[i], loops);
+            }
+        }
+        org.junit.runner.JUnitCore.main(TestGluTessellatorBuffersNOUI.class.getName());
+    }
+}
@@ -0,0 +1,296 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+
+package com.jogamp.opengl.test.junit.jogl.glu;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.media.opengl.glu.GLU;
+
+import jogamp.opengl.glu.tessellator.GLUtessellatorImpl;
+import jogamp.opengl.glu.tessellator.ParallelTessellator;
+import jogamp.opengl.glu.tessellator.TriangleBuffers;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jogamp.opengl.test.junit.util.MiscUtils;
+
+/**
+ * Validates the batch tessellation of {@link ParallelTessellator} against a serial tessellation
+ * and measures its scaling w/ the thread count.
+ */
+public class TestGluTessellatorParallelNOUI {
+    static int polygons = 20000;
+    static int loops = 5;
+    static int threads = 0;
+
+    /** Returns random star shaped polygons, every third w/ a small square hole around its center. */
+    static double[][][] createPolygons(int count, int vertices, boolean intersecting, long seed) {
+        final double[][] outer = TestGluTessellatorBuffersNOUI.createPolygons(count, vertices, intersecting, seed);
+        final double[][][] p = new double[count][][];
+        for(int k=0; k<count; k++) {
+            final double[] c = outer[k];
+            if( 0 == k % 3 ) {
+                double x = 0, y = 0;
+                for(int i=0; i<c.length; i+=3) {
+                    x += c[i];
+                    y += c[i+1];
+                }
+                x /= c.length / 3;
+                y /= c.length / 3;
+                p[k] = new double[][] { c, { x-2, y-2, 0,  x-2, y+2, 0,  x+2, y+2, 0,  x+2, y-2, 0 } };
+            } else {
+                p[k] = new double[][] { c };
+            }
+        }
+        return p;
+    }
+
+    /** Tessellates all polygons w/ one tessellator, recording the index offset of each polygon. */
+    static TriangleBuffers tessellateSerial(double[][][] p, int windingRule, int[] indexOffsets) {
+        final TriangleBuffers out = new TriangleBuffers();
+        final GLUtessellatorImpl tess = TestGluTessellatorBuffersNOUI.createTess(windingRule);
+        tess.setTriangleOutput(out);
+        for(int k=0; k<p.length; k++) {
+            indexOffsets[k] = out.getIndexCount();
+            tess.gluTessBeginPolygon(null);
+            for(int j=0; j<p[k].length; j++) {
+                final double[] c = p[k][j];
+                tess.gluTessBeginContour();
+                for(int i=0; i<c.length; i+=3) {
+                    tess.gluTessVertex(c, i, null);
+                }
+                tess.gluTessEndContour();
+            }
+            tess.gluTessEndPolygon();
+        }
+        indexOffsets[p.length] = out.getIndexCount();
+        tess.gluDeleteTess();
+        return out;
+    }
+
+    static ParallelTessellator createTess(ParallelTessellator tess, int windingRule) {
+        tess.setWindingRule(windingRule);
+        tess.setNormal(0, 0, 1);
+        tess.setMinParallelVertices(0);
+        return tess;
+    }
+
+    static void compare(String name, double[][][] p, int windingRule, ParallelTessellator tess) {
+        final int[] expOffsets = new int[p.length+1];
+        final TriangleBuffers expected = tessellateSerial(p, windingRule, expOffsets);
+        final int[] offsets = new int[p.length+1];
+        createTess(tess, windingRule);
+        // appended behind existing content
+        final TriangleBuffers out = new TriangleBuffers();
+        out.append(expected);
+        tess.tessellate(p, out, offsets);
+        Assert.assertEquals(name+": vertices", 2*expected.getVertexCount(), out.getVertexCount());
+        Assert.assertEquals(name+": indices", 2*expected.getIndexCount(), out.getIndexCount());
+        for(int i=0; i<3*expected.getVertexCount(); i++) {
+            Assert.assertEquals(name+": vertex "+i/3, expected.getVertices()[i], out.getVertices()[3*expected.getVertexCount()+i], 0f);
+        }
+        for(int i=0; i<expected.getIndexCount(); i++) {
+            Assert.assertEquals(name+": index "+i, expected.getIndices()[i] + expected.getVertexCount(), out.getIndices()[expected.getIndexCount()+i]);
+        }
+        for(int k=0; k<=p.length; k++) {
+            Assert.assertEquals(name+": offset "+k, expOffsets[k] + expected.getIndexCount(), offsets[k]);
+        }
+    }
+
+    @Test
+    public void test01Deterministic() {
+        final double[][][] p = createPolygons(3000, 33, true, 1);
+        final int[] threadCounts = { 1, 2, 4 };
+        for(int t=0; t<threadCounts.length; t++) {
+            final ParallelTessellator tess = new ParallelTessellator(threadCounts[t]);
+            try {
+                Assert.assertEquals(threadCounts[t], tess.getParallelism());
+                compare(threadCounts[t]+" threads odd", p, GLU.GLU_TESS_WINDING_ODD, tess);
+                compare(threadCounts[t]+" threads nonzero", p, GLU.GLU_TESS_WINDING_NONZERO, tess);
+            } finally {
+                tess.shutdown();
+            }
+        }
+    }
+
+    @Test
+    public void test02Executor() {
+        final ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            final ParallelTessellator tess = new ParallelTessellator(executor, 4);
+            Assert.assertSame(executor, tess.getExecutor());
+            compare("Executor", createPolygons(2000, 20, false, 2), GLU.GLU_TESS_WINDING_ODD, tess);
+            tess.shutdown();
+            Assert.assertFalse(executor.isShutdown());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void test03SerialSmallBatch() {
+        // below the minimum vertex count the batch is tessellated on the calling thread
+        final ParallelTessellator tess = new ParallelTessellator(4);
+        try {
+            final double[][][] p = createPolygons(10, 12, false, 3);
+            final int[] expOffsets = new int[p.length+1];
+            final TriangleBuffers expected = tessellateSerial(p, GLU.GLU_TESS_WINDING_ODD, expOffsets);
+            tess.setNormal(0, 0, 1);
+            Assert.assertEquals(ParallelTessellator.DEFAULT_MIN_PARALLEL_VERTICES, tess.getMinParallelVertices());
+            final int[] offsets = new int[p.length+1];
+            final TriangleBuffers out = tess.tessellate(p, new TriangleBuffers(), offsets);
+            Assert.assertEquals(expected.getVertexBuffer(), out.getVertexBuffer());
+            Assert.assertEquals(expected.getIndexBuffer(), out.getIndexBuffer());
+            Assert.assertArrayEquals(expOffsets, offsets);
+            // empty batch
+            Assert.assertEquals(0, tess.tessellate(new double[0][][], new TriangleBuffers(), null).getIndexCount());
+        } finally {
+            tess.shutdown();
+        }
+    }
+
+    @Test
+    public void test04Error() {
+        final ParallelTessellator tess = createTess(new ParallelTessellator(2), GLU.GLU_TESS_WINDING_ODD);
+        try {
+            final double[][][] p = createPolygons(2000, 20, false, 4);
+            p[1500][0][3] = 1e200;
+            final double[][][] head = createPolygons(3, 12, false, 5);
+            final int[] minParallelVertices = { 0, Integer.MAX_VALUE };
+            for(int i=0; i<minParallelVertices.length; i++) {
+                // parallel and serial batch leave the output unchanged
+                tess.setMinParallelVertices(minParallelVertices[i]);
+                final TriangleBuffers out = tess.tessellate(head, new TriangleBuffers(), null);
+                final TriangleBuffers expected = tess.tessellate(head, new TriangleBuffers(), null);
+                try {
+                    tess.tessellate(p, out, null);
+                    Assert.fail("Expected RuntimeException");
+                } catch (RuntimeException e) {
+                    Assert.assertTrue(e.getMessage(), e.getMessage().indexOf("polygon 1500") >= 0);
+                }
+                Assert.assertEquals(expected.getVertexBuffer(), out.getVertexBuffer());
+                Assert.assertEquals(expected.getIndexBuffer(), out.getIndexBuffer());
+            }
+            tess.setMinParallelVertices(ParallelTessellator.DEFAULT_MIN_PARALLEL_VERTICES);
+            // the pool stays usable
+            compare("After error", createPolygons(2000, 20, false, 4), GLU.GLU_TESS_WINDING_ODD, tess);
+        } finally {
+            tess.shutdown();
+        }
+    }
+
+    @Test
+    public void test05InvalidArguments() {
+        try {
+            new ParallelTessellator(null, 2);
+            Assert.fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) { }
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            new ParallelTessellator(executor, 0);
+            Assert.fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void test06BusyExecutor() throws Exception {
+        // the calling thread occupies the executor's only thread, the submitted task never starts
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final ParallelTessellator tess = createTess(new ParallelTessellator(executor, 4), GLU.GLU_TESS_WINDING_ODD);
+            final double[][][] p = createPolygons(2000, 20, false, 6);
+            final TriangleBuffers expected = tessellateSerial(p, GLU.GLU_TESS_WINDING_ODD, new int[p.length+1]);
+            final Future<TriangleBuffers> result = executor.submit(new Callable<TriangleBuffers>() {
+                public TriangleBuffers call() {
+                    return tess.tessellate(p, new TriangleBuffers(), null);
+                } } );
+            final TriangleBuffers out = result.get(60, TimeUnit.SECONDS);
+            Assert.assertEquals(expected.getVertexBuffer(), out.getVertexBuffer());
+            Assert.assertEquals(expected.getIndexBuffer(), out.getIndexBuffer());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void test10Scaling() {
+        final int maxThreads = 0 < threads ? threads : Runtime.getRuntime().availableProcessors();
+        final int[] vertexCounts = { 16, 256 };
+        System.err.printf("Batch tessellation of %d polygons on %d processors, best of %d loops:%n",
+                          polygons, Runtime.getRuntime().availableProcessors(), loops);
+        for(int s=0; s<vertexCounts.length; s++) {
+            final int count = Math.max(1, polygons * 16 / vertexCounts[s]);
+            final double[][][] p = createPolygons(count, vertexCounts[s] + 1, true, s);
+            final TriangleBuffers out = new TriangleBuffers();
+            long tSerial = 0;
+            for(int n=1; n<=maxThreads; n*=2) {
+                final ParallelTessellator tess = createTess(new ParallelTessellator(n), GLU.GLU_TESS_WINDING_ODD);
+                long t = Long.MAX_VALUE;
+                for(int l=-1; l<loops; l++) { // first loop warms up
+                    out.clear();
+                    final long t0 = System.nanoTime();
+                    tess.tessellate(p, out, null);
+                    if( 0 <= l ) {
+                        t = Math.min(t, System.nanoTime() - t0);
+                    }
+                }
+                tess.shutdown();
+                if( 1 == n ) {
+                    tSerial = t;
+                }
+                System.err.printf("  %6d x %4d vertices, %2d threads: %8.3f ms, %5.2f Mvertices/s, speedup %.2fx%n",
+                                  count, vertexCounts[s] + 1, n, t/1e6, count*(vertexCounts[s] + 1)*1e3/t, (double)tSerial/t);
+            }
+        }
+    }
+
+    public static void main(String args[]) {
+        for(int i=0; i<args.length; i++) {
+            if(args[i].equals("-polygons")) {
+                i++;
+                polygons = MiscUtils.atoi(args[i], polygons);
+            } else if(args[i].equals("-loops")) {
+                i++;
+                loops = MiscUtils.atoi(args[i], loops);
+            } else if(args[i].equals("-threads")) {
+                i++;
+                threads = MiscUtils.atoi(args[i], threads);
+            }
+        }
+        org.junit.runner.JUnitCore.main(TestGluTessellatorParallelNOUI.class.getName());
+    }
+}
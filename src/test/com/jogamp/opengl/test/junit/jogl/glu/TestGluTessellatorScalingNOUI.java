@@ -0,0 +1,245 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+
+package com.jogamp.opengl.test.junit.jogl.glu;
+
+import java.util.Random;
+
+import javax.media.opengl.GL;
+import javax.media.opengl.glu.GLU;
+import javax.media.opengl.glu.GLUtessellator;
+import javax.media.opengl.glu.GLUtessellatorCallbackAdapter;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jogamp.opengl.test.junit.util.MiscUtils;
+
+/**
+ * Validates the GLU tessellator on polygons w/ many edges crossing the sweep line
+ * and measures how its cost scales w/ the number of vertices.
+ * <p>
+ * The comb polygon keeps half of its edges in the sweep's edge dictionary,
+ * i.e. a linear dictionary search leads to quadratic cost.
+ * </p>
+ */
+public class TestGluTessellatorScalingNOUI {
+    static int minVertices = 1000;
+    static int maxVertices = 256000;
+    static int loops = 3;
+
+    /** Collects the triangles, the edge flag callback enforces GL_TRIANGLES. */
+    static class TriangleSink extends GLUtessellatorCallbackAdapter {
+        int triangles = 0;
+        int vertices = 0;
+        int errors = 0;
+        double area = 0;
+        final double[][] tri = new double[3][];
+
+        public void begin(int type) {
+            Assert.assertEquals(GL.GL_TRIANGLES, type);
+        }
+        public void edgeFlag(boolean boundaryEdge) { }
+        public void vertex(Object data) {
+            tri[vertices++ % 3] = (double[]) data;
+            if( 0 == vertices % 3 ) {
+                triangles++;
+                area += 0.5 * ( ( tri[1][0] - tri[0][0] ) * ( tri[2][1] - tri[0][1] ) -
+                                ( tri[2][0] - tri[0][0] ) * ( tri[1][1] - tri[0][1] ) );
+            }
+        }
+        public void combine(double[] coords, Object[] data, float[] weight, Object[] outData) {
+            outData[0] = new double[] { coords[0], coords[1], coords[2] };
+        }
+        public void error(int errnum) {
+            errors++;
+        }
+    }
+
+    /**
+     * Returns a counter clockwise comb w/ <code>teeth</code> horizontal teeth of length <code>length</code>,
+     * 4*teeth+2 vertices of 3 coordinates.
+     */
+    static double[] createComb(int teeth, double length) {
+        final double[] c = new double[3*(4*teeth+2)];
+        int i = 0;
+        i = put(c, i, 0, 2*teeth);
+        i = put(c, i, 0, 0);
+        for(int t=0; t<teeth; t++) {
+            i = put(c, i, length, 2*t);
+            i = put(c, i, length, 2*t+1);
+            i = put(c, i, 1, 2*t+1);
+            i = put(c, i, 1, 2*t+2);
+        }
+        return c;
+    }
+
+    /** Returns a counter clockwise star shaped polygon w/ random radii. */
+    static double[] createStar(int count, long seed) {
+        final Random rnd = new Random(seed);
+        final double[] c = new double[3*count];
+        for(int i=0; i<count; i++) {
+            final double a = 2 * Math.PI * i / count;
+            final double r = 10 + 90 * rnd.nextDouble();
+            put(c, 3*i, r * Math.cos(a), r * Math.sin(a));
+        }
+        return c;
+    }
+
+    static int put(double[] c, int i, double x, double y) {
+        c[i] = x;
+        c[i+1] = y;
+        c[i+2] = 0;
+        return i + 3;
+    }
+
+    static double area(double[] c) {
+        final int n = c.length / 3;
+        double a = 0;
+        for(int i=0, j=n-1; i<n; j=i++) {
+            a += c[3*j] * c[3*i+1] - c[3*i] * c[3*j+1];
+        }
+        return 0.5 * a;
+    }
+
+    static TriangleSink tessellate(double[][] contours) {
+        final TriangleSink sink = new TriangleSink();
+        final GLUtessellator tess = GLU.gluNewTess();
+        GLU.gluTessCallback(tess, GLU.GLU_TESS_BEGIN, sink);
+        GLU.gluTessCallback(tess, GLU.GLU_TESS_EDGE_FLAG, sink);
+        GLU.gluTessCallback(tess, GLU.GLU_TESS_VERTEX, sink);
+        GLU.gluTessCallback(tess, GLU.GLU_TESS_COMBINE, sink);
+        GLU.gluTessCallback(tess, GLU.GLU_TESS_ERROR, sink);
+        GLU.gluTessProperty(tess, GLU.GLU_TESS_WINDING_RULE, GLU.GLU_TESS_WINDING_ODD);
+        GLU.gluTessNormal(tess, 0, 0, 1);
+        GLU.gluTessBeginPolygon(tess, null);
+        for(int k=0; k<contours.length; k++) {
+            final double[] c = contours[k];
+            GLU.gluTessBeginContour(tess);
+            for(int i=0; i<c.length; i+=3) {
+                GLU.gluTessVertex(tess, c, i, new double[] { c[i], c[i+1], c[i+2] });
+            }
+            GLU.gluTessEndContour(tess);
+        }
+        GLU.gluTessEndPolygon(tess);
+        GLU.gluDeleteTess(tess);
+        return sink;
+    }
+
+    static void validate(String name, double[][] contours, double expArea, int expTriangles) {
+        final TriangleSink sink = tessellate(contours);
+        Assert.assertEquals(name+": errors", 0, sink.errors);
+        Assert.assertEquals(name+": area", expArea, sink.area, Math.abs(expArea)*1e-9);
+        if( 0 <= expTriangles ) {
+            Assert.assertEquals(name+": triangles", expTriangles, sink.triangles);
+        }
+    }
+
+    @Test
+    public void test01Comb() {
+        for(int teeth=1; teeth<=2048; teeth*=2) {
+            final double[] comb = createComb(teeth, 100);
+            validate("Comb "+teeth, new double[][] { comb }, area(comb), comb.length/3 - 2);
+        }
+    }
+
+    @Test
+    public void test02Star() {
+        for(int n=3; n<=20000; n*=3) {
+            final double[] star = createStar(n, n);
+            validate("Star "+n, new double[][] { star }, area(star), n - 2);
+        }
+    }
+
+    @Test
+    public void test03Hole() {
+        // rectangle w/ a star hole, odd winding subtracts the hole
+        final double[] rect = new double[3*4];
+        put(rect, 0, 0, 0);
+        put(rect, 3, 1000, 0);
+        put(rect, 6, 1000, 400);
+        put(rect, 9, 0, 400);
+        final double[] star = createStar(5000, 1);
+        for(int i=0; i<star.length; i+=3) {
+            star[i] = star[i] * 2 + 500;
+            star[i+1] = star[i+1] * 0.5 + 200;
+        }
+        validate("Rectangle w/ hole", new double[][] { rect, star }, area(rect) - area(star), -1);
+    }
+
+    @Test
+    public void test04Grid() {
+        // many disjoint contours crossing the sweep line at once
+        final int n = 60;
+        final double[][] squares = new double[n*n][];
+        for(int y=0; y<n; y++) {
+            for(int x=0; x<n; x++) {
+                final double[] c = new double[3*4];
+                put(c, 0, 3*x, 3*y);
+                put(c, 3, 3*x+2, 3*y);
+                put(c, 6, 3*x+2, 3*y+2);
+                put(c, 9, 3*x, 3*y+2);
+                squares[y*n+x] = c;
+            }
+        }
+        validate("Grid "+n+"x"+n, squares, 4*n*n, 2*n*n);
+    }
+
+    @Test
+    public void test10Scaling() {
+        System.err.printf("Comb tessellation, best of %d loops:%n", loops);
+        for(int n=minVertices; n<=maxVertices; n*=4) {
+            final double[][] comb = new double[][] { createComb(( n - 2 ) / 4, 100) };
+            final int count = comb[0].length / 3;
+            long t = Long.MAX_VALUE;
+            for(int l=0; l<loops; l++) {
+                final long t0 = System.nanoTime();
+                final TriangleSink sink = tessellate(comb);
+                t = Math.min(t, System.nanoTime() - t0);
+                Assert.assertEquals(count - 2, sink.triangles);
+            }
+            System.err.printf("  %8d vertices: %10.3f ms, %8.3f us/vertex%n", count, t/1e6, t/1e3/count);
+        }
+    }
+
+    public static void main(String args[]) {
+        for(int i=0; i<args.length; i++) {
+            if(args[i].equals("-minVertices")) {
+                i++;
+                minVertices = MiscUtils.atoi(args[i], minVertices);
+            } else if(args[i].equals("-maxVertices")) {
+                i++;
+                maxVertices = MiscUtils.atoi(args[i], maxVertices);
+            } else if(args[i].equals("-loops")) {
+                i++;
+                loops = MiscUtils.atoi(args[i], loops);
+            }
+        }
+        org.junit.runner.JUnitCore.main(TestGluTessellatorScalingNOUI.class.getName());
+    }
+}
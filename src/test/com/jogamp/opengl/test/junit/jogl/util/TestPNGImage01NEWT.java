@@ -1,5 +1,7 @@
 package com.jogamp.opengl.test.junit.jogl.util;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.net.MalformedURLException;
@@ -8,6 +10,10 @@ import java.net.URLConnection;
 import org.junit.Assert;
 import org.junit.Test;
 
+import jogamp.opengl.util.pngj.ImageInfo;
+import jogamp.opengl.util.pngj.ImageLine;
+import jogamp.opengl.util.pngj.PngWriter;
+
 import com.jogamp.common.util.IOUtil;
 import com.jogamp.opengl.test.junit.util.UITestCase;
 import com.jogamp.opengl.util.texture.spi.PNGImage;
@@ -35,6 +41,44 @@ public class TestPNGImage01NEWT extends UITestCase {
         }                
     }
     
+    /** Writes a synthetic 8 bit grayscale PNG w/ or w/o alpha into memory. */
+    static byte[] createGrayPNG(int width, int height, boolean alpha) {
+        final ImageInfo imi = new ImageInfo(width, height, 8, alpha, true, false);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final PngWriter png = new PngWriter(out, imi);
+        final ImageLine l = new ImageLine(imi);
+        for (int y = 0; y < height; y++) {
+            for (int i = 0; i < imi.samplesPerRow; i++) {
+                l.scanline[i] = ( i * 7 + y * 13 ) & 0xff;
+            }
+            png.writeRow(l, y);
+        }
+        png.end();
+        return out.toByteArray();
+    }
+
+    void testGrayReadWriteAndCompare(boolean alpha) throws IOException {
+        final File out_f=new File(getSimpleTestName(".")+"-PNGImageTest"+(alpha?"LumA":"Lum")+".png");
+        final PNGImage image0 = PNGImage.read(new ByteArrayInputStream(createGrayPNG(33, 17, alpha)));
+        System.err.println("PNGImage - Orig: "+image0);
+        Assert.assertEquals(alpha ? 2 : 1, image0.getBytesPerPixel());
+        image0.write(out_f, true);
+        final PNGImage image1 = PNGImage.read(IOUtil.toURL(out_f).openStream());
+        Assert.assertEquals(image0.getBytesPerPixel(), image1.getBytesPerPixel());
+        Assert.assertEquals(image0.getGLFormat(), image1.getGLFormat());
+        Assert.assertEquals(image0.getData(), image1.getData());
+    }
+
+    @Test
+    public void testPNGReadWriteLuminanceAndCompare() throws IOException {
+        testGrayReadWriteAndCompare(false);
+    }
+
+    @Test
+    public void testPNGReadWriteLuminanceAlphaAndCompare() throws IOException {
+        testGrayReadWriteAndCompare(true);
+    }
+
     public static void main(String args[]) {
         org.junit.runner.JUnitCore.main(TestPNGImage01NEWT.class.getName());
     }
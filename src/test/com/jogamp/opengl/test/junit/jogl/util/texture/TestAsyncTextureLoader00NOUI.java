@@ -0,0 +1,325 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+
+
+package com.jogamp.opengl.test.junit.jogl.util.texture;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.media.opengl.GL;
+import javax.media.opengl.GLAnimatorControl;
+import javax.media.opengl.GLAutoDrawable;
+import javax.media.opengl.GLRunnable;
+
+import jogamp.opengl.util.pngj.ImageInfo;
+import jogamp.opengl.util.pngj.PngReader;
+import jogamp.opengl.util.pngj.PngWriter;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jogamp.opengl.test.junit.util.MiscUtils;
+import com.jogamp.opengl.util.texture.AsyncTextureLoader;
+import com.jogamp.opengl.util.texture.Texture;
+import com.jogamp.opengl.util.texture.TextureData;
+import com.jogamp.opengl.util.texture.TextureUploadQueue;
+
+/**
+ * Measures decode throughput of {@link AsyncTextureLoader} and the latency of {@link TextureUploadQueue}
+ * w/o a GL context: the GL thread is simulated by a frame loop draining the queue,
+ * the upload itself is simulated by touching the texture data.
+ */
+public class TestAsyncTextureLoader00NOUI {
+    static int tileSize = 256;
+    static int tileCount = 512;
+    static int threadCount = 0;
+    static long frameDuration = 16; // ms
+    static long budget = TextureUploadQueue.DEFAULT_BUDGET;
+
+    static byte[] createTile(int size) {
+        final Random rnd = new Random(4711);
+        final ImageInfo imi = new ImageInfo(size, size, 8, true);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final PngWriter png = new PngWriter(out, imi);
+        final byte[] row = new byte[imi.samplesPerRow];
+        for(int y=0; y<size; y++) {
+            for(int i=0; i<row.length; i++) {
+                row[i] = (byte) ( ( i + y ) / 4 + rnd.nextInt(4) );
+            }
+            png.writeRowByte(row, y);
+        }
+        png.end();
+        return out.toByteArray();
+    }
+
+    /** Decodes w/o GLProfile, i.e. w/o GL, like PNGImage does. */
+    static class PNGDecoder implements Callable<TextureData> {
+        final byte[] png;
+        PNGDecoder(byte[] png) { this.png = png; }
+
+        public TextureData call() throws IOException {
+            final PngReader pngr = new PngReader(new ByteArrayInputStream(png), null);
+            final int w = pngr.imgInfo.cols, h = pngr.imgInfo.rows;
+            final ByteBuffer data = ByteBuffer.allocateDirect(4 * w * h);
+            pngr.readRowsToBuffer(data, true);
+            return new TextureData(null, GL.GL_RGBA8, w, h, 0, GL.GL_RGBA, GL.GL_UNSIGNED_BYTE,
+                                   false, false, false, data, null);
+        }
+    }
+
+    /** Drains on a simulated frame loop, uploads by touching the data. */
+    static class SimulatedQueue extends TextureUploadQueue {
+        final AtomicBoolean drainRequested = new AtomicBoolean(false);
+        long maxDrainTime = 0;
+        int frames = 0;
+        int checksum = 0;
+
+        SimulatedQueue(long budget, Executor scheduler) {
+            super(null, budget, scheduler);
+        }
+
+        @Override
+        protected void requestDrain() {
+            drainRequested.set(true);
+        }
+
+        @Override
+        protected Texture newTexture(GLAutoDrawable drawable, TextureData data) {
+            final ByteBuffer b = (ByteBuffer) data.getBuffer();
+            int sum = 0;
+            for(int i=0; i<b.capacity(); i+=64) {
+                sum += b.get(i);
+            }
+            checksum += sum;
+            return new Texture(GL.GL_TEXTURE_2D);
+        }
+
+        /** One frame: render time plus drain, if requested. */
+        void frame(long renderTime) throws InterruptedException {
+            Thread.sleep(renderTime);
+            if( drainRequested.getAndSet(false) ) {
+                final long t0 = System.nanoTime();
+                run(null);
+                maxDrainTime = Math.max(maxDrainTime, System.nanoTime() - t0);
+            }
+            frames++;
+        }
+    }
+
+    static final Executor directExecutor = new Executor() {
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+
+    @Test
+    public void testDecodeThroughput() throws InterruptedException, ExecutionException {
+        final byte[] tile = createTile(tileSize);
+        final int[] threads = 0 < threadCount ? new int[] { threadCount } :
+                              new int[] { 1, Math.max(2, Runtime.getRuntime().availableProcessors()) };
+        for(int t=0; t<threads.length; t++) {
+            final AsyncTextureLoader loader = new AsyncTextureLoader(null, threads[t]);
+            try {
+                final long t0 = System.nanoTime();
+                final List<Future<Texture>> textures = new ArrayList<Future<Texture>>(tileCount);
+                final SimulatedQueue uploads = new SimulatedQueue(budget, directExecutor);
+                for(int i=0; i<tileCount; i++) {
+                    textures.add(loader.newTexture(uploads, new PNGDecoder(tile)));
+                }
+                final long t1 = System.nanoTime();
+                int done = 0;
+                while( done < tileCount ) {
+                    uploads.frame(frameDuration);
+                    done = 0;
+                    for(int i=0; i<tileCount; i++) {
+                        if( textures.get(i).isDone() ) {
+                            done++;
+                        }
+                    }
+                }
+                final long t2 = System.nanoTime();
+                for(int i=0; i<tileCount; i++) {
+                    Assert.assertNotNull(textures.get(i).get());
+                }
+                Assert.assertEquals(tileCount, uploads.getUploadCount());
+                Assert.assertEquals(0, uploads.getPendingCount());
+
+                final double mpix = (double) tileSize * tileSize * tileCount / 1e6;
+                System.err.printf("%d tiles %dx%d, %d threads: submit %7.2f ms, done %8.2f ms, %6.1f MPix/s, %4d frames, "+
+                                  "queue latency avg %7.2f ms, max %7.2f ms, max drain %6.2f ms (budget %5.2f ms)%n",
+                        tileCount, tileSize, tileSize, threads[t], (t1-t0)/1e6, (t2-t0)/1e6, mpix/((t2-t0)/1e9), uploads.frames,
+                        uploads.getTotalLatency()/1e6/tileCount, uploads.getMaxLatency()/1e6, uploads.maxDrainTime/1e6, budget/1e6);
+            } finally {
+                loader.shutdown();
+            }
+        }
+    }
+
+    @Test
+    public void testBudgetAndCancel() throws InterruptedException {
+        final int[] flushed = { 0 };
+        final TextureData.Flusher flusher = new TextureData.Flusher() {
+            public void flush() {
+                flushed[0]++;
+            }
+        };
+        final SimulatedQueue uploads = new SimulatedQueue(0, directExecutor);
+        final List<Future<Texture>> textures = new ArrayList<Future<Texture>>();
+        for(int i=0; i<4; i++) {
+            textures.add(uploads.upload(new TextureData(null, GL.GL_RGBA8, 1, 1, 0, GL.GL_RGBA, GL.GL_UNSIGNED_BYTE,
+                                                        false, false, false, ByteBuffer.allocate(4), flusher)));
+        }
+        Assert.assertEquals(4, uploads.getPendingCount());
+        Assert.assertTrue(textures.get(2).cancel(false));
+
+        // zero budget: one texture per frame, cancelled ones are skipped
+        uploads.frame(0);
+        Assert.assertEquals(1, uploads.getUploadCount());
+        Assert.assertTrue(textures.get(0).isDone());
+        Assert.assertFalse(textures.get(1).isDone());
+        uploads.frame(0);
+        uploads.frame(0);
+        Assert.assertEquals(3, uploads.getUploadCount());
+        Assert.assertEquals(0, uploads.getPendingCount());
+        Assert.assertEquals(4, flushed[0]);
+        try {
+            textures.get(2).get();
+            Assert.fail("not cancelled");
+        } catch (CancellationException e) {
+        } catch (ExecutionException e) {
+            Assert.fail(e.toString());
+        }
+    }
+
+    @Test
+    public void testNoAnimator() {
+        // drawable w/o an animator until animating[0] is set, recording invoked runnables instead of displaying
+        final List<GLRunnable> invoked = new ArrayList<GLRunnable>();
+        final boolean[] animating = { false };
+        final GLAnimatorControl animator = (GLAnimatorControl) Proxy.newProxyInstance(GLAnimatorControl.class.getClassLoader(),
+                new Class<?>[] { GLAnimatorControl.class },
+                new InvocationHandler() {
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        if( method.getName().equals("isAnimating") ) {
+                            return Boolean.TRUE;
+                        }
+                        return null;
+                    } } );
+        final GLAutoDrawable drawable = (GLAutoDrawable) Proxy.newProxyInstance(GLAutoDrawable.class.getClassLoader(),
+                new Class<?>[] { GLAutoDrawable.class },
+                new InvocationHandler() {
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        if( method.getName().equals("getAnimator") ) {
+                            return animating[0] ? animator : null;
+                        }
+                        if( method.getName().equals("invoke") ) {
+                            invoked.add((GLRunnable) args[1]);
+                            return Boolean.TRUE;
+                        }
+                        return null;
+                    } } );
+        final TextureUploadQueue uploads = new TextureUploadQueue(drawable, 0, directExecutor) {
+            @Override
+            protected Texture newTexture(GLAutoDrawable drawable, TextureData data) {
+                return new Texture(GL.GL_TEXTURE_2D);
+            } };
+        for(int i=0; i<2; i++) {
+            uploads.upload(new TextureData(null, GL.GL_RGBA8, 1, 1, 0, GL.GL_RGBA, GL.GL_UNSIGNED_BYTE,
+                                           false, false, false, ByteBuffer.allocate(4), null));
+        }
+        // w/o animator the drain is not invoked, but left to the application's frames
+        Assert.assertEquals(0, invoked.size());
+        uploads.drain(drawable);
+        Assert.assertEquals(0, invoked.size());
+        Assert.assertEquals(1, uploads.getUploadCount());
+        Assert.assertEquals(1, uploads.getPendingCount());
+
+        // w/ a running animator the drain is invoked once per frame
+        animating[0] = true;
+        uploads.upload(new TextureData(null, GL.GL_RGBA8, 1, 1, 0, GL.GL_RGBA, GL.GL_UNSIGNED_BYTE,
+                                       false, false, false, ByteBuffer.allocate(4), null));
+        Assert.assertEquals(1, invoked.size());
+        invoked.get(0).run(drawable);
+        Assert.assertEquals(2, uploads.getUploadCount());
+        Assert.assertEquals(2, invoked.size());
+        invoked.get(1).run(drawable);
+        Assert.assertEquals(3, uploads.getUploadCount());
+        Assert.assertEquals(0, uploads.getPendingCount());
+        Assert.assertEquals(2, invoked.size());
+    }
+
+    @Test
+    public void testDecodeFailure() throws InterruptedException {
+        final AsyncTextureLoader loader = new AsyncTextureLoader(null, 1);
+        try {
+            final SimulatedQueue uploads = new SimulatedQueue(budget, directExecutor);
+            final Future<Texture> texture = loader.newTexture(uploads, new PNGDecoder(new byte[] { 1, 2, 3, 4 }));
+            try {
+                texture.get();
+                Assert.fail("decoding garbage succeeded");
+            } catch (ExecutionException e) {
+                System.err.println("Expected: "+e.getCause());
+            }
+            Assert.assertEquals(0, uploads.getPendingCount());
+        } finally {
+            loader.shutdown();
+        }
+    }
+
+    public static void main(String args[]) {
+        for(int i=0; i<args.length; i++) {
+            if(args[i].equals("-size")) {
+                tileSize = MiscUtils.atoi(args[++i], tileSize);
+            } else if(args[i].equals("-count")) {
+                tileCount = MiscUtils.atoi(args[++i], tileCount);
+            } else if(args[i].equals("-threads")) {
+                threadCount = MiscUtils.atoi(args[++i], threadCount);
+            } else if(args[i].equals("-frame")) {
+                frameDuration = MiscUtils.atoi(args[++i], (int)frameDuration);
+            } else if(args[i].equals("-budget")) {
+                budget = MiscUtils.atoi(args[++i], (int)(budget/1000000L)) * 1000000L;
+            }
+        }
+        org.junit.runner.JUnitCore.main(TestAsyncTextureLoader00NOUI.class.getName());
+    }
+}
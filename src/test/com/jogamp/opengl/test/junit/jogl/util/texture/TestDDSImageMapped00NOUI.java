@@ -0,0 +1,176 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+
+
+package com.jogamp.opengl.test.junit.jogl.util.texture;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.jogamp.opengl.test.junit.util.MiscUtils;
+import com.jogamp.opengl.util.texture.spi.DDSImage;
+
+/**
+ * Validates the memory-mapped {@link DDSImage#read(File)}, i.e. all mipmap levels
+ * are slices of the mapping, against reading the whole file onto the heap via {@link DDSImage#read(ByteBuffer)},
+ * and compares their load latency.
+ */
+public class TestDDSImageMapped00NOUI {
+    static int width = 2048, height = 2048;
+    static int loops = 5;
+
+    static File file;
+    static ByteBuffer[] levels;
+
+    @BeforeClass
+    public static void createFile() throws IOException {
+        final Random rnd = new Random(4711);
+        // DDSImage.createFromData expects each level to be a quarter of its predecessor,
+        // hence stop at the 4x4 DXT block size
+        int n = 1;
+        for(int w = width, h = height; w > 4 && h > 4; w /= 2, h /= 2) {
+            n++;
+        }
+        levels = new ByteBuffer[n];
+        for(int i=0, w = width, h = height; i<levels.length; i++, w /= 2, h /= 2) {
+            final byte[] b = new byte[ ( w / 4 ) * ( h / 4 ) * 16 ];
+            rnd.nextBytes(b);
+            levels[i] = ByteBuffer.wrap(b);
+        }
+        file = File.createTempFile("TestDDSImageMapped00NOUI", ".dds");
+        file.deleteOnExit();
+        final DDSImage image = DDSImage.createFromData(DDSImage.D3DFMT_DXT5, width, height, levels);
+        image.write(file);
+        image.close();
+    }
+
+    @AfterClass
+    public static void deleteFile() {
+        file.delete();
+    }
+
+    static DDSImage readHeap(File f) throws IOException {
+        final byte[] data = new byte[(int) f.length()];
+        final FileInputStream in = new FileInputStream(f);
+        try {
+            int off = 0;
+            while( off < data.length ) {
+                final int n = in.read(data, off, data.length - off);
+                if( 0 > n ) {
+                    throw new IOException("Premature EOF");
+                }
+                off += n;
+            }
+        } finally {
+            in.close();
+        }
+        return DDSImage.read(ByteBuffer.wrap(data));
+    }
+
+    static void validate(DDSImage image) {
+        Assert.assertEquals(levels.length, image.getNumMipMaps());
+        final DDSImage.ImageInfo[] infos = image.getAllMipMaps();
+        for(int i=0; i<levels.length; i++) {
+            Assert.assertEquals("level "+i, levels[i].duplicate().rewind(), infos[i].getData());
+            Assert.assertEquals("level "+i, 0, infos[i].getData().position());
+        }
+    }
+
+    @Test
+    public void testMappedSlices() throws IOException {
+        final DDSImage image = DDSImage.read(file);
+        Assert.assertTrue(image.isMapped());
+        validate(image);
+        final DDSImage.ImageInfo[] infos = image.getAllMipMaps();
+        for(int i=0; i<infos.length; i++) {
+            Assert.assertTrue("level "+i+" not a slice of the mapping", infos[i].getData().isDirect());
+        }
+        // repeated queries must not disturb each other
+        final ByteBuffer l1 = image.getMipMap(1).getData();
+        image.getMipMap(levels.length-1);
+        Assert.assertEquals(levels[1].duplicate().rewind(), l1);
+        image.close();
+        Assert.assertFalse(image.isMapped());
+        // the file must not be held open, i.e. it can be removed right away on all platforms
+        final File copy = File.createTempFile("TestDDSImageMapped00NOUI", ".dds");
+        copy.delete();
+        Assert.assertTrue(file.renameTo(copy));
+        Assert.assertTrue(copy.renameTo(file));
+    }
+
+    @Test
+    public void testHeap() throws IOException {
+        final DDSImage image = readHeap(file);
+        Assert.assertFalse(image.isMapped());
+        validate(image);
+        image.close();
+    }
+
+    @Test
+    public void testLatency() throws IOException {
+        long tHeap = Long.MAX_VALUE, tMapped = Long.MAX_VALUE;
+        long sum = 0;
+        for(int i=0; i<loops; i++) {
+            final long t0 = System.nanoTime();
+            final DDSImage heap = readHeap(file);
+            sum += heap.getAllMipMaps().length;
+            heap.close();
+            final long t1 = System.nanoTime();
+            final DDSImage mapped = DDSImage.read(file);
+            sum += mapped.getAllMipMaps().length;
+            mapped.close();
+            final long t2 = System.nanoTime();
+            tHeap = Math.min(tHeap, t1 - t0);
+            tMapped = Math.min(tMapped, t2 - t1);
+        }
+        Assert.assertEquals(2 * loops * levels.length, sum);
+        System.err.printf("DXT5 %dx%d, %d levels, %d bytes: heap %7.3f ms, mapped %7.3f ms, speedup %6.2f%n",
+                width, height, levels.length, file.length(), tHeap/1e6, tMapped/1e6, (double)tHeap/(double)tMapped);
+    }
+
+    public static void main(String args[]) {
+        for(int i=0; i<args.length; i++) {
+            if(args[i].equals("-width")) {
+                width = MiscUtils.atoi(args[++i], width);
+            } else if(args[i].equals("-height")) {
+                height = MiscUtils.atoi(args[++i], height);
+            } else if(args[i].equals("-loops")) {
+                loops = MiscUtils.atoi(args[++i], loops);
+            }
+        }
+        org.junit.runner.JUnitCore.main(TestDDSImageMapped00NOUI.class.getName());
+    }
+}
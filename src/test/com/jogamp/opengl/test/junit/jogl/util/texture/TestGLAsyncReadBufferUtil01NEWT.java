@@ -0,0 +1,224 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+
+package com.jogamp.opengl.test.junit.jogl.util.texture;
+
+import java.io.File;
+import java.io.IOException;
+
+import javax.media.opengl.GL;
+import javax.media.opengl.GLAutoDrawable;
+import javax.media.opengl.GLCapabilities;
+import javax.media.opengl.GLEventListener;
+import javax.media.opengl.GLProfile;
+import javax.media.opengl.GLRunnable;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.jogamp.newt.opengl.GLWindow;
+import com.jogamp.opengl.test.junit.jogl.demos.es2.GearsES2;
+import com.jogamp.opengl.test.junit.jogl.offscreen.WindowUtilNEWT;
+import com.jogamp.opengl.test.junit.util.MiscUtils;
+import com.jogamp.opengl.test.junit.util.UITestCase;
+import com.jogamp.opengl.util.GLAsyncReadBufferUtil;
+import com.jogamp.opengl.util.GLReadBufferUtil;
+import com.jogamp.opengl.util.texture.TextureIO;
+
+/**
+ * Frame time and throughput harness for continuous capture of an offscreen drawable,
+ * comparing {@link GLReadBufferUtil}, i.e. synchronous readback and encoding on the GL thread,
+ * w/ {@link GLAsyncReadBufferUtil} w/ and w/o pixel pack buffer objects.
+ * <p>
+ * Runs on a software context as well, e.g. Mesa w/ <code>LIBGL_ALWAYS_SOFTWARE=1</code>.
+ * </p>
+ */
+public class TestGLAsyncReadBufferUtil01NEWT extends UITestCase {
+    static GLProfile glp;
+    static GLCapabilities caps;
+    static int width = 512, height = 512;
+    static int frames = 60;
+    static int ringSize = GLAsyncReadBufferUtil.DEFAULT_RING_SIZE;
+    static String suffix = TextureIO.TGA;
+
+    @BeforeClass
+    public static void initClass() {
+        glp = GLProfile.getDefault();
+        Assert.assertNotNull(glp);
+        caps = new GLCapabilities(glp);
+        caps.setAlphaBits(1);
+    }
+
+    static abstract class Capture implements GLEventListener {
+        final File dir;
+        final String name;
+        boolean enabled = false;
+        int frame = 0;
+        long frameTime = 0, maxFrameTime = 0;
+
+        Capture(File dir, String name) { this.dir = dir; this.name = name; }
+
+        File nextFile() {
+            // overwrite a few files only, the disk is not what we measure
+            return new File(dir, name+"-"+(frame++ % 8)+"."+suffix);
+        }
+
+        public void init(GLAutoDrawable drawable) {}
+        public void reshape(GLAutoDrawable drawable, int x, int y, int width, int height) {}
+        public void dispose(GLAutoDrawable drawable) {}
+
+        public void display(GLAutoDrawable drawable) {
+            if( !enabled ) {
+                return;
+            }
+            final long t0 = System.nanoTime();
+            capture(drawable.getGL());
+            final long t = System.nanoTime() - t0;
+            frameTime += t;
+            maxFrameTime = Math.max(maxFrameTime, t);
+        }
+
+        abstract void capture(GL gl);
+
+        /** Waits until all frames are written, on the GL thread */
+        abstract void finish(GL gl);
+    }
+
+    static class SyncCapture extends Capture {
+        final GLReadBufferUtil util = new GLReadBufferUtil(false, false);
+
+        SyncCapture(File dir) { super(dir, "sync"); }
+
+        void capture(GL gl) {
+            if( util.readPixels(gl, false) ) {
+                util.write(nextFile());
+            }
+        }
+
+        void finish(GL gl) { util.dispose(gl); }
+    }
+
+    static class AsyncCapture extends Capture {
+        final GLAsyncReadBufferUtil util = new GLAsyncReadBufferUtil(false, ringSize);
+
+        AsyncCapture(File dir, boolean pbo) {
+            super(dir, pbo ? "async-pbo" : "async");
+            util.setAllowPixelPackBuffer(pbo);
+        }
+
+        void capture(GL gl) {
+            util.readPixels(gl, false, nextFile());
+        }
+
+        void finish(GL gl) {
+            System.err.println(name+": usesPixelPackBuffer "+util.usesPixelPackBuffer(gl));
+            util.dispose(gl);
+            Assert.assertEquals(frames, util.getFrameCount());
+            Assert.assertEquals(frames, util.getEncodeCount());
+            System.err.printf("%-10s read on GL thread: avg %6.2f ms, max %6.2f ms, stalled %7.2f ms; encode avg %6.2f ms%n",
+                    name, util.getTotalReadTime()/1e6/frames, util.getMaxReadTime()/1e6,
+                    util.getTotalStallTime()/1e6, util.getTotalEncodeTime()/1e6/frames);
+        }
+    }
+
+    void run(final Capture capture) throws InterruptedException {
+        final GLCapabilities caps2 = WindowUtilNEWT.fixCaps(caps, false, true, false);
+        final GLWindow glWindow = GLWindow.create(caps2);
+        Assert.assertNotNull(glWindow);
+        glWindow.setSize(width, height);
+        glWindow.addGLEventListener(new GearsES2(1));
+        glWindow.addGLEventListener(capture);
+        glWindow.setVisible(true);
+        glWindow.display(); // warm up, not captured
+
+        capture.enabled = true;
+        final long t0 = System.nanoTime();
+        for(int i=0; i<frames; i++) {
+            glWindow.display();
+        }
+        final long t1 = System.nanoTime();
+        capture.enabled = false; // invoke(..) below renders another frame w/o animator
+        glWindow.invoke(true, new GLRunnable() {
+            public boolean run(GLAutoDrawable drawable) {
+                capture.finish(drawable.getGL());
+                return true;
+            }
+        });
+        final long t2 = System.nanoTime();
+        Assert.assertEquals(frames, capture.frame);
+        System.err.printf("%-10s %dx%d, %d frames: capture per frame avg %6.2f ms, max %6.2f ms; render loop %6.1f fps, incl. flush %6.1f fps%n",
+                capture.name, width, height, frames, capture.frameTime/1e6/frames, capture.maxFrameTime/1e6,
+                frames/((t1-t0)/1e9), frames/((t2-t0)/1e9));
+        glWindow.destroy();
+    }
+
+    static File createDir() throws IOException {
+        final File dir = File.createTempFile("capture", "");
+        Assert.assertTrue(dir.delete());
+        Assert.assertTrue(dir.mkdir());
+        return dir;
+    }
+
+    static void deleteDir(File dir) {
+        final File[] files = dir.listFiles();
+        for(int i=0; null != files && i<files.length; i++) {
+            files[i].delete();
+        }
+        dir.delete();
+    }
+
+    @Test
+    public void testCapture() throws InterruptedException, IOException {
+        final File dir = createDir();
+        try {
+            run(new SyncCapture(dir));
+            run(new AsyncCapture(dir, false));
+            run(new AsyncCapture(dir, true));
+        } finally {
+            deleteDir(dir);
+        }
+    }
+
+    public static void main(String args[]) {
+        for(int i=0; i<args.length; i++) {
+            if(args[i].equals("-width")) {
+                width = MiscUtils.atoi(args[++i], width);
+            } else if(args[i].equals("-height")) {
+                height = MiscUtils.atoi(args[++i], height);
+            } else if(args[i].equals("-frames")) {
+                frames = MiscUtils.atoi(args[++i], frames);
+            } else if(args[i].equals("-ring")) {
+                ringSize = MiscUtils.atoi(args[++i], ringSize);
+            } else if(args[i].equals("-suffix")) {
+                suffix = args[++i];
+            }
+        }
+        org.junit.runner.JUnitCore.main(TestGLAsyncReadBufferUtil01NEWT.class.getName());
+    }
+}
@@ -0,0 +1,249 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+
+package com.jogamp.opengl.test.junit.jogl.util.texture;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.util.Random;
+
+import javax.media.opengl.GL;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jogamp.opengl.test.junit.util.MiscUtils;
+import com.jogamp.opengl.util.texture.MipmapGenerator;
+import com.jogamp.opengl.util.texture.TextureData;
+
+/**
+ * Validates the mipmap chains built by {@link MipmapGenerator} w/o a GL context
+ * and measures its throughput per filter.
+ */
+public class TestMipmapGenerator00NOUI {
+    static int size = 2048;
+    static int loops = 5;
+
+    static TextureData createUByte(int width, int height, int format, int components, int alignment, long seed) {
+        int rowStride = width * components;
+        if( 0 != rowStride % alignment ) {
+            rowStride += alignment - rowStride % alignment;
+        }
+        final byte[] pixels = new byte[rowStride * height];
+        new Random(seed).nextBytes(pixels);
+        final TextureData data = new TextureData(null, format, width, height, 0, format, GL.GL_UNSIGNED_BYTE,
+                                                 true, false, false, ByteBuffer.wrap(pixels), null);
+        data.setAlignment(alignment);
+        return data;
+    }
+
+    static TextureData createFloat(int width, int height, long seed) {
+        final Random rnd = new Random(seed);
+        final float[] pixels = new float[width * height * 4];
+        for(int i=0; i<pixels.length; i++) {
+            pixels[i] = rnd.nextFloat();
+        }
+        return new TextureData(null, GL.GL_RGBA, width, height, 0, GL.GL_RGBA, GL.GL_FLOAT,
+                               true, false, false, FloatBuffer.wrap(pixels), null);
+    }
+
+    static TextureData createConstant(int width, int height, byte value) {
+        final byte[] pixels = new byte[width * height * 4];
+        java.util.Arrays.fill(pixels, value);
+        return new TextureData(null, GL.GL_RGBA, width, height, 0, GL.GL_RGBA, GL.GL_UNSIGNED_BYTE,
+                               true, false, false, ByteBuffer.wrap(pixels), null);
+    }
+
+    static void validateLevels(TextureData mipmapped, int width, int height, int components) {
+        Assert.assertTrue(mipmapped.getMipmap());
+        Assert.assertNull(mipmapped.getBuffer());
+        final Buffer[] levels = mipmapped.getMipmapData();
+        Assert.assertEquals(MipmapGenerator.getLevelCount(width, height), levels.length);
+        int w = width, h = height;
+        for(int l=0; l<levels.length; l++) {
+            Assert.assertEquals("Level "+l+" of "+width+"x"+height, w * h * components, levels[l].remaining());
+            w = Math.max(1, w / 2);
+            h = Math.max(1, h / 2);
+        }
+        Assert.assertEquals(1, w + h - 1);
+    }
+
+    @Test
+    public void test01LevelSizes() {
+        final int[][] sizes = { { 1, 1 }, { 2, 1 }, { 256, 256 }, { 300, 17 }, { 17, 300 }, { 5, 7 } };
+        final MipmapGenerator.Filter[] filters = MipmapGenerator.Filter.values();
+        for(int s=0; s<sizes.length; s++) {
+            for(int f=0; f<filters.length; f++) {
+                final int w = sizes[s][0], h = sizes[s][1];
+                validateLevels(MipmapGenerator.generate(createUByte(w, h, GL.GL_RGB, 3, 4, s), filters[f], false), w, h, 3);
+                validateLevels(MipmapGenerator.generate(createUByte(w, h, GL.GL_LUMINANCE_ALPHA, 2, 1, s), filters[f], true), w, h, 2);
+                validateLevels(MipmapGenerator.generate(createFloat(w, h, s), filters[f], false), w, h, 4);
+            }
+        }
+        Assert.assertEquals(9, MipmapGenerator.getLevelCount(300, 17));
+    }
+
+    @Test
+    public void test02BoxEqualsAverage() {
+        // even sizes average 2x2 pixels w/ rounding, row padding of the base level is removed
+        final int w = 34, h = 18, components = 3;
+        final TextureData data = createUByte(w, h, GL.GL_RGB, components, 4, 1);
+        final ByteBuffer in = (ByteBuffer) data.getBuffer();
+        final int rowStride = 104;
+        final Buffer[] levels = MipmapGenerator.generate(data, MipmapGenerator.Filter.BOX, false).getMipmapData();
+        final ByteBuffer base = (ByteBuffer) levels[0];
+        final ByteBuffer level1 = (ByteBuffer) levels[1];
+        for(int y=0; y<h; y++) {
+            for(int i=0; i<w*components; i++) {
+                Assert.assertEquals(in.get(y*rowStride + i), base.get(y*w*components + i));
+            }
+        }
+        for(int y=0; y<h/2; y++) {
+            for(int x=0; x<w/2; x++) {
+                for(int k=0; k<components; k++) {
+                    final int s = 2*y*rowStride + 2*x*components + k;
+                    final int sum = ( 0xFF & in.get(s) ) + ( 0xFF & in.get(s+components) ) +
+                                    ( 0xFF & in.get(s+rowStride) ) + ( 0xFF & in.get(s+rowStride+components) );
+                    Assert.assertEquals(( sum + 2 ) / 4, 0xFF & level1.get(( y*(w/2) + x )*components + k));
+                }
+            }
+        }
+        // odd sizes: the level above 1x1 averages all pixels
+        final TextureData odd = createUByte(3, 3, GL.GL_LUMINANCE, 1, 1, 2);
+        final ByteBuffer oddIn = (ByteBuffer) odd.getBuffer();
+        int sum = 0;
+        for(int i=0; i<9; i++) {
+            sum += 0xFF & oddIn.get(i);
+        }
+        final Buffer[] oddLevels = MipmapGenerator.generate(odd, MipmapGenerator.Filter.BOX, false).getMipmapData();
+        Assert.assertEquals(2, oddLevels.length);
+        Assert.assertEquals(sum / 9f, 0xFF & ((ByteBuffer)oddLevels[1]).get(0), 0.5f);
+    }
+
+    @Test
+    public void test03ConstantStaysConstant() {
+        final MipmapGenerator.Filter[] filters = MipmapGenerator.Filter.values();
+        for(int f=0; f<filters.length; f++) {
+            for(int srgb=0; srgb<2; srgb++) {
+                final Buffer[] levels = MipmapGenerator.generate(createConstant(37, 20, (byte)200), filters[f], 1 == srgb).getMipmapData();
+                for(int l=1; l<levels.length; l++) {
+                    final ByteBuffer b = (ByteBuffer) levels[l];
+                    for(int i=0; i<b.remaining(); i++) {
+                        Assert.assertEquals(filters[f]+", sRGB "+srgb+", level "+l, 200, 0xFF & b.get(i), 1);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void test04SRGB() {
+        // black and white average to 50% intensity, i.e. ~188 sRGB encoded, alpha stays linear
+        final ByteBuffer pixels = ByteBuffer.wrap(new byte[] { 0, 0, 0, 0, (byte)255, (byte)255, (byte)255, (byte)255 });
+        final TextureData data = new TextureData(null, GL.GL_RGBA, 2, 1, 0, GL.GL_RGBA, GL.GL_UNSIGNED_BYTE,
+                                                 true, false, false, pixels, null);
+        final ByteBuffer linear = (ByteBuffer) MipmapGenerator.generate(data, MipmapGenerator.Filter.BOX, false).getMipmapData()[1];
+        final ByteBuffer srgb = (ByteBuffer) MipmapGenerator.generate(data, MipmapGenerator.Filter.BOX, true).getMipmapData()[1];
+        for(int k=0; k<3; k++) {
+            Assert.assertEquals(128, 0xFF & linear.get(k));
+            Assert.assertEquals(188, 0xFF & srgb.get(k), 1);
+        }
+        Assert.assertEquals(128, 0xFF & srgb.get(3));
+    }
+
+    @Test
+    public void test05Unsupported() {
+        final TextureData compressed = new TextureData(null, GL.GL_RGBA, 4, 4, 0, GL.GL_RGBA, GL.GL_UNSIGNED_BYTE,
+                                                       false, true, false, ByteBuffer.allocate(16), null);
+        Assert.assertFalse(MipmapGenerator.isSupported(compressed));
+        try {
+            MipmapGenerator.generate(compressed, MipmapGenerator.Filter.BOX, false);
+            Assert.fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        final TextureData mipmapped = MipmapGenerator.generate(createFloat(4, 4, 1), MipmapGenerator.Filter.BOX, false);
+        Assert.assertFalse(MipmapGenerator.isSupported(mipmapped));
+    }
+
+    @Test
+    public void test06FlusherOwnership() {
+        final int[] flushed = { 0 };
+        final TextureData data = new TextureData(null, GL.GL_RGBA, 8, 8, 0, GL.GL_RGBA, GL.GL_UNSIGNED_BYTE,
+                                                 true, false, false, ByteBuffer.allocate(8*8*4),
+                                                 new TextureData.Flusher() {
+                                                     public void flush() {
+                                                         flushed[0]++;
+                                                     }
+                                                 });
+        final TextureData mipmapped = MipmapGenerator.generate(data, MipmapGenerator.Filter.BOX, false);
+        Assert.assertSame(data.getBuffer(), mipmapped.getMipmapData()[0]);
+        Assert.assertEquals(0, flushed[0]);
+        mipmapped.flush();
+        Assert.assertEquals(1, flushed[0]);
+        mipmapped.flush();
+        Assert.assertEquals(1, flushed[0]);
+    }
+
+    @Test
+    public void test10Performance() {
+        final TextureData ubyte = createUByte(size, size, GL.GL_RGBA, 4, 4, 1);
+        final TextureData floats = createFloat(size, size, 1);
+        final MipmapGenerator.Filter[] filters = MipmapGenerator.Filter.values();
+        final double mpixels = size * (double) size / 1e6;
+        System.err.printf("Mipmap chain of %d^2 RGBA, best of %d loops:%n", size, loops);
+        for(int f=0; f<filters.length; f++) {
+            for(int m=0; m<3; m++) {
+                final TextureData data = 2 == m ? floats : ubyte;
+                final boolean srgb = 1 == m;
+                long t = Long.MAX_VALUE;
+                for(int l=0; l<loops; l++) {
+                    final long t0 = System.nanoTime();
+                    MipmapGenerator.generate(data, filters[f], srgb);
+                    t = Math.min(t, System.nanoTime() - t0);
+                }
+                System.err.printf("  %-8s %-11s %8.3f ms, %7.1f Mpixels/s%n", filters[f], 2 == m ? "float" : ( srgb ? "ubyte sRGB" : "ubyte" ),
+                                  t/1e6, mpixels*1e9/t);
+            }
+        }
+    }
+
+    public static void main(String args[]) {
+        for(int i=0; i<args.length; i++) {
+            if(args[i].equals("-size")) {
+                i++;
+                size = MiscUtils.atoi(args[i], size);
+            } else if(args[i].equals("-loops")) {
+                i++;
+                loops = MiscUtils.atoi(args[i], loops);
+            }
+        }
+        org.junit.runner.JUnitCore.main(TestMipmapGenerator00NOUI.class.getName());
+    }
+}
@@ -0,0 +1,237 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+
+package com.jogamp.opengl.test.junit.jogl.util.texture;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import jogamp.opengl.util.pngj.FilterType;
+import jogamp.opengl.util.pngj.ImageInfo;
+import jogamp.opengl.util.pngj.ImageLine;
+import jogamp.opengl.util.pngj.PngReader;
+import jogamp.opengl.util.pngj.PngWriter;
+import jogamp.opengl.util.pngj.chunks.PngChunkPLTE;
+import jogamp.opengl.util.pngj.chunks.PngChunkTRNS;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jogamp.opengl.test.junit.util.MiscUtils;
+
+/**
+ * Validates {@link PngReader#readRowsToBuffer(ByteBuffer, boolean)} against the
+ * row by row {@link ImageLine} decoding formerly used by PNGImage,
+ * and compares their throughput over a synthetic corpus of RGB/RGBA/greyscale/palette/16 bit images.
+ */
+public class TestPNGDecodeToBuffer00NOUI {
+    static int width = 512, height = 512;
+    static int loops = 5;
+
+    static class Sample {
+        final String name;
+        final ImageInfo imi;
+        final int paletteSize;
+        final boolean paletteAlpha;
+        final byte[] png;
+
+        Sample(String name, ImageInfo imi, int paletteSize, boolean paletteAlpha) {
+            this.name = name;
+            this.imi = imi;
+            this.paletteSize = paletteSize;
+            this.paletteAlpha = paletteAlpha;
+            this.png = create();
+        }
+
+        byte[] create() {
+            final Random rnd = new Random(4711);
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final PngWriter png = new PngWriter(out, imi);
+            png.setFilterType(FilterType.FILTER_AGGRESSIVE);
+            if( imi.indexed ) {
+                final PngChunkPLTE plte = png.getMetadata().createPLTEChunk();
+                plte.setNentries(paletteSize);
+                for(int i=0; i<paletteSize; i++) {
+                    plte.setEntry(i, rnd.nextInt(256), rnd.nextInt(256), rnd.nextInt(256));
+                }
+                if( paletteAlpha ) {
+                    final PngChunkTRNS trns = png.getMetadata().createTRNSChunk();
+                    final int[] alpha = new int[paletteSize/2]; // shorter than palette is legal
+                    for(int i=0; i<alpha.length; i++) {
+                        alpha[i] = rnd.nextInt(256);
+                    }
+                    trns.setPalletteAlpha(alpha);
+                }
+            }
+            png.setUseUnPackedMode(true);
+            final int maxVal = imi.indexed ? paletteSize - 1 : ( 1 << imi.bitDepth ) - 1;
+            final int[] row = new int[imi.samplesPerRow];
+            for(int y=0; y<imi.rows; y++) {
+                for(int x=0, i=0; x<imi.cols; x++) {
+                    for(int c=0; c<imi.channels; c++) {
+                        // gradients plus noise
+                        row[i++] = Math.min(maxVal, ( ( x + y * (c+1) ) * maxVal ) / ( imi.cols + imi.rows * imi.channels ) + rnd.nextInt(2));
+                    }
+                }
+                png.writeRowInt(row, y);
+            }
+            png.end();
+            return out.toByteArray();
+        }
+    }
+
+    static Sample[] createCorpus() {
+        return new Sample[] {
+            new Sample("RGB8",      new ImageInfo(width, height, 8, false), 0, false),
+            new Sample("RGBA8",     new ImageInfo(width, height, 8, true), 0, false),
+            new Sample("Lum8",      new ImageInfo(width, height, 8, false, true, false), 0, false),
+            new Sample("LumA8",     new ImageInfo(width, height, 8, true, true, false), 0, false),
+            new Sample("Lum2",      new ImageInfo(width, height, 2, false, true, false), 0, false),
+            new Sample("RGB16",     new ImageInfo(width, height, 16, false), 0, false),
+            new Sample("RGBA16",    new ImageInfo(width, height, 16, true), 0, false),
+            new Sample("Pal8",      new ImageInfo(width, height, 8, false, false, true), 256, false),
+            new Sample("Pal4tRNS",  new ImageInfo(width, height, 4, false, false, true), 16, true),
+            new Sample("Pal1",      new ImageInfo(width-3, height, 1, false, false, true), 2, false),
+        };
+    }
+
+    /** The former PNGImage path: ImageLine rows, per pixel absolute puts, flipped. */
+    static ByteBuffer decodeByLines(byte[] png) {
+        final PngReader pngr = new PngReader(new ByteArrayInputStream(png), null);
+        final ImageInfo imi = pngr.imgInfo;
+        final int bpp = pngr.getBufferBytesPerPixel();
+        int[] palette = null, alpha = null;
+        if( imi.indexed ) {
+            final PngChunkPLTE plte = pngr.getMetadata().getPLTE();
+            palette = new int[plte.getNentries()];
+            for(int i=0; i<palette.length; i++) {
+                palette[i] = plte.getEntry(i);
+            }
+            if( null != pngr.getMetadata().getTRNS() ) {
+                alpha = pngr.getMetadata().getTRNS().getPalletteAlpha();
+            }
+        }
+        pngr.setUnpackedMode(true);
+        final ByteBuffer data = ByteBuffer.allocateDirect(bpp * imi.cols * imi.rows);
+        final int scale = imi.bitDepth < 8 ? 255 / ( ( 1 << imi.bitDepth ) - 1 ) : 1;
+        for(int y=0; y<imi.rows; y++) {
+            final ImageLine l = pngr.readRowInt(y);
+            int dOff = ( imi.rows - 1 - y ) * imi.cols * bpp;
+            for(int x=0, i=0; x<imi.cols; x++) {
+                if( null != palette ) {
+                    final int idx = l.scanline[i++];
+                    data.put(dOff++, (byte) ( palette[idx] >> 16 ));
+                    data.put(dOff++, (byte) ( palette[idx] >> 8 ));
+                    data.put(dOff++, (byte) palette[idx]);
+                    if( 4 == bpp ) {
+                        data.put(dOff++, (byte) ( idx < alpha.length ? alpha[idx] : 255 ));
+                    }
+                } else {
+                    for(int c=0; c<imi.channels; c++) {
+                        final int v = l.scanline[i++];
+                        data.put(dOff++, (byte) ( 16 == imi.bitDepth ? v >> 8 : v * scale ));
+                    }
+                }
+            }
+        }
+        pngr.end();
+        return data;
+    }
+
+    static ByteBuffer decodeToBuffer(byte[] png, ByteBuffer dest) {
+        final PngReader pngr = new PngReader(new ByteArrayInputStream(png), null);
+        final int size = pngr.getBufferBytesPerPixel() * pngr.imgInfo.cols * pngr.imgInfo.rows;
+        if( null == dest || dest.capacity() < size ) {
+            dest = ByteBuffer.allocateDirect(size);
+        }
+        dest.clear();
+        pngr.readRowsToBuffer(dest, true);
+        dest.limit(size);
+        return dest;
+    }
+
+    @Test
+    public void testCorpus() {
+        final Sample[] corpus = createCorpus();
+        ByteBuffer pooled = null;
+        for(int s=0; s<corpus.length; s++) {
+            final Sample sample = corpus[s];
+            final ByteBuffer expected = decodeByLines(sample.png);
+            pooled = decodeToBuffer(sample.png, pooled);
+            Assert.assertEquals(sample.name, expected, pooled);
+
+            long tLines = Long.MAX_VALUE, tBuffer = Long.MAX_VALUE;
+            for(int i=0; i<loops; i++) {
+                final long t0 = System.nanoTime();
+                decodeByLines(sample.png);
+                final long t1 = System.nanoTime();
+                pooled = decodeToBuffer(sample.png, pooled);
+                final long t2 = System.nanoTime();
+                tLines = Math.min(tLines, t1 - t0);
+                tBuffer = Math.min(tBuffer, t2 - t1);
+            }
+            final double mpix = (double) sample.imi.cols * sample.imi.rows / 1e6;
+            System.err.printf("%-9s %dx%d: lines %7.2f ms (%6.1f MPix/s), buffer %7.2f ms (%6.1f MPix/s), speedup %5.2f%n",
+                    sample.name, sample.imi.cols, sample.imi.rows, tLines/1e6, mpix/(tLines/1e9), tBuffer/1e6, mpix/(tBuffer/1e9),
+                    (double)tLines/(double)tBuffer);
+        }
+    }
+
+    @Test
+    public void testBufferOffsetAndNoFlip() {
+        final Sample sample = new Sample("RGB8", new ImageInfo(17, 5, 8, false), 0, false);
+        final int size = 17 * 5 * 3;
+        final ByteBuffer flipped = decodeToBuffer(sample.png, null);
+
+        final ByteBuffer dest = ByteBuffer.allocateDirect(size + 10);
+        dest.position(10);
+        final PngReader pngr = new PngReader(new ByteArrayInputStream(sample.png), null);
+        pngr.readRowsToBuffer(dest, false);
+        Assert.assertEquals(10, dest.position());
+        for(int y=0; y<5; y++) {
+            for(int i=0; i<17*3; i++) {
+                Assert.assertEquals(flipped.get( ( 4 - y ) * 17 * 3 + i ), dest.get( 10 + y * 17 * 3 + i ));
+            }
+        }
+    }
+
+    public static void main(String args[]) {
+        for(int i=0; i<args.length; i++) {
+            if(args[i].equals("-width")) {
+                width = MiscUtils.atoi(args[++i], width);
+            } else if(args[i].equals("-height")) {
+                height = MiscUtils.atoi(args[++i], height);
+            } else if(args[i].equals("-loops")) {
+                loops = MiscUtils.atoi(args[++i], loops);
+            }
+        }
+        org.junit.runner.JUnitCore.main(TestPNGDecodeToBuffer00NOUI.class.getName());
+    }
+}
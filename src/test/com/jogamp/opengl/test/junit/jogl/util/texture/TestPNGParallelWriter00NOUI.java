@@ -0,0 +1,235 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+
+package com.jogamp.opengl.test.junit.jogl.util.texture;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import jogamp.opengl.util.pngj.FilterType;
+import jogamp.opengl.util.pngj.ImageInfo;
+import jogamp.opengl.util.pngj.ImageLine;
+import jogamp.opengl.util.pngj.PngReader;
+import jogamp.opengl.util.pngj.PngWriter;
+import jogamp.opengl.util.pngj.PngjException;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jogamp.opengl.test.junit.util.MiscUtils;
+
+/**
+ * Validates the parallel band encoder of {@link PngWriter} against the serial one
+ * and compares their throughput for several compression levels and filter strategies.
+ */
+public class TestPNGParallelWriter00NOUI {
+    static int width = 1024, height = 768;
+    static int loops = 2;
+
+    static final int[] levels = { 1, 6, 9 };
+    static final FilterType[] filters = { FilterType.FILTER_NONE, FilterType.FILTER_SUB, FilterType.FILTER_PAETH,
+                                          FilterType.FILTER_DEFAULT, FilterType.FILTER_AGGRESSIVE };
+
+    /** Smooth gradients with some noise, roughly like a rendered frame. */
+    static byte[][] createImage(int w, int h, int channels) {
+        final Random rnd = new Random(4711);
+        final byte[][] rows = new byte[h][w*channels];
+        for(int y=0; y<h; y++) {
+            final byte[] row = rows[y];
+            for(int x=0, i=0; x<w; x++) {
+                for(int c=0; c<channels; c++) {
+                    row[i++] = (byte) ( ( x * (c+1) + y * (3-c) ) / 8 + rnd.nextInt(4) );
+                }
+            }
+        }
+        return rows;
+    }
+
+    static byte[] write(byte[][] rows, ImageInfo imi, int level, FilterType filter, ExecutorService executor, boolean parallel) {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final PngWriter png = new PngWriter(out, imi);
+        png.setCompLevel(level);
+        png.setFilterType(filter);
+        if(parallel) {
+            png.setParallelMode(executor, 0);
+        }
+        for(int y=0; y<imi.rows; y++) {
+            png.writeRowByte(rows[y], y);
+        }
+        if(parallel) {
+            Assert.assertTrue("parallel mode not used", png.isParallelMode());
+        }
+        png.end();
+        return out.toByteArray();
+    }
+
+    static void validate(byte[][] rows, byte[] png) {
+        final PngReader pngr = new PngReader(new ByteArrayInputStream(png), null);
+        for(int y=0; y<pngr.imgInfo.rows; y++) {
+            final ImageLine l = pngr.readRowByte(y);
+            Assert.assertArrayEquals("row "+y, rows[y], l.scanlineb);
+        }
+        pngr.end();
+    }
+
+    void testImpl(int channels) {
+        final ImageInfo imi = new ImageInfo(width, height, 8, 4 == channels);
+        final byte[][] rows = createImage(width, height, channels);
+        // fixed pool, so the test also runs parallel on a single core machine
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors()));
+        try {
+            for(int l=0; l<levels.length; l++) {
+                for(int f=0; f<filters.length; f++) {
+                    final int level = levels[l];
+                    final FilterType filter = filters[f];
+
+                    byte[] serial = null, parallel = null;
+                    long tSerial = Long.MAX_VALUE, tParallel = Long.MAX_VALUE;
+                    for(int i=0; i<loops; i++) {
+                        long t0 = System.nanoTime();
+                        serial = write(rows, imi, level, filter, executor, false);
+                        long t1 = System.nanoTime();
+                        parallel = write(rows, imi, level, filter, executor, true);
+                        long t2 = System.nanoTime();
+                        tSerial = Math.min(tSerial, t1 - t0);
+                        tParallel = Math.min(tParallel, t2 - t1);
+                    }
+                    validate(rows, serial);
+                    validate(rows, parallel);
+                    System.err.printf("%dx%dx%d level %d, %-20s: serial %7.2f ms, %8d bytes; parallel %7.2f ms, %8d bytes; speedup %5.2f%n",
+                            width, height, channels, level, filter, tSerial/1e6, serial.length, tParallel/1e6, parallel.length,
+                            (double)tSerial/(double)tParallel);
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testRGB() {
+        testImpl(3);
+    }
+
+    @Test
+    public void testRGBA() {
+        testImpl(4);
+    }
+
+    @Test
+    public void testSmallImageStaysSerial() {
+        final ImageInfo imi = new ImageInfo(64, 64, 8, false);
+        final byte[][] rows = createImage(64, 64, 3);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final PngWriter png = new PngWriter(out, imi);
+        png.setParallelMode(null, 0);
+        for(int y=0; y<imi.rows; y++) {
+            png.writeRowByte(rows[y], y);
+        }
+        Assert.assertFalse(png.isParallelMode());
+        png.end();
+        validate(rows, out.toByteArray());
+    }
+
+    /** Runs the first band inline and keeps all later ones queued, i.e. they are pending when the first one is written. */
+    static class DeferringExecutor extends AbstractExecutorService {
+        final List<Runnable> deferred = new ArrayList<Runnable>();
+        boolean first = true;
+
+        public void execute(Runnable command) {
+            if( first ) {
+                first = false;
+                command.run();
+            } else {
+                deferred.add(command);
+            }
+        }
+        public void shutdown() { }
+        public List<Runnable> shutdownNow() { return deferred; }
+        public boolean isShutdown() { return false; }
+        public boolean isTerminated() { return false; }
+        public boolean awaitTermination(long timeout, TimeUnit unit) { return true; }
+    }
+
+    @Test
+    public void testFailingStreamAbortsPendingBands() {
+        final int bandRows = 4;
+        final int h = bandRows * ( 4 * Runtime.getRuntime().availableProcessors() + 4 );
+        final ImageInfo imi = new ImageInfo(64, h, 8, false);
+        final byte[][] rows = createImage(64, h, 3);
+        final OutputStream out = new OutputStream() {
+            int count = 0;
+            public void write(int b) throws IOException {
+                if( ++count > 64 ) { // signature and IHDR pass, the first IDAT chunk fails
+                    throw new IOException("disk full");
+                }
+            }
+        };
+        final DeferringExecutor executor = new DeferringExecutor();
+        final PngWriter png = new PngWriter(out, imi);
+        png.setParallelMode(executor, bandRows);
+        png.setIdatMaxSize(256);
+        try {
+            for(int y=0; y<imi.rows; y++) {
+                png.writeRowByte(rows[y], y);
+            }
+            png.end();
+            Assert.fail("no exception");
+        } catch (PngjException e) {
+            System.err.println("Expected: "+e);
+        }
+        Assert.assertTrue(png.isParallelMode());
+        Assert.assertFalse("no pending band", executor.deferred.isEmpty());
+        for(int i=0; i<executor.deferred.size(); i++) {
+            Assert.assertTrue("band "+i+" not cancelled", ((Future<?>) executor.deferred.get(i)).isCancelled());
+        }
+    }
+
+    public static void main(String args[]) {
+        for(int i=0; i<args.length; i++) {
+            if(args[i].equals("-width")) {
+                width = MiscUtils.atoi(args[++i], width);
+            } else if(args[i].equals("-height")) {
+                height = MiscUtils.atoi(args[++i], height);
+            } else if(args[i].equals("-loops")) {
+                loops = MiscUtils.atoi(args[++i], loops);
+            }
+        }
+        org.junit.runner.JUnitCore.main(TestPNGParallelWriter00NOUI.class.getName());
+    }
+}
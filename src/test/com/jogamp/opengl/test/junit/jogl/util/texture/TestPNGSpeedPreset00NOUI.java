@@ -0,0 +1,182 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+
+package com.jogamp.opengl.test.junit.jogl.util.texture;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import jogamp.opengl.util.pngj.FilterType;
+import jogamp.opengl.util.pngj.ImageInfo;
+import jogamp.opengl.util.pngj.PngReader;
+import jogamp.opengl.util.pngj.PngWriter;
+import jogamp.opengl.util.pngj.SpeedPreset;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jogamp.opengl.test.junit.util.MiscUtils;
+
+/**
+ * Validates the {@link SpeedPreset}s and the sampled filter estimate ({@link FilterType#FILTER_SAMPLED})
+ * by decoding the written images, and reports size and {@link PngWriter#getBytesPerSecond() throughput}
+ * against the former filter strategies.
+ */
+public class TestPNGSpeedPreset00NOUI {
+    static int width = 1024, height = 768;
+    static int loops = 3;
+
+    /** Smooth shaded objects on a flat background, as in typical screenshots */
+    static byte[][] createRows(ImageInfo imi) {
+        final Random rnd = new Random(4711);
+        final byte[][] rows = new byte[imi.rows][imi.cols * imi.channels];
+        for(int y=0; y<imi.rows; y++) {
+            final byte[] row = rows[y];
+            for(int x=0, i=0; x<imi.cols; x++) {
+                final int dx = x - imi.cols / 2, dy = y - imi.rows / 2;
+                final boolean inside = dx * dx + dy * dy < ( imi.rows * imi.rows ) / 5;
+                for(int c=0; c<imi.channels; c++) {
+                    final int v;
+                    if( 3 == c ) {
+                        v = inside ? 255 : 128;
+                    } else if( inside ) {
+                        v = ( ( x * (c+1) + y ) >> 2 ) + rnd.nextInt(3);
+                    } else {
+                        v = 32 * c;
+                    }
+                    row[i++] = (byte) v;
+                }
+            }
+        }
+        return rows;
+    }
+
+    static class Result {
+        byte[] png;
+        long nanos;
+        double bytesPerSecond;
+    }
+
+    static Result write(ImageInfo imi, byte[][] rows, SpeedPreset preset, FilterType filterType) {
+        final Result r = new Result();
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final long t0 = System.nanoTime();
+        final PngWriter png = new PngWriter(out, imi);
+        if( null != preset ) {
+            png.setSpeedPreset(preset);
+        } else {
+            png.setFilterType(filterType);
+        }
+        for(int y=0; y<imi.rows; y++) {
+            png.writeRowByte(rows[y], y);
+        }
+        png.end();
+        r.nanos = System.nanoTime() - t0;
+        r.bytesPerSecond = png.getBytesPerSecond();
+        r.png = out.toByteArray();
+        return r;
+    }
+
+    static void validate(String name, ImageInfo imi, byte[][] rows, byte[] png) {
+        final PngReader pngr = new PngReader(new ByteArrayInputStream(png), null);
+        final int stride = imi.cols * imi.channels;
+        final ByteBuffer bb = ByteBuffer.allocate(stride * imi.rows);
+        pngr.readRowsToBuffer(bb, false);
+        for(int y=0; y<imi.rows; y++) {
+            for(int i=0; i<stride; i++) {
+                if( rows[y][i] != bb.get(y * stride + i) ) {
+                    Assert.fail(name+": pixel mismatch at row "+y+", byte "+i);
+                }
+            }
+        }
+    }
+
+    static void run(String name, ImageInfo imi, byte[][] rows, SpeedPreset preset, FilterType filterType) {
+        final String label = null != preset ? preset.name() : filterType.name();
+        Result best = null;
+        for(int i=0; i<loops; i++) {
+            final Result r = write(imi, rows, preset, filterType);
+            if( null == best || r.nanos < best.nanos ) {
+                best = r;
+            }
+        }
+        validate(name+" "+label, imi, rows, best.png);
+        final double raw = (double) imi.bytesPerRow * imi.rows;
+        System.err.printf("%-6s %-22s %9d bytes (%5.1f%%), %7.2f ms, %7.2f MB/s%n",
+                name, label, best.png.length, 100.0 * best.png.length / raw, best.nanos / 1e6, best.bytesPerSecond / 1e6);
+    }
+
+    static void test(String name, ImageInfo imi) {
+        final byte[][] rows = createRows(imi);
+        // warm up
+        write(imi, rows, SpeedPreset.BALANCED, null);
+        write(imi, rows, null, FilterType.FILTER_AGGRESSIVE);
+
+        run(name, imi, rows, null, FilterType.FILTER_DEFAULT);
+        run(name, imi, rows, null, FilterType.FILTER_AGGRESSIVE);
+        run(name, imi, rows, null, FilterType.FILTER_VERYAGGRESSIVE);
+        run(name, imi, rows, null, FilterType.FILTER_SAMPLED);
+        final SpeedPreset[] presets = SpeedPreset.values();
+        for(int i=0; i<presets.length; i++) {
+            run(name, imi, rows, presets[i], null);
+        }
+    }
+
+    @Test
+    public void testRGB() {
+        test("RGB8", new ImageInfo(width, height, 8, false));
+    }
+
+    @Test
+    public void testRGBA() {
+        test("RGBA8", new ImageInfo(width, height, 8, true));
+    }
+
+    @Test
+    public void testSmall() {
+        // fewer pixels than sampled
+        final ImageInfo imi = new ImageInfo(3, 2, 8, true);
+        final byte[][] rows = createRows(imi);
+        validate("small", imi, rows, write(imi, rows, null, FilterType.FILTER_SAMPLED).png);
+    }
+
+    public static void main(String args[]) {
+        for(int i=0; i<args.length; i++) {
+            if(args[i].equals("-width")) {
+                width = MiscUtils.atoi(args[++i], width);
+            } else if(args[i].equals("-height")) {
+                height = MiscUtils.atoi(args[++i], height);
+            } else if(args[i].equals("-loops")) {
+                loops = MiscUtils.atoi(args[++i], loops);
+            }
+        }
+        org.junit.runner.JUnitCore.main(TestPNGSpeedPreset00NOUI.class.getName());
+    }
+}
@@ -0,0 +1,174 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+
+package com.jogamp.opengl.test.junit.jogl.util.texture;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import jogamp.opengl.util.pngj.FilterType;
+import jogamp.opengl.util.pngj.ImageInfo;
+import jogamp.opengl.util.pngj.PngWriter;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jogamp.opengl.test.junit.util.MiscUtils;
+import com.jogamp.opengl.util.texture.spi.PNGImage;
+
+/**
+ * Validates {@link PNGImage#readStrips(java.io.InputStream, int, PNGImage.StripListener)}
+ * against the complete decoding of {@link PNGImage#read(java.io.InputStream)},
+ * reassembling the strips at their GL y offset as <code>Texture.updateSubImage(..)</code> would,
+ * and reports the peak strip memory and the throughput per strip height.
+ */
+public class TestPNGStripDecode00NOUI {
+    static int width = 1024, height = 1024;
+    static int loops = 3;
+
+    static byte[] createPNG(ImageInfo imi) {
+        final Random rnd = new Random(4711);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final PngWriter png = new PngWriter(out, imi);
+        png.setFilterType(FilterType.FILTER_AGGRESSIVE);
+        png.setUseUnPackedMode(true);
+        final int maxVal = ( 1 << imi.bitDepth ) - 1;
+        final int[] row = new int[imi.samplesPerRow];
+        for(int y=0; y<imi.rows; y++) {
+            for(int x=0, i=0; x<imi.cols; x++) {
+                for(int c=0; c<imi.channels; c++) {
+                    row[i++] = Math.min(maxVal, ( ( x + y * (c+1) ) * maxVal ) / ( imi.cols + imi.rows * imi.channels ) + rnd.nextInt(2));
+                }
+            }
+            png.writeRowInt(row, y);
+        }
+        png.end();
+        return out.toByteArray();
+    }
+
+    /** Reassembles the strips into one image and tracks the strip sizes */
+    static class Assembler implements PNGImage.StripListener {
+        ByteBuffer image;
+        int stride, nextY, strips, maxStripBytes;
+        boolean copy = true;
+
+        public void begin(PNGImage header) {
+            Assert.assertNull(header.getData());
+            stride = header.getWidth() * header.getBytesPerPixel();
+            nextY = header.getHeight();
+            if( copy && ( null == image || image.capacity() != stride * nextY ) ) {
+                image = ByteBuffer.allocateDirect(stride * nextY);
+            }
+            strips = 0;
+            maxStripBytes = 0;
+        }
+
+        public void strip(PNGImage header, ByteBuffer strip, int y, int rows) {
+            Assert.assertEquals("strips are emitted top first", nextY - rows, y);
+            Assert.assertEquals(rows * stride, strip.remaining());
+            nextY = y;
+            strips++;
+            maxStripBytes = Math.max(maxStripBytes, strip.capacity());
+            if( copy ) {
+                image.position(y * stride);
+                image.put(strip.duplicate());
+            }
+        }
+    }
+
+    static void testStrips(String name, byte[] png) throws IOException {
+        final PNGImage full = PNGImage.read(new ByteArrayInputStream(png));
+        final Assembler asm = new Assembler();
+        final int[] stripRows = new int[] { 1, 7, 64, full.getHeight(), full.getHeight() + 1 };
+        for(int i=0; i<stripRows.length; i++) {
+            PNGImage.readStrips(new ByteArrayInputStream(png), stripRows[i], asm);
+            Assert.assertEquals(0, asm.nextY);
+            Assert.assertEquals((full.getHeight() + stripRows[i] - 1) / stripRows[i], asm.strips);
+            asm.image.clear();
+            Assert.assertEquals(name+", stripRows "+stripRows[i], full.getData(), asm.image);
+        }
+
+        asm.copy = false;
+        final long tFull = bestOf(png, 0, asm);
+        final int fullBytes = full.getData().capacity();
+        System.err.printf("%-6s %dx%d: full     %7.2f ms, buffer %9d bytes%n",
+                name, full.getWidth(), full.getHeight(), tFull/1e6, fullBytes);
+        for(int i=0; i<stripRows.length-1; i++) {
+            final long t = bestOf(png, stripRows[i], asm);
+            System.err.printf("%-6s %dx%d: strip %3d %7.2f ms, buffer %9d bytes (%5.2f%%)%n",
+                    name, full.getWidth(), full.getHeight(), stripRows[i], t/1e6, asm.maxStripBytes,
+                    100.0 * asm.maxStripBytes / fullBytes);
+        }
+        asm.copy = true;
+    }
+
+    static long bestOf(byte[] png, int stripRows, Assembler asm) throws IOException {
+        long best = Long.MAX_VALUE;
+        for(int i=0; i<loops; i++) {
+            final long t0 = System.nanoTime();
+            if( 0 == stripRows ) {
+                PNGImage.read(new ByteArrayInputStream(png));
+            } else {
+                PNGImage.readStrips(new ByteArrayInputStream(png), stripRows, asm);
+            }
+            best = Math.min(best, System.nanoTime() - t0);
+        }
+        return best;
+    }
+
+    @Test
+    public void testRGBA8() throws IOException {
+        testStrips("RGBA8", createPNG(new ImageInfo(width, height, 8, true)));
+    }
+
+    @Test
+    public void testRGB16() throws IOException {
+        testStrips("RGB16", createPNG(new ImageInfo(width, height, 16, false)));
+    }
+
+    @Test
+    public void testLum2() throws IOException {
+        testStrips("Lum2", createPNG(new ImageInfo(width - 3, height - 5, 2, false, true, false)));
+    }
+
+    public static void main(String args[]) {
+        for(int i=0; i<args.length; i++) {
+            if(args[i].equals("-width")) {
+                width = MiscUtils.atoi(args[++i], width);
+            } else if(args[i].equals("-height")) {
+                height = MiscUtils.atoi(args[++i], height);
+            } else if(args[i].equals("-loops")) {
+                loops = MiscUtils.atoi(args[++i], loops);
+            }
+        }
+        org.junit.runner.JUnitCore.main(TestPNGStripDecode00NOUI.class.getName());
+    }
+}
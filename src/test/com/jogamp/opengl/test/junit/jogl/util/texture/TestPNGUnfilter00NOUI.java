@@ -0,0 +1,202 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+
+
+package com.jogamp.opengl.test.junit.jogl.util.texture;
+
+import java.util.Random;
+
+import jogamp.opengl.util.pngj.PngUnfilter;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jogamp.opengl.test.junit.util.MiscUtils;
+
+/**
+ * Validates the {@link PngUnfilter} kernels against the former byte wise unfiltering of PngReader
+ * and compares their throughput per filter type and bytes per pixel,
+ * i.e. 8 bit grey, grey-alpha, RGB, RGBA and 16 bit RGB, RGBA.
+ */
+public class TestPNGUnfilter00NOUI {
+    static int width = 2048, rows = 64;
+    static int loops = 20;
+
+    static final String[] filterNames = { "NONE", "SUB", "UP", "AVERAGE", "PAETH" };
+    static final int[] bpps = { 1, 2, 3, 4, 6, 8 };
+
+    static int paethReference(int a, int b, int c) {
+        final int p = a + b - c;
+        final int pa = Math.abs(p - a);
+        final int pb = Math.abs(p - b);
+        final int pc = Math.abs(p - c);
+        if (pa <= pb && pa <= pc) {
+            return a;
+        } else if (pb <= pc) {
+            return b;
+        }
+        return c;
+    }
+
+    /** The former PngReader implementation, byte wise w/ a branch for the left neighbour. */
+    static void unfilterReference(int ftn, byte[] filt, byte[] prev, byte[] out, int nbytes, int bpp) {
+        int i, j;
+        switch(ftn) {
+            case 0:
+                for (i = 1; i <= nbytes; i++) {
+                    out[i] = filt[i];
+                }
+                break;
+            case 1:
+                for (i = 1; i <= bpp; i++) {
+                    out[i] = filt[i];
+                }
+                for (j = 1, i = bpp + 1; i <= nbytes; i++, j++) {
+                    out[i] = (byte) ( filt[i] + out[j] );
+                }
+                break;
+            case 2:
+                for (i = 1; i <= nbytes; i++) {
+                    out[i] = (byte) ( filt[i] + prev[i] );
+                }
+                break;
+            case 3:
+                for (j = 1 - bpp, i = 1; i <= nbytes; i++, j++) {
+                    final int x = j > 0 ? ( out[j] & 0xff ) : 0;
+                    out[i] = (byte) ( filt[i] + ( x + ( prev[i] & 0xff ) ) / 2 );
+                }
+                break;
+            default:
+                for (j = 1 - bpp, i = 1; i <= nbytes; i++, j++) {
+                    final int x = j > 0 ? ( out[j] & 0xff ) : 0;
+                    final int y = j > 0 ? ( prev[j] & 0xff ) : 0;
+                    out[i] = (byte) ( filt[i] + paethReference(x, prev[i] & 0xff, y) );
+                }
+                break;
+        }
+    }
+
+    static byte[][] createFiltered(int nbytes) {
+        final Random rnd = new Random(4711);
+        final byte[][] filt = new byte[rows][nbytes + 1];
+        for(int y=0; y<rows; y++) {
+            for(int i=1; i<=nbytes; i++) {
+                // mostly small residuals, as in real images, some noise
+                filt[y][i] = (byte) ( 0 == rnd.nextInt(8) ? rnd.nextInt(256) : rnd.nextInt(9) - 4 );
+            }
+        }
+        return filt;
+    }
+
+    /** Unfilters all rows, returns the duration in ns. */
+    static long unfilterAll(boolean reference, int ftn, byte[][] filt, byte[][] out, int nbytes, int bpp) {
+        final byte[] zero = new byte[nbytes + 1];
+        final long t0 = System.nanoTime();
+        for(int y=0; y<rows; y++) {
+            final byte[] prev = 0 < y ? out[y-1] : zero;
+            if( reference ) {
+                unfilterReference(ftn, filt[y], prev, out[y], nbytes, bpp);
+            } else {
+                PngUnfilter.unfilterRow(ftn, filt[y], prev, out[y], nbytes, bpp);
+            }
+        }
+        return System.nanoTime() - t0;
+    }
+
+    @Test
+    public void testKernels() {
+        // warm up all code paths, so the first measured combinations don't run interpreted
+        for(int f=0; f<filterNames.length; f++) {
+            for(int b=0; b<bpps.length; b++) {
+                final int nbytes = width * bpps[b];
+                final byte[][] filt = createFiltered(nbytes);
+                final byte[][] out = new byte[rows][nbytes + 1];
+                for(int i=0; i<loops; i++) {
+                    unfilterAll(true, f, filt, out, nbytes, bpps[b]);
+                    unfilterAll(false, f, filt, out, nbytes, bpps[b]);
+                }
+            }
+        }
+        for(int f=0; f<filterNames.length; f++) {
+            for(int b=0; b<bpps.length; b++) {
+                final int bpp = bpps[b];
+                final int nbytes = width * bpp;
+                final byte[][] filt = createFiltered(nbytes);
+                final byte[][] expected = new byte[rows][nbytes + 1];
+                final byte[][] result = new byte[rows][nbytes + 1];
+                unfilterAll(true, f, filt, expected, nbytes, bpp);
+                unfilterAll(false, f, filt, result, nbytes, bpp);
+                for(int y=0; y<rows; y++) {
+                    Assert.assertArrayEquals(filterNames[f]+", bpp "+bpp+", row "+y, expected[y], result[y]);
+                }
+
+                long tRef = Long.MAX_VALUE, tKernel = Long.MAX_VALUE;
+                for(int i=0; i<loops; i++) {
+                    tRef = Math.min(tRef, unfilterAll(true, f, filt, expected, nbytes, bpp));
+                    tKernel = Math.min(tKernel, unfilterAll(false, f, filt, result, nbytes, bpp));
+                }
+                final double mb = (double) nbytes * rows / 1e6;
+                System.err.printf("%-7s bpp %d: reference %7.1f MB/s, kernel %7.1f MB/s, speedup %5.2f%n",
+                        filterNames[f], bpp, mb/(tRef/1e9), mb/(tKernel/1e9), (double)tRef/(double)tKernel);
+            }
+        }
+    }
+
+    @Test
+    public void testShortRows() {
+        // rows shorter than one pixel's worth of left neighbours
+        for(int f=0; f<filterNames.length; f++) {
+            for(int b=0; b<bpps.length; b++) {
+                final int bpp = bpps[b];
+                for(int nbytes=bpp; nbytes<=3*bpp; nbytes+=bpp) {
+                    final byte[][] filt = createFiltered(nbytes);
+                    final byte[][] expected = new byte[rows][nbytes + 1];
+                    final byte[][] result = new byte[rows][nbytes + 1];
+                    unfilterAll(true, f, filt, expected, nbytes, bpp);
+                    unfilterAll(false, f, filt, result, nbytes, bpp);
+                    for(int y=0; y<rows; y++) {
+                        Assert.assertArrayEquals(filterNames[f]+", bpp "+bpp+", nbytes "+nbytes, expected[y], result[y]);
+                    }
+                }
+            }
+        }
+    }
+
+    public static void main(String args[]) {
+        for(int i=0; i<args.length; i++) {
+            if(args[i].equals("-width")) {
+                width = MiscUtils.atoi(args[++i], width);
+            } else if(args[i].equals("-rows")) {
+                rows = MiscUtils.atoi(args[++i], rows);
+            } else if(args[i].equals("-loops")) {
+                loops = MiscUtils.atoi(args[++i], loops);
+            }
+        }
+        org.junit.runner.JUnitCore.main(TestPNGUnfilter00NOUI.class.getName());
+    }
+}
@@ -0,0 +1,208 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+
+package com.jogamp.opengl.test.junit.jogl.util.texture;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jogamp.opengl.test.junit.util.MiscUtils;
+import com.jogamp.opengl.util.texture.spi.PNGImage;
+import com.jogamp.opengl.util.texture.spi.TGAImage;
+
+/**
+ * Round trip of run-length encoded vs uncompressed {@link TGAImage}s,
+ * over synthetic frames and a real (test card) frame, reporting file size and throughput.
+ */
+public class TestTGARunLength00NOUI {
+    static int width = 1280, height = 720;
+    static int loops = 3;
+
+    /** BGR[A] frame: flat background, a few filled boxes and a gradient band */
+    static ByteBuffer createUIFrame(int w, int h, int bpp) {
+        final ByteBuffer bb = ByteBuffer.allocate(w * h * bpp);
+        for(int y=0; y<h; y++) {
+            for(int x=0; x<w; x++) {
+                int b = 40, g = 40, r = 48;
+                if( ( x / 160 + y / 120 ) % 3 == 0 ) {
+                    b = 200; g = 120; r = 30;
+                } else if( y > h / 2 && y < h / 2 + 40 ) {
+                    b = x & 0xFF; g = ( x >> 1 ) & 0xFF; r = 255 - ( x & 0xFF );
+                }
+                bb.put((byte)b).put((byte)g).put((byte)r);
+                if( 4 == bpp ) {
+                    bb.put((byte)255);
+                }
+            }
+        }
+        bb.flip();
+        return bb;
+    }
+
+    static ByteBuffer createNoiseFrame(int w, int h, int bpp) {
+        final Random rnd = new Random(4711);
+        final byte[] b = new byte[w * h * bpp];
+        rnd.nextBytes(b);
+        return ByteBuffer.wrap(b);
+    }
+
+    /** The test card, scaled up w/ nearest neighbour to about the frame size, converted to BGR */
+    static ByteBuffer createTestCardFrame(int[] size) throws IOException {
+        final InputStream in = TestTGARunLength00NOUI.class.getResourceAsStream("test-ntscN01-160x90.png");
+        Assert.assertNotNull(in);
+        final PNGImage png = PNGImage.read(in);
+        Assert.assertEquals(3, png.getBytesPerPixel());
+        final int pw = png.getWidth(), ph = png.getHeight();
+        final int scale = Math.max(1, width / pw);
+        final int w = pw * scale, h = ph * scale;
+        final ByteBuffer src = png.getData();
+        final ByteBuffer bb = ByteBuffer.allocate(w * h * 3);
+        for(int y=0; y<h; y++) {
+            for(int x=0; x<w; x++) {
+                final int i = ( ( y / scale ) * pw + x / scale ) * 3;
+                bb.put(src.get(i+2)).put(src.get(i+1)).put(src.get(i));
+            }
+        }
+        bb.flip();
+        size[0] = w;
+        size[1] = h;
+        return bb;
+    }
+
+    /** The decoder w/o GLProfile converts BGR[A] to RGB[A] */
+    static void assertRGB(String name, ByteBuffer bgr, int bpp, ByteBuffer rgb) {
+        Assert.assertEquals(name, bgr.remaining(), rgb.remaining());
+        for(int i=0; i<bgr.remaining(); i+=bpp) {
+            if( bgr.get(i) != rgb.get(i+2) || bgr.get(i+1) != rgb.get(i+1) || bgr.get(i+2) != rgb.get(i) ||
+                ( 4 == bpp && bgr.get(i+3) != rgb.get(i+3) ) ) {
+                Assert.fail(name+": pixel mismatch at byte "+i);
+            }
+        }
+    }
+
+    static void roundTrip(String name, int w, int h, int bpp, ByteBuffer bgr) throws IOException {
+        final File file = File.createTempFile("tga", ".tga");
+        try {
+            long[] size = new long[2];
+            long[] tWrite = new long[] { Long.MAX_VALUE, Long.MAX_VALUE };
+            long[] tRead = new long[] { Long.MAX_VALUE, Long.MAX_VALUE };
+            for(int rle=0; rle<2; rle++) {
+                for(int l=0; l<loops; l++) {
+                    final TGAImage image = TGAImage.createFromData(w, h, 4 == bpp, false, 1 == rle, bgr);
+                    final long t0 = System.nanoTime();
+                    image.write(file);
+                    final long t1 = System.nanoTime();
+                    final TGAImage read = TGAImage.read(null, new FileInputStream(file));
+                    final long t2 = System.nanoTime();
+                    tWrite[rle] = Math.min(tWrite[rle], t1 - t0);
+                    tRead[rle] = Math.min(tRead[rle], t2 - t1);
+                    size[rle] = file.length();
+                    Assert.assertEquals(w, read.getWidth());
+                    Assert.assertEquals(h, read.getHeight());
+                    Assert.assertEquals(bpp, read.getBytesPerPixel());
+                    assertRGB(name+(1 == rle ? " RLE" : ""), bgr, bpp, read.getData());
+                }
+            }
+            final double mb = (double) w * h * bpp / 1e6;
+            System.err.printf("%-8s %dx%dx%d: uncompressed %9d bytes, write %7.1f MB/s, read %7.1f MB/s%n",
+                    name, w, h, bpp, size[0], mb / (tWrite[0] / 1e9), mb / (tRead[0] / 1e9));
+            System.err.printf("%-8s %dx%dx%d: RLE          %9d bytes (%5.1f%%), write %7.1f MB/s, read %7.1f MB/s%n",
+                    name, w, h, bpp, size[1], 100.0 * size[1] / size[0], mb / (tWrite[1] / 1e9), mb / (tRead[1] / 1e9));
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testUIFrame() throws IOException {
+        roundTrip("ui", width, height, 3, createUIFrame(width, height, 3));
+        roundTrip("ui", width, height, 4, createUIFrame(width, height, 4));
+    }
+
+    @Test
+    public void testNoiseFrame() throws IOException {
+        // worst case, RLE adds one byte per 128 pixels
+        roundTrip("noise", width, height, 4, createNoiseFrame(width, height, 4));
+    }
+
+    @Test
+    public void testTestCardFrame() throws IOException {
+        final int[] size = new int[2];
+        final ByteBuffer bgr = createTestCardFrame(size);
+        roundTrip("testcard", size[0], size[1], 3, bgr);
+    }
+
+    @Test
+    public void testPacketsAcrossScanlines() throws IOException {
+        // 3x2, 24 bit, RLE: one run packet of 4 pixels crossing the first scanline, one raw packet of 2 pixels
+        final byte[] tga = new byte[] {
+            0, 0, 10,  0, 0, 0, 0, 0,  0, 0, 0, 0,  3, 0, 2, 0,  24, 0,
+            (byte) 0x83, 1, 2, 3,
+            0x01, 4, 5, 6, 7, 8, 9 };
+        final TGAImage image = TGAImage.read(null, new ByteArrayInputStream(tga));
+        final ByteBuffer bb = image.getData();
+        final byte[] expected = new byte[] { 3, 2, 1, 3, 2, 1, 3, 2, 1, 3, 2, 1, 6, 5, 4, 9, 8, 7 };
+        for(int i=0; i<expected.length; i++) {
+            Assert.assertEquals(expected[i], bb.get(i));
+        }
+    }
+
+    @Test
+    public void testTruncated() {
+        final byte[] tga = new byte[] {
+            0, 0, 10,  0, 0, 0, 0, 0,  0, 0, 0, 0,  3, 0, 2, 0,  24, 0,
+            (byte) 0x83, 1, 2, 3 };
+        try {
+            TGAImage.read(null, new ByteArrayInputStream(tga));
+            Assert.fail("truncated data not detected");
+        } catch (IOException e) {
+            System.err.println("Expected: "+e.getMessage());
+        }
+    }
+
+    public static void main(String args[]) {
+        for(int i=0; i<args.length; i++) {
+            if(args[i].equals("-width")) {
+                width = MiscUtils.atoi(args[++i], width);
+            } else if(args[i].equals("-height")) {
+                height = MiscUtils.atoi(args[++i], height);
+            } else if(args[i].equals("-loops")) {
+                loops = MiscUtils.atoi(args[++i], loops);
+            }
+        }
+        org.junit.runner.JUnitCore.main(TestTGARunLength00NOUI.class.getName());
+    }
+}
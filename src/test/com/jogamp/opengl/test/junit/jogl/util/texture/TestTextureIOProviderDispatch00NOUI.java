@@ -0,0 +1,216 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+
+
+package com.jogamp.opengl.test.junit.jogl.util.texture;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+import javax.media.opengl.GL;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.jogamp.common.util.IOUtil;
+import com.jogamp.opengl.test.junit.util.MiscUtils;
+import com.jogamp.opengl.util.texture.TextureData;
+import com.jogamp.opengl.util.texture.TextureIO;
+import com.jogamp.opengl.util.texture.spi.DDSImage;
+import com.jogamp.opengl.util.texture.spi.PNGImage;
+import com.jogamp.opengl.util.texture.spi.SGIImage;
+
+/**
+ * Micro benchmark of {@link TextureIO}'s texture provider dispatch over a directory of small images
+ * of mixed formats, loaded by file w/ suffix and by stream w/o suffix, i.e. detected by header.
+ * The dispatch cost is the difference to calling the image decoders directly.
+ * <p>
+ * No GLProfile is required, since the internal and pixel format are passed.
+ * </p>
+ */
+public class TestTextureIOProviderDispatch00NOUI {
+    static int imageCount = 1200;
+    static int imageSize = 16;
+    static int loops = 3;
+
+    static final String[] suffixes = { TextureIO.PNG, TextureIO.DDS, TextureIO.SGI_RGB };
+    static File dir;
+    static File[] files;
+
+    @BeforeClass
+    public static void createFiles() throws IOException {
+        dir = File.createTempFile("TestTextureIOProviderDispatch00NOUI", "");
+        Assert.assertTrue(dir.delete());
+        Assert.assertTrue(dir.mkdir());
+        final int size = imageSize * imageSize * 4;
+        final ByteBuffer rgba = ByteBuffer.allocate(size);
+        for(int i=0; i<size; i++) {
+            rgba.put(i, (byte) i);
+        }
+        files = new File[imageCount];
+        for(int i=0; i<imageCount; i++) {
+            final String suffix = suffixes[i % suffixes.length];
+            final File f = new File(dir, "image"+i+"."+suffix);
+            if( TextureIO.PNG.equals(suffix) ) {
+                PNGImage.createFromData(imageSize, imageSize, -1f, -1f, 4, false, rgba).write(f, true);
+            } else if( TextureIO.DDS.equals(suffix) ) {
+                final DDSImage image = DDSImage.createFromData(DDSImage.D3DFMT_A8R8G8B8, imageSize, imageSize, new ByteBuffer[] { rgba.duplicate() });
+                image.write(f);
+                image.close();
+            } else {
+                SGIImage.createFromData(imageSize, imageSize, true, rgba.array()).write(f, false);
+            }
+            files[i] = f;
+        }
+    }
+
+    @AfterClass
+    public static void deleteFiles() {
+        for(int i=0; i<files.length; i++) {
+            files[i].delete();
+        }
+        dir.delete();
+    }
+
+    static InputStream openStream(File f) throws IOException {
+        return new BufferedInputStream(new FileInputStream(f));
+    }
+
+    /** Baseline: the decoder is known upfront. */
+    static int readDirect(File f) throws IOException {
+        final String suffix = IOUtil.getFileSuffix(f);
+        if( TextureIO.DDS.equals(suffix) ) {
+            final DDSImage image = DDSImage.read(f);
+            final int w = image.getWidth();
+            image.close();
+            return w;
+        }
+        final InputStream in = openStream(f);
+        try {
+            if( TextureIO.PNG.equals(suffix) ) {
+                return PNGImage.read(in).getWidth();
+            } else {
+                return SGIImage.read(in).getWidth();
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    static int readFile(File f) throws IOException {
+        final TextureData data = TextureIO.newTextureData(null, f, GL.GL_RGBA8, GL.GL_RGBA, false, null);
+        data.flush();
+        return data.getWidth();
+    }
+
+    static int readStream(File f) throws IOException {
+        final InputStream in = openStream(f);
+        try {
+            final TextureData data = TextureIO.newTextureData(null, in, GL.GL_RGBA8, GL.GL_RGBA, false, null);
+            // detected by header, i.e. not read by the ImageIO fall-back provider
+            Assert.assertEquals(f.getName(), TextureData.class, data.getClass());
+            data.flush();
+            return data.getWidth();
+        } finally {
+            in.close();
+        }
+    }
+
+    static final int DIRECT = 0, FILE = 1, STREAM = 2;
+
+    static long readAll(int mode) throws IOException {
+        final long t0 = System.nanoTime();
+        for(int i=0; i<files.length; i++) {
+            final int w;
+            switch(mode) {
+                case DIRECT: w = readDirect(files[i]); break;
+                case FILE:   w = readFile(files[i]); break;
+                default:     w = readStream(files[i]); break;
+            }
+            Assert.assertEquals(imageSize, w);
+        }
+        return System.nanoTime() - t0;
+    }
+
+    @Test
+    public void testDispatch() throws IOException {
+        long tDirect = Long.MAX_VALUE, tFile = Long.MAX_VALUE, tStream = Long.MAX_VALUE;
+        for(int i=0; i<loops; i++) {
+            tDirect = Math.min(tDirect, readAll(DIRECT));
+            tFile = Math.min(tFile, readAll(FILE));
+            tStream = Math.min(tStream, readAll(STREAM));
+        }
+        final double n = files.length;
+        System.err.printf("%d images %dx%d: direct %6.2f us/image, file w/ suffix %6.2f us/image (dispatch %6.2f us), "+
+                          "stream w/o suffix %6.2f us/image (dispatch %6.2f us)%n",
+                files.length, imageSize, imageSize, tDirect/n/1e3, tFile/n/1e3, (tFile-tDirect)/n/1e3,
+                tStream/n/1e3, (tStream-tDirect)/n/1e3);
+    }
+
+    @Test
+    public void testStreamDetection() throws IOException {
+        final byte[] garbage = new byte[64];
+        try {
+            TextureIO.newTextureData(null, new ByteArrayInputStream(garbage), GL.GL_RGBA8, GL.GL_RGBA, false, null);
+            Assert.fail("garbage accepted");
+        } catch (IOException e) {
+            System.err.println("Expected: "+e);
+        }
+        // mismatching suffix, detected by header
+        final byte[] png;
+        final InputStream in = openStream(files[0]);
+        try {
+            png = IOUtil.copyStream2ByteArray(in);
+        } finally {
+            in.close();
+        }
+        final TextureData data = TextureIO.newTextureData(null, new ByteArrayInputStream(png), GL.GL_RGBA8, GL.GL_RGBA, false, TextureIO.TGA);
+        Assert.assertEquals(TextureData.class, data.getClass());
+        Assert.assertEquals(imageSize, data.getWidth());
+    }
+
+    public static void main(String args[]) {
+        for(int i=0; i<args.length; i++) {
+            if(args[i].equals("-count")) {
+                imageCount = MiscUtils.atoi(args[++i], imageCount);
+            } else if(args[i].equals("-size")) {
+                imageSize = MiscUtils.atoi(args[++i], imageSize);
+            } else if(args[i].equals("-loops")) {
+                loops = MiscUtils.atoi(args[++i], loops);
+            }
+        }
+        org.junit.runner.JUnitCore.main(TestTextureIOProviderDispatch00NOUI.class.getName());
+    }
+}